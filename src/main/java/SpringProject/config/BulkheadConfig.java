@@ -0,0 +1,78 @@
+package SpringProject.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a Bulkhead per endpoint group listed in bulkhead.groups. Each group is configured with
+ * bulkhead.&lt;group&gt;.paths (comma-separated path patterns), maxConcurrent, maxWaiting and maxWaitMillis.
+ * Requests outside every group are not limited.
+ */
+@Slf4j
+@Configuration
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+    private final List<String[]> bulkheadPaths = new ArrayList<>();
+
+    public BulkheadConfig(Environment env) {
+        for (String group : env.getProperty("bulkhead.groups", String[].class, new String[0])) {
+            String prefix = "bulkhead." + group.trim() + ".";
+            String[] paths = env.getProperty(prefix + "paths", String[].class, new String[0]);
+            if (paths.length == 0) {
+                log.warn("Bulkhead '{}' has no {}paths - ignored", group.trim(), prefix);
+                continue;
+            }
+            Bulkhead bulkhead = new Bulkhead(group.trim(),
+                    env.getProperty(prefix + "maxConcurrent", Integer.class, 10),
+                    env.getProperty(prefix + "maxWaiting", Integer.class, 0),
+                    env.getProperty(prefix + "maxWaitMillis", Long.class, 0L));
+            bulkheads.add(bulkhead);
+            bulkheadPaths.add(paths);
+            log.info("Bulkhead '{}': {} concurrent, {} waiting for up to {}ms on {}", bulkhead.getName(),
+                    bulkhead.getMaxConcurrent(), bulkhead.getMaxWaiting(), bulkhead.getMaxWaitMillis(),
+                    String.join(",", paths));
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        for (int i = 0; i < bulkheads.size(); i++) {
+            registry.addInterceptor(new BulkheadInterceptor(bulkheads.get(i))).addPathPatterns(bulkheadPaths.get(i));
+        }
+    }
+
+    /**
+     * bulkhead.inflight, bulkhead.waiting, bulkhead.accepted and bulkhead.rejected, tagged by bulkhead name
+     */
+    @Bean
+    public MeterBinder bulkheadMetrics() {
+        return registry -> {
+            for (Bulkhead bulkhead : bulkheads) {
+                Gauge.builder("bulkhead.inflight", bulkhead, Bulkhead::getInFlight)
+                        .tag("bulkhead", bulkhead.getName())
+                        .register(registry);
+                Gauge.builder("bulkhead.waiting", bulkhead, Bulkhead::getWaiting)
+                        .tag("bulkhead", bulkhead.getName())
+                        .register(registry);
+                FunctionCounter.builder("bulkhead.accepted", bulkhead, Bulkhead::getAcceptedCount)
+                        .tag("bulkhead", bulkhead.getName())
+                        .register(registry);
+                FunctionCounter.builder("bulkhead.rejected", bulkhead, Bulkhead::getRejectedCount)
+                        .description("Requests turned away with 503 because the bulkhead was full")
+                        .tag("bulkhead", bulkhead.getName())
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package SpringProject.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Runs the handlers of one endpoint group inside its Bulkhead; rejected requests get a 503.
+ * The slot is held until the response is complete, including async/streaming responses,
+ * whose second dispatch finds the slot already taken and releases it at the end.
+ */
+@Slf4j
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private final Bulkhead bulkhead;
+    private final String slotAttribute;
+
+    public BulkheadInterceptor(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+        this.slotAttribute = BulkheadInterceptor.class.getName() + "." + bulkhead.getName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getAttribute(slotAttribute) != null) {
+            return true;
+        }
+        if (!bulkhead.tryEnter()) {
+            log.warn("Bulkhead '{}' full - rejected {} {}", bulkhead.getName(), request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getWriter().write("Server busy, please retry");
+            return false;
+        }
+        request.setAttribute(slotAttribute, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(slotAttribute) != null) {
+            request.removeAttribute(slotAttribute);
+            bulkhead.release();
+        }
+    }
+}
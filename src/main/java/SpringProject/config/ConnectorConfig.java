@@ -1,4 +1,5 @@
 package SpringProject.config;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
@@ -6,33 +7,210 @@ import SpringProject.persistences.*;
 import SpringProject.services.*;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Configuration
 public class ConnectorConfig {
 
     private Environment env;
+    private final List<CircuitBreaker> circuitBreakers = new ArrayList<>();
+    private CatalogSnapshot catalogSnapshot;
+    private boolean catalogSnapshotOpened;
 
     public ConnectorConfig(Environment env) {
         this.env = env;
     }
 
+    /**
+     * Pooled connector by default; set connector.pool.enabled=false to open a fresh connection per call.
+     * When connector.replicas.paths lists replica properties files, reads are routed to them.
+     * Wrapped so services can group DAO calls into a single UnitOfWork.
+     */
     @Bean
-    public Connector connector() throws IOException {
+    public TransactionalConnector connector() throws IOException {
         String path = env.getProperty("connector.properties.path");
-        return new MySqlConnector(path);
+        Connector primary = createConnector(path);
+
+        String[] replicaPaths = env.getProperty("connector.replicas.paths", String[].class, new String[0]);
+        if (replicaPaths.length == 0) {
+            return new TransactionalConnector(primary);
+        }
+
+        List<Connector> replicas = new ArrayList<>();
+        for (String replicaPath : replicaPaths) {
+            replicas.add(createConnector(replicaPath.trim()));
+        }
+        RoutingConnector.Strategy strategy = RoutingConnector.Strategy.valueOf(
+                env.getProperty("connector.routing.strategy", "ROUND_ROBIN").trim().toUpperCase().replace('-', '_'));
+        long readYourWritesMillis = env.getProperty("connector.routing.readYourWritesMillis", Long.class, 2000L);
+        int maxTrackedUsers = env.getProperty("connector.routing.readYourWritesMaxUsers", Integer.class,
+                RoutingConnector.DEFAULT_MAX_TRACKED_USERS);
+
+        return new TransactionalConnector(new RoutingConnector(primary, replicas, strategy, readYourWritesMillis, maxTrackedUsers));
+    }
+
+    /**
+     * connector.embedded=true (set by the "embedded" profile) boots an in-memory database from the SQL scripts
+     */
+    private Connector createConnector(String path) {
+        MySqlConnector factory = env.getProperty("connector.embedded", Boolean.class, false)
+                ? new EmbeddedConnector(path)
+                : new MySqlConnector(path);
+        if (factory.getCircuitBreaker() != null) {
+            circuitBreakers.add(factory.getCircuitBreaker());
+        }
+        if (env.getProperty("connector.pool.enabled", Boolean.class, true)) {
+            return new PooledConnector(factory);
+        }
+        return factory;
+    }
+
+    /**
+     * Time budget per DAO method: query.budget.defaultMillis for all methods, and
+     * query.budget.overrides as Interface.method:millis pairs, e.g. SongDao.getSongsByArtist:2000
+     */
+    @Bean
+    public static QueryBudgets queryBudgets(Environment env) {
+        Map<String, Long> overrides = new HashMap<>();
+        for (String override : env.getProperty("query.budget.overrides", String[].class, new String[0])) {
+            String[] parts = override.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("query.budget.overrides: expected Interface.method:millis but got " + override);
+            }
+            overrides.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+        }
+        return new QueryBudgets(env.getProperty("query.budget.defaultMillis", Long.class, 5000L), overrides);
+    }
+
+    @Bean
+    public static QueryBudgetPostProcessor queryBudgetPostProcessor(QueryBudgets queryBudgets) {
+        return new QueryBudgetPostProcessor(queryBudgets);
+    }
+
+    /**
+     * Circuit breaker state and transitions for every database the connector talks to,
+     * and DAO calls that ran out of their query budget
+     */
+    @Bean
+    public ConnectorMetrics connectorMetrics(TransactionalConnector connector, QueryBudgets queryBudgets) {
+        return new ConnectorMetrics(circuitBreakers, queryBudgets);
+    }
+
+    /**
+     * catalog.snapshot.path names a snapshot file written by CatalogSnapshotWriter. When it exists, songs,
+     * artists, albums and genres are read from it right after startup instead of from the database, and each
+     * DAO then fetches the rows added since the snapshot in the background, at once and again every
+     * catalog.snapshot.catchUpSeconds (0 to catch up only once).
+     * @return the mapped snapshot, or null if none is configured or it can't be read
+     */
+    private synchronized CatalogSnapshot catalogSnapshot() {
+        if (!catalogSnapshotOpened) {
+            catalogSnapshotOpened = true;
+            String path = env.getProperty("catalog.snapshot.path", "");
+            if (!path.isBlank() && Files.exists(Path.of(path))) {
+                try {
+                    catalogSnapshot = CatalogSnapshot.open(Path.of(path));
+                    log.info("Catalog snapshot {} mapped: {} songs, {} artists, {} albums, {} genres", path,
+                            catalogSnapshot.songCount(), catalogSnapshot.artistCount(),
+                            catalogSnapshot.albumCount(), catalogSnapshot.genreCount());
+                } catch (IOException e) {
+                    log.error("Catalog snapshot {} could not be read - loading the catalog from the database. \nException: {}",
+                            path, e.getMessage());
+                }
+            }
+        }
+        return catalogSnapshot;
+    }
+
+    private interface CatchUp {
+        void run() throws SQLException;
     }
+
+    private void catchUpInBackground(String name, CatchUp catchUp) {
+        long seconds = env.getProperty("catalog.snapshot.catchUpSeconds", Long.class, 60L);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable run = () -> {
+            try {
+                catchUp.run();
+            } catch (SQLException | RuntimeException e) {
+                log.warn("{} failed - reads stay as of the last catch-up. \nException: {}", name, e.getMessage());
+            }
+        };
+        if (seconds > 0) {
+            scheduler.scheduleWithFixedDelay(run, 0, seconds, TimeUnit.SECONDS);
+        } else {
+            scheduler.execute(run);
+            scheduler.shutdown();
+        }
+    }
+
     @Bean
-    public ArtistDao artistDao(Connector connector) {
-        return new ArtistDaoImpl(connector);
+    public ArtistDao artistDao(Connector connector, AlbumDao albumDao) {
+        ArtistDao artistDao = new ArtistDaoImpl(connector);
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot == null) {
+            return artistDao;
+        }
+        SnapshotArtistDao snapshotDao = new SnapshotArtistDao(artistDao, albumDao, snapshot);
+        catchUpInBackground("artist-catch-up", snapshotDao::catchUp);
+        return snapshotDao;
     }
 
     @Bean
     public AlbumDao albumDao(Connector connector) {
-        return new AlbumDaoImpl(connector);
+        AlbumDao albumDao = new AlbumDaoImpl(connector);
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot == null) {
+            return albumDao;
+        }
+        SnapshotAlbumDao snapshotDao = new SnapshotAlbumDao(albumDao, snapshot);
+        catchUpInBackground("album-catch-up", snapshotDao::catchUp);
+        return snapshotDao;
+    }
+
+    @Bean
+    public GenreDao genreDao(Connector connector) {
+        GenreDao genreDao = new GenreImpl(connector);
+        CatalogSnapshot snapshot = catalogSnapshot();
+        if (snapshot == null) {
+            return genreDao;
+        }
+        SnapshotGenreDao snapshotDao = new SnapshotGenreDao(genreDao, snapshot);
+        catchUpInBackground("genre-catch-up", snapshotDao::catchUp);
+        return snapshotDao;
     }
 
+    /**
+     * With catalog.columnar.enabled (default true) id lookups, listing and attribute filters are served
+     * from an in-memory columnar copy of the songs table, loaded in the background - from the catalog
+     * snapshot when there is one - and caught up with new songs every catalog.columnar.catchUpSeconds
+     */
     @Bean
     public SongDao songDao(Connector connector) {
-        return new SongDaoImpl(connector);
+        SongDao songDao = new SongDaoImpl(connector);
+        if (!env.getProperty("catalog.columnar.enabled", Boolean.class, true)) {
+            return songDao;
+        }
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.loadInBackground(catalogSnapshot());
+        long catchUpSeconds = env.getProperty("catalog.columnar.catchUpSeconds", Long.class, 60L);
+        if (catchUpSeconds > 0) {
+            columnar.catchUpEvery(catchUpSeconds);
+        }
+        return columnar;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package SpringProject.config;
+
+import SpringProject.persistences.CircuitBreaker;
+import SpringProject.persistences.QueryBudgets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+
+/**
+ * Publishes the connection circuit breakers to actuator (/actuator/metrics):
+ * db.circuit.state (0 = closed, 1 = open, 2 = half-open), db.circuit.transitions by target state,
+ * and db.circuit.rejected for connection requests refused while open.
+ * Also db.query.timeouts, tagged by DAO method, for calls that ran out of their query budget.
+ */
+public class ConnectorMetrics implements MeterBinder {
+
+    private final List<CircuitBreaker> circuitBreakers;
+    private final QueryBudgets queryBudgets;
+
+    public ConnectorMetrics(List<CircuitBreaker> circuitBreakers, QueryBudgets queryBudgets) {
+        this.circuitBreakers = circuitBreakers;
+        this.queryBudgets = queryBudgets;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CircuitBreaker breaker : circuitBreakers) {
+            Gauge.builder("db.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("Connection circuit breaker state: 0 closed, 1 open, 2 half-open")
+                    .tag("database", breaker.getName())
+                    .register(registry);
+
+            FunctionCounter.builder("db.circuit.transitions", breaker, CircuitBreaker::getTimesOpened)
+                    .tag("database", breaker.getName())
+                    .tag("to", "open")
+                    .register(registry);
+            FunctionCounter.builder("db.circuit.transitions", breaker, CircuitBreaker::getTimesHalfOpened)
+                    .tag("database", breaker.getName())
+                    .tag("to", "half_open")
+                    .register(registry);
+            FunctionCounter.builder("db.circuit.transitions", breaker, CircuitBreaker::getTimesClosed)
+                    .tag("database", breaker.getName())
+                    .tag("to", "closed")
+                    .register(registry);
+
+            FunctionCounter.builder("db.circuit.rejected", breaker, CircuitBreaker::getRejectedCount)
+                    .description("Connection requests failed fast while the breaker was open")
+                    .tag("database", breaker.getName())
+                    .register(registry);
+        }
+
+        queryBudgets.onTimeout(method -> Counter.builder("db.query.timeouts")
+                .description("DAO calls cancelled for running past their query budget")
+                .tag("method", method)
+                .register(registry)
+                .increment());
+    }
+}
@@ -0,0 +1,34 @@
+package SpringProject.config;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.QueryBudgets;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.util.Arrays;
+
+/**
+ * Puts the query budgets in front of every DAO bean, so each DAO method call runs within its budget.
+ * A DAO is any bean implementing an interface from the persistences package other than Connector;
+ * callers inject DAOs by interface, so they get the budgeted proxy without noticing.
+ */
+public class QueryBudgetPostProcessor implements BeanPostProcessor {
+
+    private final QueryBudgets budgets;
+
+    public QueryBudgetPostProcessor(QueryBudgets budgets) {
+        this.budgets = budgets;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?>[] daoInterfaces = Arrays.stream(ClassUtils.getAllInterfaces(bean))
+                .filter(type -> type.getPackageName().equals(Connector.class.getPackageName()))
+                .filter(type -> !Connector.class.isAssignableFrom(type))
+                .toArray(Class<?>[]::new);
+        if (daoInterfaces.length == 0) {
+            return bean;
+        }
+        return budgets.wrap(bean, daoInterfaces);
+    }
+}
@@ -0,0 +1,68 @@
+package SpringProject.config;
+
+import SpringProject.persistences.RoutingConnector;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Binds the caller to the request thread so RoutingConnector can keep a caller's reads on the
+ * primary right after they write. The API keeps no session, so the caller is identified by a short-lived
+ * cookie holding a random token. It is issued, or refreshed, on every request that may write (anything but
+ * GET, HEAD and OPTIONS) and expires a second after the read-your-writes window, so it never outlives a
+ * write by much. Requests without the cookie are not bound, so only their own request reads its writes.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "ryw";
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final long cookieMaxAgeSeconds;
+
+    public ReadYourWritesFilter(Environment env) {
+        long windowMillis = env.getProperty("connector.routing.readYourWritesMillis", Long.class, 2000L);
+        this.cookieMaxAgeSeconds = (windowMillis + 999) / 1000 + 1;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        String token = cookie == null || cookie.getValue() == null || cookie.getValue().isBlank()
+                || cookie.getValue().length() > MAX_TOKEN_LENGTH ? null : cookie.getValue();
+
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            if (token == null) {
+                token = UUID.randomUUID().toString();
+            }
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, token)
+                    .maxAge(cookieMaxAgeSeconds)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+
+        RoutingConnector.bindUser(token);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoutingConnector.clearUser();
+        }
+    }
+}
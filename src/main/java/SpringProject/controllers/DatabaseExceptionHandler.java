@@ -0,0 +1,25 @@
+package SpringProject.controllers;
+
+import SpringProject.persistences.QueryTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps database overload to 503 so clients back off and retry rather than treating it as a server bug
+ */
+@Slf4j
+@RestControllerAdvice
+public class DatabaseExceptionHandler {
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<String> handleQueryTimeout(QueryTimeoutException e) {
+        log.error("Query budget exceeded: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Database busy, please retry");
+    }
+}
@@ -2,10 +2,8 @@ package SpringProject.controllers;
 
 import SpringProject.entities.Rating;
 import SpringProject.entities.Song;
-import SpringProject.persistences.Connector;
-import SpringProject.persistences.MySqlConnector;
+import SpringProject.persistences.QueryTimeoutException;
 import SpringProject.persistences.RatingDao;
-import SpringProject.persistences.RatingDaoImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -18,25 +16,10 @@ public class RatingController {
 
     private final RatingDao ratingDao;
 
-    public RatingController() {
-        Connector connector = new MySqlConnector("database.properties");
-        this.ratingDao = new RatingDaoImpl(connector) {
-            @Override
-            public Song getLowestRatedSong() {
-                return null;
-            }
-
-            @Override
-            public Song getMostPopularSong() {
-                return null;
-            }
-
-            @Override
-            public Song getTopRatedSong() {
-                return null;
-            }
-        };
+    public RatingController(RatingDao ratingDao) {
+        this.ratingDao = ratingDao;
     }
+
     /**
      * Get all ratings in the system.
      *
@@ -46,6 +29,8 @@ public class RatingController {
     public java.util.List<Rating> getAllRatings() {
         try {
             return ratingDao.getAllRatings();
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Get all ratings failed: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -60,6 +45,8 @@ public class RatingController {
     public java.util.List<Rating> getRatingsForUser(@PathVariable String userId) {
         try {
             return ratingDao.getUserRatingFromUsername(userId);
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Get ratings for user '{}' failed: {}", userId, e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -86,6 +73,8 @@ public class RatingController {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, "Rating not added");
             }
             return true;
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Add rating failed: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -103,6 +92,8 @@ public class RatingController {
             Song s = ratingDao.getTopRatedSong();
             if (s == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No song found");
             return s;
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Top rated song failed: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -119,6 +110,8 @@ public class RatingController {
             Song s = ratingDao.getLowestRatedSong();
             if (s == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No song found");
             return s;
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Lowest rated song failed: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -136,6 +129,8 @@ public class RatingController {
             Song s = ratingDao.getMostPopularSong();
             if (s == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No song found");
             return s;
+        } catch (QueryTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Most popular song failed: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Database error");
@@ -1,22 +1,51 @@
 package SpringProject.controllers;
 
+import SpringProject.entities.Page;
 import SpringProject.entities.Song;
+import SpringProject.entities.SongBatch;
+import SpringProject.entities.SongDetails;
+import SpringProject.entities.SongFacets;
+import SpringProject.entities.SongFilter;
+import SpringProject.search.FuzzySongSearch;
+import SpringProject.search.RankedSongSearch;
+import SpringProject.search.ScoredSong;
+import SpringProject.search.SongAutocomplete;
+import SpringProject.search.SongSearchIndex;
+import SpringProject.search.Suggestion;
 import SpringProject.services.SongServices;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/songs")
 public class SongController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final SongServices songServices;
+    private final JsonMapper jsonMapper;
+    private final long exportTimeoutMillis;
 
-    public SongController(SongServices songServices) {
+    public SongController(SongServices songServices, JsonMapper jsonMapper, Environment env) {
         this.songServices = songServices;
+        this.jsonMapper = jsonMapper;
+        this.exportTimeoutMillis = env.getProperty("songs.export.timeoutMillis", Long.class, 1_800_000L);
     }
 
     /**
@@ -32,6 +61,244 @@ public class SongController {
         return ResponseEntity.ok(songs);
     }
 
+    /**
+     * exports the whole catalog for bulk consumers, writing each song as it is read from the database,
+     * so memory use does not grow with the catalog. The export runs as an async request with its own
+     * timeout (songs.export.timeoutMillis), long enough for a full catalog, while every other async
+     * request keeps the default.
+     * @param format ndjson (one song object per line, the default) or json (a single array)
+     * @return the task streaming the catalog into the response
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportSongs(@RequestParam(defaultValue = "ndjson") String format,
+                                          HttpServletResponse response) {
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        if (!ndjson && !format.equalsIgnoreCase("json")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or json");
+        }
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            response.setContentType((ndjson ? NDJSON : MediaType.APPLICATION_JSON).toString());
+            try (JsonGenerator generator = jsonMapper.createGenerator(response.getOutputStream())) {
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                songServices.exportSongs(song -> {
+                    generator.writePOJO(song);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (SQLException e) {
+                // Headers are long gone - all we can do is cut the response short so the client sees an error
+                throw new IOException("Song export failed part-way", e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * lists songs a page at a time in id order, so response size and database work stay bounded
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param limit songs per page, 1 to 500
+     * @return the page of songs and the cursor for the next page (null on the last page)
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Page<Song>> getSongsPage(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > SongServices.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(songServices.getSongsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * lists songs a page at a time with the names of their artist, album and genre resolved, so rendering
+     * a list needs no calls to /artists, /albums or /api/genres per song
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param limit songs per page, 1 to 500
+     * @return the page of songs with names and the cursor for the next page (null on the last page)
+     */
+    @GetMapping("/details/page")
+    public ResponseEntity<Page<SongDetails>> getSongDetailsPage(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > SongServices.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(songServices.getSongDetailsPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * searches songs by title, artist, album or genre a page at a time, in id order
+     * @param query the search text
+     * @param field title, artist, album or genre
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param limit songs per page, 1 to 500
+     * @return the page of matching songs and the cursor for the next page (null on the last page)
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<Page<Song>> searchPage(@RequestParam String query,
+                                                 @RequestParam(defaultValue = "title") String field,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        if (query == null || query.isBlank() || limit < 1 || limit > SongServices.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            SongSearchIndex.Field searchField = SongSearchIndex.Field.valueOf(field.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(songServices.searchPage(searchField, query, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * counts the genres, decades and artists among the results of a search, for a browse sidebar
+     * @param query the search text
+     * @param field title, artist, album or genre
+     * @param limit values per facet, 1 to 100
+     * @return the total number of matches and the most common values of each facet with their counts
+     */
+    @GetMapping("/search/facets")
+    public ResponseEntity<SongFacets> searchFacets(@RequestParam String query,
+                                                   @RequestParam(defaultValue = "title") String field,
+                                                   @RequestParam(defaultValue = "10") int limit) {
+        if (query == null || query.isBlank() || limit < 1 || limit > SongServices.MAX_FACET_VALUES) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            SongSearchIndex.Field searchField = SongSearchIndex.Field.valueOf(field.toUpperCase(Locale.ROOT));
+            return ResponseEntity.ok(songServices.searchFacets(searchField, query, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * lists the songs matching every given criterion, a page at a time in id order,
+     * e.g. /songs/filter?genre=3&minYear=1990&maxYear=1999&maxDuration=240&artist=17
+     * @param genre comma-separated genre ids, any of which may match
+     * @param artist comma-separated artist ids, any of which may match
+     * @param album comma-separated album ids, any of which may match
+     * @param minYear earliest release year, inclusive
+     * @param maxYear latest release year, inclusive
+     * @param minDuration shortest duration in seconds, inclusive
+     * @param maxDuration longest duration in seconds, inclusive
+     * @param cursor nextCursor from the previous page; omit for the first page
+     * @param limit results per page, 1 to 500
+     * @param idsOnly true to return song ids instead of songs
+     * @return the page of songs (or ids) and the cursor for the next page (null on the last page)
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<Page<?>> filterSongs(@RequestParam(required = false) String genre,
+                                               @RequestParam(required = false) String artist,
+                                               @RequestParam(required = false) String album,
+                                               @RequestParam(required = false) Integer minYear,
+                                               @RequestParam(required = false) Integer maxYear,
+                                               @RequestParam(required = false) Integer minDuration,
+                                               @RequestParam(required = false) Integer maxDuration,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int limit,
+                                               @RequestParam(defaultValue = "false") boolean idsOnly) {
+        if (limit < 1 || limit > SongServices.MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            SongFilter filter = SongFilter.builder()
+                    .genreIds(parseIds(genre))
+                    .artistIds(parseIds(artist))
+                    .albumIds(parseIds(album))
+                    .minYear(minYear)
+                    .maxYear(maxYear)
+                    .minDurationSeconds(minDuration)
+                    .maxDurationSeconds(maxDuration)
+                    .build();
+            return ResponseEntity.ok(idsOnly
+                    ? songServices.filterSongIds(filter, cursor, limit)
+                    : songServices.filterSongs(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * random songs for discovery, e.g. /songs/sample?count=10&genre=3&exclude=12,40
+     * @param count how many songs, 1 to 100
+     * @param genre only songs of this genre id; omit for any genre
+     * @param exclude comma-separated ids of songs not to return, such as those already seen
+     * @return up to count distinct songs, in random order
+     */
+    @GetMapping("/sample")
+    public ResponseEntity<List<Song>> sampleSongs(@RequestParam(defaultValue = "10") int count,
+                                                  @RequestParam(required = false) Integer genre,
+                                                  @RequestParam(required = false) String exclude) {
+        if (count < 1 || count > SongServices.MAX_SAMPLE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Song> songs;
+        try {
+            songs = songServices.sampleSongs(genre, parseIds(exclude), count);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (songs.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(songs);
+    }
+
+    /**
+     * Parses a comma-separated id list such as "3,7"
+     * @throws NumberFormatException (an IllegalArgumentException) if an entry is not a number
+     */
+    private static Set<Integer> parseIds(String ids) {
+        if (ids == null || ids.isBlank()) {
+            return Set.of();
+        }
+        Set<Integer> parsed = new HashSet<>();
+        for (String id : ids.split(",")) {
+            if (!id.isBlank()) {
+                parsed.add(Integer.parseInt(id.trim()));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * looks up many songs in one request, e.g. /songs/batch?ids=12,5,40
+     * @param ids up to 1000 song ids; duplicates are returned once
+     * @return the songs in the order their ids were given, and the ids that matched no song
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<SongBatch> getSongsBatch(@RequestParam List<Integer> ids) {
+        return batch(ids);
+    }
+
+    /**
+     * same as GET /songs/batch with the ids as a JSON array body, for lists too long for a URL
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<SongBatch> postSongsBatch(@RequestBody List<Integer> ids) {
+        return batch(ids);
+    }
+
+    private ResponseEntity<SongBatch> batch(List<Integer> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > SongServices.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(songServices.getSongsByIds(ids));
+    }
+
     /**
      * get the song related to the current song id
      * @param id inputted will be validated and if there is a song with the same Id, it will be returned
@@ -46,6 +313,19 @@ public class SongController {
         return ResponseEntity.ok(song);
     }
 
+    /**
+     * get a song with the names of its artist, album and genre instead of only their ids
+     * @param id the song id
+     * @return the song with its artist name, album title and genre name
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<?> getSongDetails(@PathVariable int id) {
+        SongDetails song = songServices.getSongDetails(id);
+        if (song == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Song not found");
+        }
+        return ResponseEntity.ok(song);
+    }
 
     /**
      * get the song related to the current song id
@@ -115,4 +395,69 @@ public class SongController {
         }
         return ResponseEntity.ok(results);
     }
+
+    /**
+     * typo-tolerant search, ranked by how closely the songs match
+     * @param query the search text, misspellings allowed
+     * @param field title, artist, album or genre
+     * @param limit maximum number of results, 1 to 100
+     * @return matching songs with scores between 0 and 1, best first
+     */
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<List<ScoredSong>> fuzzySearch(@RequestParam String query,
+                                                        @RequestParam(defaultValue = "title") String field,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        if (query == null || query.isBlank() || limit < 1 || limit > FuzzySongSearch.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        SongSearchIndex.Field searchField;
+        try {
+            searchField = SongSearchIndex.Field.valueOf(field.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ScoredSong> results = songServices.fuzzySearch(searchField, query, limit);
+        if (results.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * relevance-ranked search across title, artist, album and genre at once
+     * @param query the search text
+     * @param limit maximum number of results, 1 to 100
+     * @return the most relevant songs with their BM25 scores, best first
+     */
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<ScoredSong>> rankedSearch(@RequestParam String query,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        if (query == null || query.isBlank() || limit < 1 || limit > RankedSongSearch.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<ScoredSong> results = songServices.rankedSearch(query, limit);
+        if (results.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * suggests completions for a partly typed song title or artist name, most popular first
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions, 1 to 50
+     * @return matching titles and artist names with their popularity
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<Suggestion>> autocomplete(@RequestParam String prefix,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        if (prefix == null || prefix.isBlank() || limit < 1 || limit > SongAutocomplete.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Suggestion> results = songServices.autocomplete(prefix, limit);
+        if (results.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(results);
+    }
 }
@@ -32,7 +32,7 @@ public class UserController {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
             }
             return u;
-        } catch (ResponseStatusException e) {
+        } catch (ResponseStatusException | QueryTimeoutException e) {
             throw e;
         } catch (Exception e) {
             log.error("getUser() failed: {}", e.getMessage());
@@ -60,7 +60,7 @@ public class UserController {
 
             return userDao.findUserByUsername(newUser.getUsername());
 
-        } catch (ResponseStatusException e) {
+        } catch (ResponseStatusException | QueryTimeoutException e) {
             throw e;
         } catch (Exception e) {
             log.error("register() failed: {}", e.getMessage());
@@ -86,7 +86,7 @@ public class UserController {
             }
             return u;
 
-        } catch (ResponseStatusException e) {
+        } catch (ResponseStatusException | QueryTimeoutException e) {
             throw e;
         } catch (Exception e) {
             log.error("login() failed: {}", e.getMessage());
@@ -114,7 +114,7 @@ public class UserController {
             }
             return true;
 
-        } catch (ResponseStatusException e) {
+        } catch (ResponseStatusException | QueryTimeoutException e) {
             throw e;
         } catch (Exception e) {
             log.error("updateEmail() failed: {}", e.getMessage());
@@ -142,7 +142,7 @@ public class UserController {
             }
             return true;
 
-        } catch (ResponseStatusException e) {
+        } catch (ResponseStatusException | QueryTimeoutException e) {
             throw e;
         } catch (Exception e) {
             log.error("updatePassword() failed: {}", e.getMessage());
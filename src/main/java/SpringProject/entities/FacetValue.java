@@ -0,0 +1,16 @@
+package SpringProject.entities;
+import lombok.*;
+
+/**
+ * One value of a facet - a genre, decade or artist - and how many results have it
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+
+public class FacetValue {
+    private int value;
+    private String name;
+    private int count;
+}
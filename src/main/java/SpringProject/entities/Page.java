@@ -0,0 +1,17 @@
+package SpringProject.entities;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a listing and the opaque cursor for the next one (null on the last page)
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+
+public class Page<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package SpringProject.entities;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * The songs found for a list of ids, in the order the ids were asked for, and the ids that matched no song
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+
+public class SongBatch {
+    private List<Song> songs;
+    private List<Integer> missingIds;
+}
@@ -0,0 +1,41 @@
+package SpringProject.entities;
+import lombok.*;
+
+/**
+ * A song together with the names of its artist, album and genre, read with one joined query
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+
+public class SongDetails {
+    private int id;
+    private String title;
+    private int artistId;
+    private String artistName;
+    private int albumId;
+    private String albumTitle;
+    private int genreId;
+    private String genreName;
+    private double durationSeconds;
+    private int releaseYear;
+
+    /**
+     * @return the plain Song entity, without the names
+     */
+    public Song toSong() {
+        return Song.builder()
+                .id(id)
+                .title(title)
+                .artistId(artistId)
+                .albumId(albumId)
+                .genreId(genreId)
+                .durationSeconds(durationSeconds)
+                .releaseYear(releaseYear)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package SpringProject.entities;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Facet counts for a set of search results: the most common genres, decades and artists among them
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+
+public class SongFacets {
+    private int total;
+    private List<FacetValue> genres;
+    private List<FacetValue> decades;
+    private List<FacetValue> artists;
+}
@@ -0,0 +1,26 @@
+package SpringProject.entities;
+import lombok.*;
+
+import java.util.Set;
+
+/**
+ * Attribute filter over the song catalog. A song matches if it matches every criterion that is set:
+ * one of the ids in each non-empty id set, and within each year/duration bound (inclusive).
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+
+public class SongFilter {
+    @Builder.Default
+    private Set<Integer> genreIds = Set.of();
+    @Builder.Default
+    private Set<Integer> artistIds = Set.of();
+    @Builder.Default
+    private Set<Integer> albumIds = Set.of();
+    private Integer minYear;
+    private Integer maxYear;
+    private Integer minDurationSeconds;
+    private Integer maxDurationSeconds;
+}
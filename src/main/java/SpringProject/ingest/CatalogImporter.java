@@ -0,0 +1,359 @@
+package SpringProject.ingest;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.JdbcBatch;
+import SpringProject.persistences.MySqlConnector;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Bulk-loads songs from a CSV or NDJSON file (see RecordFormat), creating the artists, albums and genres
+ * they name.
+ *
+ * The file goes through a three-stage pipeline:
+ * <ol>
+ *     <li>a reader thread cuts the lines into chunks of chunkSize and hands each to the parser pool,</li>
+ *     <li>parserThreads threads turn the lines of each chunk into records, rejecting malformed ones,</li>
+ *     <li>the calling thread writes the parsed chunks in file order, one transaction per chunk: names are
+ *     resolved to ids from in-memory maps (NameResolver), and songs go in with batched INSERTs (JdbcBatch) of
+ *     insertBatchSize rows.</li>
+ * </ol>
+ * At most queuedChunks chunks wait between reading and writing, so a slow database slows the reader down
+ * rather than filling memory with parsed records.
+ *
+ * Each chunk's transaction also records how far into the file the import got (ImportCheckpoint), so a
+ * run that fails part way can simply be started again: it skips the records already imported and carries
+ * on from the first chunk that did not commit. Appending lines to a file and importing it again imports
+ * just the new lines. To import a file from the start once more, delete its row from catalog_imports.
+ *
+ * Run as a job: java ... SpringProject.ingest.CatalogImporter import-file [database.properties]
+ * with -Dimport.parserThreads, -Dimport.chunkSize, -Dimport.insertBatchSize and -Dimport.queuedChunks
+ * to change the defaults of ImportOptions.
+ */
+@Slf4j
+public class CatalogImporter {
+
+    /** Rejected records logged per run; the rest are only counted */
+    private static final int LOGGED_REJECTIONS = 20;
+    private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+    private static final String[] SONG_COLUMNS = {"title", "artistId", "albumId", "genreId", "durationSeconds", "releaseYear"};
+
+    private final Connector connector;
+    private final ImportOptions options;
+    private final JsonMapper jsonMapper;
+
+    public CatalogImporter(Connector connector, ImportOptions options, JsonMapper jsonMapper) {
+        this.connector = connector;
+        this.options = options;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 1) {
+            System.err.println("usage: CatalogImporter import-file [database properties file]");
+            System.exit(2);
+        }
+        ImportOptions.ImportOptionsBuilder options = ImportOptions.builder();
+        setIfPresent("import.parserThreads", options::parserThreads);
+        setIfPresent("import.chunkSize", options::chunkSize);
+        setIfPresent("import.insertBatchSize", options::insertBatchSize);
+        setIfPresent("import.queuedChunks", options::queuedChunks);
+        Connector connector = new MySqlConnector(args.length > 1 ? args[1] : "properties/database.properties");
+        new CatalogImporter(connector, options.build(), JsonMapper.builder().build()).importFile(Path.of(args[0]));
+    }
+
+    private static void setIfPresent(String property, IntConsumer setter) {
+        Integer value = Integer.getInteger(property);
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    /**
+     * Imports a file in the format its extension names
+     * @see #importFile(Path, RecordFormat)
+     */
+    public ImportResult importFile(Path file) throws IOException, SQLException {
+        return importFile(file, RecordFormat.of(file));
+    }
+
+    /**
+     * Imports the records of a file that earlier runs haven't imported yet
+     * @return what this run did
+     * @throws IOException if the file could not be read
+     * @throws SQLException if the database failed; chunks committed before the failure stay imported
+     * and the next run resumes after them
+     */
+    public ImportResult importFile(Path file, RecordFormat format) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        String source = options.getSource() != null ? options.getSource() : file.toAbsolutePath().toString();
+        if (source.length() > ImportCheckpoint.MAX_SOURCE_LENGTH) {
+            throw new IllegalArgumentException("Import source is longer than " + ImportCheckpoint.MAX_SOURCE_LENGTH
+                    + " characters - set ImportOptions.source: " + source);
+        }
+
+        BufferedReader lines = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        RecordParser parser;
+        try {
+            parser = format.parser(format.hasHeader() ? lines.readLine() : null, jsonMapper);
+        } catch (IOException | RuntimeException e) {
+            lines.close();
+            throw e;
+        }
+
+        Connection conn = connector.getConnection();
+        if (conn == null) {
+            lines.close();
+            throw new SQLException("Could not connect to the database");
+        }
+        ExecutorService parsers = Executors.newFixedThreadPool(Math.max(1, options.getParserThreads()), daemonThreads());
+        Thread reader = null;
+        try {
+            ImportCheckpoint.createTable(conn);
+            long resumedAfter = ImportCheckpoint.load(conn, source);
+            NameResolver names = NameResolver.load(conn);
+            conn.setAutoCommit(false);
+
+            BlockingQueue<Future<ParsedChunk>> chunks = new ArrayBlockingQueue<>(Math.max(1, options.getQueuedChunks()));
+            AtomicLong rejections = new AtomicLong();
+            int lineOffset = format.hasHeader() ? 1 : 0;
+            reader = new Thread(() -> read(lines, resumedAfter, chunks, parsers,
+                    chunk -> chunk.parse(parser, source, lineOffset, rejections)), "import-reader");
+            reader.setDaemon(true);
+            reader.start();
+            if (resumedAfter > 0) {
+                log.info("Import of {} resumes after record {}", source, resumedAfter);
+            }
+
+            long records = 0;
+            long songsInserted = 0;
+            long rejected = 0;
+            long lastProgress = start;
+            while (true) {
+                Future<ParsedChunk> next = take(chunks);
+                if (next == END) {
+                    break;
+                }
+                ParsedChunk chunk = await(next);
+                songsInserted += write(conn, names, source, chunk);
+                records += chunk.records.size() + chunk.rejected;
+                rejected += chunk.rejected;
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= options.getProgressIntervalMillis()) {
+                    lastProgress = now;
+                    log.info("Import of {}: {} records read, {} songs inserted, {} rows/s", source, records,
+                            songsInserted, songsInserted * 1000 / Math.max(1, now - start));
+                }
+            }
+
+            ImportResult result = new ImportResult(source, resumedAfter, records, songsInserted, rejected,
+                    names.getGenresCreated(), names.getArtistsCreated(), names.getAlbumsCreated(),
+                    System.currentTimeMillis() - start);
+            log.info("Import of {} done: {} songs inserted, {} records rejected, {} genres, {} artists and {} albums created in {}ms ({} rows/s)",
+                    source, result.getSongsInserted(), result.getRejected(), result.getGenresCreated(),
+                    result.getArtistsCreated(), result.getAlbumsCreated(), result.getMillis(),
+                    Math.round(result.getRowsPerSecond()));
+            return result;
+        } finally {
+            if (reader != null) {
+                reader.interrupt();
+            } else {
+                lines.close();
+            }
+            parsers.shutdownNow();
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                log.error("importFile(): Could not restore auto-commit. \nException: {}", e.getMessage());
+            }
+            connector.freeConnection(conn);
+        }
+    }
+
+    /**
+     * Reader stage: queues a parse task per chunk of lines, in file order, then END. Blocks while the
+     * queue is full; a read failure is queued in place of the next chunk.
+     */
+    private void read(BufferedReader lines, long resumedAfter, BlockingQueue<Future<ParsedChunk>> chunks,
+                      ExecutorService parsers, ChunkParser chunkParser) {
+        int chunkSize = Math.max(1, options.getChunkSize());
+        try (lines) {
+            long position = 0;
+            while (position < resumedAfter && lines.readLine() != null) {
+                position++;
+            }
+            List<String> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    LineChunk full = new LineChunk(position, chunk);
+                    chunks.put(parsers.submit(() -> chunkParser.parse(full)));
+                    position += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                LineChunk last = new LineChunk(position, chunk);
+                chunks.put(parsers.submit(() -> chunkParser.parse(last)));
+            }
+            chunks.put(END);
+        } catch (IOException e) {
+            try {
+                chunks.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            // the writer gave up
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer stage: the chunk's songs, the rows they need and the new resume point, in one transaction
+     * @return songs inserted
+     */
+    private int write(Connection conn, NameResolver names, String source, ParsedChunk chunk) throws SQLException {
+        try {
+            long inserted;
+            try (JdbcBatch songs = JdbcBatch.insert(conn, "songs", SONG_COLUMNS, options.getInsertBatchSize())) {
+                for (ImportRecord record : chunk.records) {
+                    int genreId = names.genreId(conn, record.getGenre());
+                    int artistId = names.artistId(conn, record.getArtist());
+                    Integer albumId = names.albumId(conn, artistId, record.getAlbum(), genreId);
+                    songs.add(record.getTitle(), artistId, albumId, genreId, record.getDurationSeconds(),
+                            record.getReleaseYear());
+                }
+                inserted = songs.flush();
+            }
+            ImportCheckpoint.save(conn, source, chunk.endRecord);
+            conn.commit();
+            names.commit();
+            return (int) inserted;
+        } catch (SQLException | RuntimeException e) {
+            names.discard();
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        }
+    }
+
+    private static Future<ParsedChunk> take(BlockingQueue<Future<ParsedChunk>> chunks) throws IOException {
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        }
+    }
+
+    private static ParsedChunk await(Future<ParsedChunk> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException("Parsing failed", cause);
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "import-parser-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private interface ChunkParser {
+        ParsedChunk parse(LineChunk chunk);
+    }
+
+    /**
+     * Lines of the file after the header, starting with the one at position firstRecord (0-based)
+     */
+    private static final class LineChunk {
+        private final long firstRecord;
+        private final List<String> lines;
+
+        private LineChunk(long firstRecord, List<String> lines) {
+            this.firstRecord = firstRecord;
+            this.lines = lines;
+        }
+
+        private ParsedChunk parse(RecordParser parser, String source, int lineOffset, AtomicLong rejections) {
+            List<ImportRecord> records = new ArrayList<>(lines.size());
+            int rejected = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    records.add(parser.parse(line));
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (rejections.incrementAndGet() <= LOGGED_REJECTIONS) {
+                        log.warn("Import of {}: line {} rejected - {}", source, lineOffset + firstRecord + i + 1, e.getMessage());
+                    }
+                }
+            }
+            return new ParsedChunk(records, rejected, firstRecord + lines.size());
+        }
+    }
+
+    /**
+     * A chunk's valid records and how many were rejected. Blank lines are neither.
+     */
+    private static final class ParsedChunk {
+        private final List<ImportRecord> records;
+        private final int rejected;
+        /** Position after the chunk's last line, where the next run resumes once the chunk is written */
+        private final long endRecord;
+
+        private ParsedChunk(List<ImportRecord> records, int rejected, long endRecord) {
+            this.records = records;
+            this.rejected = rejected;
+            this.endRecord = endRecord;
+        }
+    }
+}
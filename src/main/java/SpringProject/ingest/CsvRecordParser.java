@@ -0,0 +1,94 @@
+package SpringProject.ingest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses CSV records whose columns are named by the file's header line
+ */
+final class CsvRecordParser implements RecordParser {
+
+    private final int title;
+    private final int artist;
+    private final int album;
+    private final int genre;
+    private final int durationSeconds;
+    private final int releaseYear;
+
+    private CsvRecordParser(List<String> header) throws IOException {
+        this.title = column(header, "title", true);
+        this.artist = column(header, "artist", true);
+        this.album = column(header, "album", false);
+        this.genre = column(header, "genre", true);
+        this.durationSeconds = column(header, "durationseconds", true);
+        this.releaseYear = column(header, "releaseyear", false);
+    }
+
+    static CsvRecordParser fromHeader(String header) throws IOException {
+        if (header == null) {
+            throw new IOException("CSV import file is empty - expected a header line");
+        }
+        List<String> columns = new ArrayList<>();
+        // spreadsheet exports often start with a byte order mark
+        for (String column : split(header.replace("\uFEFF", ""))) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        return new CsvRecordParser(columns);
+    }
+
+    @Override
+    public ImportRecord parse(String line) {
+        List<String> fields = split(line);
+        return RecordParser.record(field(fields, title), field(fields, artist), field(fields, album),
+                field(fields, genre), field(fields, durationSeconds), field(fields, releaseYear));
+    }
+
+    /**
+     * Splits a line on commas outside quotes; "" inside quotes is a literal quote
+     * @throws IllegalArgumentException if a quote is left open
+     */
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static int column(List<String> header, String name, boolean required) throws IOException {
+        int column = header.indexOf(name);
+        if (column < 0 && required) {
+            throw new IOException("CSV header has no " + name + " column: " + header);
+        }
+        return column;
+    }
+}
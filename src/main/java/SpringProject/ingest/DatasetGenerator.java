@@ -0,0 +1,510 @@
+package SpringProject.ingest;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.JdbcBatch;
+import SpringProject.persistences.MySqlConnector;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Fills the database with a synthetic but realistic catalog and its listeners - genres, artists, albums,
+ * songs, users, playlists, playlist songs and ratings - for benchmarks and load tests at production scale.
+ *
+ * Everything is drawn from random generators seeded by DatasetSpec.seed, so a spec always yields the same
+ * names, sizes and relationships. Popularity is skewed the way real listening is: songs are added to
+ * playlists and rated with Zipf-distributed frequency, a few artists make most of the albums and a few users
+ * own most of the playlists. Titles are built from a Zipf-distributed vocabulary, so search terms are as
+ * unevenly common as in a real catalog. Each song has a hidden quality its ratings cluster around.
+ *
+ * Rows go in through batched INSERTs (JdbcBatch). Artists, albums, songs, users and playlists are
+ * written over one connection, in order, and their generated ids read back so the rows that follow can refer
+ * to them; playlist songs and ratings, by far the largest tables, are written by writerThreads connections
+ * at once. Rows are added to what is already there: existing genres are reused by name, and usernames
+ * include the seed, so the same seed can't be loaded twice into one database. Nothing else may write to
+ * these tables while the generator runs. The subscription table is left empty.
+ *
+ * Run as a job: java ... SpringProject.ingest.DatasetGenerator [database.properties]
+ * with -Ddataset.seed, -Ddataset.songs, -Ddataset.users, -Ddataset.playlists, -Ddataset.genres,
+ * -Ddataset.meanPlaylistSize, -Ddataset.meanRatingsPerUser, -Ddataset.insertBatchSize and
+ * -Ddataset.writerThreads to change the defaults of DatasetSpec, e.g.
+ * -Ddataset.songs=10000000 -Ddataset.users=1000000 -Ddataset.playlists=5000000
+ */
+@Slf4j
+public class DatasetGenerator {
+
+    /** Playlists or users whose rows share one random generator, so the output doesn't depend on the thread count */
+    private static final int BLOCK_SIZE = 1_024;
+    private static final int VOCABULARY_SIZE = 20_000;
+    /** Dates are drawn back from a fixed day rather than today, so reruns match */
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int LATEST_YEAR = EPOCH.getYear();
+
+    private static final String[] GENRE_NAMES = {
+            "Pop", "Rock", "Hip Hop", "Electronic", "R&B", "Country", "Jazz", "Classical", "Latin", "Metal",
+            "Indie", "Folk", "Reggae", "Blues", "Soul", "Punk", "K-Pop", "Dance", "House", "Techno",
+            "Ambient", "Funk", "Gospel", "Afrobeats", "Reggaeton", "Disco", "Grunge", "Trap", "Lo-Fi", "Soundtrack"};
+    private static final String[] COUNTRIES = {
+            "USA", "UK", "Canada", "Germany", "France", "Sweden", "Japan", "South Korea", "Brazil", "Australia",
+            "Nigeria", "Mexico", "Spain", "Ireland", "Jamaica"};
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "ne", "so", "ta", "vi", "da", "ri", "mo", "la", "be", "nu", "shi", "ko",
+            "el", "an", "or", "is", "ve", "lu", "sa", "to", "fe", "di", "ma", "no", "ge", "zu", "pa", "ly",
+            "ch", "ar", "en", "ti", "ro", "bi", "na", "wo"};
+    private static final String[] SONG_COLUMNS = {"title", "artistId", "albumId", "genreId", "durationSeconds", "releaseYear"};
+    /** Stand-in for a bcrypt hash; generated users can't log in */
+    private static final String PASSWORD_HASH = "$2a$12$generated.dataset.user.password.hash.placeholder.";
+
+    private final Connector connector;
+    private final DatasetSpec spec;
+
+    public DatasetGenerator(Connector connector, DatasetSpec spec) {
+        if (spec.getGenres() < 1 || spec.getSongs() < 1 || spec.getUsers() < 1) {
+            throw new IllegalArgumentException("A dataset needs at least one genre, song and user: " + spec);
+        }
+        if (spec.getPlaylists() < 0 || spec.getMeanPlaylistSize() < 0 || spec.getMeanRatingsPerUser() < 0) {
+            throw new IllegalArgumentException("Playlist and rating counts must not be negative: " + spec);
+        }
+        this.connector = connector;
+        this.spec = spec;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        DatasetSpec.DatasetSpecBuilder spec = DatasetSpec.builder();
+        Long seed = Long.getLong("dataset.seed");
+        if (seed != null) {
+            spec.seed(seed);
+        }
+        setIfPresent("dataset.genres", spec::genres);
+        setIfPresent("dataset.songs", spec::songs);
+        setIfPresent("dataset.users", spec::users);
+        setIfPresent("dataset.playlists", spec::playlists);
+        setIfPresent("dataset.meanPlaylistSize", spec::meanPlaylistSize);
+        setIfPresent("dataset.meanRatingsPerUser", spec::meanRatingsPerUser);
+        setIfPresent("dataset.insertBatchSize", spec::insertBatchSize);
+        setIfPresent("dataset.writerThreads", spec::writerThreads);
+        Connector connector = new MySqlConnector(args.length > 0 ? args[0] : "properties/database.properties");
+        new DatasetGenerator(connector, spec.build()).generate();
+    }
+
+    private static void setIfPresent(String property, IntConsumer setter) {
+        Integer value = Integer.getInteger(property);
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    /**
+     * Generates the dataset and inserts it
+     * @return how many rows went into each table
+     * @throws SQLException if the database failed; rows already inserted stay
+     */
+    public GeneratedDataset generate() throws SQLException {
+        long start = System.currentTimeMillis();
+        log.info("Generating dataset: {}", spec);
+        int songsPerAlbum = Math.max(1, spec.getSongsPerAlbum());
+        int albumsPerArtist = Math.max(1, spec.getAlbumsPerArtist());
+        int albumCount = (spec.getSongs() + songsPerAlbum - 1) / songsPerAlbum;
+        int artistCount = (albumCount + albumsPerArtist - 1) / albumsPerArtist;
+
+        Connection conn = connector.getConnection();
+        if (conn == null) {
+            throw new SQLException("generate(): Could not connect to database");
+        }
+        Catalog catalog = new Catalog(artistCount, albumCount);
+        int[] songIds;
+        int[] userIds;
+        int[] playlistIds;
+        try {
+            catalog.genreIds = genres(conn);
+            catalog.artistIds = insertRows(conn, "artists", new String[]{"name", "country", "formedYear"}, artistCount, 1,
+                    (i, random, insert) -> {
+                        catalog.artistGenre[i] = catalog.genrePopularity.index(random);
+                        catalog.artistFormed[i] = (short) (1950 + random.nextInt(LATEST_YEAR - 1950));
+                        insert.add(artistName(random, catalog), COUNTRIES[random.nextInt(COUNTRIES.length)],
+                                (int) catalog.artistFormed[i]);
+                    });
+            catalog.albumIds = insertRows(conn, "albums", new String[]{"title", "artistId", "genreId", "releaseDate"}, albumCount, 2,
+                    (i, random, insert) -> {
+                        int artist = catalog.artistPopularity.index(random);
+                        int formed = catalog.artistFormed[artist];
+                        catalog.albumArtist[i] = artist;
+                        catalog.albumYear[i] = (short) (formed + random.nextInt(LATEST_YEAR - formed + 1));
+                        insert.add(catalog.words(random, 1 + random.nextInt(3)), catalog.artistIds[artist],
+                                catalog.genreIds[catalog.artistGenre[artist]],
+                                LocalDate.of(catalog.albumYear[i], 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                    });
+            songIds = insertRows(conn, "songs", SONG_COLUMNS, spec.getSongs(), 3,
+                    (i, random, insert) -> {
+                        int album = (int) ((long) i * albumCount / spec.getSongs());
+                        int artist = catalog.albumArtist[album];
+                        int genre = random.nextInt(10) == 0 ? catalog.genrePopularity.index(random) : catalog.artistGenre[artist];
+                        int duration = (int) Math.round(215 + 65 * random.nextGaussian());
+                        insert.add(catalog.words(random, 1 + random.nextInt(4)), catalog.artistIds[artist],
+                                random.nextInt(16) == 0 ? null : catalog.albumIds[album], catalog.genreIds[genre],
+                                Math.max(30, Math.min(1_200, duration)), (int) catalog.albumYear[album]);
+                    });
+            userIds = insertRows(conn, "users",
+                    new String[]{"username", "email", "passwordHash", "subscriptionStatus", "subscriptionExpiry", "createdDate"},
+                    spec.getUsers(), 4,
+                    (i, random, insert) -> {
+                        String username = "user" + spec.getSeed() + "_" + (i + 1);
+                        int status = random.nextInt(20);
+                        LocalDateTime expiry = status < 11
+                                ? EPOCH.plusDays(1 + random.nextInt(365))
+                                : EPOCH.minusDays(1 + random.nextInt(730));
+                        insert.add(username, username + "@example.com", PASSWORD_HASH,
+                                status < 11 ? "active" : status < 18 ? "expired" : "canceled", expiry,
+                                EPOCH.minusMinutes(random.nextInt(5 * 365 * 24 * 60)));
+                    });
+            ZipfPopularity owners = new ZipfPopularity(userIds.length, spec.getActivityExponent(), random(5, -1));
+            playlistIds = insertRows(conn, "playlists", new String[]{"userId", "name", "description", "isPublic", "createdDate"},
+                    spec.getPlaylists(), 6,
+                    (i, random, insert) -> insert.add(userIds[owners.index(random)], catalog.words(random, 1 + random.nextInt(3)),
+                            random.nextInt(5) == 0 ? catalog.words(random, 4 + random.nextInt(8)) : null,
+                            random.nextInt(4) == 0, EPOCH.minusMinutes(random.nextInt(3 * 365 * 24 * 60))));
+        } finally {
+            connector.freeConnection(conn);
+        }
+
+        ZipfPopularity songPopularity = new ZipfPopularity(songIds.length, spec.getPopularityExponent(), random(7, -1));
+        long playlistSongs = insertInParallel("playlistSongs", new String[]{"playlistId", "songId", "positionInPlaylist", "addedDate"},
+                playlistIds.length, 8,
+                (i, random, insert) -> {
+                    int size = Math.min(geometric(random, spec.getMeanPlaylistSize() - 1) + 1,
+                            Math.min(spec.getMaxPlaylistSize(), songIds.length));
+                    int position = 0;
+                    for (int song : songPopularity.distinct(random, size)) {
+                        insert.add(playlistIds[i], songIds[song], ++position,
+                                EPOCH.minusMinutes(random.nextInt(2 * 365 * 24 * 60)));
+                    }
+                });
+        long ratings = insertInParallel("ratings", new String[]{"userId", "songId", "rating", "ratedDate"},
+                userIds.length, 9,
+                (i, random, insert) -> {
+                    int count = Math.min(geometric(random, spec.getMeanRatingsPerUser()), songIds.length);
+                    for (int song : songPopularity.distinct(random, count)) {
+                        long rating = Math.round(quality(song) + 0.9 * random.nextGaussian());
+                        insert.add(userIds[i], songIds[song], (int) Math.max(1, Math.min(5, rating)),
+                                EPOCH.minusMinutes(random.nextInt(3 * 365 * 24 * 60)));
+                    }
+                });
+
+        GeneratedDataset dataset = new GeneratedDataset(spec.getSeed(), catalog.genreIds.length, artistCount, albumCount,
+                songIds.length, userIds.length, playlistIds.length, playlistSongs, ratings, System.currentTimeMillis() - start);
+        log.info("Generated {} rows in {}ms ({} rows/s): {}", dataset.getRows(), dataset.getMillis(),
+                Math.round(dataset.getRowsPerSecond()), dataset);
+        return dataset;
+    }
+
+    /**
+     * Finds or creates the spec's genres
+     * @return their ids, by index
+     */
+    private int[] genres(Connection conn) throws SQLException {
+        Map<String, Integer> existing = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM genres ORDER BY id")) {
+            while (rs.next()) {
+                existing.putIfAbsent(rs.getString("name").trim().toLowerCase(Locale.ROOT), rs.getInt("id"));
+            }
+        }
+        int[] ids = new int[spec.getGenres()];
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO genres (name, description) VALUES (?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ids.length; i++) {
+                String name = GENRE_NAMES[i % GENRE_NAMES.length]
+                        + (i < GENRE_NAMES.length ? "" : " " + (i / GENRE_NAMES.length + 1));
+                Integer id = existing.get(name.toLowerCase(Locale.ROOT));
+                if (id == null) {
+                    insert.setString(1, name);
+                    insert.setString(2, "Generated");
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        if (!keys.next()) {
+                            throw new SQLException("genres(): No id generated for " + name);
+                        }
+                        id = keys.getInt(1);
+                    }
+                }
+                ids[i] = id;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Adds the rows of one table for item index, drawing from random
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        void add(int index, SplittableRandom random, JdbcBatch insert) throws SQLException;
+    }
+
+    /**
+     * Inserts count rows in index order over one connection
+     * @return the new rows' ids, by index
+     */
+    private int[] insertRows(Connection conn, String table, String[] columns, int count, int stream,
+                             RowSource rows) throws SQLException {
+        long start = System.currentTimeMillis();
+        int lastId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            lastId = rs.getInt(1);
+        }
+        SplittableRandom random = random(stream, -1);
+        try (JdbcBatch insert = JdbcBatch.insert(conn, table, columns, spec.getInsertBatchSize())) {
+            for (int i = 0; i < count; i++) {
+                rows.add(i, random, insert);
+            }
+            insert.flush();
+        }
+        int[] ids = newIds(conn, table, lastId, count);
+        logProgress(table, count, start);
+        return ids;
+    }
+
+    /**
+     * Ids are assigned in insertion order, so the rows after the previous largest id are this run's, in order
+     */
+    private int[] newIds(Connection conn, String table, int afterId, int count) throws SQLException {
+        int[] ids = new int[count];
+        int found = 0;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT id FROM " + table + " WHERE id > ? ORDER BY id",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(connector.getStreamFetchSize());
+            ps.setInt(1, afterId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next() && found <= count) {
+                    if (found < count) {
+                        ids[found] = rs.getInt(1);
+                    }
+                    found++;
+                }
+            }
+        }
+        if (found != count) {
+            throw new SQLException("Expected " + count + " new rows in " + table + " but found " + found
+                    + " - was something else writing to it?");
+        }
+        return ids;
+    }
+
+    /**
+     * Inserts the rows of parents items - playlists or users - with writerThreads connections. Items are
+     * handed out in blocks, each with a generator seeded by its position, so the rows are the same whatever
+     * the thread count; only their ids and order differ.
+     * @return rows inserted
+     */
+    private long insertInParallel(String table, String[] columns, int parents, int stream, RowSource rows) throws SQLException {
+        long start = System.currentTimeMillis();
+        int blocks = (parents + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int threads = Math.max(1, Math.min(spec.getWriterThreads(), blocks));
+        AtomicInteger nextBlock = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "dataset-" + table);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long inserted = 0;
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(writers.submit(() -> {
+                    Connection conn = connector.getConnection();
+                    if (conn == null) {
+                        throw new SQLException("insertInParallel(): Could not connect to database");
+                    }
+                    try (JdbcBatch insert = JdbcBatch.insert(conn, table, columns, spec.getInsertBatchSize())) {
+                        for (int block = nextBlock.getAndIncrement(); block < blocks && !Thread.currentThread().isInterrupted();
+                             block = nextBlock.getAndIncrement()) {
+                            SplittableRandom random = random(stream, block);
+                            for (int i = block * BLOCK_SIZE; i < Math.min(parents, (block + 1) * BLOCK_SIZE); i++) {
+                                rows.add(i, random, insert);
+                            }
+                        }
+                        return insert.flush();
+                    } finally {
+                        connector.freeConnection(conn);
+                    }
+                }));
+            }
+            for (Future<Long> result : results) {
+                inserted += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("insertInParallel(): Interrupted while writing " + table, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new SQLException("insertInParallel(): Writing " + table + " failed", e.getCause());
+        } finally {
+            writers.shutdownNow();
+        }
+        logProgress(table, inserted, start);
+        return inserted;
+    }
+
+    private static void logProgress(String table, long rows, long start) {
+        long millis = System.currentTimeMillis() - start;
+        log.info("Generated {} rows of {} in {}ms ({} rows/s)", rows, table, millis, rows * 1000 / Math.max(1, millis));
+    }
+
+    /**
+     * One independent random stream per table (stream) and block of rows (-1 for the whole table)
+     */
+    private SplittableRandom random(int stream, int block) {
+        return new SplittableRandom(mix(mix(spec.getSeed() + stream) + block));
+    }
+
+    /**
+     * Mean rating a song's ratings cluster around, from 1.5 to 5, fixed by the seed
+     */
+    private double quality(int song) {
+        return 1.5 + 3.5 * ((mix(spec.getSeed() * 31 + song) >>> 11) * 0x1.0p-53);
+    }
+
+    /**
+     * Scrambles a long so nearby inputs give unrelated outputs (the SplitMix64 finalizer)
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return a count from 0 up with the given mean, most often small
+     */
+    private static int geometric(SplittableRandom random, int mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        double p = 1.0 / (mean + 1);
+        return (int) Math.min(Integer.MAX_VALUE, Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+    }
+
+    private static String artistName(SplittableRandom random, Catalog catalog) {
+        String name = catalog.words(random, 1 + random.nextInt(2));
+        return switch (random.nextInt(10)) {
+            case 0, 1 -> "The " + name;
+            case 2 -> "DJ " + name;
+            default -> name;
+        };
+    }
+
+    /**
+     * Maps Zipf ranks to item indexes through a fixed scramble, so the popular items are spread over the
+     * table instead of being its first rows
+     */
+    private static final class ZipfPopularity {
+        private final ZipfSampler sampler;
+        private final long stride;
+        private final long offset;
+
+        private ZipfPopularity(int items, double exponent, SplittableRandom random) {
+            this.sampler = new ZipfSampler(items, exponent);
+            long stride = items <= 2 ? 1 : 1 + random.nextInt(items - 1);
+            while (gcd(stride, items) != 1) {
+                stride++;
+            }
+            this.stride = stride;
+            this.offset = random.nextInt(items);
+        }
+
+        private int index(SplittableRandom random) {
+            return (int) (((sampler.sample(random) - 1) * stride + offset) % sampler.size());
+        }
+
+        /**
+         * @return up to count distinct indexes, in the order drawn; fewer if the popular ones keep repeating
+         */
+        private Set<Integer> distinct(SplittableRandom random, int count) {
+            Set<Integer> drawn = new LinkedHashSet<>();
+            for (int attempt = 0; drawn.size() < count && attempt < 4 * count + 16; attempt++) {
+                drawn.add(index(random));
+            }
+            return drawn;
+        }
+
+        private static long gcd(long a, long b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+    }
+
+    /**
+     * What later tables need to know about the rows already generated, by index
+     */
+    private final class Catalog {
+        private final int[] artistGenre;
+        private final short[] artistFormed;
+        private final int[] albumArtist;
+        private final short[] albumYear;
+        private final ZipfPopularity genrePopularity;
+        private final ZipfPopularity artistPopularity;
+        private final ZipfSampler vocabulary = new ZipfSampler(VOCABULARY_SIZE, 1.0);
+        private int[] genreIds;
+        private int[] artistIds;
+        private int[] albumIds;
+
+        private Catalog(int artists, int albums) {
+            this.artistGenre = new int[artists];
+            this.artistFormed = new short[artists];
+            this.albumArtist = new int[albums];
+            this.albumYear = new short[albums];
+            this.genrePopularity = new ZipfPopularity(spec.getGenres(), 1.0, random(10, -1));
+            this.artistPopularity = new ZipfPopularity(artists, spec.getPopularityExponent(), random(11, -1));
+        }
+
+        /**
+         * Capitalized made-up words, common ones far more often than rare ones
+         */
+        private String words(SplittableRandom random, int count) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    text.append(' ');
+                }
+                String word = word(vocabulary.sample(random) - 1);
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            }
+            return text.toString();
+        }
+
+        /**
+         * The index-th word: two syllables for the first SYLLABLES^2 words, three after that
+         */
+        private static String word(int index) {
+            int n = SYLLABLES.length;
+            if (index < n * n) {
+                return SYLLABLES[index / n] + SYLLABLES[index % n];
+            }
+            index -= n * n;
+            return SYLLABLES[index / (n * n) % n] + SYLLABLES[index / n % n] + SYLLABLES[index % n];
+        }
+    }
+}
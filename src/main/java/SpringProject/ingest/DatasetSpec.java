@@ -0,0 +1,47 @@
+package SpringProject.ingest;
+
+import lombok.*;
+
+/**
+ * Shape and size of a dataset made by DatasetGenerator. The same spec and seed always produce the same rows.
+ * Artists and albums follow from the songs: songs / songsPerAlbum albums, albums / albumsPerArtist artists.
+ */
+@Builder
+@Getter
+@ToString
+public class DatasetSpec {
+    @Builder.Default
+    private long seed = 42;
+    @Builder.Default
+    private int genres = 30;
+    @Builder.Default
+    private int songs = 100_000;
+    @Builder.Default
+    private int songsPerAlbum = 12;
+    @Builder.Default
+    private int albumsPerArtist = 4;
+    @Builder.Default
+    private int users = 10_000;
+    @Builder.Default
+    private int playlists = 20_000;
+    /** Average songs per playlist; sizes vary geometrically, so most playlists are short and a few are long */
+    @Builder.Default
+    private int meanPlaylistSize = 25;
+    @Builder.Default
+    private int maxPlaylistSize = 500;
+    /** Average ratings per user, varying geometrically like playlist sizes */
+    @Builder.Default
+    private int meanRatingsPerUser = 20;
+    /** Zipf exponent of how often songs are added to playlists and rated, and how many albums artists make */
+    @Builder.Default
+    private double popularityExponent = 1.0;
+    /** Zipf exponent of how many playlists users own */
+    @Builder.Default
+    private double activityExponent = 0.8;
+    /** Rows per INSERT batch (JdbcBatch) */
+    @Builder.Default
+    private int insertBatchSize = 1_000;
+    /** Connections writing playlist songs and ratings at once */
+    @Builder.Default
+    private int writerThreads = 4;
+}
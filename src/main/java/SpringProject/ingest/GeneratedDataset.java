@@ -0,0 +1,34 @@
+package SpringProject.ingest;
+
+import lombok.*;
+
+/**
+ * Rows DatasetGenerator added to each table, and how long it took
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class GeneratedDataset {
+    private long seed;
+    private int genres;
+    private int artists;
+    private int albums;
+    private int songs;
+    private int users;
+    private int playlists;
+    private long playlistSongs;
+    private long ratings;
+    private long millis;
+
+    public long getRows() {
+        return (long) genres + artists + albums + songs + users + playlists + playlistSongs + ratings;
+    }
+
+    /**
+     * @return rows inserted per second of the run
+     */
+    public double getRowsPerSecond() {
+        return millis == 0 ? getRows() : getRows() * 1000.0 / millis;
+    }
+}
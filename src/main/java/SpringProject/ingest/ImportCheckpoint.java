@@ -0,0 +1,58 @@
+package SpringProject.ingest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * How many records of each import source have been imported, kept in the catalog_imports table.
+ * It is updated in the same transaction as the songs it counts, so after a failure the next run resumes
+ * exactly where the last committed chunk ended - nothing is imported twice or skipped.
+ */
+final class ImportCheckpoint {
+
+    static final int MAX_SOURCE_LENGTH = 255;
+
+    private ImportCheckpoint() {
+    }
+
+    static void createTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS catalog_imports
+                    (
+                        source  VARCHAR(255) PRIMARY KEY,
+                        records BIGINT NOT NULL
+                    )""");
+        }
+    }
+
+    /**
+     * @return records of the source already imported, 0 if it was never imported
+     */
+    static long load(Connection conn, String source) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT records FROM catalog_imports WHERE source = ?")) {
+            ps.setString(1, source);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    static void save(Connection conn, String source, long records) throws SQLException {
+        try (PreparedStatement update = conn.prepareStatement("UPDATE catalog_imports SET records = ? WHERE source = ?")) {
+            update.setLong(1, records);
+            update.setString(2, source);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+        }
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO catalog_imports (source, records) VALUES (?, ?)")) {
+            insert.setString(1, source);
+            insert.setLong(2, records);
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package SpringProject.ingest;
+
+import lombok.*;
+
+/**
+ * Tuning for a CatalogImporter run. The defaults suit a local MySQL; every setting can be changed per run.
+ */
+@Builder
+@Getter
+@ToString
+public class ImportOptions {
+    /** Threads parsing lines into records */
+    @Builder.Default
+    private int parserThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    /** Records per parse task, and per transaction - so also how often the resume point moves */
+    @Builder.Default
+    private int chunkSize = 5_000;
+    /** Songs per INSERT batch (JdbcBatch) */
+    @Builder.Default
+    private int insertBatchSize = 500;
+    /** Parsed chunks that may wait for the writer before the reader blocks, bounding memory */
+    @Builder.Default
+    private int queuedChunks = 8;
+    /** How often progress is logged */
+    @Builder.Default
+    private long progressIntervalMillis = 5_000;
+    /** Name the resume point is kept under; null for the file's absolute path */
+    private String source;
+}
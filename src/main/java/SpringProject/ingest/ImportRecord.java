@@ -0,0 +1,20 @@
+package SpringProject.ingest;
+
+import lombok.*;
+
+/**
+ * One song of an import file, with its artist, album and genre given by name rather than by id
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ImportRecord {
+    private String title;
+    private String artist;
+    /** null for a single that isn't on an album */
+    private String album;
+    private String genre;
+    private int durationSeconds;
+    private Integer releaseYear;
+}
@@ -0,0 +1,31 @@
+package SpringProject.ingest;
+
+import lombok.*;
+
+/**
+ * What one CatalogImporter run did
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ImportResult {
+    private String source;
+    /** Records skipped because an earlier run had already imported them */
+    private long resumedAfter;
+    /** Records read by this run, including rejected ones */
+    private long records;
+    private long songsInserted;
+    private long rejected;
+    private int genresCreated;
+    private int artistsCreated;
+    private int albumsCreated;
+    private long millis;
+
+    /**
+     * @return songs inserted per second of the run
+     */
+    public double getRowsPerSecond() {
+        return millis == 0 ? songsInserted : songsInserted * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,161 @@
+package SpringProject.ingest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps genre, artist and album names to ids from in-memory maps loaded once at the start of an import,
+ * creating the rows for names not seen before. Names match ignoring case and surrounding spaces, as
+ * MySQL's default collation compares them; albums match by title within their artist.
+ *
+ * Rows created in the current transaction are kept apart until commit(), so a rolled-back chunk
+ * leaves no ids behind for rows that no longer exist. Used only by the import's single writer thread.
+ */
+final class NameResolver {
+
+    private final Map<String, Integer> genres = new HashMap<>();
+    private final Map<String, Integer> artists = new HashMap<>();
+    private final Map<String, Integer> albums = new HashMap<>();
+    private final Map<String, Integer> newGenres = new HashMap<>();
+    private final Map<String, Integer> newArtists = new HashMap<>();
+    private final Map<String, Integer> newAlbums = new HashMap<>();
+    private int genresCreated;
+    private int artistsCreated;
+    private int albumsCreated;
+
+    private NameResolver() {
+    }
+
+    /**
+     * Reads every genre, artist and album name; where names repeat, the lowest id wins
+     */
+    static NameResolver load(Connection conn) throws SQLException {
+        NameResolver resolver = new NameResolver();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM genres ORDER BY id")) {
+                while (rs.next()) {
+                    resolver.genres.putIfAbsent(key(rs.getString("name")), rs.getInt("id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT id, name FROM artists ORDER BY id")) {
+                while (rs.next()) {
+                    resolver.artists.putIfAbsent(key(rs.getString("name")), rs.getInt("id"));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT id, artistId, title FROM albums ORDER BY id")) {
+                while (rs.next()) {
+                    resolver.albums.putIfAbsent(albumKey(rs.getInt("artistId"), rs.getString("title")), rs.getInt("id"));
+                }
+            }
+        }
+        return resolver;
+    }
+
+    int genreId(Connection conn, String name) throws SQLException {
+        String key = key(name);
+        Integer id = find(genres, newGenres, key);
+        if (id == null) {
+            id = insert(conn, "INSERT INTO genres (name) VALUES (?)", name, null, null);
+            newGenres.put(key, id);
+        }
+        return id;
+    }
+
+    int artistId(Connection conn, String name) throws SQLException {
+        String key = key(name);
+        Integer id = find(artists, newArtists, key);
+        if (id == null) {
+            id = insert(conn, "INSERT INTO artists (name) VALUES (?)", name, null, null);
+            newArtists.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param genreId given to the album if it has to be created
+     * @return the album's id, or null if title is null
+     */
+    Integer albumId(Connection conn, int artistId, String title, int genreId) throws SQLException {
+        if (title == null) {
+            return null;
+        }
+        String key = albumKey(artistId, title);
+        Integer id = find(albums, newAlbums, key);
+        if (id == null) {
+            id = insert(conn, "INSERT INTO albums (title, artistId, genreId) VALUES (?, ?, ?)", title, artistId, genreId);
+            newAlbums.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * The transaction that created the new rows committed: keep their ids
+     */
+    void commit() {
+        genresCreated += newGenres.size();
+        artistsCreated += newArtists.size();
+        albumsCreated += newAlbums.size();
+        genres.putAll(newGenres);
+        artists.putAll(newArtists);
+        albums.putAll(newAlbums);
+        discard();
+    }
+
+    /**
+     * The transaction that created the new rows rolled back: forget them
+     */
+    void discard() {
+        newGenres.clear();
+        newArtists.clear();
+        newAlbums.clear();
+    }
+
+    int getGenresCreated() {
+        return genresCreated;
+    }
+
+    int getArtistsCreated() {
+        return artistsCreated;
+    }
+
+    int getAlbumsCreated() {
+        return albumsCreated;
+    }
+
+    private static Integer find(Map<String, Integer> committed, Map<String, Integer> created, String key) {
+        Integer id = committed.get(key);
+        return id != null ? id : created.get(key);
+    }
+
+    private static int insert(Connection conn, String sql, String name, Integer artistId, Integer genreId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            if (artistId != null) {
+                ps.setInt(2, artistId);
+                ps.setObject(3, genreId, Types.INTEGER);
+            }
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No id generated by " + sql);
+                }
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String albumKey(int artistId, String title) {
+        return artistId + ":" + key(title);
+    }
+}
@@ -0,0 +1,42 @@
+package SpringProject.ingest;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+
+/**
+ * Parses records written one JSON object per line
+ */
+final class NdjsonRecordParser implements RecordParser {
+
+    private final JsonMapper jsonMapper;
+
+    NdjsonRecordParser(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    public ImportRecord parse(String line) {
+        Map<?, ?> object;
+        try {
+            object = jsonMapper.readValue(line, Map.class);
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("not a JSON object: " + e.getOriginalMessage());
+        }
+        if (object == null) {
+            throw new IllegalArgumentException("not a JSON object");
+        }
+        return RecordParser.record(text(object, "title"), text(object, "artist"), text(object, "album"),
+                text(object, "genre"), text(object, "durationSeconds"), text(object, "releaseYear"));
+    }
+
+    private static String text(Map<?, ?> object, String field) {
+        Object value = object.get(field);
+        if (value instanceof Double || value instanceof Float) {
+            // durations are stored in whole seconds
+            return String.valueOf(Math.round(((Number) value).doubleValue()));
+        }
+        return value == null ? null : value.toString();
+    }
+}
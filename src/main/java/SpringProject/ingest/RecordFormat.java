@@ -0,0 +1,55 @@
+package SpringProject.ingest;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Import file formats. Both hold one song per line with the fields title, artist, album, genre,
+ * durationSeconds and releaseYear; album and releaseYear may be empty.
+ * <ul>
+ *     <li>CSV: a header line naming the columns, in any order, then one comma-separated record per line.
+ *     Fields containing commas or quotes are quoted, with quotes doubled; a record can't span lines.</li>
+ *     <li>NDJSON: one JSON object per line, e.g. {"title":"Hey Jude","artist":"The Beatles","genre":"Rock",
+ *     "durationSeconds":431}</li>
+ * </ul>
+ */
+public enum RecordFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * @return the format for a file's extension: .csv, or .ndjson / .jsonl
+     * @throws IllegalArgumentException for any other extension
+     */
+    public static RecordFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unknown import format for " + file + " - expected .csv, .ndjson or .jsonl");
+    }
+
+    /**
+     * @param header the first line of the file for CSV (ignored for NDJSON)
+     * @return a parser for the lines that follow; parsers are safe to share between threads
+     */
+    RecordParser parser(String header, JsonMapper jsonMapper) throws IOException {
+        return switch (this) {
+            case CSV -> CsvRecordParser.fromHeader(header);
+            case NDJSON -> new NdjsonRecordParser(jsonMapper);
+        };
+    }
+
+    /**
+     * @return true if the first line of the file is a header rather than a record
+     */
+    boolean hasHeader() {
+        return this == CSV;
+    }
+}
@@ -0,0 +1,62 @@
+package SpringProject.ingest;
+
+/**
+ * Turns one line of an import file into a record
+ */
+interface RecordParser {
+
+    int MAX_TITLE_LENGTH = 200;
+    int MAX_ARTIST_LENGTH = 100;
+    int MAX_GENRE_LENGTH = 50;
+
+    /**
+     * @throws IllegalArgumentException if the line is malformed or a field is missing or invalid
+     */
+    ImportRecord parse(String line);
+
+    /**
+     * Checks and trims the fields the way the songs, artists, albums and genres tables need them
+     * @throws IllegalArgumentException naming the first field that is missing, too long or not a number
+     */
+    static ImportRecord record(String title, String artist, String album, String genre,
+                               String durationSeconds, String releaseYear) {
+        return new ImportRecord(
+                required("title", title, MAX_TITLE_LENGTH),
+                required("artist", artist, MAX_ARTIST_LENGTH),
+                optional("album", album, MAX_TITLE_LENGTH),
+                required("genre", genre, MAX_GENRE_LENGTH),
+                number("durationSeconds", required("durationSeconds", durationSeconds, 11)),
+                releaseYear == null || releaseYear.isBlank() ? null : number("releaseYear", releaseYear.trim()));
+    }
+
+    private static String required(String field, String value, int maxLength) {
+        String trimmed = optional(field, value, maxLength);
+        if (trimmed == null) {
+            throw new IllegalArgumentException(field + " is missing");
+        }
+        return trimmed;
+    }
+
+    private static String optional(String field, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    private static int number(String field, String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new IllegalArgumentException(field + " is negative: " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a whole number: " + value);
+        }
+    }
+}
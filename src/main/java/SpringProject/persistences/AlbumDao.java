@@ -6,4 +6,9 @@ import java.util.List;
 public interface AlbumDao {
     List<Album> getAlbumsByArtistId(int artistId);
     Album getAlbumById(int id);
+
+    /**
+     * @return albums with id greater than afterId, in id order - the rows added since a catalog snapshot
+     */
+    List<Album> findAfter(int afterId);
 }
@@ -19,7 +19,7 @@ public class AlbumDaoImpl implements AlbumDao {
     public List<Album> getAlbumsByArtistId(int artistId) {
         List<Album> albums = new ArrayList<>();
         String query = "SELECT * FROM albums WHERE artistId = ?";
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setInt(1, artistId);
@@ -47,7 +47,7 @@ public class AlbumDaoImpl implements AlbumDao {
     public Album getAlbumById(int id) {
         Album album = null;
         String query = "SELECT * FROM albums WHERE id = ?";
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setInt(1, id);
@@ -69,4 +69,32 @@ public class AlbumDaoImpl implements AlbumDao {
         }
         return album;
     }
+
+    @Override
+    public List<Album> findAfter(int afterId) {
+        List<Album> albums = new ArrayList<>();
+        String query = "SELECT * FROM albums WHERE id > ? ORDER BY id";
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, afterId);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                Album album = Album.builder()
+                        .id(rs.getInt("id"))
+                        .title(rs.getString("title"))
+                        .artistId(rs.getInt("artistId"))
+                        .genreId(rs.getInt("genreId"))
+                        .releaseDate(rs.getDate("releaseDate") != null ?
+                                rs.getDate("releaseDate").toLocalDate() : null)
+                        .build();
+                albums.add(album);
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return albums;
+    }
 }
@@ -12,4 +12,9 @@ public interface ArtistDao {
     List<Album> getAlbumsByArtist(int artistId);
     List<Artist> findAll();
     Optional<Artist> findById(int id);
+
+    /**
+     * @return artists with id greater than afterId, in id order - the rows added since a catalog snapshot
+     */
+    List<Artist> findAfter(int afterId);
 }
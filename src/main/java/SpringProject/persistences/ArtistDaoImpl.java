@@ -31,7 +31,7 @@ public class ArtistDaoImpl implements ArtistDao {
         List<Album> albums = new ArrayList<>();
         String sql = "SELECT * FROM albums WHERE artistId = ?";
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, artistId);
@@ -52,7 +52,7 @@ public class ArtistDaoImpl implements ArtistDao {
         List<Artist> artists = new ArrayList<>();
         String sql = "SELECT * FROM artists";
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -70,7 +70,7 @@ public class ArtistDaoImpl implements ArtistDao {
     public Optional<Artist> findById(int id) {
         String sql = "SELECT * FROM artists WHERE id = ?";
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(sql)) {
 
             ps.setInt(1, id);
@@ -86,6 +86,27 @@ public class ArtistDaoImpl implements ArtistDao {
         return Optional.empty();
     }
 
+    @Override
+    public List<Artist> findAfter(int afterId) {
+        List<Artist> artists = new ArrayList<>();
+        String sql = "SELECT * FROM artists WHERE id > ? ORDER BY id";
+
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setInt(1, afterId);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                artists.add(mapRowToArtist(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return artists;
+    }
+
     private Artist mapRowToArtist(ResultSet rs) throws SQLException {
         return Artist.builder()
                 .id(rs.getInt("id"))
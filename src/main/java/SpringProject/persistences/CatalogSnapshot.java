@@ -0,0 +1,322 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Album;
+import SpringProject.entities.Artist;
+import SpringProject.entities.Genre;
+import SpringProject.entities.Song;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped view of a catalog snapshot file written by CatalogSnapshotWriter.
+ *
+ * The file is a fixed header, then one section of fixed-width rows per table - genres, artists, albums,
+ * an album-by-artist index, songs - each sorted by id, then a pool of UTF-8 strings the rows point into.
+ * Opening it only maps the file: nothing is parsed up front, a lookup is a binary search over the mapped
+ * rows, and a field is read straight from the page cache when asked for. All integers are big-endian.
+ *
+ * <pre>
+ * header   magic, version, createdMillis, songs, artists, albums, genres, stringsOffset (64 bytes)
+ * genre    id, name, description                                                     (20 bytes)
+ * artist   id, formedYear, name, bio, country                                        (32 bytes)
+ * album    id, artistId, genreId, releaseDate as epoch day or NO_DATE, title         (24 bytes)
+ * byArtist album row numbers ordered by artistId, then id                            (4 bytes)
+ * song     id, artistId, albumId, genreId, durationSeconds, releaseYear, title       (32 bytes)
+ * strings  UTF-8 bytes; a string field is its offset into the pool and its length, -1 for null
+ * </pre>
+ *
+ * A single mapping is limited to 2GB, which holds a catalog of roughly 40M songs.
+ * Absolute reads never move the buffer's position, so one instance is safe to share between threads.
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x44504353;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int GENRE_BYTES = 20;
+    static final int ARTIST_BYTES = 32;
+    static final int ALBUM_BYTES = 24;
+    static final int SONG_BYTES = 32;
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long createdMillis;
+    private final int songCount;
+    private final int artistCount;
+    private final int albumCount;
+    private final int genreCount;
+    private final int genresAt;
+    private final int artistsAt;
+    private final int albumsAt;
+    private final int byArtistAt;
+    private final int songsAt;
+    private final int stringsAt;
+
+    private CatalogSnapshot(Path path, ByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(path + " is snapshot version " + buffer.getInt(4) + ", expected " + VERSION);
+        }
+        this.createdMillis = buffer.getLong(8);
+        this.songCount = buffer.getInt(16);
+        this.artistCount = buffer.getInt(20);
+        this.albumCount = buffer.getInt(24);
+        this.genreCount = buffer.getInt(28);
+        long strings = buffer.getLong(32);
+
+        // computed as longs first so corrupt counts can't overflow into plausible offsets
+        long genres = HEADER_BYTES;
+        long artists = genres + (long) genreCount * GENRE_BYTES;
+        long albums = artists + (long) artistCount * ARTIST_BYTES;
+        long byArtist = albums + (long) albumCount * ALBUM_BYTES;
+        long songs = byArtist + (long) albumCount * 4;
+        long end = songs + (long) songCount * SONG_BYTES;
+        if (songCount < 0 || artistCount < 0 || albumCount < 0 || genreCount < 0
+                || strings != end || end > buffer.capacity()) {
+            throw new IOException(path + " is truncated or corrupt");
+        }
+        this.genresAt = (int) genres;
+        this.artistsAt = (int) artists;
+        this.albumsAt = (int) albums;
+        this.byArtistAt = (int) byArtist;
+        this.songsAt = (int) songs;
+        this.stringsAt = (int) end;
+    }
+
+    /**
+     * Maps a snapshot file read-only and checks its header
+     * @throws IOException if the file can't be read, isn't a snapshot, or is truncated
+     */
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than a single 2GB mapping");
+            }
+            // the mapping stays valid after the channel is closed
+            return new CatalogSnapshot(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public int songCount() {
+        return songCount;
+    }
+
+    public int artistCount() {
+        return artistCount;
+    }
+
+    public int albumCount() {
+        return albumCount;
+    }
+
+    public int genreCount() {
+        return genreCount;
+    }
+
+    /**
+     * @return the highest song id in the snapshot (0 if empty); newer songs have larger ids
+     */
+    public int maxSongId() {
+        return songCount == 0 ? 0 : buffer.getInt(songsAt + (songCount - 1) * SONG_BYTES);
+    }
+
+    public int maxArtistId() {
+        return artistCount == 0 ? 0 : buffer.getInt(artistsAt + (artistCount - 1) * ARTIST_BYTES);
+    }
+
+    public int maxAlbumId() {
+        return albumCount == 0 ? 0 : buffer.getInt(albumsAt + (albumCount - 1) * ALBUM_BYTES);
+    }
+
+    public Song song(int row) {
+        int at = songsAt + row * SONG_BYTES;
+        return Song.builder()
+                .id(buffer.getInt(at))
+                .artistId(buffer.getInt(at + 4))
+                .albumId(buffer.getInt(at + 8))
+                .genreId(buffer.getInt(at + 12))
+                .durationSeconds(buffer.getInt(at + 16))
+                .releaseYear(buffer.getInt(at + 20))
+                .title(string(at + 24))
+                .build();
+    }
+
+    /**
+     * @return the song with that id, or null
+     */
+    public Song findSong(int id) {
+        int row = search(songsAt, SONG_BYTES, songCount, id);
+        return row < 0 ? null : song(row);
+    }
+
+    /**
+     * Hands every song to the consumer in id order
+     */
+    public void forEachSong(Consumer<Song> consumer) {
+        for (int row = 0; row < songCount; row++) {
+            consumer.accept(song(row));
+        }
+    }
+
+    /**
+     * @return the artist with that id, or null
+     */
+    public Artist findArtist(int id) {
+        int row = search(artistsAt, ARTIST_BYTES, artistCount, id);
+        return row < 0 ? null : artist(row);
+    }
+
+    /**
+     * @return every artist, in id order
+     */
+    public List<Artist> artists() {
+        List<Artist> artists = new ArrayList<>(artistCount);
+        for (int row = 0; row < artistCount; row++) {
+            artists.add(artist(row));
+        }
+        return artists;
+    }
+
+    /**
+     * @return the album with that id, or null
+     */
+    public Album findAlbum(int id) {
+        int row = search(albumsAt, ALBUM_BYTES, albumCount, id);
+        return row < 0 ? null : album(row);
+    }
+
+    /**
+     * @return the albums of an artist, in id order, found by binary search over the album-by-artist index
+     */
+    public List<Album> albumsByArtist(int artistId) {
+        int low = 0;
+        int high = albumCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (albumArtist(mid) < artistId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<Album> albums = new ArrayList<>();
+        for (int i = low; i < albumCount && albumArtist(i) == artistId; i++) {
+            albums.add(album(buffer.getInt(byArtistAt + i * 4)));
+        }
+        return albums;
+    }
+
+    /**
+     * @return the genre with that id, or null
+     */
+    public Genre findGenre(int id) {
+        int row = search(genresAt, GENRE_BYTES, genreCount, id);
+        return row < 0 ? null : genre(row);
+    }
+
+    /**
+     * @return every genre, in id order
+     */
+    public List<Genre> genres() {
+        List<Genre> genres = new ArrayList<>(genreCount);
+        for (int row = 0; row < genreCount; row++) {
+            genres.add(genre(row));
+        }
+        return genres;
+    }
+
+    private Artist artist(int row) {
+        int at = artistsAt + row * ARTIST_BYTES;
+        return Artist.builder()
+                .id(buffer.getInt(at))
+                .formedYear(buffer.getInt(at + 4))
+                .name(string(at + 8))
+                .bio(string(at + 16))
+                .country(string(at + 24))
+                .build();
+    }
+
+    private Album album(int row) {
+        int at = albumsAt + row * ALBUM_BYTES;
+        int epochDay = buffer.getInt(at + 12);
+        return Album.builder()
+                .id(buffer.getInt(at))
+                .artistId(buffer.getInt(at + 4))
+                .genreId(buffer.getInt(at + 8))
+                .releaseDate(epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay))
+                .title(string(at + 16))
+                .build();
+    }
+
+    private Genre genre(int row) {
+        int at = genresAt + row * GENRE_BYTES;
+        Genre genre = new Genre();
+        genre.setId(buffer.getInt(at));
+        genre.setName(string(at + 4));
+        genre.setDescription(string(at + 12));
+        return genre;
+    }
+
+    /**
+     * @return the artist id of the i-th album in album-by-artist order
+     */
+    private int albumArtist(int i) {
+        return buffer.getInt(albumsAt + buffer.getInt(byArtistAt + i * 4) * ALBUM_BYTES + 4);
+    }
+
+    /**
+     * Binary search for an id over a section of rows that each start with their id
+     * @return the row, or -1
+     */
+    private int search(int sectionAt, int rowBytes, int count, int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = buffer.getInt(sectionAt + mid * rowBytes);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the string whose pool offset and length are stored at a position
+     */
+    private String string(int at) {
+        int length = buffer.getInt(at + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsAt + buffer.getInt(at), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
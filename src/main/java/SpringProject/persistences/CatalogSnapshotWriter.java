@@ -0,0 +1,197 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Album;
+import SpringProject.entities.Artist;
+import SpringProject.entities.Genre;
+import SpringProject.entities.Song;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the catalog - songs, artists, albums and genres - to a CatalogSnapshot file.
+ *
+ * Songs are streamed from the database and written as they arrive, and their titles go to a temporary
+ * string pool file that is appended at the end, so memory use doesn't grow with the catalog. The file is
+ * written next to the target and moved into place, so readers never map a half-written snapshot.
+ *
+ * Run as a job: java ... SpringProject.persistences.CatalogSnapshotWriter snapshot-file [database.properties]
+ */
+@Slf4j
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 1) {
+            System.err.println("usage: CatalogSnapshotWriter snapshot-file [database properties file]");
+            System.exit(2);
+        }
+        Connector connector = new MySqlConnector(args.length > 1 ? args[1] : "properties/database.properties");
+        CatalogSnapshot snapshot = write(Path.of(args[0]), new SongDaoImpl(connector), new ArtistDaoImpl(connector),
+                new AlbumDaoImpl(connector), new GenreImpl(connector));
+        log.info("Catalog snapshot {}: {} songs, {} artists, {} albums, {} genres",
+                snapshot.getPath(), snapshot.songCount(), snapshot.artistCount(), snapshot.albumCount(), snapshot.genreCount());
+    }
+
+    /**
+     * Writes a snapshot of the catalog to target, replacing any previous one
+     * @return the new snapshot, opened
+     * @throws SQLException if the catalog could not be read
+     * @throws IOException if the file could not be written
+     */
+    public static CatalogSnapshot write(Path target, SongDao songDao, ArtistDao artistDao, AlbumDao albumDao,
+                                        GenreDao genreDao) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        List<Genre> genres = new ArrayList<>(genreDao.findAll());
+        genres.sort(Comparator.comparing(Genre::getId));
+        List<Artist> artists = new ArrayList<>(artistDao.findAll());
+        artists.sort(Comparator.comparingInt(Artist::getId));
+        List<Album> albums = new ArrayList<>(albumDao.findAfter(0));
+        albums.sort(Comparator.comparingInt(Album::getId));
+
+        Path absolute = target.toAbsolutePath();
+        Path directory = absolute.getParent();
+        Files.createDirectories(directory);
+        Path rowsFile = Files.createTempFile(directory, absolute.getFileName().toString(), ".rows");
+        Path stringsFile = Files.createTempFile(directory, absolute.getFileName().toString(), ".strings");
+        try {
+            long songCount;
+            try (DataOutputStream rows = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(rowsFile), 1 << 16));
+                 StringPool strings = new StringPool(Files.newOutputStream(stringsFile))) {
+
+                rows.write(new byte[CatalogSnapshot.HEADER_BYTES]);
+                for (Genre genre : genres) {
+                    rows.writeInt(genre.getId());
+                    strings.write(rows, genre.getName());
+                    strings.write(rows, genre.getDescription());
+                }
+                for (Artist artist : artists) {
+                    rows.writeInt(artist.getId());
+                    rows.writeInt(artist.getFormedYear());
+                    strings.write(rows, artist.getName());
+                    strings.write(rows, artist.getBio());
+                    strings.write(rows, artist.getCountry());
+                }
+                for (Album album : albums) {
+                    rows.writeInt(album.getId());
+                    rows.writeInt(album.getArtistId());
+                    rows.writeInt(album.getGenreId());
+                    rows.writeInt(album.getReleaseDate() == null
+                            ? CatalogSnapshot.NO_DATE : (int) album.getReleaseDate().toEpochDay());
+                    strings.write(rows, album.getTitle());
+                }
+                Integer[] byArtist = new Integer[albums.size()];
+                for (int i = 0; i < byArtist.length; i++) {
+                    byArtist[i] = i;
+                }
+                // albums are in id order, so a stable sort by artist keeps each artist's albums in id order
+                Arrays.sort(byArtist, Comparator.comparingInt(row -> albums.get(row).getArtistId()));
+                for (int row : byArtist) {
+                    rows.writeInt(row);
+                }
+                try {
+                    songCount = songDao.streamAll(song -> writeSong(rows, strings, song));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            long stringsOffset = Files.size(rowsFile);
+            if (stringsOffset + Files.size(stringsFile) > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot would exceed the 2GB a single mapping can hold");
+            }
+            try (FileChannel out = FileChannel.open(rowsFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                Files.copy(stringsFile, Channels.newOutputStream(out));
+            }
+            ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_BYTES)
+                    .putInt(CatalogSnapshot.MAGIC)
+                    .putInt(CatalogSnapshot.VERSION)
+                    .putLong(System.currentTimeMillis())
+                    .putInt((int) songCount)
+                    .putInt(artists.size())
+                    .putInt(albums.size())
+                    .putInt(genres.size())
+                    .putLong(stringsOffset);
+            header.clear();
+            try (FileChannel out = FileChannel.open(rowsFile, StandardOpenOption.WRITE)) {
+                out.write(header, 0);
+                out.force(true);
+            }
+            Files.move(rowsFile, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(rowsFile);
+            Files.deleteIfExists(stringsFile);
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(absolute);
+        log.info("Catalog snapshot written to {} in {}ms ({} bytes)",
+                absolute, System.currentTimeMillis() - start, Files.size(absolute));
+        return snapshot;
+    }
+
+    private static void writeSong(DataOutputStream rows, StringPool strings, Song song) {
+        try {
+            rows.writeInt(song.getId());
+            rows.writeInt(song.getArtistId());
+            rows.writeInt(song.getAlbumId());
+            rows.writeInt(song.getGenreId());
+            rows.writeInt((int) Math.round(song.getDurationSeconds()));
+            rows.writeInt(song.getReleaseYear());
+            strings.write(rows, song.getTitle());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends strings to the pool file and writes their offset and length into a row
+     */
+    private static final class StringPool implements AutoCloseable {
+        private final OutputStream out;
+        private long size;
+
+        StringPool(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 1 << 16);
+        }
+
+        void write(DataOutputStream row, String value) throws IOException {
+            if (value == null) {
+                row.writeInt(0);
+                row.writeInt(-1);
+                return;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot strings exceed 2GB");
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            row.writeInt((int) size);
+            row.writeInt(bytes.length);
+            out.write(bytes);
+            size += bytes.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
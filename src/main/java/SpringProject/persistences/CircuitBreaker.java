@@ -0,0 +1,172 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker around opening database connections.
+ *
+ * CLOSED - connects go through; outcomes are kept in a sliding window of the last breaker.windowSize attempts.
+ * Once at least breaker.minimumCalls are recorded and the failure rate reaches breaker.failureRateThreshold
+ * percent, the breaker trips to OPEN.
+ * OPEN - connects are refused immediately, without touching the network, for breaker.probeIntervalMillis.
+ * HALF_OPEN - after the probe interval a single caller is let through; success closes the breaker,
+ * failure opens it again.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long probeIntervalMillis;
+
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCount;
+    private int windowFailures;
+
+    /**
+     * The state and when the breaker last opened, swapped together so a caller never sees OPEN with the
+     * previous opening's time and skips the probe interval
+     */
+    private record Status(State state, long openedAt) {
+    }
+
+    private static final Status CLOSED = new Status(State.CLOSED, 0);
+
+    private final AtomicReference<Status> status = new AtomicReference<>(CLOSED);
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timesOpened = new AtomicLong();
+    private final AtomicLong timesHalfOpened = new AtomicLong();
+    private final AtomicLong timesClosed = new AtomicLong();
+
+    public CircuitBreaker(String name, int failureRateThreshold, int windowSize, int minimumCalls, long probeIntervalMillis) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length));
+        this.probeIntervalMillis = probeIntervalMillis;
+    }
+
+    /**
+     * Builds a breaker from the breaker.* keys of a connector properties file
+     */
+    public static CircuitBreaker fromProperties(String name, Properties properties) {
+        return new CircuitBreaker(name,
+                Integer.parseInt(properties.getProperty("breaker.failureRateThreshold", "50").trim()),
+                Integer.parseInt(properties.getProperty("breaker.windowSize", "20").trim()),
+                Integer.parseInt(properties.getProperty("breaker.minimumCalls", "5").trim()),
+                Long.parseLong(properties.getProperty("breaker.probeIntervalMillis", "5000").trim()));
+    }
+
+    /**
+     * @return true if the caller may attempt to connect; false if the breaker is refusing calls
+     */
+    public boolean tryAcquire() {
+        Status current = status.get();
+        if (current.state() == State.CLOSED) {
+            return true;
+        }
+        if (current.state() == State.OPEN && System.currentTimeMillis() - current.openedAt() >= probeIntervalMillis
+                && status.compareAndSet(current, new Status(State.HALF_OPEN, current.openedAt()))) {
+            timesHalfOpened.incrementAndGet();
+            log.info("Circuit breaker '{}' half-open - letting a probe connection through", name);
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return true while the breaker is open and not yet due a probe - callers can fail fast without
+     * doing any other work (e.g. validating pooled connections)
+     */
+    public boolean isRefusing() {
+        Status current = status.get();
+        return current.state() == State.OPEN && System.currentTimeMillis() - current.openedAt() < probeIntervalMillis;
+    }
+
+    public void onSuccess() {
+        Status current = status.get();
+        if (current.state() == State.HALF_OPEN && status.compareAndSet(current, CLOSED)) {
+            resetWindow();
+            timesClosed.incrementAndGet();
+            log.info("Circuit breaker '{}' closed - database reachable again", name);
+            return;
+        }
+        record(false);
+    }
+
+    public void onFailure() {
+        Status current = status.get();
+        if (current.state() == State.HALF_OPEN
+                && status.compareAndSet(current, new Status(State.OPEN, System.currentTimeMillis()))) {
+            timesOpened.incrementAndGet();
+            log.warn("Circuit breaker '{}' re-opened - probe connection failed", name);
+            return;
+        }
+        if (record(true) && status.compareAndSet(CLOSED, new Status(State.OPEN, System.currentTimeMillis()))) {
+            timesOpened.incrementAndGet();
+            log.error("Circuit breaker '{}' opened - failing connection requests fast for {}ms",
+                    name, probeIntervalMillis);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return status.get().state();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getTimesOpened() {
+        return timesOpened.get();
+    }
+
+    public long getTimesHalfOpened() {
+        return timesHalfOpened.get();
+    }
+
+    public long getTimesClosed() {
+        return timesClosed.get();
+    }
+
+    /**
+     * Adds an outcome to the sliding window
+     * @return true if the failure rate has now reached the threshold
+     */
+    private synchronized boolean record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+
+        return windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount;
+    }
+
+    private synchronized void resetWindow() {
+        windowPosition = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
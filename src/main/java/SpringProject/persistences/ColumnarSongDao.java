@@ -0,0 +1,389 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongDetails;
+import SpringProject.entities.SongFilter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * SongDao that answers id lookups and listing pages from an in-memory SongColumns copy of the songs table,
+ * and attribute filters and random samples from SongBitmapIndex bitmaps over that copy. Everything else
+ * (name searches, joined details, the export stream) goes to the wrapped DAO. Until the catalog has
+ * loaded - or if loading fails - every call goes to the wrapped DAO.
+ *
+ * The copy is loaded at startup - from the songs table, or from a CatalogSnapshot plus the songs added
+ * since. Songs are added later by CatalogImporter and DatasetGenerator, outside the API, so reads don't
+ * stop at the copy: ids above the highest one loaded are looked up in the wrapped DAO, and pages and
+ * filters that run past the end of the copy are completed from it. catchUp() (scheduled with
+ * catchUpEvery()) appends those songs to the copy so random samples include them and the SQL tail stays
+ * short; load() can be called again to pick up changes to existing rows.
+ */
+@Slf4j
+public class ColumnarSongDao implements SongDao {
+
+    private static final int CATCH_UP_PAGE_SIZE = 10_000;
+
+    private final SongDao delegate;
+    private volatile SongColumns columns;
+    private volatile SongBitmapIndex bitmaps;
+    // guards swapping in a new copy; reads never take it
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    public ColumnarSongDao(SongDao delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Streams the songs table into a new columnar copy, indexes it and swaps both in
+     */
+    public void load() throws SQLException {
+        long start = System.currentTimeMillis();
+        SongColumns.Builder builder = SongColumns.builder();
+        delegate.streamAll(builder::add);
+        SongColumns loaded = builder.build();
+        SongBitmapIndex index = SongBitmapIndex.build(loaded);
+        swap(loaded, index);
+
+        int songs = Math.max(1, loaded.size());
+        log.info("Columnar song catalog loaded {} songs in {}ms: {} bytes/song (as Song entities: ~{} bytes/song), "
+                        + "filter bitmaps {} bytes/song",
+                loaded.size(), System.currentTimeMillis() - start,
+                loaded.memoryBytes() / songs, loaded.entityMemoryBytes() / songs, index.memoryBytes() / songs);
+    }
+
+    /**
+     * Builds the columnar copy from a catalog snapshot instead of the songs table, then catches up by
+     * appending the songs added since it was written - a primary key range read of only the new rows
+     */
+    public void load(CatalogSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        SongColumns.Builder builder = SongColumns.builder();
+        snapshot.forEachSong(builder::add);
+        int afterId = snapshot.maxSongId();
+        int added = 0;
+        List<Song> page;
+        do {
+            page = delegate.findPage(afterId, CATCH_UP_PAGE_SIZE);
+            for (Song song : page) {
+                builder.add(song);
+                afterId = song.getId();
+            }
+            added += page.size();
+        } while (page.size() == CATCH_UP_PAGE_SIZE);
+        SongColumns loaded = builder.build();
+        SongBitmapIndex index = SongBitmapIndex.build(loaded);
+        swap(loaded, index);
+        log.info("Columnar song catalog loaded {} songs from snapshot {} and {} newer songs from the database in {}ms",
+                snapshot.songCount(), snapshot.getPath(), added, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Loads off the calling thread so startup doesn't wait for the whole table
+     */
+    public void loadInBackground() {
+        loadInBackground(null);
+    }
+
+    /**
+     * Loads off the calling thread, from the snapshot if there is one, else from the songs table
+     */
+    public void loadInBackground(CatalogSnapshot snapshot) {
+        Thread loader = new Thread(() -> {
+            try {
+                if (snapshot != null) {
+                    load(snapshot);
+                } else {
+                    load();
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.error("Columnar song catalog could not be loaded - song reads keep using SQL. \nException: {}", e.getMessage());
+            }
+        }, "song-catalog-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Appends the songs added to the database since the copy was loaded to the columns and bitmaps, a page
+     * at a time, and swaps in each extended copy. Existing rows are neither re-read nor re-indexed. Pages are
+     * read before taking the swap lock, so a slow query holds up nothing; if the copy was reloaded meanwhile
+     * the page is dropped and the next run carries on from the new copy. Does nothing before the first load.
+     * @return the number of songs appended
+     */
+    public int catchUp() {
+        long start = System.currentTimeMillis();
+        int added = 0;
+        while (true) {
+            SongColumns current = columns;
+            if (current == null) {
+                break;
+            }
+            List<Song> page = delegate.findPage(maxId(current), CATCH_UP_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            swapLock.lock();
+            try {
+                if (columns != current) {
+                    break;
+                }
+                SongColumns appended = current.append(page);
+                bitmaps = bitmaps.append(appended);
+                columns = appended;
+            } finally {
+                swapLock.unlock();
+            }
+            added += page.size();
+            if (page.size() < CATCH_UP_PAGE_SIZE) {
+                break;
+            }
+        }
+        if (added > 0) {
+            log.info("Columnar song catalog caught up with {} new songs in {}ms", added, System.currentTimeMillis() - start);
+        }
+        return added;
+    }
+
+    /**
+     * Runs catchUp() every period on a daemon thread
+     */
+    public void catchUpEvery(long seconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "song-catalog-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                catchUp();
+            } catch (RuntimeException e) {
+                log.warn("Columnar song catalog catch-up failed - retrying in {}s. \nException: {}", seconds, e.getMessage());
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    private void swap(SongColumns loaded, SongBitmapIndex index) {
+        swapLock.lock();
+        try {
+            bitmaps = index;
+            columns = loaded;
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return columns != null;
+    }
+
+    /**
+     * @return the current columnar copy, or null before it has loaded
+     */
+    public SongColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the bitmap index over the current copy, or null before it has loaded
+     */
+    public SongBitmapIndex getBitmaps() {
+        return bitmaps;
+    }
+
+    @Override
+    public Song getSongById(int id) {
+        SongColumns current = columns;
+        if (current == null || id > maxId(current)) {
+            return delegate.getSongById(id);
+        }
+        return current.find(id);
+    }
+
+    @Override
+    public List<Song> getSongsByIds(Collection<Integer> ids) {
+        SongColumns current = columns;
+        if (current == null) {
+            return delegate.getSongsByIds(ids);
+        }
+        int[] distinct = ids.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).distinct().sorted().toArray();
+        int maxId = maxId(current);
+        List<Song> songs = new ArrayList<>(distinct.length);
+        List<Integer> newer = new ArrayList<>();
+        for (int id : distinct) {
+            if (id > maxId) {
+                newer.add(id);
+                continue;
+            }
+            int row = current.rowOf(id);
+            if (row >= 0) {
+                songs.add(current.song(row));
+            }
+        }
+        if (!newer.isEmpty()) {
+            songs.addAll(delegate.getSongsByIds(newer));
+        }
+        return songs;
+    }
+
+    @Override
+    public List<Song> findAll() {
+        SongColumns current = columns;
+        if (current == null) {
+            return delegate.findAll();
+        }
+        List<Song> songs = new ArrayList<>(current.size());
+        for (int row = 0; row < current.size(); row++) {
+            songs.add(current.song(row));
+        }
+        int afterId = maxId(current);
+        List<Song> page;
+        do {
+            page = delegate.findPage(afterId, CATCH_UP_PAGE_SIZE);
+            songs.addAll(page);
+            afterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        } while (page.size() == CATCH_UP_PAGE_SIZE);
+        return songs;
+    }
+
+    @Override
+    public List<Song> findPage(int afterId, int limit) {
+        SongColumns current = columns;
+        if (current == null) {
+            return delegate.findPage(afterId, limit);
+        }
+        int from = current.firstRowAfter(afterId);
+        int to = (int) Math.min(current.size(), (long) from + limit);
+        List<Song> songs = new ArrayList<>(Math.max(0, to - from));
+        for (int row = from; row < to; row++) {
+            songs.add(current.song(row));
+        }
+        if (songs.size() < limit) {
+            songs.addAll(delegate.findPage(Math.max(afterId, maxId(current)), limit - songs.size()));
+        }
+        return songs;
+    }
+
+    @Override
+    public List<Song> findByFilter(SongFilter filter, int afterId, int limit) {
+        SongBitmapIndex index = bitmaps;
+        if (index == null) {
+            return delegate.findByFilter(filter, afterId, limit);
+        }
+        List<Song> songs = new ArrayList<>(index.filter(filter, afterId, limit));
+        if (songs.size() < limit) {
+            songs.addAll(delegate.findByFilter(filter, Math.max(afterId, maxId(index.getColumns())), limit - songs.size()));
+        }
+        return songs;
+    }
+
+    @Override
+    public List<Integer> findIdsByFilter(SongFilter filter, int afterId, int limit) {
+        SongBitmapIndex index = bitmaps;
+        if (index == null) {
+            return delegate.findIdsByFilter(filter, afterId, limit);
+        }
+        List<Integer> ids = new ArrayList<>(limit > 0 ? Math.min(limit, 1024) : 0);
+        for (int id : index.filterIds(filter, afterId, limit)) {
+            ids.add(id);
+        }
+        if (ids.size() < limit) {
+            ids.addAll(delegate.findIdsByFilter(filter, Math.max(afterId, maxId(index.getColumns())), limit - ids.size()));
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Song> sample(Integer genreId, Set<Integer> excludedIds, int count) {
+        SongBitmapIndex index = bitmaps;
+        if (index == null) {
+            return delegate.sample(genreId, excludedIds, count);
+        }
+        SongColumns current = index.getColumns();
+        int[] rows = index.sampleRows(genreId, excludedIds, count, ThreadLocalRandom.current());
+        List<Song> songs = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            songs.add(current.song(row));
+        }
+        return songs;
+    }
+
+    /**
+     * @return the highest id in the copy, 0 if it is empty
+     */
+    private static int maxId(SongColumns current) {
+        return current.size() == 0 ? 0 : current.id(current.size() - 1);
+    }
+
+    @Override
+    public List<Song> getSongsByTitle(String title) {
+        return delegate.getSongsByTitle(title);
+    }
+
+    @Override
+    public List<Song> getSongsByArtist(String artistName) {
+        return delegate.getSongsByArtist(artistName);
+    }
+
+    @Override
+    public List<Song> getSongsByAlbum(String albumTitle) {
+        return delegate.getSongsByAlbum(albumTitle);
+    }
+
+    @Override
+    public List<Song> getSongsByGenre(String genreName) {
+        return delegate.getSongsByGenre(genreName);
+    }
+
+    @Override
+    public List<SongDetails> findAllDetails() {
+        return delegate.findAllDetails();
+    }
+
+    @Override
+    public SongDetails getSongDetailsById(int id) {
+        return delegate.getSongDetailsById(id);
+    }
+
+    @Override
+    public List<SongDetails> findDetailsPage(int afterId, int limit) {
+        return delegate.findDetailsPage(afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByTitle(String title, int afterId, int limit) {
+        return delegate.getSongsByTitle(title, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByArtist(String artistName, int afterId, int limit) {
+        return delegate.getSongsByArtist(artistName, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByAlbum(String albumTitle, int afterId, int limit) {
+        return delegate.getSongsByAlbum(albumTitle, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByGenre(String genreName, int afterId, int limit) {
+        return delegate.getSongsByGenre(genreName, afterId, limit);
+    }
+
+    @Override
+    public long streamAll(Consumer<Song> consumer) throws SQLException {
+        return delegate.streamAll(consumer);
+    }
+}
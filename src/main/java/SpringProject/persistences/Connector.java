@@ -7,4 +7,36 @@ import java.sql.Connection;
 public interface Connector {
     public Connection getConnection();
     public void freeConnection();
+    public void freeConnection(Connection conn);
+
+    /**
+     * Connection for a read-only DAO method. Connectors that split reads from writes
+     * (RoutingConnector) may serve it from a replica; by default it is the same as getConnection()
+     */
+    public default Connection getReadConnection() {
+        return getConnection();
+    }
+
+    /**
+     * Connection for a long forward-only streaming read such as SongDao.streamAll(), closed by the caller
+     * when done. MySqlConnector may open a dedicated one that reads through a server-side cursor; by default
+     * it is the same as getReadConnection()
+     */
+    public default Connection getStreamConnection() {
+        return getReadConnection();
+    }
+
+    /**
+     * Rows per executeBatch() round trip for the DAOs' batch write methods
+     */
+    public default int getBatchSize() {
+        return 500;
+    }
+
+    /**
+     * Rows fetched per round trip by forward-only streaming reads such as SongDao.streamAll()
+     */
+    public default int getStreamFetchSize() {
+        return 1000;
+    }
 }
@@ -0,0 +1,125 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Connector for an in-process, in-memory H2 database running in MySQL compatibility mode.
+ * On start-up it runs the scripts listed in the schema.scripts property (by default the same
+ * audiolibrary.sql and audiolibrary_dataset.sql used for MySQL), so DAO tests and benchmarks
+ * can run without an external database server.
+ *
+ * Connection details come from the properties file exactly as for MySqlConnector, e.g.
+ * driver=org.h2.Driver, url=jdbc:h2:mem:, database=audiolibrary;MODE=MySQL;DB_CLOSE_DELAY=-1
+ * It can be used on its own or as the connection factory of a PooledConnector.
+ */
+@Slf4j
+public class EmbeddedConnector extends MySqlConnector {
+
+    private static final String DEFAULT_SCRIPTS = "sql/audiolibrary.sql,sql/audiolibrary_dataset.sql";
+
+    public EmbeddedConnector(String propertiesFileName) {
+        super(propertiesFileName);
+        loadSchema();
+    }
+
+    /**
+     * Runs every script in schema.scripts against a fresh database
+     */
+    private void loadSchema() {
+        String scripts = getProperties().getProperty("schema.scripts", DEFAULT_SCRIPTS);
+
+        Connection conn = openConnection();
+        if (conn == null) {
+            log.error("loadSchema(): Could not open the embedded database - is the H2 driver on the classpath?");
+            return;
+        }
+
+        int executed = 0;
+        int failed = 0;
+        try (conn; Statement stmt = conn.createStatement()) {
+            for (String script : scripts.split(",")) {
+                for (String sql : readStatements(script.trim())) {
+                    try {
+                        stmt.execute(sql);
+                        executed++;
+                    } catch (SQLException e) {
+                        // Same as running the script with mysql --force: report and carry on
+                        failed++;
+                        log.warn("loadSchema(): statement in {} failed. \nException: {}", script, e.getMessage());
+                    }
+                }
+            }
+        } catch (SQLException | IOException e) {
+            log.error("loadSchema(): Could not load schema scripts. \nException: {}", e.getMessage());
+        }
+
+        log.info("Embedded database loaded from {} ({} statements, {} failed)", scripts, executed, failed);
+    }
+
+    /**
+     * Splits a MySQL script into statements, dropping comments and the database-level
+     * statements H2 doesn't understand (CREATE DATABASE, USE). DROP DATABASE becomes DROP ALL OBJECTS.
+     */
+    static List<String> readStatements(String resource) throws IOException {
+        String script;
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Script not found on classpath: " + resource);
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+
+        for (String line : script.split("\n")) {
+            if (quote == 0 && line.trim().startsWith("--")) {
+                continue;
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quote == 0 && (c == '\'' || c == '"' || c == '`')) {
+                    quote = c;
+                } else if (quote != 0 && c == quote) {
+                    quote = 0;
+                }
+
+                if (c == ';' && quote == 0) {
+                    addStatement(statements, current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            current.append('\n');
+        }
+        addStatement(statements, current.toString());
+
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, String sql) {
+        String trimmed = sql.trim();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+
+        String upper = trimmed.toUpperCase(Locale.ROOT);
+        if (upper.startsWith("DROP DATABASE")) {
+            statements.add("DROP ALL OBJECTS");
+        } else if (!upper.startsWith("CREATE DATABASE") && !upper.startsWith("USE ")) {
+            statements.add(trimmed);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.List;
     public interface GenreDao {
         void closeConnection();
         public Genre create(Genre genre) throws SQLException;
+        public List<Genre> createAll(List<Genre> genres) throws SQLException;
         public Genre findById(int id) throws SQLException;
         public List<Genre> findAll() throws SQLException;
         public boolean update(Genre genre) throws SQLException;
@@ -1,12 +1,12 @@
 package SpringProject.persistences;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
-import org.springframework.stereotype.Repository;
 import SpringProject.entities.Genre;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Implementation of GenreDao interface
@@ -15,7 +15,6 @@ import java.util.List;
  * @author [Maryam]
  */
 @Slf4j
-@Repository
 public class GenreImpl implements GenreDao {
 
     private Connector connector;
@@ -43,6 +42,9 @@ public class GenreImpl implements GenreDao {
         if (genre == null) {
             throw new IllegalArgumentException("Cannot add a null Genre to database");
         }
+        if (genre.getName() == null || genre.getName().isBlank()) {
+            throw new IllegalArgumentException("Cannot add a Genre without a name to database");
+        }
 
         Connection conn = connector.getConnection();
         if (conn == null) {
@@ -73,6 +75,48 @@ public class GenreImpl implements GenreDao {
         } catch (SQLException e) {
             log.error("create() - The SQL query could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    /**
+     * Creates many genres in batched round trips (see Connector.getBatchSize()), in one transaction
+     *
+     * @param genres The genres to create (name, description)
+     * @return The same genres, each given its generated ID
+     * @throws SQLException if a database access error occurs; no genre is created in that case
+     */
+    @Override
+    public List<Genre> createAll(List<Genre> genres) throws SQLException {
+        if (genres == null || genres.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Cannot add a null Genre to database");
+        }
+        if (genres.isEmpty()) {
+            return genres;
+        }
+
+        Connection conn = connector.getConnection();
+        if (conn == null) {
+            throw new SQLException("createAll(): Could not establish connection to database.");
+        }
+
+        try {
+            JdbcBatch.execute(conn, "INSERT INTO genres(name, description) VALUES (?, ?)", genres,
+                    connector.getBatchSize(),
+                    (ps, genre) -> {
+                        ps.setString(1, genre.getName());
+                        ps.setString(2, genre.getDescription());
+                    },
+                    Genre::setId);
+            log.info("{} genres created", genres.size());
+            return genres;
+
+        } catch (SQLException e) {
+            log.error("createAll() - The SQL batch failed. \nException: {}", e.getMessage());
+            throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
@@ -85,7 +129,7 @@ public class GenreImpl implements GenreDao {
      */
     @Override
     public Genre findById(int id) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("findById(): Could not establish connection to database.");
         }
@@ -106,6 +150,8 @@ public class GenreImpl implements GenreDao {
         } catch (SQLException e) {
             log.error("findById() - The SQL query could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return genre;
@@ -119,7 +165,7 @@ public class GenreImpl implements GenreDao {
      */
     @Override
     public List<Genre> findAll() throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("findAll(): Could not establish connection to database.");
         }
@@ -139,6 +185,8 @@ public class GenreImpl implements GenreDao {
         } catch (SQLException e) {
             log.error("findAll() - The SQL query could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return genres;
@@ -178,6 +226,8 @@ public class GenreImpl implements GenreDao {
         } catch (SQLException e) {
             log.error("update() - The SQL query could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return updatedRows == 1;
@@ -213,6 +263,8 @@ public class GenreImpl implements GenreDao {
                 log.error("delete() - The SQL query could not be prepared. \nException: {}", e.getMessage());
             }
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return deletedRows == 1;
@@ -0,0 +1,88 @@
+package SpringProject.persistences;
+
+/**
+ * Open-addressing int to int hash map with linear probing - two flat arrays, no boxing, no entry objects.
+ * Keys must not be 0 (the empty-slot marker); database ids start at 1.
+ */
+final class IntIntMap {
+
+    static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the value for key, or MISSING
+     */
+    int get(int key) {
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            int k = keys[slot];
+            if (k == key) {
+                return values[slot];
+            }
+            if (k == 0) {
+                return MISSING;
+            }
+        }
+    }
+
+    void put(int key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("IntIntMap keys must not be 0");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            size++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return heap bytes of the two slot arrays
+     */
+    long memoryBytes() {
+        return 2 * (16 + 4L * keys.length);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Spreads sequential ids across the table (murmur3 finalizer)
+     */
+    private static int mix(int key) {
+        int h = key * 0x85ebca6b;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,162 @@
+package SpringProject.persistences;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Runs one prepared INSERT/UPDATE for many rows with addBatch/executeBatch, batchSize rows per round trip.
+ * With rewriteBatchedStatements on (batch.rewriteStatements=true) Connector/J sends each batch as a single
+ * multi-row INSERT.
+ *
+ * The DAOs write a list of items with execute(), in one transaction: if the connection is in auto-commit mode
+ * it is committed at the end (or rolled back on failure); if a transaction is already open, e.g. a UnitOfWork,
+ * it is left to it. Bulk loads stream rows of plain values with insert(), add() and flush(), sending each
+ * batch as soon as it is full; their transactions are left to the caller.
+ */
+public final class JdbcBatch implements AutoCloseable {
+
+    /**
+     * Sets the statement parameters for one item
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    /**
+     * Receives the generated key of one item
+     */
+    @FunctionalInterface
+    interface KeyHandler<T> {
+        void accept(T item, int key);
+    }
+
+    private final PreparedStatement ps;
+    private final int batchSize;
+    private final int parameters;
+    private int pending;
+    private long affected;
+
+    private JdbcBatch(PreparedStatement ps, int batchSize, int parameters) {
+        this.ps = ps;
+        this.batchSize = Math.max(1, batchSize);
+        this.parameters = parameters;
+    }
+
+    /**
+     * Starts a batch of INSERT INTO table (columns) VALUES (...) rows
+     */
+    public static JdbcBatch insert(Connection conn, String table, String[] columns, int batchSize) throws SQLException {
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (?"
+                + ", ?".repeat(columns.length - 1) + ")";
+        return new JdbcBatch(conn.prepareStatement(sql), batchSize, columns.length);
+    }
+
+    /**
+     * Queues one row, sending the batch once batchSize rows are waiting
+     * @param values one per column, in column order; null for NULL
+     */
+    public void add(Object... values) throws SQLException {
+        if (values.length != parameters) {
+            throw new IllegalArgumentException("Expected " + parameters + " values but got " + values.length);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                ps.setNull(i + 1, Types.NULL);
+            } else {
+                ps.setObject(i + 1, values[i]);
+            }
+        }
+        queue();
+    }
+
+    /**
+     * Sends the rows still queued
+     * @return rows affected since this batch was started, as reported by the driver
+     */
+    public long flush() throws SQLException {
+        if (pending > 0) {
+            affected += sum(ps.executeBatch());
+            pending = 0;
+        }
+        return affected;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        ps.close();
+    }
+
+    /**
+     * @param keyHandler given each item's generated key, in list order; null if keys aren't wanted
+     * @return total rows affected, as reported by the driver
+     */
+    static <T> int execute(Connection conn, String sql, List<T> items, int batchSize,
+                           Binder<T> binder, KeyHandler<T> keyHandler) throws SQLException {
+        boolean manageTransaction = conn.getAutoCommit();
+        if (manageTransaction) {
+            conn.setAutoCommit(false);
+        }
+
+        long affected;
+        try (JdbcBatch batch = new JdbcBatch(keyHandler != null
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql), batchSize, 0)) {
+            for (int from = 0; from < items.size(); from += batch.batchSize) {
+                List<T> chunk = items.subList(from, Math.min(from + batch.batchSize, items.size()));
+                for (T item : chunk) {
+                    binder.bind(batch.ps, item);
+                    batch.queue();
+                }
+                batch.flush();
+
+                if (keyHandler != null) {
+                    try (ResultSet keys = batch.ps.getGeneratedKeys()) {
+                        for (T item : chunk) {
+                            if (!keys.next()) {
+                                break;
+                            }
+                            keyHandler.accept(item, keys.getInt(1));
+                        }
+                    }
+                }
+            }
+            affected = batch.flush();
+            if (manageTransaction) {
+                conn.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            // a binder or key handler failing must roll back too, or restoring auto-commit would commit the rows so far
+            if (manageTransaction) {
+                conn.rollback();
+            }
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                conn.setAutoCommit(true);
+            }
+        }
+        return (int) affected;
+    }
+
+    private void queue() throws SQLException {
+        ps.addBatch();
+        if (++pending == batchSize) {
+            flush();
+        }
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO (-2) when the driver rewrote the batch and can't report per-row counts
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+        }
+        return total;
+    }
+}
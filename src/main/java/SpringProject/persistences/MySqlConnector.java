@@ -15,6 +15,7 @@ import java.util.Properties;
 public class MySqlConnector implements Connector {
     private Properties properties;
     private Connection conn;
+    private CircuitBreaker circuitBreaker;
 
     public MySqlConnector(String propertiesFileName){
         properties = new Properties();
@@ -27,9 +28,50 @@ public class MySqlConnector implements Connector {
             System.out.println("An exception occured when attempting to load file from \"" + propertiesFileName + "\": " + e.getMessage());
             log.error("Error: " + e.getMessage());
         }
+        if (Boolean.parseBoolean(properties.getProperty("breaker.enabled", "true"))) {
+            circuitBreaker = CircuitBreaker.fromProperties(properties.getProperty("database", "audiolibrary"), properties);
+        }
     }
     public Connection getConnection() {
-        conn = null;
+        conn = openConnection();
+        return conn;
+    }
+
+    /**
+     * Opens a brand-new physical connection using the loaded properties.
+     * Unlike getConnection() this does not touch the shared conn field, so it is
+     * safe to call from several threads at once (used by PooledConnector).
+     * While the circuit breaker is open this returns null straight away instead of attempting to connect.
+     * @return a new connection, or null if one could not be established
+     */
+    Connection openConnection() {
+        return openConnection(false);
+    }
+
+    /**
+     * With stream.useCursorFetch=true, opens a dedicated connection whose streaming reads pull
+     * stream.fetchSize rows at a time from a server-side cursor instead of the driver buffering the whole
+     * result set. Only this connection gets useCursorFetch: Connector/J turns on server-side prepared
+     * statements with it, which would override statementCache.serverSide on every other connection.
+     */
+    @Override
+    public Connection getStreamConnection() {
+        return usesCursorFetch() ? openConnection(true) : getReadConnection();
+    }
+
+    /**
+     * @return stream.useCursorFetch from the properties file
+     */
+    boolean usesCursorFetch() {
+        return Boolean.parseBoolean(properties.getProperty("stream.useCursorFetch", "false"));
+    }
+
+    private Connection openConnection(boolean cursorFetch) {
+        Connection newConn = null;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            log.debug("Connection refused - circuit breaker for {} is open", circuitBreaker.getName());
+            return null;
+        }
         //String driver = "com.mysql.cj.jdbc.Driver";
         String driver = properties.getProperty("driver", "com.mysql.cj.jdbc.Driver");
         //String url = "jdbc:mysql://127.0.0.1:3306/audiolibrary";
@@ -43,7 +85,26 @@ public class MySqlConnector implements Connector {
 //            load database driver
             Class.forName(driver);
             // Get a connection to the database
-            conn = DriverManager.getConnection(url + database, username, password);
+            Properties info = new Properties();
+            info.setProperty("user", username);
+            info.setProperty("password", password);
+            // Optionally let MySQL parse each statement once server-side instead of on every execute
+            if (Boolean.parseBoolean(properties.getProperty("statementCache.serverSide", "false"))) {
+                info.setProperty("useServerPrepStmts", "true");
+                info.setProperty("cachePrepStmts", "true");
+                info.setProperty("prepStmtCacheSize", properties.getProperty("statementCache.size", "64"));
+            }
+            // Send addBatch()/executeBatch() INSERTs as multi-row INSERTs
+            if (Boolean.parseBoolean(properties.getProperty("batch.rewriteStatements", "false"))) {
+                info.setProperty("rewriteBatchedStatements", "true");
+            }
+            if (cursorFetch) {
+                info.setProperty("useCursorFetch", "true");
+            }
+            if (properties.getProperty("connectTimeoutMillis") != null) {
+                info.setProperty("connectTimeout", properties.getProperty("connectTimeoutMillis").trim());
+            }
+            newConn = DriverManager.getConnection(url + database, info);
         } catch (SQLException e) {
             log.error("Connection could not be established - incorrect URL or database not switched on. \n Exception:" +
                     " {}", e.getMessage());
@@ -52,10 +113,47 @@ public class MySqlConnector implements Connector {
                     " {}", e.getMessage());
         }
 
-        return conn;
+        if (circuitBreaker != null) {
+            if (newConn != null) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        }
+        return newConn;
 
     }
 
+    /**
+     * @return the breaker guarding connection attempts, or null if breaker.enabled=false
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return batch.size from the properties file
+     */
+    @Override
+    public int getBatchSize() {
+        return Integer.parseInt(properties.getProperty("batch.size", "500").trim());
+    }
+
+    /**
+     * @return stream.fetchSize from the properties file
+     */
+    @Override
+    public int getStreamFetchSize() {
+        return Integer.parseInt(properties.getProperty("stream.fetchSize", "1000").trim());
+    }
+
+    /**
+     * @return the key-value pairs loaded from the properties file
+     */
+    Properties getProperties() {
+        return properties;
+    }
+
 
     public void freeConnection() {
         if(conn != null){
@@ -71,4 +169,19 @@ public class MySqlConnector implements Connector {
 
     }
 
+    public void freeConnection(Connection connection) {
+        if(connection != null){
+            try{
+                connection.close();
+            }catch (SQLException e){
+                log.error("An exception occurred when attempting to close the connection to the database \n " +
+                        "Exception:" +
+                        " {}", e.getMessage());
+            }
+            if(connection == conn){
+                conn = null;
+            }
+        }
+    }
+
 }
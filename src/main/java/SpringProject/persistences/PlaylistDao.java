@@ -12,6 +12,7 @@ import java.util.List;
         void closeConnection();
         public Playlists create(Playlists playlists) throws SQLException;
         public List<Playlists> findAll() throws SQLException;
+        public Playlists findById(int id) throws SQLException;
         public List<Playlists> findByUserId(int userId) throws SQLException;
         public List<Playlists> getVisiblePlaylists(int userId) throws SQLException;
         public boolean update(Playlists playlists) throws SQLException;
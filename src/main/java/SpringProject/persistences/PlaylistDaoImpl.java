@@ -70,6 +70,8 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("create() - SQL statement failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlists;
@@ -84,7 +86,7 @@ public class PlaylistDaoImpl implements PlaylistDao {
      */
     @Override
     public List<Playlists> findAll() throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("findAll(): Could not establish connection to database.");
         }
@@ -103,11 +105,40 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("findAll() - SQL query could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlists;
     }
 
+    /**
+     * Retrieves one playlist by its ID
+     *
+     * @param id The ID of the playlist to retrieve
+     * @return The Playlists object, or null if no playlist has that ID
+     * @throws SQLException if a database access error occurs or the SQL query fails
+     */
+    @Override
+    public Playlists findById(int id) throws SQLException {
+        Connection conn = connector.getReadConnection();
+        if (conn == null) {
+            throw new SQLException("findById(): Could not establish connection to database.");
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM playlists WHERE id = ?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapPlaylistRow(rs) : null;
+            }
+        } catch (SQLException e) {
+            log.error("findById() - SQL query failed. \nException: {}", e.getMessage());
+            throw e;
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
     /**
      * Retrieves all playlists created by a specific user
      * Returns only playlists where the user is the owner
@@ -118,7 +149,7 @@ public class PlaylistDaoImpl implements PlaylistDao {
      */
     @Override
     public List<Playlists> findByUserId(int userId) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("findByUserId(): Could not establish connection.");
         }
@@ -142,6 +173,8 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("findByUserId() - Could not prepare SQL statement. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlists;
@@ -159,7 +192,7 @@ public class PlaylistDaoImpl implements PlaylistDao {
      */
     @Override
     public List<Playlists> getVisiblePlaylists(int userId) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("getVisiblePlaylists(): Could not establish connection.");
         }
@@ -187,6 +220,8 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("getVisiblePlaylists() - SQL could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlists;
@@ -232,6 +267,8 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("update() - SQL failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return rowsUpdated == 1;
@@ -263,6 +300,8 @@ public class PlaylistDaoImpl implements PlaylistDao {
         } catch (SQLException e) {
             log.error("delete() - SQL statement failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return rowsDeleted == 1;
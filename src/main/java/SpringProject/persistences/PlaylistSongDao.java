@@ -3,6 +3,7 @@ import SpringProject.entities.PlaylistsSongs;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 
 
@@ -14,9 +15,11 @@ import java.util.List;
 public interface PlaylistSongDao {
     void closeConnection();
     PlaylistsSongs addSongToPlaylist(PlaylistsSongs playlistSong) throws SQLException;
+    List<PlaylistsSongs> addSongsToPlaylist(List<PlaylistsSongs> playlistSongs) throws SQLException;
     List<PlaylistsSongs> getSongsByPlaylistId(int id) throws SQLException;
     boolean removeSongFromPlaylist(int id, int songId) throws SQLException;
     boolean isSongInPlaylist(int id, int songId) throws SQLException;
     List<Integer> getPlaylistsContainingSong(int songId) throws SQLException;
     int deleteAllSongsFromPlaylist(int id) throws SQLException;
+    Map<Integer, Integer> countPlaylistsPerSong() throws SQLException;
 }
@@ -6,7 +6,10 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Repository
@@ -62,11 +65,53 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("addSongToPlaylist() - SQL failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlistSong;
     }
 
+    /**
+     * Add many songs to playlists in batched round trips (see Connector.getBatchSize()), in one transaction
+     *
+     * @param playlistSongs The playlist-song relationships to create
+     * @return The same entries, each given its generated ID
+     * @throws SQLException if database error occurs; no entry is added in that case
+     */
+    @Override
+    public List<PlaylistsSongs> addSongsToPlaylist(List<PlaylistsSongs> playlistSongs) throws SQLException {
+        if (playlistSongs == null || playlistSongs.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Cannot add a null playlist-song entry.");
+        }
+        if (playlistSongs.isEmpty()) {
+            return playlistSongs;
+        }
+
+        Connection conn = connector.getConnection();
+        if (conn == null) {
+            throw new SQLException("addSongsToPlaylist(): Could not establish connection to database.");
+        }
+
+        String sql = "INSERT INTO playlistSongs (playlistId, songId) VALUES (?, ?)";
+
+        try {
+            JdbcBatch.execute(conn, sql, playlistSongs, connector.getBatchSize(),
+                    (ps, playlistSong) -> {
+                        ps.setInt(1, playlistSong.getPlaylistId());
+                        ps.setInt(2, playlistSong.getSongId());
+                    },
+                    PlaylistsSongs::setId);
+        } catch (SQLException e) {
+            log.error("addSongsToPlaylist() - SQL failed. \nException: {}", e.getMessage());
+            throw e;
+        } finally {
+            connector.freeConnection(conn);
+        }
+
+        return playlistSongs;
+    }
+
     /**
      * Get all songs in a specific playlist
      *
@@ -76,7 +121,7 @@ public class PlaylistSongImpl implements PlaylistSongDao {
      */
     @Override
     public List<PlaylistsSongs> getSongsByPlaylistId(int id) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("getSongsByPlaylistId(): Could not establish connection.");
         }
@@ -100,6 +145,8 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("getSongsByPlaylistId() - Could not prepare SQL statement. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return songs;
@@ -133,6 +180,8 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("removeSongFromPlaylist() - SQL failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return rowsDeleted == 1;
@@ -148,7 +197,7 @@ public class PlaylistSongImpl implements PlaylistSongDao {
 
     @Override
     public boolean isSongInPlaylist(int id, int songId) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("isSongInPlaylist(): Could not establish connection.");
         }
@@ -171,6 +220,8 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("isSongInPlaylist() - SQL could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return false;
@@ -185,7 +236,7 @@ public class PlaylistSongImpl implements PlaylistSongDao {
      */
     @Override
     public List<Integer> getPlaylistsContainingSong(int songId) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("getPlaylistsContainingSong(): Could not establish connection.");
         }
@@ -209,6 +260,8 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("getPlaylistsContainingSong() - SQL could not be prepared. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return playlistIds;
@@ -239,12 +292,47 @@ public class PlaylistSongImpl implements PlaylistSongDao {
         } catch (SQLException e) {
             log.error("deleteAllSongsFromPlaylist() - SQL failed. \nException: {}", e.getMessage());
             throw e;
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return deletedRows;
     }
 
 
+    /**
+     * Number of playlists each song appears in - used as a popularity signal
+     *
+     * @return song ID to playlist count, for songs in at least one playlist
+     * @throws SQLException if database error occurs
+     */
+    @Override
+    public Map<Integer, Integer> countPlaylistsPerSong() throws SQLException {
+        Connection conn = connector.getReadConnection();
+        if (conn == null) {
+            throw new SQLException("countPlaylistsPerSong(): Could not establish connection.");
+        }
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        String sql = "SELECT songId, COUNT(*) AS count FROM playlistSongs GROUP BY songId";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            while (rs.next()) {
+                counts.put(rs.getInt("songId"), rs.getInt("count"));
+            }
+
+        } catch (SQLException e) {
+            log.error("countPlaylistsPerSong() - SQL failed. \nException: {}", e.getMessage());
+            throw e;
+        } finally {
+            connector.freeConnection(conn);
+        }
+
+        return counts;
+    }
+
     private static PlaylistsSongs mapPlaylistSongRow(ResultSet rs) throws SQLException {
         return PlaylistsSongs.builder()
                 .id(rs.getInt("id"))
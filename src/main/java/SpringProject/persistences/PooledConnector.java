@@ -0,0 +1,422 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe connection pool behind the Connector interface.
+ * Physical connections are opened through a MySqlConnector and handed out wrapped in a proxy,
+ * so calling close() (or freeConnection(conn)) returns them to the pool instead of closing them.
+ *
+ * Pool settings are read from the same properties file as the database details:
+ * pool.minSize, pool.maxSize, pool.leaseTimeoutMillis, pool.validationTimeoutSeconds,
+ * pool.idleTimeoutMillis, pool.leakDetectionThresholdMillis and pool.housekeepingIntervalMillis.
+ * Each physical connection also keeps an LRU StatementCache of up to statementCache.size
+ * prepared statements (0 disables it).
+ *
+ * Leak detection is off by default: with pool.leakDetectionThresholdMillis above 0 every lease records
+ * the stack that took it, which costs an allocation and a stack walk per lease - turn it on to hunt a leak.
+ */
+@Slf4j
+public class PooledConnector implements Connector, AutoCloseable {
+
+    private final MySqlConnector factory;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long leaseTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionThresholdMillis;
+    private final int statementCacheSize;
+
+    // Most recently returned connection sits at the head so the warmest one is reused first
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public PooledConnector(String propertiesFileName) {
+        this(new MySqlConnector(propertiesFileName));
+    }
+
+    public PooledConnector(MySqlConnector factory) {
+        this.factory = factory;
+        Properties properties = factory.getProperties();
+
+        maxSize = Math.max(1, intProperty(properties, "pool.maxSize", 10));
+        minSize = Math.min(maxSize, Math.max(0, intProperty(properties, "pool.minSize", 2)));
+        leaseTimeoutMillis = longProperty(properties, "pool.leaseTimeoutMillis", 5000);
+        validationTimeoutSeconds = intProperty(properties, "pool.validationTimeoutSeconds", 2);
+        idleTimeoutMillis = longProperty(properties, "pool.idleTimeoutMillis", 600000);
+        leakDetectionThresholdMillis = longProperty(properties, "pool.leakDetectionThresholdMillis", 0);
+        long housekeepingIntervalMillis = longProperty(properties, "pool.housekeepingIntervalMillis", 5000);
+        statementCacheSize = intProperty(properties, "statementCache.size", 64);
+
+        permits = new Semaphore(maxSize, true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, housekeepingIntervalMillis,
+                housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+
+        fillToMinimum();
+        log.info("Connection pool started (min={}, max={}, leaseTimeout={}ms)", minSize, maxSize, leaseTimeoutMillis);
+    }
+
+    /**
+     * Leases a connection from the pool, waiting up to pool.leaseTimeoutMillis for one to become free.
+     * Idle connections are validated before being handed out. Returns null at once while the database
+     * circuit breaker is open.
+     * @return a pooled connection, or null if none could be leased or opened
+     */
+    @Override
+    public Connection getConnection() {
+        if (closed) {
+            log.error("getConnection(): the connection pool has been shut down");
+            return null;
+        }
+
+        CircuitBreaker breaker = factory.getCircuitBreaker();
+        if (breaker != null && breaker.isRefusing()) {
+            log.debug("getConnection(): circuit breaker is open - failing fast");
+            return null;
+        }
+
+        try {
+            if (!permits.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.error("getConnection(): timed out after {}ms waiting for a free connection (max={}, in use={})",
+                        leaseTimeoutMillis, maxSize, leased.size());
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("getConnection(): interrupted while waiting for a free connection");
+            return null;
+        }
+
+        Connection physical = takeValidIdleConnection();
+        if (physical == null) {
+            physical = openPhysicalConnection();
+        }
+        if (physical == null) {
+            permits.release();
+            return null;
+        }
+
+        Connection handle = wrap(physical);
+        Throwable origin = leakDetectionThresholdMillis > 0
+                ? new Throwable("Connection leased by thread " + Thread.currentThread().getName())
+                : null;
+        leased.put(handle, new Lease(physical, Thread.currentThread(), System.currentTimeMillis(), origin));
+        return handle;
+    }
+
+    /**
+     * Returns every connection still leased by the calling thread to the pool
+     */
+    @Override
+    public void freeConnection() {
+        Thread current = Thread.currentThread();
+        for (Map.Entry<Connection, Lease> entry : leased.entrySet()) {
+            if (entry.getValue().owner == current) {
+                release(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Returns a single leased connection to the pool
+     * @param conn a connection previously obtained from getConnection()
+     */
+    @Override
+    public void freeConnection(Connection conn) {
+        if (conn != null) {
+            release(conn);
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops housekeeping. Leased connections are closed as they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closePhysical(entry.connection);
+        }
+        log.info("Connection pool shut down");
+    }
+
+    @Override
+    public int getBatchSize() {
+        return factory.getBatchSize();
+    }
+
+    /**
+     * With cursor fetch on, a dedicated connection from the factory outside the pool, so useCursorFetch
+     * never reaches the pooled connections; otherwise a pooled one
+     */
+    @Override
+    public Connection getStreamConnection() {
+        return factory.usesCursorFetch() ? factory.getStreamConnection() : getReadConnection();
+    }
+
+    @Override
+    public int getStreamFetchSize() {
+        return factory.getStreamFetchSize();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getActiveConnections() {
+        return leased.size();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    private void release(Connection handle) {
+        Lease lease = leased.remove(handle);
+        if (lease == null) {
+            return;
+        }
+
+        Connection physical = lease.physical;
+        try {
+            if (physical.isClosed()) {
+                totalConnections.decrementAndGet();
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            StatementCache cache = statementCaches.get(physical);
+            if (cache != null) {
+                cache.releaseAll();
+            }
+            if (closed) {
+                closePhysical(physical);
+            } else {
+                idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            log.warn("release(): discarding connection that could not be reset. \nException: {}", e.getMessage());
+            closePhysical(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection takeValidIdleConnection() {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            try {
+                if (entry.connection.isValid(validationTimeoutSeconds)) {
+                    return entry.connection;
+                }
+            } catch (SQLException e) {
+                log.warn("takeValidIdleConnection(): validation failed. \nException: {}", e.getMessage());
+            }
+            closePhysical(entry.connection);
+        }
+        return null;
+    }
+
+    private Connection openPhysicalConnection() {
+        Connection physical = factory.openConnection();
+        if (physical != null) {
+            totalConnections.incrementAndGet();
+        }
+        return physical;
+    }
+
+    private void closePhysical(Connection physical) {
+        totalConnections.decrementAndGet();
+        StatementCache cache = statementCaches.remove(physical);
+        if (cache != null) {
+            cache.clear();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            log.warn("closePhysical(): could not close connection. \nException: {}", e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            Connection physical = openPhysicalConnection();
+            if (physical == null) {
+                return;
+            }
+            idle.offerLast(new IdleConnection(physical, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Evicts connections idle for longer than pool.idleTimeoutMillis (keeping pool.minSize),
+     * tops the pool back up to its minimum and reports leases held past the leak threshold
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (IdleConnection entry : idle) {
+                if (totalConnections.get() <= minSize) {
+                    break;
+                }
+                if (now - entry.idleSince > idleTimeoutMillis && idle.remove(entry)) {
+                    closePhysical(entry.connection);
+                }
+            }
+
+            fillToMinimum();
+
+            if (leakDetectionThresholdMillis > 0) {
+                for (Lease lease : leased.values()) {
+                    if (!lease.reported && now - lease.leasedAt > leakDetectionThresholdMillis) {
+                        lease.reported = true;
+                        log.warn("Possible connection leak: connection held by thread {} for {}ms",
+                                lease.owner.getName(), now - lease.leasedAt, lease.origin);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("housekeep() failed: {}", e.getMessage());
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+
+    private static long longProperty(Properties properties, String key, long defaultValue) {
+        return Long.parseLong(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+
+    private static final class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+    }
+
+    private static final class Lease {
+        private final Connection physical;
+        private final Thread owner;
+        private final long leasedAt;
+        private final Throwable origin;
+        private volatile boolean reported;
+
+        private Lease(Connection physical, Thread owner, long leasedAt, Throwable origin) {
+            this.physical = physical;
+            this.owner = owner;
+            this.leasedAt = leasedAt;
+            this.origin = origin;
+        }
+    }
+
+    /**
+     * Only prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) are cached;
+     * the variants taking result set types or key column lists are prepared directly
+     */
+    private static boolean isCacheable(Object[] args) {
+        return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+    }
+
+    /**
+     * Routes calls to the physical connection, turning close() into a return to the pool
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        private StatementCache statementCache() {
+            return statementCaches.computeIfAbsent(physical,
+                    conn -> new StatementCache(conn, statementCacheSize, statementCacheHits, statementCacheMisses));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release((Connection) proxy);
+                    return null;
+                case "isClosed":
+                    return !leased.containsKey(proxy) || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (!leased.containsKey(proxy)) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statementCacheSize > 0 && method.getName().equals("prepareStatement") && isCacheable(args)) {
+                return statementCache().prepare((String) args[0], args.length == 2 ? (Integer) args[1] : -1);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
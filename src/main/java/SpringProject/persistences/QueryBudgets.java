@@ -0,0 +1,282 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Latency budgets for DAO methods.
+ *
+ * wrap() puts a proxy in front of a DAO; each call to one of its interface methods opens a budget
+ * on the calling thread (a default, or an override keyed by e.g. "SongDao.getSongsByArtist").
+ * Connections handed out by TransactionalConnector during the call are guarded: every statement created
+ * on them gets setQueryTimeout() for the time left, and a watchdog cancel()s the call's statements
+ * the moment the budget runs out. A call that runs out of budget fails with QueryTimeoutException -
+ * even if the DAO itself caught and logged the SQLException - and is counted per method.
+ */
+@Slf4j
+public class QueryBudgets {
+
+    private static final ThreadLocal<Budget> CURRENT = new ThreadLocal<>();
+
+    private static final ScheduledExecutorService WATCHDOG = createWatchdog();
+
+    private final long defaultMillis;
+    private final Map<String, Long> overrides;
+    private final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> timeoutListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param defaultMillis budget for methods without an override; 0 or less disables budgets for them
+     * @param overrides budgets per method, keyed by interface simple name and method name
+     */
+    public QueryBudgets(long defaultMillis, Map<String, Long> overrides) {
+        this.defaultMillis = defaultMillis;
+        this.overrides = Map.copyOf(overrides);
+    }
+
+    /**
+     * @return the budget for a method in milliseconds, 0 if it has none
+     */
+    public long budgetFor(String method) {
+        return Math.max(0, overrides.getOrDefault(method, defaultMillis));
+    }
+
+    /**
+     * Puts the budgets in front of every call the DAO receives through the given interfaces
+     * @param dao the DAO implementation
+     * @param interfaces the DAO interfaces callers use
+     * @return a proxy implementing the interfaces
+     */
+    public Object wrap(Object dao, Class<?>... interfaces) {
+        return Proxy.newProxyInstance(dao.getClass().getClassLoader(), interfaces, new BudgetedDao(dao));
+    }
+
+    /**
+     * @return number of calls that ran out of budget, per method (only methods that have timed out)
+     */
+    public Map<String, Long> getTimeoutCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        timeouts.forEach((method, count) -> counts.put(method, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Registers a callback run with the method name each time a call runs out of budget
+     */
+    public void onTimeout(Consumer<String> listener) {
+        timeoutListeners.add(listener);
+    }
+
+    /**
+     * Applies the budget of the DAO call running on this thread, if any, to a connection
+     * @return a connection whose statements are bounded by the budget, or conn itself if there is no budget
+     */
+    static Connection guard(Connection conn) {
+        Budget budget = CURRENT.get();
+        if (conn == null || budget == null) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new GuardedConnection(conn, budget));
+    }
+
+    /**
+     * @return the connection a guard() proxy was made for, or conn itself
+     */
+    static Connection unguard(Connection conn) {
+        if (conn != null && Proxy.isProxyClass(conn.getClass())
+                && Proxy.getInvocationHandler(conn) instanceof GuardedConnection guarded) {
+            return guarded.target;
+        }
+        return conn;
+    }
+
+    private void recordTimeout(Budget budget) {
+        timeouts.computeIfAbsent(budget.method, m -> new LongAdder()).increment();
+        log.warn("{} ran out of its {}ms query budget", budget.method, budget.millis);
+        for (Consumer<String> listener : timeoutListeners) {
+            listener.accept(budget.method);
+        }
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ScheduledExecutorService createWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "query-budget-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return Executors.unconfigurableScheduledExecutorService(executor);
+    }
+
+    /**
+     * The deadline of one DAO call and the statements it has created so far
+     */
+    private static final class Budget {
+        private final String method;
+        private final long millis;
+        private final long deadline;
+        private final List<Statement> statements = new CopyOnWriteArrayList<>();
+        private final ScheduledFuture<?> expiry;
+        private volatile boolean expired;
+
+        private Budget(String method, long millis) {
+            this.method = method;
+            this.millis = millis;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            this.expiry = WATCHDOG.schedule(this::expire, millis, TimeUnit.MILLISECONDS);
+        }
+
+        private long remainingMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+
+        private void expire() {
+            expired = true;
+            for (Statement stmt : statements) {
+                try {
+                    if (!stmt.isClosed()) {
+                        stmt.cancel();
+                    }
+                } catch (SQLException e) {
+                    log.debug("Could not cancel statement of {}: {}", method, e.getMessage());
+                }
+            }
+        }
+
+        private void end() {
+            expiry.cancel(false);
+            statements.clear();
+        }
+    }
+
+    /**
+     * Opens a budget around each DAO method call
+     */
+    private final class BudgetedDao implements InvocationHandler {
+        private final Object target;
+
+        private BudgetedDao(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return invokeTarget(method, args);
+            }
+
+            String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            long millis = budgetFor(name);
+            if (millis == 0 || CURRENT.get() != null) {
+                // No budget, or nested inside another budgeted call which keeps its deadline
+                return invokeTarget(method, args);
+            }
+
+            Budget budget = new Budget(name, millis);
+            CURRENT.set(budget);
+            try {
+                Object result = invokeTarget(method, args);
+                if (budget.expired) {
+                    recordTimeout(budget);
+                    throw new QueryTimeoutException(name, millis, null);
+                }
+                return result;
+            } catch (QueryTimeoutException e) {
+                throw e;
+            } catch (Throwable e) {
+                if (budget.expired || isTimeout(e)) {
+                    recordTimeout(budget);
+                    throw new QueryTimeoutException(name, millis, e);
+                }
+                throw e;
+            } finally {
+                CURRENT.remove();
+                budget.end();
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Bounds every statement created on a connection by the budget of the call it was leased in
+     */
+    private static final class GuardedConnection implements InvocationHandler {
+        private final Connection target;
+        private final Budget budget;
+
+        private GuardedConnection(Connection target, Budget budget) {
+            this.target = target;
+            this.budget = budget;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof Statement stmt) {
+                long remaining = budget.remainingMillis();
+                if (budget.expired || remaining <= 0) {
+                    stmt.close();
+                    throw new SQLTimeoutException(budget.method + ": query budget already used up");
+                }
+                // JDBC timeouts are in whole seconds - the watchdog cancels on the exact deadline
+                stmt.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remaining + 999)));
+                budget.statements.add(stmt);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package SpringProject.persistences;
+
+/**
+ * Thrown when a DAO method runs past its query budget and its statements were cancelled.
+ * Unchecked so it passes through DAOs that catch and log SQLException; controllers answer it with 503.
+ */
+public class QueryTimeoutException extends RuntimeException {
+
+    private final String method;
+    private final long budgetMillis;
+
+    public QueryTimeoutException(String method, long budgetMillis, Throwable cause) {
+        super(method + " exceeded its query budget of " + budgetMillis + "ms", cause);
+        this.method = method;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * @return the DAO method that timed out, e.g. SongDao.getSongsByArtist
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+}
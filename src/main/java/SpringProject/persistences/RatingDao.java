@@ -5,11 +5,14 @@ import SpringProject.entities.Song;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.List;
 
 public interface RatingDao {
 
     int addRating(Rating rating) throws SQLException;
 
+    int addRatings(List<Rating> ratings) throws SQLException;
+
     ArrayList<Rating> getAllRatings() throws SQLException;
 
     Rating findRatingByUsernameAndSongID(String username, int songID) throws SQLException;
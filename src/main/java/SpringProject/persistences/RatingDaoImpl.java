@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Repository
@@ -44,12 +46,52 @@ public class RatingDaoImpl implements RatingDao {
             ps.setInt(2, rating.getSongID());
             ps.setDouble(3, rating.getUserRating());
             return ps.executeUpdate();
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
+    /**
+     * Adds or updates many ratings in batched round trips (see Connector.getBatchSize()), in one transaction,
+     * into the same rows addRating writes and the getters read.
+     * @return rows affected as reported by the driver
+     */
     @Override
-    public ArrayList<Rating> getAllRatings() throws SQLException {
+    public int addRatings(List<Rating> ratings) throws SQLException {
+        if (ratings == null || ratings.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("addRatings(): ratings cannot be null");
+        }
+        if (ratings.isEmpty()) {
+            return 0;
+        }
+
         Connection conn = connector.getConnection();
+        if (conn == null) {
+            throw new SQLException("addRatings(): Could not connect to database");
+        }
+
+        String sql = """
+                INSERT INTO rating (username, songID, userRating)
+                VALUES (?, ?, ?)
+                ON DUPLICATE KEY UPDATE userRating = VALUES(userRating)
+                """;
+
+        try {
+            return JdbcBatch.execute(conn, sql, ratings, connector.getBatchSize(),
+                    (ps, rating) -> {
+                        ps.setString(1, rating.getUsername());
+                        ps.setInt(2, rating.getSongID());
+                        ps.setDouble(3, rating.getUserRating());
+                    },
+                    null);
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    @Override
+    public ArrayList<Rating> getAllRatings() throws SQLException {
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("getAllRatings(): Could not connect to database");
         }
@@ -63,6 +105,8 @@ public class RatingDaoImpl implements RatingDao {
             while (rs.next()) {
                 ratings.add(mapRatingRow(rs));
             }
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return ratings;
@@ -70,7 +114,7 @@ public class RatingDaoImpl implements RatingDao {
 
     @Override
     public Rating findRatingByUsernameAndSongID(String username, int songID) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("findRatingByUsernameAndSongID(): Could not connect to database");
         }
@@ -86,6 +130,8 @@ public class RatingDaoImpl implements RatingDao {
                     return mapRatingRow(rs);
                 }
             }
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return null;
@@ -93,7 +139,7 @@ public class RatingDaoImpl implements RatingDao {
 
     @Override
     public ArrayList<Rating> getUserRatingFromUsername(String username) throws SQLException {
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) {
             throw new SQLException("getUserRatingFromUsername(): Could not connect to database");
         }
@@ -109,6 +155,8 @@ public class RatingDaoImpl implements RatingDao {
                     ratings.add(mapRatingRow(rs));
                 }
             }
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return ratings;
@@ -133,22 +181,6 @@ public class RatingDaoImpl implements RatingDao {
         return (id == null) ? emptySong() : songWithId(id);
     }
 
-    @Override
-    public Song getLowestRatedSong() {
-        return null;
-    }
-
-    @Override
-    public Song getMostPopularSong() {
-        return null;
-    }
-
-    @Override
-    public Song getTopRatedSong() {
-        return null;
-    }
-
-
     private Rating mapRatingRow(ResultSet rs) throws SQLException {
         return Rating.builder()
                 .username(rs.getString("username"))
@@ -158,17 +190,17 @@ public class RatingDaoImpl implements RatingDao {
     }
 
     private Integer getSongIdByQuery(String sql) {
-        try {
-            Connection conn = connector.getConnection();
-            if (conn == null) return null;
+        Connection conn = connector.getReadConnection();
+        if (conn == null) return null;
 
-            try (PreparedStatement ps = conn.prepareStatement(sql);
-                 ResultSet rs = ps.executeQuery()) {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
 
-                if (rs.next()) return rs.getInt("songID");
-            }
+            if (rs.next()) return rs.getInt("songID");
         } catch (SQLException e) {
             log.error("getSongIdByQuery() failed: {}", e.getMessage());
+        } finally {
+            connector.freeConnection(conn);
         }
         return null;
     }
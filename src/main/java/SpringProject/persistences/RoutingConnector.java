@@ -0,0 +1,396 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read/write-splitting connector.
+ * getConnection() always goes to the primary; getReadConnection() (used by read-only DAO methods)
+ * goes to one of the replicas, picked round-robin or by fewest connections in use.
+ *
+ * Read-your-writes: once a user has written through the primary, that user's reads stay on the primary
+ * for readYourWritesMillis so they never see a replica that hasn't caught up yet. A write is recorded when
+ * a primary connection that ran a statement other than a SELECT commits, or is handed back in
+ * auto-commit mode - leasing the primary only to read, or rolling back, records nothing. The thread that
+ * wrote also reads from the primary for the window, so a request can read back what it just wrote before
+ * any user is bound. The user for the current thread is set with bindUser() (done per request by
+ * ReadYourWritesFilter from a short-lived cookie).
+ *
+ * Last writes are kept for at most maxTrackedUsers users; entries older than the window are swept out at
+ * most once per window, and users past the limit just read from the replicas.
+ * If a replica can't hand out a connection, the read falls back to the primary.
+ */
+@Slf4j
+public class RoutingConnector implements Connector, AutoCloseable {
+
+    public enum Strategy { ROUND_ROBIN, LEAST_LOADED }
+
+    public static final int DEFAULT_MAX_TRACKED_USERS = 10_000;
+
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+    private static final ThreadLocal<Long> LAST_THREAD_WRITE = new ThreadLocal<>();
+
+    private final Connector primary;
+    private final List<Connector> replicas;
+    private final AtomicInteger[] inFlight;
+    private final Strategy strategy;
+    private final long readYourWritesMillis;
+    private final int maxTrackedUsers;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    public RoutingConnector(Connector primary, List<Connector> replicas, Strategy strategy, long readYourWritesMillis) {
+        this(primary, replicas, strategy, readYourWritesMillis, DEFAULT_MAX_TRACKED_USERS);
+    }
+
+    /**
+     * @param maxTrackedUsers most users whose last write is remembered at once
+     */
+    public RoutingConnector(Connector primary, List<Connector> replicas, Strategy strategy, long readYourWritesMillis,
+                            int maxTrackedUsers) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.readYourWritesMillis = readYourWritesMillis;
+        this.maxTrackedUsers = maxTrackedUsers;
+        this.inFlight = new AtomicInteger[this.replicas.size()];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = new AtomicInteger();
+        }
+        log.info("Routing reads across {} replica(s) using {} (read-your-writes window {}ms)",
+                this.replicas.size(), strategy, readYourWritesMillis);
+    }
+
+    /**
+     * Sets the user whose reads and writes the current thread is serving
+     * @param user a key identifying the caller across requests, or null for an anonymous caller
+     */
+    public static void bindUser(String user) {
+        CURRENT_USER.set(user);
+        LAST_THREAD_WRITE.remove();
+    }
+
+    /**
+     * @return the user bound to the current thread, or null
+     */
+    public static String currentUser() {
+        return CURRENT_USER.get();
+    }
+
+    public static void clearUser() {
+        CURRENT_USER.remove();
+        LAST_THREAD_WRITE.remove();
+    }
+
+    /**
+     * Primary connection - used for writes, which are recorded for read-your-writes once they commit
+     */
+    @Override
+    public Connection getConnection() {
+        return route(primary, primary.getConnection(), -1);
+    }
+
+    /**
+     * Replica connection, unless the current user wrote within the read-your-writes window
+     */
+    @Override
+    public Connection getReadConnection() {
+        return read(Connector::getReadConnection);
+    }
+
+    /**
+     * Routed like getReadConnection()
+     */
+    @Override
+    public Connection getStreamConnection() {
+        return read(Connector::getStreamConnection);
+    }
+
+    private Connection read(Function<Connector, Connection> lease) {
+        if (replicas.isEmpty() || mustReadFromPrimary()) {
+            return route(primary, lease.apply(primary), -1);
+        }
+
+        int index = pickReplica();
+        Connector replica = replicas.get(index);
+        inFlight[index].incrementAndGet();
+        Connection conn = lease.apply(replica);
+        if (conn == null) {
+            inFlight[index].decrementAndGet();
+            log.warn("getReadConnection(): replica {} unavailable, reading from primary", index);
+            return route(primary, lease.apply(primary), -1);
+        }
+        return route(replica, conn, index);
+    }
+
+    @Override
+    public int getBatchSize() {
+        return primary.getBatchSize();
+    }
+
+    @Override
+    public int getStreamFetchSize() {
+        return primary.getStreamFetchSize();
+    }
+
+    @Override
+    public void freeConnection() {
+        primary.freeConnection();
+        for (Connector replica : replicas) {
+            replica.freeConnection();
+        }
+    }
+
+    @Override
+    public void freeConnection(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        if (Proxy.isProxyClass(conn.getClass()) && Proxy.getInvocationHandler(conn) instanceof RoutedConnection routed) {
+            routed.release();
+        } else {
+            primary.freeConnection(conn);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+        for (Connector replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * @return number of users whose last write is currently remembered
+     */
+    public int getTrackedUsers() {
+        return lastWriteByUser.size();
+    }
+
+    /**
+     * @return connections currently leased from each replica, in configuration order
+     */
+    public int[] getReplicaLoad() {
+        int[] load = new int[inFlight.length];
+        for (int i = 0; i < load.length; i++) {
+            load[i] = inFlight[i].get();
+        }
+        return load;
+    }
+
+    private void recordWrite(String user) {
+        long now = System.currentTimeMillis();
+        LAST_THREAD_WRITE.set(now);
+        if (user == null) {
+            return;
+        }
+        sweepExpired(now);
+        if (lastWriteByUser.size() < maxTrackedUsers || lastWriteByUser.containsKey(user)) {
+            lastWriteByUser.put(user, now);
+        }
+    }
+
+    /**
+     * Drops the last writes that have left the window, at most once per window
+     */
+    private void sweepExpired(long now) {
+        long last = lastSweep.get();
+        if (now - last > readYourWritesMillis && lastSweep.compareAndSet(last, now)) {
+            lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite > readYourWritesMillis);
+        }
+    }
+
+    private boolean mustReadFromPrimary() {
+        Long threadWrite = LAST_THREAD_WRITE.get();
+        if (threadWrite != null && System.currentTimeMillis() - threadWrite <= readYourWritesMillis) {
+            return true;
+        }
+        String user = CURRENT_USER.get();
+        if (user == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - lastWrite <= readYourWritesMillis) {
+            return true;
+        }
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    private int pickReplica() {
+        if (strategy == Strategy.LEAST_LOADED) {
+            int best = 0;
+            for (int i = 1; i < inFlight.length; i++) {
+                if (inFlight[i].get() < inFlight[best].get()) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    private Connection route(Connector owner, Connection conn, int replicaIndex) {
+        if (conn == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new RoutedConnection(owner, conn, replicaIndex, CURRENT_USER.get()));
+    }
+
+    /**
+     * @return false for statements that only read - SELECT, SHOW, EXPLAIN - true for anything else
+     */
+    static boolean isWrite(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        for (String read : new String[]{"select", "show", "explain"}) {
+            if (sql.regionMatches(true, start, read, 0, read.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remembers which connector a connection came from so close()/freeConnection(conn) hand it back there,
+     * and, on the primary, whether it wrote so the write can be recorded once it is committed
+     */
+    private final class RoutedConnection implements InvocationHandler {
+        private final Connector owner;
+        private final Connection target;
+        private final int replicaIndex;
+        private final String user;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean pendingWrite;
+
+        private RoutedConnection(Connector owner, Connection target, int replicaIndex, String user) {
+            this.owner = owner;
+            this.target = target;
+            this.replicaIndex = replicaIndex;
+            this.user = user;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                if (pendingWrite) {
+                    try {
+                        if (target.getAutoCommit()) {
+                            recordWrite(user);
+                        }
+                    } catch (SQLException e) {
+                        recordWrite(user);
+                    }
+                }
+                owner.freeConnection(target);
+                if (replicaIndex >= 0) {
+                    inFlight[replicaIndex].decrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return released.get() || target.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (released.get()) {
+                throw new SQLException("Connection has already been released");
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (replicaIndex < 0) {
+                if (result instanceof Statement statement && method.getName().equals("createStatement")) {
+                    return trackedStatement(statement);
+                }
+                trackWrites(method.getName(), args);
+            }
+            return result;
+        }
+
+        /**
+         * Plain statements get their SQL with each execute, so that is where a write shows up
+         */
+        private Statement trackedStatement(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[]{Statement.class},
+                    (proxy, method, args) -> {
+                        if (args != null && args.length > 0 && args[0] instanceof String sql
+                                && (method.getName().startsWith("execute") || method.getName().equals("addBatch"))) {
+                            pendingWrite |= isWrite(sql);
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private void trackWrites(String method, Object[] args) {
+            switch (method) {
+                case "prepareStatement":
+                    pendingWrite |= isWrite((String) args[0]);
+                    break;
+                case "prepareCall":
+                    pendingWrite = true;
+                    break;
+                case "commit":
+                    if (pendingWrite) {
+                        recordWrite(user);
+                        pendingWrite = false;
+                    }
+                    break;
+                case "rollback":
+                    if (args == null) {
+                        pendingWrite = false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
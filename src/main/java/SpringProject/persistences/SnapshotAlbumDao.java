@@ -0,0 +1,64 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Album;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * AlbumDao that reads albums from a CatalogSnapshot, plus the albums added to the database since
+ * the snapshot was written, fetched by catchUp() - which ConnectorConfig runs every
+ * catalog.snapshot.catchUpSeconds, so listings pick up albums imported later. An album the snapshot
+ * doesn't have - one added since the last catchUp() - is looked up in the wrapped DAO.
+ *
+ * Albums have no write path through the API; changes to existing albums show up with the next snapshot.
+ */
+public class SnapshotAlbumDao implements AlbumDao {
+
+    private final AlbumDao delegate;
+    private final CatalogSnapshot snapshot;
+    private volatile Map<Integer, Album> newer = Map.of();
+
+    public SnapshotAlbumDao(AlbumDao delegate, CatalogSnapshot snapshot) {
+        this.delegate = delegate;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Fetches the albums added since the snapshot: one query over the primary key range above it
+     */
+    public void catchUp() {
+        Map<Integer, Album> albums = new TreeMap<>();
+        for (Album album : delegate.findAfter(snapshot.maxAlbumId())) {
+            albums.put(album.getId(), album);
+        }
+        newer = albums;
+    }
+
+    @Override
+    public List<Album> getAlbumsByArtistId(int artistId) {
+        List<Album> albums = new ArrayList<>(snapshot.albumsByArtist(artistId));
+        for (Album album : newer.values()) {
+            if (album.getArtistId() == artistId) {
+                albums.add(album);
+            }
+        }
+        return albums;
+    }
+
+    @Override
+    public Album getAlbumById(int id) {
+        Album album = snapshot.findAlbum(id);
+        if (album == null) {
+            album = newer.get(id);
+        }
+        return album != null ? album : delegate.getAlbumById(id);
+    }
+
+    @Override
+    public List<Album> findAfter(int afterId) {
+        return delegate.findAfter(afterId);
+    }
+}
@@ -0,0 +1,80 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Album;
+import SpringProject.entities.Artist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * ArtistDao that reads artists from a CatalogSnapshot, plus the artists added to the database since
+ * the snapshot was written, fetched by catchUp() - which ConnectorConfig runs every
+ * catalog.snapshot.catchUpSeconds, so listings pick up artists imported later. An artist the snapshot
+ * doesn't have - one added since the last catchUp() - is looked up in the wrapped DAO. Albums come from
+ * the given AlbumDao.
+ *
+ * Artists have no write path through the API; changes to existing artists show up with the next snapshot.
+ */
+public class SnapshotArtistDao implements ArtistDao {
+
+    private final ArtistDao delegate;
+    private final AlbumDao albumDao;
+    private final CatalogSnapshot snapshot;
+    private volatile Map<Integer, Artist> newer = Map.of();
+
+    public SnapshotArtistDao(ArtistDao delegate, AlbumDao albumDao, CatalogSnapshot snapshot) {
+        this.delegate = delegate;
+        this.albumDao = albumDao;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Fetches the artists added since the snapshot: one query over the primary key range above it
+     */
+    public void catchUp() {
+        Map<Integer, Artist> artists = new TreeMap<>();
+        for (Artist artist : delegate.findAfter(snapshot.maxArtistId())) {
+            artists.put(artist.getId(), artist);
+        }
+        newer = artists;
+    }
+
+    @Override
+    public List<Artist> getAllArtists() {
+        return findAll();
+    }
+
+    @Override
+    public Artist getArtistById(int id) {
+        Artist artist = snapshot.findArtist(id);
+        if (artist == null) {
+            artist = newer.get(id);
+        }
+        return artist != null ? artist : delegate.getArtistById(id);
+    }
+
+    @Override
+    public List<Album> getAlbumsByArtist(int artistId) {
+        return albumDao.getAlbumsByArtistId(artistId);
+    }
+
+    @Override
+    public List<Artist> findAll() {
+        List<Artist> artists = snapshot.artists();
+        artists.addAll(newer.values());
+        return artists;
+    }
+
+    @Override
+    public Optional<Artist> findById(int id) {
+        return Optional.ofNullable(getArtistById(id));
+    }
+
+    @Override
+    public List<Artist> findAfter(int afterId) {
+        return delegate.findAfter(afterId);
+    }
+}
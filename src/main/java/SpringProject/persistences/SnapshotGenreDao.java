@@ -0,0 +1,95 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Genre;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * GenreDao that answers reads from memory: from a CatalogSnapshot at first, then from the whole genres
+ * table once catchUp() has read it. Genres are few and can be edited through the API, so catching up
+ * re-reads them all rather than only the newer ids, and every successful write re-reads them too.
+ * Writes go straight to the wrapped DAO.
+ */
+public class SnapshotGenreDao implements GenreDao {
+
+    private final GenreDao delegate;
+    private volatile Map<Integer, Genre> genres;
+
+    public SnapshotGenreDao(GenreDao delegate, CatalogSnapshot snapshot) {
+        this.delegate = delegate;
+        this.genres = byId(snapshot.genres());
+    }
+
+    /**
+     * Replaces the in-memory genres with the current contents of the table
+     */
+    public void catchUp() throws SQLException {
+        genres = byId(delegate.findAll());
+    }
+
+    @Override
+    public void closeConnection() {
+        delegate.closeConnection();
+    }
+
+    @Override
+    public Genre create(Genre genre) throws SQLException {
+        Genre created = delegate.create(genre);
+        catchUp();
+        return created;
+    }
+
+    @Override
+    public List<Genre> createAll(List<Genre> genres) throws SQLException {
+        List<Genre> created = delegate.createAll(genres);
+        catchUp();
+        return created;
+    }
+
+    @Override
+    public Genre findById(int id) throws SQLException {
+        Genre genre = genres.get(id);
+        return genre != null ? genre : delegate.findById(id);
+    }
+
+    /**
+     * @return every genre, ordered by name like the SQL it replaces
+     */
+    @Override
+    public List<Genre> findAll() {
+        List<Genre> all = new ArrayList<>(genres.values());
+        all.sort(Comparator.comparing(Genre::getName));
+        return all;
+    }
+
+    @Override
+    public boolean update(Genre genre) throws SQLException {
+        boolean updated = delegate.update(genre);
+        if (updated) {
+            catchUp();
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean delete(int id) throws SQLException {
+        boolean deleted = delegate.delete(id);
+        if (deleted) {
+            catchUp();
+        }
+        return deleted;
+    }
+
+    private static Map<Integer, Genre> byId(List<Genre> genres) {
+        Map<Integer, Genre> map = new TreeMap<>();
+        for (Genre genre : genres) {
+            map.put(genre.getId(), genre);
+        }
+        return map;
+    }
+}
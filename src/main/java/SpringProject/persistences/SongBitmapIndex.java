@@ -0,0 +1,298 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongFilter;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compressed bitmap indexes over the rows of a SongColumns catalog: one Roaring bitmap of row numbers per
+ * genre, artist, album, release year and 30-second duration bucket.
+ *
+ * A filter becomes bitmap algebra - OR across the values allowed for an attribute (the ids in a set, the
+ * years or buckets in a range), then AND across attributes, smallest first - so "rock from 1990-1999 under
+ * 4 minutes by artist X" touches only the bitmaps involved instead of scanning rows. Duration buckets can
+ * straddle a bound, so rows are checked against the exact durations as they are read out.
+ * Rows are in id order, so the result is already sorted for keyset paging.
+ */
+public final class SongBitmapIndex {
+
+    static final int DURATION_BUCKET_SECONDS = 30;
+
+    private final SongColumns columns;
+    private final Map<Integer, RoaringBitmap> byGenre = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byArtist = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byAlbum = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byYear = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byDurationBucket = new HashMap<>();
+    private final RoaringBitmap allRows;
+
+    private SongBitmapIndex(SongColumns columns) {
+        this.columns = columns;
+        for (int row = 0; row < columns.size(); row++) {
+            add(byGenre, columns.genreId(row), row);
+            add(byArtist, columns.artistId(row), row);
+            add(byAlbum, columns.albumId(row), row);
+            add(byYear, columns.releaseYear(row), row);
+            add(byDurationBucket, bucketOf(columns.durationSeconds(row)), row);
+        }
+        for (Map<Integer, RoaringBitmap> index : indexes()) {
+            index.values().forEach(RoaringBitmap::runOptimize);
+        }
+        this.allRows = RoaringBitmap.bitmapOfRange(0, columns.size());
+    }
+
+    /**
+     * Indexes only the rows past the end of base's copy, sharing the bitmaps they don't touch. The ones
+     * they do are copied before the new rows are added, so base is left as it was for readers still using it.
+     */
+    private SongBitmapIndex(SongBitmapIndex base, SongColumns columns) {
+        this.columns = columns;
+        byGenre.putAll(base.byGenre);
+        byArtist.putAll(base.byArtist);
+        byAlbum.putAll(base.byAlbum);
+        byYear.putAll(base.byYear);
+        byDurationBucket.putAll(base.byDurationBucket);
+        Set<RoaringBitmap> copied = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int row = base.columns.size(); row < columns.size(); row++) {
+            addToCopy(byGenre, columns.genreId(row), row, copied);
+            addToCopy(byArtist, columns.artistId(row), row, copied);
+            addToCopy(byAlbum, columns.albumId(row), row, copied);
+            addToCopy(byYear, columns.releaseYear(row), row, copied);
+            addToCopy(byDurationBucket, bucketOf(columns.durationSeconds(row)), row, copied);
+        }
+        copied.forEach(RoaringBitmap::runOptimize);
+        this.allRows = RoaringBitmap.bitmapOfRange(0, columns.size());
+    }
+
+    public static SongBitmapIndex build(SongColumns columns) {
+        return new SongBitmapIndex(columns);
+    }
+
+    /**
+     * @param appended made by SongColumns.append() from this index's copy
+     * @return an index over appended
+     */
+    public SongBitmapIndex append(SongColumns appended) {
+        return new SongBitmapIndex(this, appended);
+    }
+
+    public SongColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the rows matching every criterion of the filter; callers must not modify it
+     */
+    public RoaringBitmap matchingRows(SongFilter filter) {
+        List<RoaringBitmap> clauses = new ArrayList<>();
+        if (!isEmpty(filter.getGenreIds())) {
+            clauses.add(anyOf(byGenre, filter.getGenreIds()));
+        }
+        if (!isEmpty(filter.getArtistIds())) {
+            clauses.add(anyOf(byArtist, filter.getArtistIds()));
+        }
+        if (!isEmpty(filter.getAlbumIds())) {
+            clauses.add(anyOf(byAlbum, filter.getAlbumIds()));
+        }
+        if (filter.getMinYear() != null || filter.getMaxYear() != null) {
+            clauses.add(inRange(byYear, filter.getMinYear(), filter.getMaxYear()));
+        }
+        if (filter.getMinDurationSeconds() != null || filter.getMaxDurationSeconds() != null) {
+            clauses.add(inRange(byDurationBucket,
+                    filter.getMinDurationSeconds() == null ? null : bucketOf(filter.getMinDurationSeconds()),
+                    filter.getMaxDurationSeconds() == null ? null : bucketOf(filter.getMaxDurationSeconds())));
+        }
+
+        if (clauses.isEmpty()) {
+            return allRows;
+        }
+        if (clauses.size() == 1) {
+            return clauses.get(0);
+        }
+        clauses.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        return FastAggregation.and(clauses.iterator());
+    }
+
+    /**
+     * @return up to limit matching songs with id greater than afterId, in id order
+     */
+    public List<Song> filter(SongFilter filter, int afterId, int limit) {
+        List<Song> songs = new ArrayList<>(Math.min(limit, 1024));
+        PeekableIntIterator rows = matchingRows(filter).getIntIterator();
+        rows.advanceIfNeeded(columns.firstRowAfter(afterId));
+        while (rows.hasNext() && songs.size() < limit) {
+            int row = rows.next();
+            if (durationWithin(row, filter)) {
+                songs.add(columns.song(row));
+            }
+        }
+        return songs;
+    }
+
+    /**
+     * Same as filter() but returns only the ids, without building Song objects
+     */
+    public int[] filterIds(SongFilter filter, int afterId, int limit) {
+        int[] ids = new int[Math.min(limit, 1024)];
+        int count = 0;
+        PeekableIntIterator rows = matchingRows(filter).getIntIterator();
+        rows.advanceIfNeeded(columns.firstRowAfter(afterId));
+        while (rows.hasNext() && count < limit) {
+            int row = rows.next();
+            if (durationWithin(row, filter)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, (int) Math.min(limit, (long) count * 2));
+                }
+                ids[count++] = columns.id(row);
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Draws distinct rows uniformly at random. Each draw picks a random rank among the candidate rows and
+     * finds that row with select() on the bitmap, rejecting excluded and already drawn rows, so a sample
+     * costs O(count) draws rather than a pass over the catalog. Once rejections pile up - most candidates
+     * excluded, or nearly all of them asked for - the rows still eligible are listed and the rest of the
+     * sample drawn from that list, which keeps every eligible row equally likely.
+     * @param genreId only rows of this genre, or null for any
+     * @param excludedIds ids that must not be drawn
+     * @param count how many rows to draw; fewer are returned if fewer are eligible
+     * @return the rows, in the order drawn
+     */
+    public int[] sampleRows(Integer genreId, Set<Integer> excludedIds, int count, Random random) {
+        RoaringBitmap candidates = genreId == null ? allRows : byGenre.get(genreId);
+        int candidateCount = candidates == null ? 0 : candidates.getCardinality();
+        if (candidateCount == 0 || count <= 0) {
+            return new int[0];
+        }
+        int wanted = Math.min(count, candidateCount);
+        int[] rows = new int[wanted];
+        Set<Integer> drawn = new HashSet<>(wanted * 2);
+        int found = 0;
+        for (int attempts = 4 * wanted + 16; found < wanted && attempts > 0; attempts--) {
+            int rank = random.nextInt(candidateCount);
+            int row = candidates == allRows ? rank : candidates.select(rank);
+            if (!excludedIds.contains(columns.id(row)) && drawn.add(row)) {
+                rows[found++] = row;
+            }
+        }
+        if (found < wanted) {
+            int[] eligible = new int[candidateCount];
+            int eligibleCount = 0;
+            PeekableIntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int row = iterator.next();
+                if (!excludedIds.contains(columns.id(row)) && !drawn.contains(row)) {
+                    eligible[eligibleCount++] = row;
+                }
+            }
+            // partial Fisher-Yates shuffle: only as many swaps as rows still wanted
+            for (int i = 0; i < eligibleCount && found < wanted; i++) {
+                int pick = i + random.nextInt(eligibleCount - i);
+                int row = eligible[pick];
+                eligible[pick] = eligible[i];
+                rows[found++] = row;
+            }
+        }
+        return found == rows.length ? rows : Arrays.copyOf(rows, found);
+    }
+
+    /**
+     * @return serialized size of all the bitmaps, a close proxy for their heap footprint
+     */
+    public long memoryBytes() {
+        long bytes = allRows.getLongSizeInBytes();
+        for (Map<Integer, RoaringBitmap> index : indexes()) {
+            for (RoaringBitmap bitmap : index.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private boolean durationWithin(int row, SongFilter filter) {
+        int duration = columns.durationSeconds(row);
+        return (filter.getMinDurationSeconds() == null || duration >= filter.getMinDurationSeconds())
+                && (filter.getMaxDurationSeconds() == null || duration <= filter.getMaxDurationSeconds());
+    }
+
+    private List<Map<Integer, RoaringBitmap>> indexes() {
+        return List.of(byGenre, byArtist, byAlbum, byYear, byDurationBucket);
+    }
+
+    private static RoaringBitmap anyOf(Map<Integer, RoaringBitmap> index, Collection<Integer> values) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(values.size());
+        for (Integer value : values) {
+            RoaringBitmap bitmap = value == null ? null : index.get(value);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return union(bitmaps);
+    }
+
+    /**
+     * Union of the bitmaps whose key lies within the inclusive bounds; a null bound is open
+     */
+    private static RoaringBitmap inRange(Map<Integer, RoaringBitmap> index, Integer min, Integer max) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        for (Map.Entry<Integer, RoaringBitmap> entry : index.entrySet()) {
+            int key = entry.getKey();
+            if ((min == null || key >= min) && (max == null || key <= max)) {
+                bitmaps.add(entry.getValue());
+            }
+        }
+        return union(bitmaps);
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        return FastAggregation.or(bitmaps.iterator());
+    }
+
+    private static void add(Map<Integer, RoaringBitmap> index, int value, int row) {
+        index.computeIfAbsent(value, v -> new RoaringBitmap()).add(row);
+    }
+
+    /**
+     * Adds the row to a copy of the value's bitmap, copying it on first use
+     */
+    private static void addToCopy(Map<Integer, RoaringBitmap> index, int value, int row, Set<RoaringBitmap> copied) {
+        RoaringBitmap bitmap = index.get(value);
+        if (bitmap == null || !copied.contains(bitmap)) {
+            bitmap = bitmap == null ? new RoaringBitmap() : bitmap.clone();
+            copied.add(bitmap);
+            index.put(value, bitmap);
+        }
+        bitmap.add(row);
+    }
+
+    private static boolean isEmpty(Collection<Integer> values) {
+        return values == null || values.isEmpty();
+    }
+
+    private static int bucketOf(int durationSeconds) {
+        return Math.floorDiv(durationSeconds, DURATION_BUCKET_SECONDS);
+    }
+}
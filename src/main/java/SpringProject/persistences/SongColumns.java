@@ -0,0 +1,315 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-optimized, struct-of-arrays copy of the songs table.
+ *
+ * Row r of the catalog is ids[r], artistIds[r], ... - one primitive array per column, rows in ascending
+ * id order - and its title is the UTF-8 bytes titlePool[titleStart[r], titleStart[r + 1]). Lookups by id go
+ * through a primitive int-to-row hash map. Compared with a List of Song entities this drops the per-song
+ * object headers, references and String objects, and a filter scan reads a few dense int arrays.
+ * Song objects are only created for the rows actually returned.
+ *
+ * Immutable once built; ColumnarSongDao swaps in a new instance on reload, and one made by append() as
+ * songs are added.
+ */
+public final class SongColumns {
+
+    private final int size;
+    private final int[] ids;
+    private final int[] artistIds;
+    private final int[] albumIds;
+    private final int[] genreIds;
+    private final int[] durations;
+    private final int[] releaseYears;
+    private final byte[] titlePool;
+    private final int[] titleStart;
+    private final IntIntMap rowsById;
+    private final int mappedRows;
+
+    /**
+     * @param rowsById ids of rows [0, mappedRows); rows appended after them are found by binary search
+     */
+    private SongColumns(Builder builder, IntIntMap rowsById, int mappedRows) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.artistIds = builder.artistIds;
+        this.albumIds = builder.albumIds;
+        this.genreIds = builder.genreIds;
+        this.durations = builder.durations;
+        this.releaseYears = builder.releaseYears;
+        this.titlePool = builder.titlePool;
+        this.titleStart = builder.titleStart;
+        this.rowsById = rowsById;
+        this.mappedRows = mappedRows;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A copy with the songs appended, for catching up with rows added to the table. The new rows are
+     * written into the arrays past size() - which this copy never reads, so it stays valid for readers
+     * still holding it - and the arrays are only copied when their spare room runs out. The id map is
+     * shared too. Only the newest copy may be appended to, or two copies would write the same rows.
+     * @param songs in ascending id order, all above the highest id in this copy
+     */
+    public SongColumns append(Collection<Song> songs) {
+        Builder builder = new Builder(this);
+        builder.reserve(songs.size());
+        songs.forEach(builder::add);
+        return new SongColumns(builder, rowsById, mappedRows);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the row holding that song id, or -1
+     */
+    public int rowOf(int id) {
+        if (id == 0) {
+            return IntIntMap.MISSING;
+        }
+        int row = rowsById.get(id);
+        if (row == IntIntMap.MISSING && mappedRows < size) {
+            int index = Arrays.binarySearch(ids, mappedRows, size, id);
+            return index >= 0 ? index : IntIntMap.MISSING;
+        }
+        return row;
+    }
+
+    public int id(int row) {
+        return ids[row];
+    }
+
+    public int artistId(int row) {
+        return artistIds[row];
+    }
+
+    public int albumId(int row) {
+        return albumIds[row];
+    }
+
+    public int genreId(int row) {
+        return genreIds[row];
+    }
+
+    public int durationSeconds(int row) {
+        return durations[row];
+    }
+
+    public int releaseYear(int row) {
+        return releaseYears[row];
+    }
+
+    public String title(int row) {
+        return new String(titlePool, titleStart[row], titleStart[row + 1] - titleStart[row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the song with that id as an entity, or null
+     */
+    public Song find(int id) {
+        int row = rowOf(id);
+        return row < 0 ? null : song(row);
+    }
+
+    public Song song(int row) {
+        return Song.builder()
+                .id(ids[row])
+                .title(title(row))
+                .artistId(artistIds[row])
+                .albumId(albumIds[row])
+                .genreId(genreIds[row])
+                .durationSeconds(durations[row])
+                .releaseYear(releaseYears[row])
+                .build();
+    }
+
+    /**
+     * @return the first row whose id is greater than afterId (size() if there is none)
+     */
+    public int firstRowAfter(int afterId) {
+        int index = Arrays.binarySearch(ids, 0, size, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Scans the columns for songs matching the filter, in id order
+     * @return up to limit matching songs with id greater than afterId
+     */
+    public List<Song> filter(SongFilter filter, int afterId, int limit) {
+        int[] genres = sorted(filter.getGenreIds());
+        int[] artists = sorted(filter.getArtistIds());
+        int[] albums = sorted(filter.getAlbumIds());
+        int minYear = filter.getMinYear() == null ? Integer.MIN_VALUE : filter.getMinYear();
+        int maxYear = filter.getMaxYear() == null ? Integer.MAX_VALUE : filter.getMaxYear();
+        int minDuration = filter.getMinDurationSeconds() == null ? Integer.MIN_VALUE : filter.getMinDurationSeconds();
+        int maxDuration = filter.getMaxDurationSeconds() == null ? Integer.MAX_VALUE : filter.getMaxDurationSeconds();
+
+        List<Song> songs = new ArrayList<>(Math.min(limit, 1024));
+        for (int row = firstRowAfter(afterId); row < size && songs.size() < limit; row++) {
+            if (releaseYears[row] >= minYear && releaseYears[row] <= maxYear
+                    && durations[row] >= minDuration && durations[row] <= maxDuration
+                    && anyOf(genres, genreIds[row]) && anyOf(artists, artistIds[row]) && anyOf(albums, albumIds[row])) {
+                songs.add(song(row));
+            }
+        }
+        return songs;
+    }
+
+    /**
+     * @return approximate heap bytes held by the columns, the title pool and the id map
+     */
+    public long memoryBytes() {
+        long arrayHeader = 16;
+        return 7 * arrayHeader + 4L * size * 6 + titlePool.length + 4L * titleStart.length + rowsById.memoryBytes();
+    }
+
+    /**
+     * Estimated heap bytes for the same songs held as a List of Song entities (compressed oops):
+     * a 48-byte Song, a 24-byte String plus its byte[] (16-byte header, 8-byte aligned) and a list slot
+     */
+    public long entityMemoryBytes() {
+        long bytes = 16 + 4L * size;
+        for (int row = 0; row < size; row++) {
+            int titleLength = titleStart[row + 1] - titleStart[row];
+            bytes += 48 + 24 + align(16 + titleLength);
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    private static int[] sorted(Collection<Integer> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * @return true if no values are required, or value is one of them
+     */
+    private static boolean anyOf(int[] values, int value) {
+        if (values == null) {
+            return true;
+        }
+        if (values.length <= 8) {
+            for (int v : values) {
+                if (v == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * Collects rows as they stream in from the database, in ascending id order
+     */
+    public static final class Builder {
+        private int size;
+        private int[] ids = new int[1024];
+        private int[] artistIds = new int[1024];
+        private int[] albumIds = new int[1024];
+        private int[] genreIds = new int[1024];
+        private int[] durations = new int[1024];
+        private int[] releaseYears = new int[1024];
+        private byte[] titlePool = new byte[16 * 1024];
+        private int titleBytes;
+        private int[] titleStart = new int[1025];
+
+        private Builder() {
+        }
+
+        /**
+         * Continues after the rows of base, in its arrays
+         */
+        private Builder(SongColumns base) {
+            size = base.size;
+            ids = base.ids;
+            artistIds = base.artistIds;
+            albumIds = base.albumIds;
+            genreIds = base.genreIds;
+            durations = base.durations;
+            releaseYears = base.releaseYears;
+            titlePool = base.titlePool;
+            titleBytes = base.titleStart[base.size];
+            titleStart = base.titleStart;
+        }
+
+        public Builder add(Song song) {
+            if (song.getId() <= 0 || (size > 0 && song.getId() <= ids[size - 1])) {
+                throw new IllegalArgumentException("Songs must be added in ascending id order, got " + song.getId());
+            }
+            if (size == ids.length) {
+                resize(Math.max(1024, size * 2));
+            }
+            byte[] title = song.getTitle() == null ? new byte[0] : song.getTitle().getBytes(StandardCharsets.UTF_8);
+            if (titleBytes + title.length > titlePool.length) {
+                titlePool = Arrays.copyOf(titlePool, Math.max(titleBytes + title.length, titlePool.length * 2));
+            }
+            System.arraycopy(title, 0, titlePool, titleBytes, title.length);
+            titleBytes += title.length;
+
+            ids[size] = song.getId();
+            artistIds[size] = song.getArtistId();
+            albumIds[size] = song.getAlbumId();
+            genreIds[size] = song.getGenreId();
+            durations[size] = (int) Math.round(song.getDurationSeconds());
+            releaseYears[size] = song.getReleaseYear();
+            size++;
+            titleStart[size] = titleBytes;
+            return this;
+        }
+
+        public SongColumns build() {
+            resize(size);
+            titlePool = Arrays.copyOf(titlePool, titleBytes);
+            IntIntMap rowsById = new IntIntMap(size);
+            for (int row = 0; row < size; row++) {
+                rowsById.put(ids[row], row);
+            }
+            return new SongColumns(this, rowsById, size);
+        }
+
+        /**
+         * Makes room for that many more rows, plus an eighth of the rows already held (and of their title
+         * bytes) so that the next few small appends fit without copying
+         */
+        private void reserve(int rows) {
+            int needed = size + rows;
+            if (needed > ids.length) {
+                resize(needed + size / 8);
+                if (titlePool.length < titleBytes + titleBytes / 8) {
+                    titlePool = Arrays.copyOf(titlePool, titleBytes + titleBytes / 8);
+                }
+            }
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            artistIds = Arrays.copyOf(artistIds, capacity);
+            albumIds = Arrays.copyOf(albumIds, capacity);
+            genreIds = Arrays.copyOf(genreIds, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            releaseYears = Arrays.copyOf(releaseYears, capacity);
+            titleStart = Arrays.copyOf(titleStart, capacity + 1);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package SpringProject.persistences;
 
 import SpringProject.entities.*;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface SongDao {
     List<Song> getSongsByTitle(String title);
@@ -9,5 +13,46 @@ public interface SongDao {
     List<Song> getSongsByAlbum(String albumTitle);
     List<Song> getSongsByGenre(String genreName);
     Song getSongById(int id);
+
+    /**
+     * Looks up many songs in a few round trips instead of one per id
+     * @return the songs that exist among the ids, each once, in id order
+     */
+    List<Song> getSongsByIds(Collection<Integer> ids);
     List<Song> findAll();
+    List<SongDetails> findAllDetails();
+
+    /**
+     * A song with its artist name, album title and genre name, in one joined query
+     * @return the song, or null if there is none with that id
+     */
+    SongDetails getSongDetailsById(int id);
+
+    /**
+     * Keyset pages (here and in the search overloads below): songs with id greater than afterId,
+     * in id order, at most limit of them. Start with afterId 0, then pass the last id of each page.
+     */
+    List<Song> findPage(int afterId, int limit);
+    List<SongDetails> findDetailsPage(int afterId, int limit);
+    List<Song> getSongsByTitle(String title, int afterId, int limit);
+    List<Song> getSongsByArtist(String artistName, int afterId, int limit);
+    List<Song> getSongsByAlbum(String albumTitle, int afterId, int limit);
+    List<Song> getSongsByGenre(String genreName, int afterId, int limit);
+    List<Song> findByFilter(SongFilter filter, int afterId, int limit);
+    List<Integer> findIdsByFilter(SongFilter filter, int afterId, int limit);
+
+    /**
+     * Draws distinct songs uniformly at random, without sorting the table
+     * @param genreId only songs of this genre, or null for any
+     * @param excludedIds ids that must not be drawn, e.g. songs the listener has already seen
+     * @param count how many songs to draw
+     * @return up to count songs, in random order
+     */
+    List<Song> sample(Integer genreId, Set<Integer> excludedIds, int count);
+
+    /**
+     * Hands every song, in id order, to the consumer as it is read, without collecting them
+     * @return the number of songs read
+     */
+    long streamAll(Consumer<Song> consumer) throws SQLException;
 }
\ No newline at end of file
@@ -4,10 +4,48 @@ import SpringProject.entities.*;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 public class SongDaoImpl implements SongDao {
 
+    /**
+     * IN-list lengths used by getSongsByIds. A chunk is padded up to the next of these by repeating its last id,
+     * so the statement cache only ever sees these few SQL texts rather than one per list length.
+     */
+    private static final int[] IN_LIST_SIZES = {8, 32, 128, 512};
+    private static final String[] IN_LIST_QUERIES = new String[IN_LIST_SIZES.length];
+
+    static {
+        for (int i = 0; i < IN_LIST_SIZES.length; i++) {
+            IN_LIST_QUERIES[i] = "SELECT * FROM songs WHERE id IN (" + "?, ".repeat(IN_LIST_SIZES[i] - 1) + "?) ORDER BY id";
+        }
+    }
+
+    /**
+     * Songs with their artist name, album title and genre name; songs without an album keep a null title
+     */
+    private static final String DETAILS_QUERY = """
+            SELECT s.id, s.title, s.artistId, a.name AS artistName, s.albumId, al.title AS albumTitle,
+                   s.genreId, g.name AS genreName, s.durationSeconds, s.releaseYear
+            FROM songs s
+            JOIN artists a ON s.artistId = a.id
+            LEFT JOIN albums al ON s.albumId = al.id
+            JOIN genres g ON s.genreId = g.id
+            """;
+
+    /**
+     * Rounds of random id probes sample() makes before settling for fewer songs than asked for
+     */
+    private static final int SAMPLE_PROBE_ROUNDS = 8;
+
     private final Connector connector;
 
     public SongDaoImpl(Connector connector) {
@@ -19,7 +57,7 @@ public class SongDaoImpl implements SongDao {
         List<Song> songs = new ArrayList<>();
         String sql = "SELECT id, title, artistId, albumId, genreId, durationSeconds, releaseYear FROM songs";
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
@@ -46,7 +84,7 @@ public class SongDaoImpl implements SongDao {
     public List<Song> getSongsByTitle(String title) {
         List<Song> songs = new ArrayList<>();
         String query = "SELECT * FROM songs WHERE title LIKE ?";
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setString(1, "%" + title + "%");
@@ -71,7 +109,7 @@ public class SongDaoImpl implements SongDao {
             WHERE a.name LIKE ?
         """;
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setString(1, "%" + artistName + "%");
@@ -96,7 +134,7 @@ public class SongDaoImpl implements SongDao {
             WHERE al.title LIKE ?
         """;
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setString(1, "%" + albumTitle + "%");
@@ -121,7 +159,7 @@ public class SongDaoImpl implements SongDao {
             WHERE g.name LIKE ?
         """;
 
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setString(1, "%" + genreName + "%");
@@ -139,7 +177,7 @@ public class SongDaoImpl implements SongDao {
     public Song getSongById(int id) {
         Song song = null;
         String query = "SELECT * FROM songs WHERE id = ?";
-        try (Connection conn = connector.getConnection();
+        try (Connection conn = connector.getReadConnection();
              PreparedStatement ps = conn.prepareStatement(query)) {
 
             ps.setInt(1, id);
@@ -154,6 +192,367 @@ public class SongDaoImpl implements SongDao {
         return song;
     }
 
+    /**
+     * Deduplicates and sorts the ids, then reads them in chunks of up to 512 with one IN query per chunk
+     */
+    @Override
+    public List<Song> getSongsByIds(Collection<Integer> ids) {
+        int[] distinct = ids.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).distinct().sorted().toArray();
+        List<Song> songs = new ArrayList<>(distinct.length);
+        if (distinct.length == 0) {
+            return songs;
+        }
+        int maxChunk = IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+        try (Connection conn = connector.getReadConnection()) {
+            for (int from = 0; from < distinct.length; from += maxChunk) {
+                int to = Math.min(distinct.length, from + maxChunk);
+                int size = 0;
+                while (IN_LIST_SIZES[size] < to - from) {
+                    size++;
+                }
+                try (PreparedStatement ps = conn.prepareStatement(IN_LIST_QUERIES[size])) {
+                    for (int i = 0; i < IN_LIST_SIZES[size]; i++) {
+                        ps.setInt(i + 1, distinct[Math.min(from + i, to - 1)]);
+                    }
+                    ResultSet rs = ps.executeQuery();
+
+                    while (rs.next()) {
+                        songs.add(mapRowToSong(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return songs;
+    }
+
+    /**
+     * Every song with its artist name, album title and genre name, in id order - one joined query.
+     * Used to build the in-memory search index.
+     */
+    @Override
+    public List<SongDetails> findAllDetails() {
+        List<SongDetails> songs = new ArrayList<>();
+        String query = DETAILS_QUERY + "ORDER BY s.id";
+
+        try (Connection conn = connector.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+
+            while (rs.next()) {
+                songs.add(mapRowToSongDetails(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return songs;
+    }
+
+    /**
+     * Probes random ids between the lowest and highest song id (of the genre, if given) and keeps the ones
+     * that exist, looking each round's probes up with one getSongsByIds query. Every existing id is equally
+     * likely to be probed, so gaps in the id sequence don't bias the sample the way "first id at or after a
+     * random id" would. Each round probes more ids than the one before, for sparse id ranges or rare genres;
+     * if the rounds run out, fewer than count songs are returned.
+     */
+    @Override
+    public List<Song> sample(Integer genreId, Set<Integer> excludedIds, int count) {
+        List<Song> songs = new ArrayList<>(Math.max(0, count));
+        if (count <= 0) {
+            return songs;
+        }
+        String query = genreId == null
+                ? "SELECT MIN(id), MAX(id) FROM songs"
+                : "SELECT MIN(id), MAX(id) FROM songs WHERE genreId = ?";
+        int minId;
+        int maxId;
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            if (genreId != null) {
+                ps.setInt(1, genreId);
+            }
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next() || rs.getObject(1) == null) {
+                return songs;
+            }
+            minId = rs.getInt(1);
+            maxId = rs.getInt(2);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return songs;
+        }
+
+        Random random = ThreadLocalRandom.current();
+        Set<Integer> probed = new HashSet<>();
+        int maxProbes = IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+        for (int round = 0; round < SAMPLE_PROBE_ROUNDS && songs.size() < count; round++) {
+            int probes = (int) Math.min(maxProbes, (long) (count - songs.size()) * 4 << round);
+            Set<Integer> ids = new HashSet<>();
+            for (int i = 0; i < probes; i++) {
+                int id = (int) (minId + random.nextLong((long) maxId - minId + 1));
+                if (!excludedIds.contains(id) && probed.add(id)) {
+                    ids.add(id);
+                }
+            }
+            List<Song> found = getSongsByIds(ids);
+            // found comes back in id order; shuffle so a partly used round doesn't favour low ids
+            Collections.shuffle(found, random);
+            for (Song song : found) {
+                if (songs.size() == count) {
+                    break;
+                }
+                if (genreId == null || song.getGenreId() == genreId) {
+                    songs.add(song);
+                }
+            }
+        }
+        return songs;
+    }
+
+    @Override
+    public SongDetails getSongDetailsById(int id) {
+        String query = DETAILS_QUERY + "WHERE s.id = ?";
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, id);
+            ResultSet rs = ps.executeQuery();
+            if (rs.next()) {
+                return mapRowToSongDetails(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public List<SongDetails> findDetailsPage(int afterId, int limit) {
+        List<SongDetails> songs = new ArrayList<>();
+        String query = DETAILS_QUERY + "WHERE s.id > ? ORDER BY s.id LIMIT ?";
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            ps.setInt(1, afterId);
+            ps.setInt(2, limit);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                songs.add(mapRowToSongDetails(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return songs;
+    }
+
+    @Override
+    public List<Song> findPage(int afterId, int limit) {
+        String query = "SELECT * FROM songs WHERE id > ? ORDER BY id LIMIT ?";
+        return queryPage(query, null, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByTitle(String title, int afterId, int limit) {
+        String query = "SELECT * FROM songs WHERE title LIKE ? AND id > ? ORDER BY id LIMIT ?";
+        return queryPage(query, title, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByArtist(String artistName, int afterId, int limit) {
+        String query = """
+            SELECT s.*
+            FROM songs s
+            JOIN artists a ON s.artistId = a.id
+            WHERE a.name LIKE ? AND s.id > ?
+            ORDER BY s.id
+            LIMIT ?
+        """;
+        return queryPage(query, artistName, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByAlbum(String albumTitle, int afterId, int limit) {
+        String query = """
+            SELECT s.*
+            FROM songs s
+            JOIN albums al ON s.albumId = al.id
+            WHERE al.title LIKE ? AND s.id > ?
+            ORDER BY s.id
+            LIMIT ?
+        """;
+        return queryPage(query, albumTitle, afterId, limit);
+    }
+
+    @Override
+    public List<Song> getSongsByGenre(String genreName, int afterId, int limit) {
+        String query = """
+            SELECT s.*
+            FROM songs s
+            JOIN genres g ON s.genreId = g.id
+            WHERE g.name LIKE ? AND s.id > ?
+            ORDER BY s.id
+            LIMIT ?
+        """;
+        return queryPage(query, genreName, afterId, limit);
+    }
+
+    @Override
+    public List<Song> findByFilter(SongFilter filter, int afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        String query = filterQuery("*", filter, afterId, limit, params);
+
+        List<Song> songs = new ArrayList<>();
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                songs.add(mapRowToSong(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return songs;
+    }
+
+    @Override
+    public List<Integer> findIdsByFilter(SongFilter filter, int afterId, int limit) {
+        List<Object> params = new ArrayList<>();
+        String query = filterQuery("id", filter, afterId, limit, params);
+
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return ids;
+    }
+
+    /**
+     * Builds the keyset page query for a filter, adding its parameters to params in placeholder order
+     */
+    private static String filterQuery(String columns, SongFilter filter, int afterId, int limit, List<Object> params) {
+        StringBuilder query = new StringBuilder("SELECT ").append(columns).append(" FROM songs WHERE id > ?");
+        params.add(afterId);
+        appendIn(query, params, "genreId", filter.getGenreIds());
+        appendIn(query, params, "artistId", filter.getArtistIds());
+        appendIn(query, params, "albumId", filter.getAlbumIds());
+        appendBound(query, params, "releaseYear >= ?", filter.getMinYear());
+        appendBound(query, params, "releaseYear <= ?", filter.getMaxYear());
+        appendBound(query, params, "durationSeconds >= ?", filter.getMinDurationSeconds());
+        appendBound(query, params, "durationSeconds <= ?", filter.getMaxDurationSeconds());
+        query.append(" ORDER BY id LIMIT ?");
+        params.add(limit);
+        return query.toString();
+    }
+
+    private static void appendIn(StringBuilder query, List<Object> params, String column, Collection<Integer> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        query.append(" AND ").append(column).append(" IN (");
+        String separator = "";
+        for (Integer value : values) {
+            query.append(separator).append('?');
+            params.add(value);
+            separator = ", ";
+        }
+        query.append(')');
+    }
+
+    private static void appendBound(StringBuilder query, List<Object> params, String condition, Integer value) {
+        if (value != null) {
+            query.append(" AND ").append(condition);
+            params.add(value);
+        }
+    }
+
+    /**
+     * Runs a keyset page query - the primary key index seeks straight to afterId, so every page
+     * costs the same however deep into the catalog it is
+     * @param search the LIKE search text, or null if the query has no LIKE parameter
+     */
+    private List<Song> queryPage(String query, String search, int afterId, int limit) {
+        List<Song> songs = new ArrayList<>();
+        try (Connection conn = connector.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (search != null) {
+                ps.setString(index++, "%" + search + "%");
+            }
+            ps.setInt(index++, afterId);
+            ps.setInt(index, limit);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                songs.add(mapRowToSong(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return songs;
+    }
+
+    /**
+     * Reads the catalog through a forward-only, read-only result set with the connector's streaming
+     * fetch size, so only one fetch's worth of rows is held at a time however large the catalog is.
+     * Unlike the list methods, failures are thrown: a silently truncated export would look complete.
+     */
+    @Override
+    public long streamAll(Consumer<Song> consumer) throws SQLException {
+        String query = "SELECT id, title, artistId, albumId, genreId, durationSeconds, releaseYear FROM songs ORDER BY id";
+        Connection conn = connector.getStreamConnection();
+        if (conn == null) {
+            throw new SQLException("streamAll(): Could not establish connection.");
+        }
+
+        long count = 0;
+        try (conn;
+             PreparedStatement ps = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(connector.getStreamFetchSize());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRowToSong(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private SongDetails mapRowToSongDetails(ResultSet rs) throws SQLException {
+        return SongDetails.builder()
+                .id(rs.getInt("id"))
+                .title(rs.getString("title"))
+                .artistId(rs.getInt("artistId"))
+                .artistName(rs.getString("artistName"))
+                .albumId(rs.getInt("albumId"))
+                .albumTitle(rs.getString("albumTitle"))
+                .genreId(rs.getInt("genreId"))
+                .genreName(rs.getString("genreName"))
+                .durationSeconds(rs.getDouble("durationSeconds"))
+                .releaseYear(rs.getInt("releaseYear"))
+                .build();
+    }
+
     private Song mapRowToSong(ResultSet rs) throws SQLException {
         return Song.builder()
                 .id(rs.getInt("id"))
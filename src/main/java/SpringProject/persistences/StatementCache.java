@@ -0,0 +1,167 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * Statements handed out are proxies: close() returns them to the cache instead of closing them,
+ * so the next DAO call with the same SQL on this connection skips the prepare round trip.
+ *
+ * A connection is only ever leased to one thread at a time, but DAO code may open the same SQL twice
+ * before closing the first (nested calls), so a statement that is already checked out is prepared uncached.
+ */
+@Slf4j
+class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final Map<String, CachedStatement> statements;
+
+    /**
+     * @param connection the physical connection the statements belong to
+     * @param maxSize maximum statements kept before the least recently used is closed
+     * @param hits shared counter incremented on every cache hit
+     * @param misses shared counter incremented on every cache miss
+     */
+    StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for the SQL, preparing and caching a new one on a miss
+     * @param sql the SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or -1 when not specified
+     * @return a prepared statement whose close() hands it back to this cache
+     * @throws SQLException if the statement could not be prepared
+     */
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys + ":" + sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+            hits.incrementAndGet();
+            cached.inUse = true;
+            cached.statement.clearParameters();
+            // The last user may have set a query budget - a fresh checkout has none
+            cached.statement.setQueryTimeout(0);
+            return checkout(cached);
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement statement = autoGeneratedKeys < 0
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, autoGeneratedKeys);
+
+        if (cached != null && cached.inUse) {
+            // Same SQL already checked out on this connection - don't cache the second copy
+            return statement;
+        }
+
+        CachedStatement entry = new CachedStatement(statement);
+        entry.inUse = true;
+        statements.put(key, entry);
+        evictOverflow();
+        return checkout(entry);
+    }
+
+    /**
+     * Closes every cached statement
+     */
+    void clear() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    /**
+     * Marks every statement as available again - called when the connection goes back to the pool,
+     * so a statement a DAO forgot to close doesn't stay checked out forever
+     */
+    void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.inUse = false;
+        }
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            if (!eldest.inUse) {
+                closeQuietly(eldest.statement);
+                iterator.remove();
+            }
+        }
+    }
+
+    private PreparedStatement checkout(CachedStatement cached) {
+        boolean[] returned = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                cached.inUse = false;
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || cached.statement.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (returned[0]) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        return method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.warn("closeQuietly(): could not close cached statement. \nException: {}", e.getMessage());
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
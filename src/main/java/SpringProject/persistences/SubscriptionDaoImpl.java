@@ -50,7 +50,7 @@ public class SubscriptionDaoImpl implements SubscriptionDao {
     public Subscription getSubscriptionFromUsername(String username) {
 
         Subscription subUser = null;
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
 
         try (PreparedStatement ps = conn.prepareStatement(
                 "SELECT * FROM subscription WHERE username = ?"
@@ -80,7 +80,7 @@ public class SubscriptionDaoImpl implements SubscriptionDao {
     public ArrayList<Subscription> getAllSubscriptions() {
 
         ArrayList<Subscription> subscriptions = new ArrayList<>();
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
 
         try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM subscription");
              ResultSet rs = ps.executeQuery()) {
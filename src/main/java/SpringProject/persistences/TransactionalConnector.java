@@ -0,0 +1,103 @@
+package SpringProject.persistences;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connector decorator that hands out the thread-bound UnitOfWork connection when one is open,
+ * and otherwise leases from the wrapped connector as usual.
+ * DAOs need no changes to take part in a unit of work - they keep calling getConnection()/freeConnection(conn).
+ * Connections handed out during a budgeted DAO call are guarded by that call's QueryBudgets deadline.
+ */
+public class TransactionalConnector implements Connector, AutoCloseable {
+
+    /**
+     * A block of DAO calls to run inside a unit of work
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws SQLException;
+    }
+
+    private final Connector delegate;
+
+    public TransactionalConnector(Connector delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Opens a unit of work (or joins the one already open on this thread)
+     * @return the unit of work, to be used with try-with-resources
+     * @throws SQLException if no connection could be leased
+     */
+    public UnitOfWork begin() throws SQLException {
+        return UnitOfWork.begin(delegate);
+    }
+
+    /**
+     * Runs the work in a unit of work, committing once if it completes and rolling back if it throws
+     * @param work the DAO calls to run
+     * @return the result of the work
+     * @throws SQLException if the work or the commit fails
+     */
+    public <T> T inUnitOfWork(Work<T> work) throws SQLException {
+        try (UnitOfWork unitOfWork = begin()) {
+            T result = work.run();
+            unitOfWork.commit();
+            return result;
+        }
+    }
+
+    @Override
+    public Connection getConnection() {
+        Connection bound = UnitOfWork.currentConnection();
+        return QueryBudgets.guard(bound != null ? bound : delegate.getConnection());
+    }
+
+    /**
+     * Reads inside a unit of work use its connection so they see the uncommitted writes
+     */
+    @Override
+    public Connection getReadConnection() {
+        Connection bound = UnitOfWork.currentConnection();
+        return QueryBudgets.guard(bound != null ? bound : delegate.getReadConnection());
+    }
+
+    @Override
+    public Connection getStreamConnection() {
+        Connection bound = UnitOfWork.currentConnection();
+        return QueryBudgets.guard(bound != null ? bound : delegate.getStreamConnection());
+    }
+
+    @Override
+    public int getBatchSize() {
+        return delegate.getBatchSize();
+    }
+
+    @Override
+    public int getStreamFetchSize() {
+        return delegate.getStreamFetchSize();
+    }
+
+    @Override
+    public void freeConnection() {
+        if (!UnitOfWork.isActive()) {
+            delegate.freeConnection();
+        }
+    }
+
+    @Override
+    public void freeConnection(Connection conn) {
+        conn = QueryBudgets.unguard(conn);
+        if (conn != null && conn != UnitOfWork.currentConnection()) {
+            delegate.freeConnection(conn);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package SpringProject.persistences;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A single leased connection and transaction bound to the current thread.
+ * While a unit of work is open, every DAO call made through a TransactionalConnector
+ * on this thread reuses the same connection, and nothing is committed until commit() is called.
+ *
+ * Use with try-with-resources - closing without committing rolls the work back:
+ * <pre>
+ * try (UnitOfWork work = connector.begin()) {
+ *     ...DAO calls...
+ *     work.commit();
+ * }
+ * </pre>
+ * Beginning a unit of work while one is already open on the thread joins the outer one;
+ * only the outermost unit commits or rolls back.
+ */
+@Slf4j
+public class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Connector connector;
+    private final Connection connection;
+    private final Connection handle;
+    private final UnitOfWork outer;
+    private boolean committed;
+    private boolean rollbackOnly;
+    private boolean closed;
+
+    private UnitOfWork(Connector connector, Connection connection, UnitOfWork outer) {
+        this.connector = connector;
+        this.connection = connection;
+        this.outer = outer;
+        this.handle = outer != null ? outer.handle : shield(connection);
+    }
+
+    /**
+     * Leases a connection from the connector, starts a transaction on it and binds it to the current thread
+     * @param connector the connector to lease from
+     * @return the open unit of work
+     * @throws SQLException if no connection could be leased or the transaction could not be started
+     */
+    static UnitOfWork begin(Connector connector) throws SQLException {
+        UnitOfWork existing = CURRENT.get();
+        if (existing != null) {
+            return new UnitOfWork(connector, existing.connection, existing);
+        }
+
+        Connection conn = connector.getConnection();
+        if (conn == null) {
+            throw new SQLException("begin(): Could not establish connection to database.");
+        }
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            connector.freeConnection(conn);
+            throw e;
+        }
+
+        UnitOfWork work = new UnitOfWork(connector, conn, null);
+        CURRENT.set(work);
+        return work;
+    }
+
+    /**
+     * @return the connection of the unit of work open on this thread, or null if there is none.
+     * The returned connection ignores close() so DAOs can treat it like any other connection.
+     */
+    static Connection currentConnection() {
+        UnitOfWork work = CURRENT.get();
+        return work == null ? null : work.handle;
+    }
+
+    /**
+     * @return true if a unit of work is open on the current thread
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Commits the transaction. A joined (inner) unit of work only marks itself done;
+     * the outermost unit performs the actual commit.
+     * @throws SQLException if the commit fails
+     */
+    public void commit() throws SQLException {
+        if (closed) {
+            throw new IllegalStateException("commit(): unit of work is already closed");
+        }
+        if (outer != null) {
+            committed = true;
+            return;
+        }
+        if (rollbackOnly) {
+            throw new SQLException("commit(): an inner unit of work was rolled back, transaction cannot commit");
+        }
+        connection.commit();
+        committed = true;
+    }
+
+    /**
+     * Rolls back if not committed, then unbinds and returns the connection to the connector
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (outer != null) {
+            if (!committed) {
+                outer.rollbackOnly = true;
+            }
+            return;
+        }
+
+        try {
+            if (!committed) {
+                connection.rollback();
+                log.info("Unit of work rolled back");
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            log.error("close() - Could not finish unit of work. \nException: {}", e.getMessage());
+        } finally {
+            CURRENT.remove();
+            connector.freeConnection(connection);
+        }
+    }
+
+    /**
+     * Wraps the leased connection so that DAOs closing it (try-with-resources) or handing it back
+     * don't end the unit of work early
+     */
+    private static Connection shield(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
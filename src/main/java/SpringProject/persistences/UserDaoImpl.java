@@ -8,9 +8,11 @@ import java.sql.*;
 
 @Slf4j
 @Repository
-public class UserDaoImpl {
+public class UserDaoImpl implements UserDao {
 
     private static final int DUPLICATE_KEY_ERROR_CODE = 1062;
+    // reported instead of MySQL's error code by the embedded H2 database
+    private static final String DUPLICATE_KEY_SQL_STATE = "23505";
 
     private final Connector connector;
 
@@ -30,7 +32,7 @@ public class UserDaoImpl {
         Connection conn = connector.getConnection();
         if (conn == null) return false;
 
-        String sql = "SELECT 1 FROM users WHERE email = ? AND password = ?";
+        String sql = "SELECT 1 FROM users WHERE email = ? AND passwordHash = ?";
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, email);
@@ -43,6 +45,8 @@ public class UserDaoImpl {
         } catch (SQLException e) {
             log.error("loginUser() failed: {}", e.getMessage());
             return false;
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
@@ -50,7 +54,7 @@ public class UserDaoImpl {
     public User findUserByUsername(String username) {
         if (username == null || username.isBlank()) return null;
 
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) return null;
 
         String sql = "SELECT * FROM users WHERE username = ?";
@@ -66,6 +70,8 @@ public class UserDaoImpl {
 
         } catch (SQLException e) {
             log.error("findUserByUsername() failed: {}", e.getMessage());
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return null;
@@ -78,7 +84,7 @@ public class UserDaoImpl {
         Connection conn = connector.getConnection();
         if (conn == null) return 0;
 
-        String sql = "INSERT INTO users (username, email, password, userType) VALUES (?, ?, ?, ?)";
+        String sql = "INSERT INTO users (username, email, passwordHash, userType) VALUES (?, ?, ?, ?)";
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
 
@@ -90,12 +96,14 @@ public class UserDaoImpl {
             return ps.executeUpdate();
 
         } catch (SQLException e) {
-            if (e.getErrorCode() == DUPLICATE_KEY_ERROR_CODE) {
+            if (e.getErrorCode() == DUPLICATE_KEY_ERROR_CODE || DUPLICATE_KEY_SQL_STATE.equals(e.getSQLState())) {
                 log.warn("registerUser(): duplicate user/email: {}", e.getMessage());
                 return -1;
             }
             log.error("registerUser() failed: {}", e.getMessage());
             return 0;
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
@@ -103,7 +111,7 @@ public class UserDaoImpl {
     public User findUserByThereEmail(String email) {
         if (email == null || email.isBlank()) return null;
 
-        Connection conn = connector.getConnection();
+        Connection conn = connector.getReadConnection();
         if (conn == null) return null;
 
         String sql = "SELECT * FROM users WHERE email = ?";
@@ -119,6 +127,8 @@ public class UserDaoImpl {
 
         } catch (SQLException e) {
             log.error("findUserByThereEmail() failed: {}", e.getMessage());
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return null;
@@ -131,7 +141,7 @@ public class UserDaoImpl {
         Connection conn = connector.getConnection();
         if (conn == null) return null;
 
-        String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
+        String sql = "SELECT * FROM users WHERE username = ? AND passwordHash = ?";
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, username);
@@ -145,6 +155,8 @@ public class UserDaoImpl {
 
         } catch (SQLException e) {
             log.error("login() failed: {}", e.getMessage());
+        } finally {
+            connector.freeConnection(conn);
         }
 
         return null;
@@ -168,6 +180,8 @@ public class UserDaoImpl {
         } catch (SQLException e) {
             log.error("updateUserEmail() failed: {}", e.getMessage());
             throw new RuntimeException("Database error updating email");
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
@@ -178,7 +192,7 @@ public class UserDaoImpl {
         Connection conn = connector.getConnection();
         if (conn == null) return false;
 
-        String sql = "UPDATE users SET password = ? WHERE username = ?";
+        String sql = "UPDATE users SET passwordHash = ? WHERE username = ?";
 
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setString(1, password);
@@ -189,6 +203,8 @@ public class UserDaoImpl {
         } catch (SQLException e) {
             log.error("updateUserPassword() failed: {}", e.getMessage());
             throw new RuntimeException("Database error updating password");
+        } finally {
+            connector.freeConnection(conn);
         }
     }
 
@@ -196,7 +212,7 @@ public class UserDaoImpl {
         return User.builder()
                 .username(rs.getString("username"))
                 .email(rs.getString("email"))
-                .password(rs.getString("password"))
+                .password(rs.getString("passwordHash"))
                 .userType(rs.getInt("userType"))
                 .build();
     }
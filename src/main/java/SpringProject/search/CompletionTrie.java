@@ -0,0 +1,312 @@
+package SpringProject.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Immutable radix trie over weighted keys, flattened into primitive arrays, for top-N prefix completion.
+ *
+ * Every node stores its edge label (a slice of one shared char[]), its children as a contiguous run of
+ * node indexes sorted by first character, the key ending at it (if any) and the highest weight anywhere
+ * below it. complete() walks down to the prefix node and then does a best-first search ordered by those
+ * subtree maxima, so it visits little more than the N best entries. The search heap is a per-thread
+ * long[] reused across calls, so a lookup allocates nothing beyond the prefix walk.
+ */
+final class CompletionTrie {
+
+    private static final ThreadLocal<long[][]> HEAP = ThreadLocal.withInitial(() -> new long[][]{new long[64]});
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] entry;
+    private final int[] maxWeight;
+    private final int[] weights;
+    private final int nodeCount;
+
+    private CompletionTrie(Builder builder, int[] weights) {
+        this.nodeCount = builder.nodes;
+        this.labels = Arrays.copyOf(builder.labels, builder.labelsUsed);
+        this.labelStart = Arrays.copyOf(builder.labelStart, nodeCount);
+        this.labelLength = Arrays.copyOf(builder.labelLength, nodeCount);
+        this.firstChild = Arrays.copyOf(builder.firstChild, nodeCount);
+        this.childCount = Arrays.copyOf(builder.childCount, nodeCount);
+        this.entry = Arrays.copyOf(builder.entry, nodeCount);
+        this.maxWeight = Arrays.copyOf(builder.maxWeight, nodeCount);
+        this.weights = weights;
+    }
+
+    /**
+     * @param keys distinct, non-empty keys; none gives an empty trie
+     * @param weights weight of each key, non-negative
+     * @return the trie; complete() reports matches as indexes into keys
+     */
+    static CompletionTrie build(String[] keys, int[] weights) {
+        Integer[] order = new Integer[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> keys[i]));
+        String[] sorted = new String[keys.length];
+        int[] sortedEntry = new int[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = keys[order[i]];
+            sortedEntry[i] = order[i];
+        }
+
+        Builder builder = new Builder(sorted, sortedEntry, weights);
+        int root = builder.newNodes(1);
+        builder.fill(root, 0, sorted.length, 0, true);
+        return new CompletionTrie(builder, weights.clone());
+    }
+
+    /**
+     * Writes the indexes of the highest-weighted keys starting with prefix into out, best first
+     * @return how many were written (at most out.length)
+     */
+    int complete(String prefix, int[] out) {
+        int node = find(prefix);
+        if (node < 0 || out.length == 0) {
+            return 0;
+        }
+
+        long[][] holder = HEAP.get();
+        long[] heap = holder[0];
+        int size = 0;
+        int found = 0;
+        heap[size++] = pack(maxWeight[node], node, false);
+
+        while (size > 0 && found < out.length) {
+            long top = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+
+            int current = (int) (top >>> 1) & 0x7fffffff;
+            if ((top & 1) != 0) {
+                out[found++] = entry[current];
+                continue;
+            }
+            int needed = size + childCount[current] + 1;
+            if (needed > heap.length) {
+                heap = Arrays.copyOf(heap, Math.max(needed, heap.length * 2));
+                holder[0] = heap;
+            }
+            if (entry[current] >= 0) {
+                heap[size] = pack(weights[entry[current]], current, true);
+                siftUp(heap, size++);
+            }
+            for (int child = firstChild[current], end = child + childCount[current]; child < end; child++) {
+                heap[size] = pack(maxWeight[child], child, false);
+                siftUp(heap, size++);
+            }
+        }
+        return found;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return approximate heap bytes held by the trie arrays
+     */
+    long memoryBytes() {
+        long arrayHeader = 16;
+        return arrayHeader * 9 + labels.length * 2L + nodeCount * 4L * 6 + weights.length * 4L;
+    }
+
+    /**
+     * @return the node whose path spells out prefix (possibly ending inside its label), or -1
+     */
+    private int find(String prefix) {
+        int node = 0;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int child = findChild(node, prefix.charAt(pos));
+            if (child < 0) {
+                return -1;
+            }
+            int start = labelStart[child];
+            int length = labelLength[child];
+            for (int i = 0; i < length && pos < prefix.length(); i++, pos++) {
+                if (labels[start + i] != prefix.charAt(pos)) {
+                    return -1;
+                }
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Heap key: weight in the high bits so larger weights sort first, then the node and whether it is an entry
+     */
+    private static long pack(int weight, int node, boolean isEntry) {
+        return ((long) weight << 32) | ((long) node << 1) | (isEntry ? 1 : 0);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    /**
+     * Grows the node arrays while the trie is built from sorted keys
+     */
+    private static final class Builder {
+        private final String[] sorted;
+        private final int[] sortedEntry;
+        private final int[] weights;
+
+        private char[] labels = new char[1024];
+        private int labelsUsed;
+        private int[] labelStart = new int[256];
+        private int[] labelLength = new int[256];
+        private int[] firstChild = new int[256];
+        private int[] childCount = new int[256];
+        private int[] entry = new int[256];
+        private int[] maxWeight = new int[256];
+        private int nodes;
+
+        private Builder(String[] sorted, int[] sortedEntry, int[] weights) {
+            this.sorted = sorted;
+            this.sortedEntry = sortedEntry;
+            this.weights = weights;
+        }
+
+        /**
+         * Reserves count consecutive node indexes
+         * @return the first of them
+         */
+        private int newNodes(int count) {
+            int first = nodes;
+            nodes += count;
+            if (nodes > entry.length) {
+                int capacity = Math.max(nodes, entry.length * 2);
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelLength = Arrays.copyOf(labelLength, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                entry = Arrays.copyOf(entry, capacity);
+                maxWeight = Arrays.copyOf(maxWeight, capacity);
+            }
+            return first;
+        }
+
+        /**
+         * Fills node with the keys sorted[lo, hi), which all share their first depth characters
+         * (and, below the root, the character at depth as well)
+         */
+        private void fill(int node, int lo, int hi, int depth, boolean root) {
+            // the root has an empty label, and no keys at all when the catalog is empty
+            int end = root ? depth : commonPrefixEnd(sorted[lo], sorted[hi - 1], depth);
+            setLabel(node, root ? "" : sorted[lo], depth, end);
+            entry[node] = -1;
+
+            int best = 0;
+            if (lo < hi && sorted[lo].length() == end) {
+                entry[node] = sortedEntry[lo];
+                best = weights[sortedEntry[lo]];
+                lo++;
+            }
+
+            int groups = 0;
+            for (int i = lo; i < hi; ) {
+                int next = groupEnd(i, hi, end);
+                groups++;
+                i = next;
+            }
+            int first = newNodes(groups);
+            firstChild[node] = first;
+            childCount[node] = groups;
+
+            int child = first;
+            for (int i = lo; i < hi; child++) {
+                int next = groupEnd(i, hi, end);
+                fill(child, i, next, end, false);
+                best = Math.max(best, maxWeight[child]);
+                i = next;
+            }
+            maxWeight[node] = best;
+        }
+
+        private int groupEnd(int from, int hi, int depth) {
+            char c = sorted[from].charAt(depth);
+            int i = from + 1;
+            while (i < hi && sorted[i].charAt(depth) == c) {
+                i++;
+            }
+            return i;
+        }
+
+        private void setLabel(int node, String key, int from, int to) {
+            int length = to - from;
+            if (labelsUsed + length > labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(labelsUsed + length, labels.length * 2));
+            }
+            key.getChars(from, to, labels, labelsUsed);
+            labelStart[node] = labelsUsed;
+            labelLength[node] = length;
+            labelsUsed += length;
+        }
+
+        private static int commonPrefixEnd(String a, String b, int from) {
+            int limit = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < limit && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package SpringProject.search;
+
+import SpringProject.entities.FacetValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts how often each value of one facet occurs, in an array indexed by the value. Facet values are
+ * auto-increment ids or decades, so the array stays about as long as the table they come from and a count
+ * costs one increment - no hashing or boxing while walking a large result set.
+ * The top values are then picked with a TopK heap, ties going to the lower value.
+ */
+public final class FacetCounter {
+
+    private int[] counts = new int[64];
+    private String[] names = new String[64];
+    private int maxValue = -1;
+
+    /**
+     * @param value the facet value; negative values are ignored
+     * @param name its display name, kept from the first time the value is seen (may be null)
+     */
+    public void add(int value, String name) {
+        if (value < 0) {
+            return;
+        }
+        if (value >= counts.length) {
+            int capacity = Math.max(value + 1, counts.length * 2);
+            counts = Arrays.copyOf(counts, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        if (counts[value]++ == 0) {
+            names[value] = name;
+        }
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * @return the count for a value, 0 if it never occurred
+     */
+    public int count(int value) {
+        return value >= 0 && value < counts.length ? counts[value] : 0;
+    }
+
+    /**
+     * @return up to limit values with the highest counts, highest first
+     */
+    public List<FacetValue> top(int limit) {
+        TopK top = new TopK(limit);
+        for (int value = 0; value <= maxValue; value++) {
+            if (counts[value] > 0) {
+                // counts never exceed the catalog size, well within float's exact integer range
+                top.offer(value, counts[value]);
+            }
+        }
+        List<FacetValue> values = new ArrayList<>(top.size());
+        for (long key : top.sorted()) {
+            int value = TopK.id(key);
+            values.add(new FacetValue(value, names[value], counts[value]));
+        }
+        return values;
+    }
+}
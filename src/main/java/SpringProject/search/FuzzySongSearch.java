@@ -0,0 +1,316 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant search over the terms of SongSearchIndex.
+ *
+ * Every query term is matched against the field's vocabulary: terms sharing enough character trigrams
+ * with it are candidates, and a candidate matches if its Levenshtein distance is within the allowed
+ * edits (none up to 2 characters, 1 up to 5, 2 beyond). Each match scores 1 - distance / length, and a
+ * song scores the mean, over the query terms, of its best-matching term; songs must match every query term.
+ *
+ * The vocabulary is rebuilt whenever the search index is (re)built. Songs written in between are still
+ * found through terms already in the vocabulary, but brand-new words only become fuzzy-searchable then.
+ */
+@Slf4j
+@Component
+public class FuzzySongSearch {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[][]{new int[0], new int[0]});
+
+    private final SongSearchIndex searchIndex;
+
+    private volatile Map<SongSearchIndex.Field, Vocabulary> vocabularies;
+
+    public FuzzySongSearch(SongSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+        searchIndex.onBuild(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the trigram index over every field's vocabulary
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<SongSearchIndex.Field, Vocabulary> built = new EnumMap<>(SongSearchIndex.Field.class);
+        int terms = 0;
+        for (SongSearchIndex.Field field : SongSearchIndex.Field.values()) {
+            Vocabulary vocabulary = new Vocabulary(searchIndex.terms(field));
+            built.put(field, vocabulary);
+            terms += vocabulary.terms.length;
+        }
+        vocabularies = built;
+        log.info("Fuzzy search built over {} terms in {}ms", terms, System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return vocabularies != null;
+    }
+
+    /**
+     * @param field the field to search
+     * @param query the query, possibly misspelled
+     * @param limit maximum number of results
+     * @return the best-scoring songs, best first; scores range from 0 (exclusive) to 1 (exact)
+     */
+    public List<ScoredSong> search(SongSearchIndex.Field field, String query, int limit) {
+        Map<SongSearchIndex.Field, Vocabulary> current = vocabularies;
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (current == null || queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        ScoredIds matches = null;
+        for (String term : queryTerms) {
+            ScoredIds termMatches = match(field, current.get(field), term);
+            matches = matches == null ? termMatches : matches.intersect(termMatches);
+            if (matches.size == 0) {
+                return List.of();
+            }
+        }
+
+        TopK top = new TopK(Math.min(limit, MAX_LIMIT));
+        for (int i = 0; i < matches.size; i++) {
+            top.offer(matches.ids[i], matches.scores[i] / queryTerms.size());
+        }
+        List<ScoredSong> results = new ArrayList<>(top.size());
+        for (long key : top.sorted()) {
+            SongDetails song = searchIndex.get(TopK.id(key));
+            if (song != null) {
+                results.add(new ScoredSong(song.toSong(), TopK.score(key)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the songs containing a term within edit distance of the query term, with their best similarity
+     */
+    private ScoredIds match(SongSearchIndex.Field field, Vocabulary vocabulary, String queryTerm) {
+        int maxEdits = maxEdits(queryTerm.length());
+        ScoredIds matches = ScoredIds.EMPTY;
+        for (Candidate candidate : vocabulary.within(queryTerm, maxEdits)) {
+            float similarity = 1f - (float) candidate.distance / Math.max(queryTerm.length(), candidate.term.length());
+            matches = matches.unionMax(searchIndex.postings(field, candidate.term), similarity);
+        }
+        return matches;
+    }
+
+    /**
+     * @return how many edits a query term of that length may be away from a catalog term
+     */
+    public static int maxEdits(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance, giving up as soon as it must exceed max
+     * @return the distance, or max + 1 if it is greater than max
+     */
+    static int boundedDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitute, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    /**
+     * Trigrams of the term padded with two spaces on each side, so a term of length n has n + 2 of them
+     * and even one-letter terms have some. Tokens never contain spaces.
+     */
+    private static long[] trigrams(String term) {
+        String padded = "  " + term + "  ";
+        long[] grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return grams;
+    }
+
+    private static final class Candidate {
+        private final String term;
+        private final int distance;
+
+        private Candidate(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * The distinct terms of one field and, for every trigram, the sorted indexes of the terms containing it
+     */
+    private static final class Vocabulary {
+        private final String[] terms;
+        private final Map<Long, int[]> termsByGram;
+
+        private Vocabulary(Collection<String> sortedTerms) {
+            this.terms = sortedTerms.toArray(new String[0]);
+            Map<Long, PostingLists.Buffer> buffers = new HashMap<>();
+            for (int t = 0; t < terms.length; t++) {
+                for (long gram : trigrams(terms[t])) {
+                    buffers.computeIfAbsent(gram, g -> new PostingLists.Buffer()).append(t);
+                }
+            }
+            this.termsByGram = new HashMap<>(buffers.size() * 4 / 3 + 1);
+            buffers.forEach((gram, ids) -> termsByGram.put(gram, ids.toArray()));
+        }
+
+        /**
+         * Every edit destroys at most 3 trigrams, so a term within maxEdits shares at least
+         * (distinct trigrams of the query - 3 * maxEdits) of them; only those are verified
+         */
+        private List<Candidate> within(String queryTerm, int maxEdits) {
+            long[] grams = trigrams(queryTerm);
+            int[][] scratch = SCRATCH.get();
+            if (scratch[0].length < terms.length) {
+                scratch[0] = new int[terms.length];
+                scratch[1] = new int[terms.length];
+            }
+            int[] counts = scratch[0];
+            int[] touched = scratch[1];
+            int touchedCount = 0;
+
+            int distinct = 0;
+            for (int g = 0; g < grams.length; g++) {
+                if (seenBefore(grams, g)) {
+                    continue;
+                }
+                distinct++;
+                int[] postings = termsByGram.get(grams[g]);
+                if (postings == null) {
+                    continue;
+                }
+                for (int t : postings) {
+                    if (counts[t]++ == 0) {
+                        touched[touchedCount++] = t;
+                    }
+                }
+            }
+
+            int threshold = Math.max(1, distinct - 3 * maxEdits);
+            List<Candidate> candidates = new ArrayList<>();
+            for (int i = 0; i < touchedCount; i++) {
+                int t = touched[i];
+                if (counts[t] >= threshold) {
+                    int distance = boundedDistance(queryTerm, terms[t], maxEdits);
+                    if (distance <= maxEdits) {
+                        candidates.add(new Candidate(terms[t], distance));
+                    }
+                }
+                counts[t] = 0;
+            }
+            return candidates;
+        }
+
+        private static boolean seenBefore(long[] grams, int index) {
+            for (int i = 0; i < index; i++) {
+                if (grams[i] == grams[index]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Sorted song ids, each with a similarity score
+     */
+    private static final class ScoredIds {
+        private static final ScoredIds EMPTY = new ScoredIds(new int[0], new float[0], 0);
+
+        private final int[] ids;
+        private final float[] scores;
+        private final int size;
+
+        private ScoredIds(int[] ids, float[] scores, int size) {
+            this.ids = ids;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        /**
+         * Union with a posting list whose songs all score similarity; songs in both keep the higher score
+         */
+        private ScoredIds unionMax(int[] postings, float similarity) {
+            int[] outIds = new int[size + postings.length];
+            float[] outScores = new float[outIds.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < postings.length) {
+                if (j == postings.length || (i < size && ids[i] < postings[j])) {
+                    outIds[n] = ids[i];
+                    outScores[n++] = scores[i++];
+                } else if (i == size || postings[j] < ids[i]) {
+                    outIds[n] = postings[j++];
+                    outScores[n++] = similarity;
+                } else {
+                    outIds[n] = ids[i];
+                    outScores[n++] = Math.max(scores[i++], similarity);
+                    j++;
+                }
+            }
+            return new ScoredIds(outIds, outScores, n);
+        }
+
+        /**
+         * Songs in both, with their scores added
+         */
+        private ScoredIds intersect(ScoredIds other) {
+            int[] outIds = new int[Math.min(size, other.size)];
+            float[] outScores = new float[outIds.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size && j < other.size) {
+                if (ids[i] < other.ids[j]) {
+                    i++;
+                } else if (ids[i] > other.ids[j]) {
+                    j++;
+                } else {
+                    outIds[n] = ids[i];
+                    outScores[n++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return new ScoredIds(outIds, outScores, n);
+        }
+    }
+}
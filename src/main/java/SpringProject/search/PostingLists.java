@@ -0,0 +1,145 @@
+package SpringProject.search;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Operations on posting lists - sorted int arrays of song ids without duplicates
+ */
+final class PostingLists {
+
+    static final int[] EMPTY = new int[0];
+
+    private PostingLists() {
+    }
+
+    /**
+     * Intersection of two posting lists. Walks the shorter list and gallops through the longer one,
+     * so a rare term against a very common one costs O(small * log(large)).
+     */
+    static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] out = new int[a.length];
+        int count = 0;
+        int from = 0;
+        for (int id : a) {
+            from = gallop(b, from, id);
+            if (from == b.length) {
+                break;
+            }
+            if (b[from] == id) {
+                out[count++] = id;
+                from++;
+            }
+        }
+        return count == out.length ? out : Arrays.copyOf(out, count);
+    }
+
+    /**
+     * Union of any number of posting lists
+     */
+    static int[] union(Collection<int[]> lists) {
+        if (lists.isEmpty()) {
+            return EMPTY;
+        }
+        if (lists.size() == 1) {
+            return lists.iterator().next();
+        }
+        int total = 0;
+        for (int[] list : lists) {
+            total += list.length;
+        }
+        int[] all = new int[total];
+        int offset = 0;
+        for (int[] list : lists) {
+            System.arraycopy(list, 0, all, offset, list.length);
+            offset += list.length;
+        }
+        Arrays.sort(all);
+        return dedupe(all);
+    }
+
+    /**
+     * @return a copy of the list with id inserted in order (the list itself if already present)
+     */
+    static int[] insert(int[] list, int id) {
+        int index = Arrays.binarySearch(list, id);
+        if (index >= 0) {
+            return list;
+        }
+        int at = -index - 1;
+        int[] out = new int[list.length + 1];
+        System.arraycopy(list, 0, out, 0, at);
+        out[at] = id;
+        System.arraycopy(list, at, out, at + 1, list.length - at);
+        return out;
+    }
+
+    /**
+     * @return a copy of the list without id, or null if that leaves it empty
+     */
+    static int[] remove(int[] list, int id) {
+        int index = Arrays.binarySearch(list, id);
+        if (index < 0) {
+            return list;
+        }
+        if (list.length == 1) {
+            return null;
+        }
+        int[] out = new int[list.length - 1];
+        System.arraycopy(list, 0, out, 0, index);
+        System.arraycopy(list, index + 1, out, index, list.length - index - 1);
+        return out;
+    }
+
+    /**
+     * @return the first index at or after from whose value is >= target, or list.length
+     */
+    private static int gallop(int[] list, int from, int target) {
+        int step = 1;
+        int high = from;
+        while (high < list.length && list[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(list, from, Math.min(high + 1, list.length), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int[] dedupe(int[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Growable id list used while bulk-building, when ids arrive in ascending order
+     */
+    static final class Buffer {
+        private int[] ids = new int[4];
+        private int size;
+
+        void append(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
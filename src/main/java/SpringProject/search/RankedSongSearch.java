@@ -0,0 +1,279 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Relevance-ranked search over every field of SongSearchIndex at once, scored with BM25 and per-field boosts.
+ *
+ * A song matches if any query term is a prefix of one of its terms in any field. For each field and query
+ * term a song earns boost * idf * (k1 + 1) / (1 + k1 * (1 - b + b * length / averageLength)), where idf
+ * favours rare terms and the length factor favours short fields, so "love" ranks a song titled "Love" above
+ * "Love Me Like You Do". A term completing the query term only as a prefix earns PREFIX_WEIGHT of that. A
+ * query term is one term however many catalog terms it expands to: its idf comes from all the songs it
+ * matches, and it counts once per field. The index stores which
+ * songs contain a term but not how often, so term frequency is taken as 1 - catalog fields are short and
+ * rarely repeat a word.
+ *
+ * Scores are accumulated per matching song and only the best limit are kept, in a bounded heap (TopK), so
+ * only those songs are materialized. Field lengths are computed whenever the search index is (re)built;
+ * songs written in between are measured as they are scored.
+ * Boosts come from search.ranked.boost.title/artist/album/genre.
+ */
+@Slf4j
+@Component
+public class RankedSongSearch {
+
+    public static final int MAX_LIMIT = 100;
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final float PREFIX_WEIGHT = 0.5f;
+    /** Catalog terms a query term may expand to per field, in term order, so "a" can't touch every term */
+    static final int MAX_EXPANSIONS = 64;
+
+    private static final Map<SongSearchIndex.Field, Float> DEFAULT_BOOSTS = Map.of(
+            SongSearchIndex.Field.TITLE, 3f,
+            SongSearchIndex.Field.ARTIST, 2f,
+            SongSearchIndex.Field.ALBUM, 1f,
+            SongSearchIndex.Field.GENRE, 0.5f);
+
+    private final SongSearchIndex searchIndex;
+    private final Map<SongSearchIndex.Field, Float> boosts = new EnumMap<>(SongSearchIndex.Field.class);
+
+    private volatile FieldLengths lengths;
+
+    public RankedSongSearch(SongSearchIndex searchIndex, Environment env) {
+        this.searchIndex = searchIndex;
+        for (SongSearchIndex.Field field : SongSearchIndex.Field.values()) {
+            boosts.put(field, env.getProperty("search.ranked.boost." + field.name().toLowerCase(Locale.ROOT),
+                    Float.class, DEFAULT_BOOSTS.get(field)));
+        }
+        searchIndex.onBuild(this::rebuild);
+    }
+
+    /**
+     * Measures every field of every indexed song
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lengths = new FieldLengths(searchIndex);
+        log.info("Ranked search measured {} songs in {}ms", lengths.ids.length, System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return lengths != null;
+    }
+
+    /**
+     * @param query the search text, matched against title, artist, album and genre
+     * @param limit maximum number of results
+     * @return the best-scoring songs, best first, or an empty list while the index is loading
+     */
+    public List<ScoredSong> search(String query, int limit) {
+        FieldLengths current = lengths;
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (current == null || queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int songCount = Math.max(1, searchIndex.size());
+        Accumulator scores = new Accumulator();
+        int clause = 0;
+        for (SongSearchIndex.Field field : SongSearchIndex.Field.values()) {
+            float boost = boosts.get(field);
+            if (boost <= 0) {
+                continue;
+            }
+            for (String queryTerm : queryTerms) {
+                clause++;
+                List<String> expansions = new ArrayList<>();
+                List<int[]> postings = new ArrayList<>();
+                int documentFrequency = 0;
+                for (String term : searchIndex.terms(field).tailSet(queryTerm, true)) {
+                    if (!term.startsWith(queryTerm) || expansions.size() == MAX_EXPANSIONS) {
+                        break;
+                    }
+                    int[] ids = searchIndex.postings(field, term);
+                    if (ids.length > 0) {
+                        expansions.add(term);
+                        postings.add(ids);
+                        documentFrequency += ids.length;
+                    }
+                }
+                // the query term is one term however many words it completes, so they share its rarity
+                float idf = idf(songCount, Math.min(documentFrequency, songCount));
+                for (int e = 0; e < expansions.size(); e++) {
+                    float weight = boost * idf * (K1 + 1)
+                            * (expansions.get(e).length() == queryTerm.length() ? 1f : PREFIX_WEIGHT);
+                    int row = 0;
+                    for (int id : postings.get(e)) {
+                        row = current.rowOf(id, row);
+                        int length = row >= 0 ? current.length(field, row) : measure(field, id);
+                        row = row >= 0 ? row : -row - 1;
+                        scores.add(id, weight / (1 + K1 * (1 - B + B * length / current.averageLength(field))), clause);
+                    }
+                }
+            }
+        }
+
+        TopK top = new TopK(Math.min(limit, MAX_LIMIT));
+        scores.forEach(top::offer);
+        List<ScoredSong> results = new ArrayList<>(top.size());
+        for (long key : top.sorted()) {
+            SongDetails song = searchIndex.get(TopK.id(key));
+            if (song != null) {
+                results.add(new ScoredSong(song.toSong(), TopK.score(key)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * BM25's idf, which stays positive even for terms in more than half the songs
+     */
+    static float idf(int songCount, int documentFrequency) {
+        return (float) Math.log(1 + (songCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Length of a field of a song indexed since the last build
+     */
+    private int measure(SongSearchIndex.Field field, int id) {
+        SongDetails song = searchIndex.get(id);
+        return song == null ? 1 : Math.max(1, Tokenizer.tokens(field.text(song)).size());
+    }
+
+    /**
+     * Number of terms in each field of every song, by row of the sorted song ids, and each field's average
+     */
+    private static final class FieldLengths {
+        private final int[] ids;
+        private final byte[][] lengths;
+        private final float[] averages;
+
+        private FieldLengths(SongSearchIndex searchIndex) {
+            List<SongDetails> songs = new ArrayList<>(searchIndex.songs());
+            songs.sort(Comparator.comparingInt(SongDetails::getId));
+            SongSearchIndex.Field[] fields = SongSearchIndex.Field.values();
+            this.ids = new int[songs.size()];
+            this.lengths = new byte[fields.length][songs.size()];
+            this.averages = new float[fields.length];
+            for (int row = 0; row < ids.length; row++) {
+                SongDetails song = songs.get(row);
+                ids[row] = song.getId();
+                for (SongSearchIndex.Field field : fields) {
+                    int length = Math.max(1, Tokenizer.tokens(field.text(song)).size());
+                    lengths[field.ordinal()][row] = (byte) Math.min(length, 127);
+                    averages[field.ordinal()] += length;
+                }
+            }
+            for (int f = 0; f < averages.length; f++) {
+                averages[f] = ids.length == 0 ? 1f : averages[f] / ids.length;
+            }
+        }
+
+        /**
+         * Postings are sorted, so each lookup starts where the previous one ended
+         * @return the row of the id, or -(insertion point) - 1 if it was indexed since the last build
+         */
+        private int rowOf(int id, int from) {
+            return Arrays.binarySearch(ids, Math.min(from, ids.length), ids.length, id);
+        }
+
+        private int length(SongSearchIndex.Field field, int row) {
+            return lengths[field.ordinal()][row];
+        }
+
+        private float averageLength(SongSearchIndex.Field field) {
+            return averages[field.ordinal()];
+        }
+    }
+
+    private interface ScoreConsumer {
+        void accept(int id, float score);
+    }
+
+    /**
+     * Open-addressing map from song id to its score so far. Within one clause - a query term in a field -
+     * a song keeps only its best expansion, so a term never counts twice because it prefixes several words.
+     */
+    private static final class Accumulator {
+        private int[] ids = new int[64];
+        private float[] totals = new float[64];
+        private float[] best = new float[64];
+        private int[] clauses = new int[64];
+        private int size;
+
+        private void add(int id, float score, int clause) {
+            int slot = slot(ids, clauses, id);
+            if (clauses[slot] == 0) {
+                ids[slot] = id;
+                clauses[slot] = clause;
+                totals[slot] = score;
+                best[slot] = score;
+                if (++size * 2 > ids.length) {
+                    grow();
+                }
+            } else if (clauses[slot] != clause) {
+                clauses[slot] = clause;
+                totals[slot] += score;
+                best[slot] = score;
+            } else if (score > best[slot]) {
+                totals[slot] += score - best[slot];
+                best[slot] = score;
+            }
+        }
+
+        private void forEach(ScoreConsumer consumer) {
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (clauses[slot] != 0) {
+                    consumer.accept(ids[slot], totals[slot]);
+                }
+            }
+        }
+
+        /**
+         * Clause numbers start at 1, so 0 marks an empty slot
+         */
+        private static int slot(int[] ids, int[] clauses, int id) {
+            int mask = ids.length - 1;
+            int slot = (id * 0x9E3779B9) >>> 1 & mask;
+            while (clauses[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            float[] oldTotals = totals;
+            float[] oldBest = best;
+            int[] oldClauses = clauses;
+            ids = new int[oldIds.length * 2];
+            totals = new float[ids.length];
+            best = new float[ids.length];
+            clauses = new int[ids.length];
+            for (int old = 0; old < oldIds.length; old++) {
+                if (oldClauses[old] != 0) {
+                    int slot = slot(ids, clauses, oldIds[old]);
+                    ids[slot] = oldIds[old];
+                    totals[slot] = oldTotals[old];
+                    best[slot] = oldBest[old];
+                    clauses[slot] = oldClauses[old];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package SpringProject.search;
+
+import SpringProject.entities.Song;
+import lombok.*;
+
+/**
+ * A search result with its relevance score - higher is better; the scale depends on the search
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ScoredSong {
+    private Song song;
+    private double score;
+}
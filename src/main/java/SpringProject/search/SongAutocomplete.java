@@ -0,0 +1,171 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.PlaylistSongDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix autocomplete over song titles and artist names, ranked by popularity.
+ *
+ * A song weighs 1 plus the number of playlists it is in; an artist weighs the sum of its songs.
+ * Completions are whole normalized titles/names (see Tokenizer) that start with the typed prefix,
+ * so "taylor sw" completes to "Taylor Swift". Rebuilt from the search index every time it is (re)loaded;
+ * songs added or renamed in between show up at the next rebuild.
+ */
+@Slf4j
+@Component
+public class SongAutocomplete {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final SongSearchIndex searchIndex;
+    private final PlaylistSongDao playlistSongDao;
+
+    private volatile Completions completions;
+
+    public SongAutocomplete(SongSearchIndex searchIndex, PlaylistSongDao playlistSongDao) {
+        this.searchIndex = searchIndex;
+        this.playlistSongDao = playlistSongDao;
+        searchIndex.onBuild(this::rebuild);
+    }
+
+    /**
+     * Rebuilds the trie from the songs currently in the search index
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Integer, Integer> playlistCounts;
+        try {
+            playlistCounts = playlistSongDao.countPlaylistsPerSong();
+        } catch (SQLException e) {
+            log.error("Autocomplete built without popularity - playlist counts unavailable. \nException: {}", e.getMessage());
+            playlistCounts = Map.of();
+        }
+        Completions built = build(searchIndex.songs(), playlistCounts);
+        completions = built;
+        log.info("Autocomplete built: {} completions, {} trie nodes, ~{} KB trie + ~{} KB suggestions in {}ms",
+                built.suggestions.length, built.trie.nodeCount(), built.trie.memoryBytes() / 1024,
+                built.suggestionBytes / 1024, System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return completions != null;
+    }
+
+    /**
+     * @param prefix what the user has typed so far
+     * @param limit maximum number of suggestions, capped at MAX_LIMIT
+     * @return the most popular titles and artist names starting with the prefix, most popular first
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        Completions current = completions;
+        String key = queryKey(prefix);
+        if (current == null || key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] hits = new int[Math.min(limit, MAX_LIMIT)];
+        int found = current.trie.complete(key, hits);
+        List<Suggestion> results = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            results.add(current.suggestions[hits[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * @return approximate heap bytes of the current trie and its suggestions, 0 before the first build
+     */
+    public long memoryBytes() {
+        Completions current = completions;
+        return current == null ? 0 : current.trie.memoryBytes() + current.suggestionBytes;
+    }
+
+    static Completions build(Collection<SongDetails> songs, Map<Integer, Integer> playlistCounts) {
+        Map<String, Suggestion> byKey = new HashMap<>();
+        Map<Integer, Suggestion> artists = new HashMap<>();
+        for (SongDetails song : songs) {
+            int weight = 1 + playlistCounts.getOrDefault(song.getId(), 0);
+            merge(byKey, song.getTitle(), new Suggestion(song.getTitle(), Suggestion.Type.SONG, song.getId(), weight));
+            if (song.getArtistName() != null) {
+                artists.merge(song.getArtistId(),
+                        new Suggestion(song.getArtistName(), Suggestion.Type.ARTIST, song.getArtistId(), weight),
+                        (a, b) -> new Suggestion(a.getText(), a.getType(), a.getId(), saturatedAdd(a.getWeight(), b.getWeight())));
+            }
+        }
+        for (Suggestion artist : artists.values()) {
+            merge(byKey, artist.getText(), artist);
+        }
+
+        String[] keys = new String[byKey.size()];
+        int[] weights = new int[keys.length];
+        Suggestion[] suggestions = new Suggestion[keys.length];
+        long suggestionBytes = 0;
+        int i = 0;
+        for (Map.Entry<String, Suggestion> entry : byKey.entrySet()) {
+            keys[i] = entry.getKey();
+            suggestions[i] = entry.getValue();
+            weights[i] = suggestions[i].getWeight();
+            // object header + fields, plus the display string (header + UTF-16 chars in the worst case)
+            suggestionBytes += 32 + 40 + 2L * suggestions[i].getText().length();
+            i++;
+        }
+        return new Completions(CompletionTrie.build(keys, weights), suggestions, suggestionBytes);
+    }
+
+    /**
+     * Titles or names that normalize to the same key share one completion: weights add up
+     * and the more popular entry is the one shown
+     */
+    private static void merge(Map<String, Suggestion> byKey, String text, Suggestion suggestion) {
+        String key = key(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        byKey.merge(key, suggestion, (a, b) -> {
+            Suggestion top = a.getWeight() >= b.getWeight() ? a : b;
+            return new Suggestion(top.getText(), top.getType(), top.getId(), saturatedAdd(a.getWeight(), b.getWeight()));
+        });
+    }
+
+    private static String key(String text) {
+        return String.join(" ", Tokenizer.tokens(text));
+    }
+
+    /**
+     * Same normalization as the keys; a trailing space is kept so "love " only completes whole words
+     */
+    private static String queryKey(String prefix) {
+        String key = key(prefix);
+        if (!key.isEmpty() && !prefix.isEmpty() && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            return key + " ";
+        }
+        return key;
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) a + b);
+    }
+
+    /**
+     * One immutable build: the trie and, at each key index, the suggestion it stands for
+     */
+    static final class Completions {
+        private final CompletionTrie trie;
+        private final Suggestion[] suggestions;
+        private final long suggestionBytes;
+
+        private Completions(CompletionTrie trie, Suggestion[] suggestions, long suggestionBytes) {
+            this.trie = trie;
+            this.suggestions = suggestions;
+            this.suggestionBytes = suggestionBytes;
+        }
+    }
+}
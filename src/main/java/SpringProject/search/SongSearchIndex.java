@@ -0,0 +1,384 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.SongDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-memory inverted index over song title, artist name, album title and genre name.
+ *
+ * Each field maps every term (see Tokenizer) to the sorted ids of the songs containing it. A query matches
+ * songs that contain every query term as a prefix of one of their terms in that field - "lov sto" finds
+ * "Love Story" - evaluated as a union over each term's prefix range followed by posting-list intersection.
+ *
+ * Loaded in the background once the application is up (search.index.enabled, default true); until
+ * isReady() callers should fall back to SQL. An empty catalog gives an empty, ready index. Songs are added
+ * outside the API (CatalogImporter, DatasetGenerator), so the index catches up every
+ * search.index.catchUpSeconds (default 60, 0 to disable) by put()ting the songs with ids above the highest
+ * one indexed - or, if loading failed, tries loading again. put()/remove()/renameGenre() keep it current on
+ * other catalog writes.
+ * Reads take no locks: each term's posting list is an immutable array replaced on write. Catch-up reads the
+ * new rows before taking writeLock, so no lock is held across a query.
+ */
+@Slf4j
+@Component
+public class SongSearchIndex {
+
+    public enum Field {
+        TITLE(SongDetails::getTitle),
+        ARTIST(SongDetails::getArtistName),
+        ALBUM(SongDetails::getAlbumTitle),
+        GENRE(SongDetails::getGenreName);
+
+        private final Function<SongDetails, String> text;
+
+        Field(Function<SongDetails, String> text) {
+            this.text = text;
+        }
+
+        String text(SongDetails song) {
+            return text.apply(song);
+        }
+    }
+
+    private static final int CATCH_UP_PAGE_SIZE = 1_000;
+
+    private final SongDao songDao;
+    private final boolean enabled;
+    private final long catchUpSeconds;
+
+    private volatile Map<Field, ConcurrentSkipListMap<String, int[]>> terms = emptyTerms();
+    private volatile Map<Integer, SongDetails> songs = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private final AtomicInteger maxId = new AtomicInteger();
+    private final List<Runnable> buildListeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SongSearchIndex(SongDao songDao, Environment env) {
+        this.songDao = songDao;
+        this.enabled = env.getProperty("search.index.enabled", Boolean.class, true);
+        this.catchUpSeconds = env.getProperty("search.index.catchUpSeconds", Long.class, 60L);
+    }
+
+    /**
+     * Loads the index off the startup path so a large catalog doesn't delay serving requests
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (!enabled) {
+            log.info("Song search index disabled - searches use SQL");
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Song search index could not be loaded - searches keep using SQL. \nException: {}", e.getMessage());
+            }
+            if (catchUpSeconds > 0) {
+                scheduleCatchUp();
+            }
+        }, "song-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Indexes the songs added to the database since the index was built - a primary key range read of only
+     * the new rows
+     * @return the number of songs added to the index
+     */
+    public int catchUp() {
+        int added = 0;
+        List<SongDetails> page;
+        do {
+            page = songDao.findDetailsPage(maxId.get(), CATCH_UP_PAGE_SIZE);
+            writeLock.lock();
+            try {
+                for (SongDetails song : page) {
+                    put(song);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            added += page.size();
+        } while (page.size() == CATCH_UP_PAGE_SIZE);
+        if (added > 0) {
+            log.info("Song search index caught up with {} new songs", added);
+            notifyListeners();
+        }
+        return added;
+    }
+
+    private void scheduleCatchUp() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "song-index-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (ready) {
+                    catchUp();
+                } else {
+                    load();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Song search index catch-up failed - retrying in {}s. \nException: {}", catchUpSeconds, e.getMessage());
+            }
+        }, catchUpSeconds, catchUpSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads the whole catalog with one joined query and rebuilds the index from it
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        List<SongDetails> catalog = songDao.findAllDetails();
+        if (catalog.isEmpty()) {
+            log.warn("Song search index: the catalog is empty - songs added later are indexed at catch-up");
+        }
+        build(catalog);
+        log.info("Song search index loaded {} songs in {}ms", catalog.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Replaces the index contents with the given songs and marks it ready
+     */
+    public void build(Collection<SongDetails> catalog) {
+        List<SongDetails> sorted = new ArrayList<>(catalog);
+        sorted.sort(Comparator.comparingInt(SongDetails::getId));
+
+        Map<Integer, SongDetails> newSongs = new ConcurrentHashMap<>(sorted.size() * 4 / 3 + 1);
+        Map<Field, ConcurrentSkipListMap<String, int[]>> newTerms = emptyTerms();
+        for (Field field : Field.values()) {
+            Map<String, PostingLists.Buffer> postings = new HashMap<>();
+            for (SongDetails song : sorted) {
+                for (String term : termsOf(song, field)) {
+                    postings.computeIfAbsent(term, t -> new PostingLists.Buffer()).append(song.getId());
+                }
+            }
+            ConcurrentSkipListMap<String, int[]> fieldTerms = newTerms.get(field);
+            postings.forEach((term, ids) -> fieldTerms.put(term, ids.toArray()));
+        }
+        for (SongDetails song : sorted) {
+            newSongs.put(song.getId(), song);
+        }
+
+        writeLock.lock();
+        try {
+            terms = newTerms;
+            songs = newSongs;
+            maxId.set(sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1).getId());
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        notifyListeners();
+    }
+
+    /**
+     * Runs every listener; one that fails is logged and doesn't stop the others or the index
+     */
+    private void notifyListeners() {
+        for (Runnable listener : buildListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.error("Song search index: rebuilding a derived search failed. \nException: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Registers a callback run after every full (re)build and every catch-up that added songs, for structures
+     * derived from the catalog
+     */
+    public void onBuild(Runnable listener) {
+        buildListeners.add(listener);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return read-only view of every indexed song
+     */
+    public Collection<SongDetails> songs() {
+        return Collections.unmodifiableCollection(songs.values());
+    }
+
+    /**
+     * @return number of songs indexed
+     */
+    public int size() {
+        return songs.size();
+    }
+
+    /**
+     * @return the indexed song with that id, or null
+     */
+    public SongDetails get(int id) {
+        return songs.get(id);
+    }
+
+    /**
+     * @return the songs matching every term of the query in the field, in id order
+     */
+    public List<SongDetails> search(Field field, String query) {
+        int[] ids = searchIds(field, query);
+        Map<Integer, SongDetails> current = songs;
+        List<SongDetails> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            SongDetails song = current.get(id);
+            if (song != null) {
+                results.add(song);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return sorted ids of the songs matching every term of the query in the field
+     */
+    public int[] searchIds(Field field, String query) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokens(query)));
+        if (queryTerms.isEmpty()) {
+            return PostingLists.EMPTY;
+        }
+
+        ConcurrentSkipListMap<String, int[]> fieldTerms = terms.get(field);
+        int[][] perTerm = new int[queryTerms.size()][];
+        for (int i = 0; i < perTerm.length; i++) {
+            perTerm[i] = prefixPostings(fieldTerms, queryTerms.get(i));
+            if (perTerm[i].length == 0) {
+                return PostingLists.EMPTY;
+            }
+        }
+
+        // Smallest first keeps every intermediate result as small as possible
+        Arrays.sort(perTerm, Comparator.comparingInt(list -> list.length));
+        int[] result = perTerm[0];
+        for (int i = 1; i < perTerm.length && result.length > 0; i++) {
+            result = PostingLists.intersect(result, perTerm[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return live, sorted view of the distinct terms of a field
+     */
+    NavigableSet<String> terms(Field field) {
+        return terms.get(field).navigableKeySet();
+    }
+
+    /**
+     * @return sorted ids of the songs containing exactly that term in the field
+     */
+    int[] postings(Field field, String term) {
+        return terms.get(field).getOrDefault(term, PostingLists.EMPTY);
+    }
+
+    /**
+     * Adds a song, or re-indexes it if it is already present
+     */
+    public void put(SongDetails song) {
+        SongDetails previous = songs.put(song.getId(), song);
+        if (previous != null) {
+            unindex(previous);
+        }
+        maxId.accumulateAndGet(song.getId(), Math::max);
+        for (Field field : Field.values()) {
+            for (String term : termsOf(song, field)) {
+                terms.get(field).merge(term, new int[]{song.getId()},
+                        (ids, added) -> PostingLists.insert(ids, song.getId()));
+            }
+        }
+    }
+
+    public void remove(int id) {
+        SongDetails previous = songs.remove(id);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    /**
+     * Re-indexes the songs of a genre under its new name
+     */
+    public void renameGenre(int genreId, String name) {
+        for (SongDetails song : songs.values()) {
+            if (song.getGenreId() == genreId) {
+                SongDetails renamed = SongDetails.builder()
+                        .id(song.getId())
+                        .title(song.getTitle())
+                        .artistId(song.getArtistId())
+                        .artistName(song.getArtistName())
+                        .albumId(song.getAlbumId())
+                        .albumTitle(song.getAlbumTitle())
+                        .genreId(genreId)
+                        .genreName(name)
+                        .durationSeconds(song.getDurationSeconds())
+                        .releaseYear(song.getReleaseYear())
+                        .build();
+                put(renamed);
+            }
+        }
+    }
+
+    private void unindex(SongDetails song) {
+        for (Field field : Field.values()) {
+            for (String term : termsOf(song, field)) {
+                terms.get(field).computeIfPresent(term, (t, ids) -> PostingLists.remove(ids, song.getId()));
+            }
+        }
+    }
+
+    private static int[] prefixPostings(ConcurrentSkipListMap<String, int[]> fieldTerms, String prefix) {
+        NavigableMap<String, int[]> range = fieldTerms.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        if (range.isEmpty()) {
+            return PostingLists.EMPTY;
+        }
+        return PostingLists.union(range.values());
+    }
+
+    private static Set<String> termsOf(SongDetails song, Field field) {
+        return new LinkedHashSet<>(Tokenizer.tokens(field.text.apply(song)));
+    }
+
+    private static Map<Field, ConcurrentSkipListMap<String, int[]>> emptyTerms() {
+        Map<Field, ConcurrentSkipListMap<String, int[]>> map = new EnumMap<>(Field.class);
+        for (Field field : Field.values()) {
+            map.put(field, new ConcurrentSkipListMap<>());
+        }
+        return map;
+    }
+}
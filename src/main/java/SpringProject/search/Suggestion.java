@@ -0,0 +1,21 @@
+package SpringProject.search;
+
+import lombok.*;
+
+/**
+ * One autocomplete result: the text to show, what it completes to and how popular it is
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class Suggestion {
+
+    public enum Type { SONG, ARTIST }
+
+    private String text;
+    private Type type;
+    /** song id or artist id, depending on type */
+    private int id;
+    private int weight;
+}
@@ -0,0 +1,51 @@
+package SpringProject.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits catalog text into search terms: lower-cased, accents stripped, apostrophes dropped
+ * ("Don't" becomes "dont"), split on anything that isn't a letter or digit.
+ * Indexing and querying must use the same tokenizer so terms line up.
+ */
+public final class Tokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['\u2019]");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * @return the text lower-cased with accents and apostrophes removed, or "" for null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return APOSTROPHES.matcher(stripped).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the terms of the text, in order, duplicates kept
+     */
+    public static List<String> tokens(String text) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,99 @@
+package SpringProject.search;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the k highest-scoring ids offered to it, in a bounded min-heap of packed longs, so ranking
+ * n matches costs O(n log k) and allocates nothing per offer. Equal scores favour the lower id.
+ * Scores must be non-negative.
+ */
+final class TopK {
+
+    private final long[] heap;
+    private int size;
+
+    TopK(int k) {
+        this.heap = new long[Math.max(0, k)];
+    }
+
+    void offer(int id, float score) {
+        if (heap.length == 0) {
+            return;
+        }
+        long key = pack(id, score);
+        if (size < heap.length) {
+            heap[size] = key;
+            siftUp(size++);
+        } else if (key > heap[0]) {
+            heap[0] = key;
+            siftDown();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the kept entries, best first, as packed keys to read with id() and score()
+     */
+    long[] sorted() {
+        long[] out = Arrays.copyOf(heap, size);
+        Arrays.sort(out);
+        for (int i = 0, j = out.length - 1; i < j; i++, j--) {
+            long swap = out[i];
+            out[i] = out[j];
+            out[j] = swap;
+        }
+        return out;
+    }
+
+    static int id(long key) {
+        return Integer.MAX_VALUE - (int) (key & 0x7fffffffL);
+    }
+
+    static float score(long key) {
+        return Float.intBitsToFloat((int) (key >>> 32));
+    }
+
+    /**
+     * Non-negative floats order like their bit patterns, so the score sits in the high half;
+     * the low half is inverted so that the lower id compares higher
+     */
+    private static long pack(int id, float score) {
+        return ((long) Float.floatToIntBits(Math.max(0f, score)) << 32) | (Integer.MAX_VALUE - id);
+    }
+
+    private void siftUp(int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private void siftDown() {
+        long value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
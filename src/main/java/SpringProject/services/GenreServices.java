@@ -4,6 +4,7 @@ import org.springframework.stereotype.Service;
 
 import SpringProject.entities.Genre;
 import SpringProject.persistences.GenreDao;
+import SpringProject.search.SongSearchIndex;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -11,9 +12,11 @@ import java.util.List;
 @Service
 public class GenreServices {
     private GenreDao genreDao;
+    private SongSearchIndex searchIndex;
 
-    public GenreServices(GenreDao dao){
+    public GenreServices(GenreDao dao, SongSearchIndex searchIndex){
         this.genreDao = dao;
+        this.searchIndex = searchIndex;
     }
     public void shutdownService(){
         genreDao.closeConnection();
@@ -72,7 +75,11 @@ public class GenreServices {
             throw new IllegalArgumentException("Genre ID must be provided");
         }
         log.info("Updating genre ID: {}", genre.getId());
-        return genreDao.update(genre);
+        boolean updated = genreDao.update(genre);
+        if (updated) {
+            searchIndex.renameGenre(genre.getId(), genre.getName());
+        }
+        return updated;
     }
 
     public boolean deleteGenre(int id) throws SQLException{
@@ -0,0 +1,44 @@
+package SpringProject.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page cursors. A cursor carries the id of the last song on the previous page, encoded so clients
+ * treat it as a token rather than an offset they can compute or edit.
+ */
+public final class PageCursor {
+
+    private static final String PREFIX = "after:";
+
+    private PageCursor() {
+    }
+
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor a cursor from a previous page, or null/blank for the first page
+     * @return the id to continue after, 0 for the first page
+     * @throws IllegalArgumentException if the cursor was not produced by encode()
+     */
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(PREFIX)) {
+                int id = Integer.parseInt(decoded.substring(PREFIX.length()));
+                if (id >= 0) {
+                    return id;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not base64 or not a number - reported below like any other malformed cursor
+        }
+        throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+    }
+}
@@ -6,6 +6,7 @@ import SpringProject.entities.Playlists;
 import SpringProject.entities.PlaylistsSongs;
 import SpringProject.persistences.PlaylistDao;
 import SpringProject.persistences.PlaylistSongDao;
+import SpringProject.persistences.TransactionalConnector;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
@@ -17,12 +18,17 @@ import java.util.List;
 @Slf4j
 @Service
 public class PlaylistServices {
+    private static final int DUPLICATE_KEY_ERROR_CODE = 1062;
+    private static final String DUPLICATE_KEY_SQL_STATE = "23505";
+
     private PlaylistDao playlistDao;
     private PlaylistSongDao playlistSongDao;
+    private TransactionalConnector connector;
 
-    public PlaylistServices(PlaylistDao playlistDao, PlaylistSongDao playlistSongDao) {
+    public PlaylistServices(PlaylistDao playlistDao, PlaylistSongDao playlistSongDao, TransactionalConnector connector) {
         this.playlistDao = playlistDao;
         this.playlistSongDao = playlistSongDao;
+        this.connector = connector;
     }
 
     public void shutdownServices() {
@@ -121,15 +127,17 @@ public class PlaylistServices {
         if (requestingUserId <= 0) {
             throw new IllegalArgumentException("Requesting user ID must be provided");
         }
-        //Check ownership
-        if (!userOwnsPlaylist(playlistId, requestingUserId)) {
-            log.warn("User {} attempted to delete playlist {} they don't own",
-                    requestingUserId, playlistId);
-            throw new IllegalStateException("You can only delete your own playlists");
-        }
+        return connector.inUnitOfWork(() -> {
+            //Check ownership
+            if (!userOwnsPlaylist(playlistId, requestingUserId)) {
+                log.warn("User {} attempted to delete playlist {} they don't own",
+                        requestingUserId, playlistId);
+                throw new IllegalStateException("You can only delete your own playlists");
+            }
 
-        log.info("Deleting playlist {} for user {}", playlistId, requestingUserId);
-        return playlistDao.delete(playlistId);
+            log.info("Deleting playlist {} for user {}", playlistId, requestingUserId);
+            return playlistDao.delete(playlistId);
+        });
     }
 
     /**
@@ -154,41 +162,52 @@ public class PlaylistServices {
             throw new IllegalArgumentException("Requesting user ID must be provided");
         }
 
-        // Get the playlist to check if it's private
-        List<Playlists> allPlaylists = playlistDao.findAll();
-        Playlists targetPlaylist = null;
+        // Lookup, permission check, duplicate check and insert share one connection and commit once
+        return connector.inUnitOfWork(() -> {
+            // Get the playlist to check if it's private
+            Playlists targetPlaylist = playlistDao.findById(playlistId);
 
-        for (Playlists playlist : allPlaylists) {
-            if (playlist.getId() == playlistId) {
-                targetPlaylist = playlist;
-                break;
+            if (targetPlaylist == null) {
+                throw new IllegalArgumentException("Playlist not found");
             }
-        }
-
-        if (targetPlaylist == null) {
-            throw new IllegalArgumentException("Playlist not found");
-        }
-
-        // If playlist is private, only owner can add songs
-        if (!targetPlaylist.getIsPublic() && targetPlaylist.getUserId() != requestingUserId) {
-            log.warn("User {} attempted to add song to private playlist {} owned by user {}",
-                    requestingUserId, playlistId, targetPlaylist.getUserId());
-            throw new IllegalStateException("You can only add songs to your own private playlists");
-        }
 
-        // Check if song already in playlist
-        if (playlistSongDao.isSongInPlaylist(playlistId, songId)) {
-            log.warn("Song {} is already in playlist {}", songId, playlistId);
-            throw new IllegalStateException("Song is already in this playlist");
-        }
+            // If playlist is private, only owner can add songs
+            if (!targetPlaylist.getIsPublic() && targetPlaylist.getUserId() != requestingUserId) {
+                log.warn("User {} attempted to add song to private playlist {} owned by user {}",
+                        requestingUserId, playlistId, targetPlaylist.getUserId());
+                throw new IllegalStateException("You can only add songs to your own private playlists");
+            }
 
-        log.info("Adding song {} to playlist {} by user {}", songId, playlistId, requestingUserId);
+            // Check if song already in playlist
+            if (playlistSongDao.isSongInPlaylist(playlistId, songId)) {
+                log.warn("Song {} is already in playlist {}", songId, playlistId);
+                throw new IllegalStateException("Song is already in this playlist");
+            }
 
-        PlaylistsSongs playlistSong = new PlaylistsSongs();
-        playlistSong.setPlaylistId(playlistId);
-        playlistSong.setSongId(songId);
+            log.info("Adding song {} to playlist {} by user {}", songId, playlistId, requestingUserId);
+
+            PlaylistsSongs playlistSong = new PlaylistsSongs();
+            playlistSong.setPlaylistId(playlistId);
+            playlistSong.setSongId(songId);
+
+            try {
+                return playlistSongDao.addSongToPlaylist(playlistSong);
+            } catch (SQLException e) {
+                // A concurrent request added the song between the check above and this insert
+                if (isDuplicateKey(e)) {
+                    log.warn("Song {} is already in playlist {}", songId, playlistId);
+                    throw new IllegalStateException("Song is already in this playlist");
+                }
+                throw e;
+            }
+        });
+    }
 
-        return playlistSongDao.addSongToPlaylist(playlistSong);
+    /**
+     * @return true if the statement broke a unique key - MySQL error 1062, or SQLState 23505 elsewhere (H2)
+     */
+    private static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == DUPLICATE_KEY_ERROR_CODE || DUPLICATE_KEY_SQL_STATE.equals(e.getSQLState());
     }
 
     /**
@@ -229,15 +248,17 @@ public class PlaylistServices {
             throw new IllegalArgumentException("Requesting user ID must be provided");
         }
 
-        // Check ownership for private playlists
-        if (!canModifyPlaylist(playlistId, requestingUserId)) {
-            log.warn("User {} attempted to remove song from playlist {} without permission",
-                    requestingUserId, playlistId);
-            throw new IllegalStateException("You don't have permission to modify this playlist");
-        }
+        return connector.inUnitOfWork(() -> {
+            // Check ownership for private playlists
+            if (!canModifyPlaylist(playlistId, requestingUserId)) {
+                log.warn("User {} attempted to remove song from playlist {} without permission",
+                        requestingUserId, playlistId);
+                throw new IllegalStateException("You don't have permission to modify this playlist");
+            }
 
-        log.info("Removing song {} from playlist {} by user {}", songId, playlistId, requestingUserId);
-        return playlistSongDao.removeSongFromPlaylist(playlistId, songId);
+            log.info("Removing song {} from playlist {} by user {}", songId, playlistId, requestingUserId);
+            return playlistSongDao.removeSongFromPlaylist(playlistId, songId);
+        });
     }
 
     /**
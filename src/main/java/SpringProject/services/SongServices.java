@@ -1,22 +1,57 @@
 package SpringProject.services;
 
+import SpringProject.entities.Page;
 import SpringProject.entities.Song;
+import SpringProject.entities.SongBatch;
+import SpringProject.entities.SongDetails;
+import SpringProject.entities.SongFacets;
+import SpringProject.entities.SongFilter;
 import SpringProject.persistences.Connector;
 import SpringProject.persistences.MySqlConnector;
 import SpringProject.persistences.SongDao;
 import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.FacetCounter;
+import SpringProject.search.FuzzySongSearch;
+import SpringProject.search.RankedSongSearch;
+import SpringProject.search.ScoredSong;
+import SpringProject.search.SongAutocomplete;
+import SpringProject.search.SongSearchIndex;
+import SpringProject.search.Suggestion;
 import org.springframework.http.converter.json.GsonBuilderUtils;
 import org.springframework.stereotype.Service;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 @Service
 public class SongServices {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_FACET_VALUES = 100;
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_SAMPLE_SIZE = 100;
+
     private final SongDao songDao;
+    private final SongSearchIndex searchIndex;
+    private final SongAutocomplete autocomplete;
+    private final FuzzySongSearch fuzzySearch;
+    private final RankedSongSearch rankedSearch;
 
-    public SongServices(SongDao songDao) {
+    public SongServices(SongDao songDao, SongSearchIndex searchIndex, SongAutocomplete autocomplete,
+                        FuzzySongSearch fuzzySearch, RankedSongSearch rankedSearch) {
         this.songDao = songDao;
+        this.searchIndex = searchIndex;
+        this.autocomplete = autocomplete;
+        this.fuzzySearch = fuzzySearch;
+        this.rankedSearch = rankedSearch;
     }
 
     /**
@@ -28,6 +63,52 @@ public class SongServices {
         return songDao.getSongById(id);
     }
 
+    /**
+     * a song with the names of its artist, album and genre, so clients need no follow-up calls to resolve them;
+     * read from the in-memory search index when it is loaded, otherwise with one joined query
+     * @param id the song id
+     * @return the song with its names, or null if there is none
+     */
+    public SongDetails getSongDetails(int id) {
+        SongDetails song = searchIndex.isReady() ? searchIndex.get(id) : null;
+        return song != null ? song : songDao.getSongDetailsById(id);
+    }
+
+    /**
+     * looks up many songs at once, in a few queries rather than one per id
+     * @param ids the song ids; duplicates are returned once
+     * @return the songs in the order their ids first appear, and the ids with no song
+     */
+    public SongBatch getSongsByIds(List<Integer> ids) {
+        Map<Integer, Song> found = new HashMap<>();
+        for (Song song : songDao.getSongsByIds(ids)) {
+            found.put(song.getId(), song);
+        }
+        List<Song> songs = new ArrayList<>(found.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            Song song = id == null ? null : found.get(id);
+            if (song != null) {
+                songs.add(song);
+            } else if (id != null) {
+                missing.add(id);
+            }
+        }
+        return new SongBatch(songs, missing);
+    }
+
+    /**
+     * picks songs uniformly at random for discovery, without sorting the catalog; safe to call from many
+     * threads at once as nothing is locked
+     * @param genreId only songs of this genre, or null for any
+     * @param excludedIds songs not to pick, e.g. those already shown
+     * @param count how many songs to pick
+     * @return up to count distinct songs, in random order
+     */
+    public List<Song> sampleSongs(Integer genreId, Set<Integer> excludedIds, int count) {
+        return songDao.sample(genreId, excludedIds, count);
+    }
+
     /**
      * searches for all songs within the database
      * @return a list of all songs in database
@@ -42,6 +123,9 @@ public class SongServices {
      * @return all information on the chosen song
      */
     public List<Song> searchByTitle(String title) {
+        if (searchIndex.isReady()) {
+            return fromIndex(SongSearchIndex.Field.TITLE, title);
+        }
         return songDao.getSongsByTitle(title);
     }
 
@@ -51,6 +135,9 @@ public class SongServices {
      * @return all songs by chosen artist
      */
     public List<Song> searchByArtist(String artistName) {
+        if (searchIndex.isReady()) {
+            return fromIndex(SongSearchIndex.Field.ARTIST, artistName);
+        }
         return songDao.getSongsByArtist(artistName);
     }
 
@@ -60,6 +147,9 @@ public class SongServices {
      * @return a list of songs within the album
      */
     public List<Song> searchByAlbum(String albumTitle) {
+        if (searchIndex.isReady()) {
+            return fromIndex(SongSearchIndex.Field.ALBUM, albumTitle);
+        }
         return songDao.getSongsByAlbum(albumTitle);
     }
 
@@ -69,6 +159,242 @@ public class SongServices {
      * @return a list of songs in that specific genre
      */
     public List<Song> searchByGenre(String genreName) {
+        if (searchIndex.isReady()) {
+            return fromIndex(SongSearchIndex.Field.GENRE, genreName);
+        }
         return songDao.getSongsByGenre(genreName);
     }
+
+    /**
+     * reads the whole catalog, in id order, handing each song on as soon as it is read
+     * @param consumer receives every song; it should write it out rather than keep it
+     * @return the number of songs exported
+     * @throws SQLException if the catalog could not be read to the end
+     */
+    public long exportSongs(Consumer<Song> consumer) throws SQLException {
+        return songDao.streamAll(consumer);
+    }
+
+    /**
+     * lists songs one page at a time, in id order
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit maximum songs on the page
+     * @return the page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Song> getSongsPage(String cursor, int limit) {
+        int afterId = PageCursor.decode(cursor);
+        return toPage(songDao.findPage(afterId, limit + 1), limit);
+    }
+
+    /**
+     * lists songs with the names of their artist, album and genre one page at a time, in id order. Once the
+     * search index is loaded the page is assembled in memory; until then it is one joined query
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit maximum songs on the page
+     * @return the page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<SongDetails> getSongDetailsPage(String cursor, int limit) {
+        int afterId = PageCursor.decode(cursor);
+        if (searchIndex.isReady()) {
+            List<Song> songs = songDao.findPage(afterId, limit + 1);
+            List<SongDetails> details = new ArrayList<>(songs.size());
+            for (Song song : songs) {
+                SongDetails indexed = searchIndex.get(song.getId());
+                if (indexed == null) {
+                    details = null;
+                    break;
+                }
+                details.add(indexed);
+            }
+            if (details != null) {
+                return toPage(details, limit, SongDetails::getId);
+            }
+        }
+        return toPage(songDao.findDetailsPage(afterId, limit + 1), limit, SongDetails::getId);
+    }
+
+    /**
+     * searches a field one page at a time, in id order
+     * @param field the field to search
+     * @param query the search text
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit maximum songs on the page
+     * @return the page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Song> searchPage(SongSearchIndex.Field field, String query, String cursor, int limit) {
+        int afterId = PageCursor.decode(cursor);
+        if (searchIndex.isReady()) {
+            return pageFromIndex(field, query, afterId, limit);
+        }
+        List<Song> songs = switch (field) {
+            case TITLE -> songDao.getSongsByTitle(query, afterId, limit + 1);
+            case ARTIST -> songDao.getSongsByArtist(query, afterId, limit + 1);
+            case ALBUM -> songDao.getSongsByAlbum(query, afterId, limit + 1);
+            case GENRE -> songDao.getSongsByGenre(query, afterId, limit + 1);
+        };
+        return toPage(songs, limit);
+    }
+
+    /**
+     * lists the songs matching every criterion of a filter, one page at a time, in id order
+     * @param filter genre/artist/album ids and year/duration ranges to match
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit maximum songs on the page
+     * @return the page and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Song> filterSongs(SongFilter filter, String cursor, int limit) {
+        int afterId = PageCursor.decode(cursor);
+        return toPage(songDao.findByFilter(filter, afterId, limit + 1), limit);
+    }
+
+    /**
+     * same as filterSongs but returns only the song ids, which skips building the songs
+     * @param filter genre/artist/album ids and year/duration ranges to match
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit maximum ids on the page
+     * @return the page of ids and the cursor for the next one
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Integer> filterSongIds(SongFilter filter, String cursor, int limit) {
+        int afterId = PageCursor.decode(cursor);
+        List<Integer> ids = songDao.findIdsByFilter(filter, afterId, limit + 1);
+        if (ids.size() <= limit) {
+            return new Page<>(ids, null);
+        }
+        List<Integer> page = new ArrayList<>(ids.subList(0, limit));
+        return new Page<>(page, PageCursor.encode(page.get(limit - 1)));
+    }
+
+    /**
+     * counts the genres, decades and artists of everything a search matches, in one pass over the matches,
+     * so a browse sidebar needs one request rather than one query per facet value
+     * @param field the field to search
+     * @param query the search text
+     * @param limit maximum values returned per facet
+     * @return the number of matches and the most common values of each facet with their counts;
+     * genre and artist names are null while the search index is still loading
+     */
+    public SongFacets searchFacets(SongSearchIndex.Field field, String query, int limit) {
+        FacetCounter genres = new FacetCounter();
+        FacetCounter decades = new FacetCounter();
+        FacetCounter artists = new FacetCounter();
+        int total = 0;
+        if (searchIndex.isReady()) {
+            for (int id : searchIndex.searchIds(field, query)) {
+                SongDetails song = searchIndex.get(id);
+                if (song != null) {
+                    genres.add(song.getGenreId(), song.getGenreName());
+                    addDecade(decades, song.getReleaseYear());
+                    artists.add(song.getArtistId(), song.getArtistName());
+                    total++;
+                }
+            }
+        } else {
+            List<Song> songs = switch (field) {
+                case TITLE -> songDao.getSongsByTitle(query);
+                case ARTIST -> songDao.getSongsByArtist(query);
+                case ALBUM -> songDao.getSongsByAlbum(query);
+                case GENRE -> songDao.getSongsByGenre(query);
+            };
+            for (Song song : songs) {
+                genres.add(song.getGenreId(), null);
+                addDecade(decades, song.getReleaseYear());
+                artists.add(song.getArtistId(), null);
+            }
+            total = songs.size();
+        }
+        return new SongFacets(total, genres.top(limit), decades.top(limit), artists.top(limit));
+    }
+
+    /**
+     * searches a field allowing for typos, e.g. "tailor swfit" finds Taylor Swift
+     * @param field the field to search
+     * @param query the possibly misspelled query
+     * @param limit maximum number of results
+     * @return matching songs with their scores, best first, or an empty list while the index is loading
+     */
+    public List<ScoredSong> fuzzySearch(SongSearchIndex.Field field, String query, int limit) {
+        return fuzzySearch.search(field, query, limit);
+    }
+
+    /**
+     * searches title, artist, album and genre together and ranks the matches by relevance (BM25), so clients
+     * get the best few songs instead of fetching every match and sorting it themselves
+     * @param query the search text
+     * @param limit maximum number of results
+     * @return the most relevant songs with their scores, best first, or an empty list while the index is loading
+     */
+    public List<ScoredSong> rankedSearch(String query, int limit) {
+        return rankedSearch.search(query, limit);
+    }
+
+    /**
+     * completes a partly typed song title or artist name
+     * @param prefix what has been typed so far
+     * @param limit maximum number of suggestions
+     * @return the most popular matching titles and artists, or an empty list while autocomplete is loading
+     */
+    public List<Suggestion> autocomplete(String prefix, int limit) {
+        return autocomplete.complete(prefix, limit);
+    }
+
+    /**
+     * Counts a release year under its decade, named like "1990s"; unknown years are left out
+     */
+    private static void addDecade(FacetCounter decades, int releaseYear) {
+        if (releaseYear > 0) {
+            int decade = releaseYear - releaseYear % 10;
+            decades.add(decade, decade + "s");
+        }
+    }
+
+    /**
+     * Turns a query result fetched with one extra row into a page; the extra row only tells us there is a next page
+     */
+    private static Page<Song> toPage(List<Song> songs, int limit) {
+        return toPage(songs, limit, Song::getId);
+    }
+
+    private static <T> Page<T> toPage(List<T> items, int limit, ToIntFunction<T> id) {
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        List<T> page = new ArrayList<>(items.subList(0, limit));
+        return new Page<>(page, PageCursor.encode(id.applyAsInt(page.get(limit - 1))));
+    }
+
+    /**
+     * Pages through the sorted ids the index matched, starting after afterId
+     */
+    private Page<Song> pageFromIndex(SongSearchIndex.Field field, String query, int afterId, int limit) {
+        int[] ids = searchIndex.searchIds(field, query);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = Math.min(ids.length, from + limit);
+
+        List<Song> songs = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            SongDetails details = searchIndex.get(ids[i]);
+            if (details != null) {
+                songs.add(details.toSong());
+            }
+        }
+        String next = to < ids.length && to > from ? PageCursor.encode(ids[to - 1]) : null;
+        return new Page<>(songs, next);
+    }
+
+    /**
+     * Answers a search from the in-memory index instead of a LIKE scan
+     */
+    private List<Song> fromIndex(SongSearchIndex.Field field, String query) {
+        List<Song> songs = new ArrayList<>();
+        for (SongDetails details : searchIndex.search(field, query)) {
+            songs.add(details.toSong());
+        }
+        return songs;
+    }
 }
@@ -0,0 +1,4 @@
+-- Adds users.userType to databases created from audiolibrary.sql or test_audiolibrary.sql before the column
+-- existed. Run once against each such database; existing users become regular users (1).
+ALTER TABLE users
+    ADD COLUMN userType INT NOT NULL DEFAULT 1 AFTER subscriptionExpiry;
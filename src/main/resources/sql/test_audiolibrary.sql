@@ -25,6 +25,7 @@ CREATE TABLE users
     passwordHash       VARCHAR(255) NOT NULL,
     subscriptionStatus VARCHAR(20)  NOT NULL DEFAULT 'expired',
     subscriptionExpiry DATETIME,
+    userType           INT          NOT NULL DEFAULT 1,
     createdDate        DATETIME              DEFAULT CURRENT_TIMESTAMP
 
 );
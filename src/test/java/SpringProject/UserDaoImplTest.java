@@ -1,7 +1,8 @@
 package SpringProject;
 
 import SpringProject.entities.User;
-import SpringProject.persistences.MySqlConnector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.UserDao;
 import SpringProject.persistences.UserDaoImpl;
 import SpringProject.persistences.Connector;
 import org.junit.jupiter.api.*;
@@ -14,14 +15,14 @@ import static org.junit.jupiter.api.Assertions.*;
 class UserDaoImplTest {
 
     private Connector connector;
-    private userDao userDao;
+    private UserDao userDao;
 
     private String createdUsername;
 
 
     @BeforeEach
     void setup() {
-        connector = new MySqlConnector("database_test.properties");
+        connector = new EmbeddedConnector("test_embedded_database.properties");
 
         Connection testConn = connector.getConnection();
         assertNotNull(testConn, "DB connection failed. Check database.properties username/password.");
@@ -0,0 +1,77 @@
+package SpringProject.benchmark;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.PlaylistSongImpl;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.SongAutocomplete;
+import SpringProject.search.SongSearchIndex;
+import SpringProject.search.Tokenizer;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Autocomplete latency and footprint: the SongAutocomplete trie against a scan over every indexed song
+ * (normalize, startsWith, sort). Reuses SongSearchBenchmark's synthetic catalog.
+ * Args: songs, queries
+ * e.g. 1000000 2000
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class AutocompleteBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+
+        SongSearchIndex index = new SongSearchIndex(new SongDaoImpl(connector), new MockEnvironment());
+        SongAutocomplete autocomplete = new SongAutocomplete(index, new PlaylistSongImpl(connector));
+        long start = System.currentTimeMillis();
+        index.load();
+        System.out.printf("index + autocomplete built over %d songs in %dms%n", index.size(),
+                System.currentTimeMillis() - start);
+        System.out.printf("autocomplete footprint: %d KB (%.1f bytes per song)%n",
+                autocomplete.memoryBytes() / 1024, autocomplete.memoryBytes() / (double) index.size());
+
+        Random random = new Random(7);
+        String[] prefixes = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            String word = SongSearchBenchmark.WORDS[random.nextInt(SongSearchBenchmark.WORDS.length)];
+            prefixes[i] = random.nextBoolean()
+                    ? word.substring(0, 1 + random.nextInt(word.length()))
+                    : word + " " + SongSearchBenchmark.WORDS[random.nextInt(SongSearchBenchmark.WORDS.length)].charAt(0);
+        }
+
+        List<SongDetails> catalog = new ArrayList<>(index.songs());
+        long[] scan = new long[Math.min(queries, 200)];
+        for (int i = 0; i < scan.length; i++) {
+            long t = System.nanoTime();
+            String prefix = String.join(" ", Tokenizer.tokens(prefixes[i]));
+            List<SongDetails> hits = new ArrayList<>();
+            for (SongDetails song : catalog) {
+                if (String.join(" ", Tokenizer.tokens(song.getTitle())).startsWith(prefix)) {
+                    hits.add(song);
+                }
+            }
+            hits.sort(Comparator.comparing(SongDetails::getTitle));
+            scan[i] = System.nanoTime() - t;
+        }
+
+        long[] trie = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            long t = System.nanoTime();
+            autocomplete.complete(prefixes[i], 10);
+            trie[i] = System.nanoTime() - t;
+        }
+        SongSearchBenchmark.report("catalog scan", scan);
+        SongSearchBenchmark.report("trie top-10", trie);
+    }
+}
@@ -0,0 +1,74 @@
+package SpringProject.benchmark;
+
+import SpringProject.persistences.ColumnarSongDao;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDaoImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency of resolving a list of song ids - e.g. a playlist's songs - one getSongById call per id against
+ * one getSongsByIds call (chunked IN queries), and getSongsByIds from the columnar catalog.
+ * Fills the embedded database with a synthetic catalog first. The embedded database has no network round trip,
+ * so the per-id gap against a remote MySQL is larger than measured here.
+ * Args: songs, requests, ids per request
+ * e.g. 1000000 100 500
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class BatchLookupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int idsPerRequest = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+        SongDaoImpl songDao = new SongDaoImpl(connector);
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.load();
+        int firstId = columnar.getColumns().id(0);
+        int lastId = columnar.getColumns().id(columnar.getColumns().size() - 1);
+
+        Random random = new Random(7);
+        List<List<Integer>> lists = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            List<Integer> ids = new ArrayList<>(idsPerRequest);
+            for (int j = 0; j < idsPerRequest; j++) {
+                ids.add(firstId + random.nextInt(lastId - firstId + 1));
+            }
+            lists.add(ids);
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long[] perId = new long[requests];
+            long[] batched = new long[requests];
+            long[] inMemory = new long[requests];
+            long checksum = 0;
+            for (int i = 0; i < requests; i++) {
+                List<Integer> ids = lists.get(i);
+                long t = System.nanoTime();
+                for (int id : ids) {
+                    checksum += songDao.getSongById(id) != null ? 1 : 0;
+                }
+                perId[i] = System.nanoTime() - t;
+
+                t = System.nanoTime();
+                checksum -= songDao.getSongsByIds(ids).size();
+                batched[i] = System.nanoTime() - t;
+
+                t = System.nanoTime();
+                checksum += columnar.getSongsByIds(ids).size();
+                inMemory[i] = System.nanoTime() - t;
+            }
+            System.out.printf("round %d, %d ids per request (checksum %d)%n", round + 1, idsPerRequest, checksum);
+            SongSearchBenchmark.report("getSongById per id", perId);
+            SongSearchBenchmark.report("getSongsByIds, SQL", batched);
+            SongSearchBenchmark.report("getSongsByIds, columnar", inMemory);
+        }
+    }
+}
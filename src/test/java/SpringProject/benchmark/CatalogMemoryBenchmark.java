@@ -0,0 +1,102 @@
+package SpringProject.benchmark;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongFilter;
+import SpringProject.persistences.SongColumns;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Bytes per song and access speed: a List of Song entities (plus a HashMap for id lookups, as a cache of
+ * them would need) against SongColumns. Heap is measured as the growth in used memory after GC while each
+ * representation is alive. Songs are synthetic, generated in memory with SongSearchBenchmark's word list.
+ * Args: songs
+ * e.g. 1000000
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class CatalogMemoryBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        List<Song> entities = generate(count);
+        Map<Integer, Song> byId = new HashMap<>();
+        for (Song song : entities) {
+            byId.put(song.getId(), song);
+        }
+        long entityBytes = usedHeap() - before;
+
+        SongColumns.Builder builder = SongColumns.builder();
+        entities.forEach(builder::add);
+        before = usedHeap();
+        SongColumns columns = builder.build();
+        long columnBytes = usedHeap() - before;
+
+        System.out.printf("entities:  %,d bytes measured, %.1f bytes/song (list + map)%n", entityBytes, entityBytes / (double) count);
+        System.out.printf("columns:   %,d bytes measured, %.1f bytes/song; %.1f estimated%n",
+                columnBytes, columnBytes / (double) count, columns.memoryBytes() / (double) count);
+        System.out.printf("estimated entity list alone: %.1f bytes/song%n", columns.entityMemoryBytes() / (double) count);
+
+        Random random = new Random(3);
+        long t = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum += byId.get(1 + random.nextInt(count)).getReleaseYear();
+        }
+        System.out.printf("1M lookups, entities: %dms%n", (System.nanoTime() - t) / 1_000_000);
+        random = new Random(3);
+        t = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            checksum -= columns.releaseYear(columns.rowOf(1 + random.nextInt(count)));
+        }
+        System.out.printf("1M lookups, columns: %dms (checksum %d)%n", (System.nanoTime() - t) / 1_000_000, checksum);
+
+        SongFilter filter = SongFilter.builder().genreIds(Set.of(3, 7)).minYear(1990).maxYear(1999)
+                .maxDurationSeconds(240).build();
+        for (int round = 0; round < 5; round++) {
+            t = System.nanoTime();
+            long matches = entities.stream()
+                    .filter(s -> (s.getGenreId() == 3 || s.getGenreId() == 7)
+                            && s.getReleaseYear() >= 1990 && s.getReleaseYear() <= 1999 && s.getDurationSeconds() <= 240)
+                    .count();
+            long entityScan = System.nanoTime() - t;
+            t = System.nanoTime();
+            int columnMatches = columns.filter(filter, 0, Integer.MAX_VALUE).size();
+            long columnScan = System.nanoTime() - t;
+            System.out.printf("filter scan: entities %.1fms (%d), columns %.1fms (%d)%n",
+                    entityScan / 1e6, matches, columnScan / 1e6, columnMatches);
+        }
+    }
+
+    static List<Song> generate(int count) {
+        Random random = new Random(42);
+        List<Song> songs = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            songs.add(Song.builder()
+                    .id(id)
+                    .title(SongSearchBenchmark.words(random, 1 + random.nextInt(3)))
+                    .artistId(1 + random.nextInt(Math.max(1, count / 100)))
+                    .albumId(1 + random.nextInt(Math.max(1, count / 10)))
+                    .genreId(1 + random.nextInt(20))
+                    .durationSeconds(90 + random.nextInt(300))
+                    .releaseYear(1960 + random.nextInt(65))
+                    .build());
+        }
+        return songs;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,46 @@
+package SpringProject.benchmark;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Throughput and latency of blocking endpoints as the number of concurrent clients grows.
+ * Start the application first, then run this class with:
+ *   base url, seconds per step, comma-separated client counts, endpoints...
+ * e.g. http://localhost:8080 20 100,1000,2000 /songs/1 /api/playlists/user/1
+ *
+ * To compare platform and virtual request threads, run it once against the application started with
+ * spring.threads.virtual.enabled=false and once with spring.threads.virtual.enabled=true.
+ * With platform threads, concurrency stops growing at server.tomcat.threads.max (200 by default);
+ * with virtual threads it is bounded by pool.maxSize, so compare the rows at 1000+ clients.
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class ConcurrencySweepBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int[] clientCounts = Arrays.stream((args.length > 2 ? args[2] : "100,1000,2000").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        List<String> endpoints = args.length > 3
+                ? Arrays.asList(args).subList(3, args.length)
+                : List.of("/songs/1", "/api/playlists/user/1");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        for (String endpoint : endpoints) {
+            EndpointThroughputBenchmark.run(client, baseUrl + endpoint, clientCounts[0], Math.max(1, seconds / 5));
+            for (int clients : clientCounts) {
+                EndpointThroughputBenchmark.Result result =
+                        EndpointThroughputBenchmark.run(client, baseUrl + endpoint, clients, seconds);
+                System.out.printf("%s clients=%d -> %s%n", endpoint, clients, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package SpringProject.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Simple closed-loop load driver for the REST endpoints.
+ * Start the application first, then run this class with:
+ *   base url, concurrent clients, seconds per endpoint, endpoints...
+ * e.g. http://localhost:8080 32 20 /api/playlists/all /songs/getAll
+ * For production-sized data, seed the database first with SpringProject.ingest.DatasetGenerator.
+ *
+ * To compare the connection pool against per-call connects, run once with
+ * connector.pool.enabled=true and once with connector.pool.enabled=false.
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class EndpointThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        List<String> endpoints = args.length > 3
+                ? Arrays.asList(args).subList(3, args.length)
+                : List.of("/api/playlists/all", "/songs/getAll");
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        for (String endpoint : endpoints) {
+            // short warm-up so JIT and connection setup don't skew the first endpoint
+            run(client, baseUrl + endpoint, clients, Math.max(1, seconds / 5));
+            Result result = run(client, baseUrl + endpoint, clients, seconds);
+            System.out.println(endpoint + " -> " + result);
+        }
+    }
+
+    static Result run(HttpClient client, String url, int clients, int seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(clients);
+        List<long[]> perClientLatencies = new ArrayList<>();
+        long[] errors = new long[clients];
+        int[] counts = new int[clients];
+
+        // Keep at most ~4M latency samples in total however many clients there are
+        int samplesPerClient = Math.max(1 << 10, Math.min(1 << 16, (1 << 22) / clients));
+        for (int c = 0; c < clients; c++) {
+            long[] latencies = new long[samplesPerClient];
+            perClientLatencies.add(latencies);
+            final int clientIndex = c;
+            // Virtual client threads so thousands of concurrent clients don't exhaust the driver itself
+            Thread.ofVirtual().start(() -> {
+                long[] samples = perClientLatencies.get(clientIndex);
+                try {
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors[clientIndex]++;
+                            }
+                        } catch (Exception e) {
+                            errors[clientIndex]++;
+                        }
+                        if (counts[clientIndex] < samples.length) {
+                            samples[counts[clientIndex]] = System.nanoTime() - start;
+                        }
+                        counts[clientIndex]++;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        done.await();
+
+        long total = 0;
+        long totalErrors = 0;
+        int sampleCount = 0;
+        for (int c = 0; c < clients; c++) {
+            total += counts[c];
+            totalErrors += errors[c];
+            sampleCount += Math.min(counts[c], perClientLatencies.get(c).length);
+        }
+        long[] all = new long[sampleCount];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            int n = Math.min(counts[c], perClientLatencies.get(c).length);
+            System.arraycopy(perClientLatencies.get(c), 0, all, offset, n);
+            offset += n;
+        }
+        Arrays.sort(all);
+        return new Result(total / (double) seconds, totalErrors, percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    record Result(double requestsPerSecond, long errors, double p50Millis, double p99Millis) {
+        @Override
+        public String toString() {
+            return String.format("%.1f req/s, p50=%.2fms, p99=%.2fms, errors=%d",
+                    requestsPerSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package SpringProject.benchmark;
+
+import SpringProject.entities.SongFilter;
+import SpringProject.persistences.ColumnarSongDao;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongBitmapIndex;
+import SpringProject.persistences.SongColumns;
+import SpringProject.persistences.SongDaoImpl;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Multi-attribute filter latency for one page of results: the SQL WHERE query in SongDaoImpl.findByFilter,
+ * a scan of the SongColumns arrays, and SongBitmapIndex. Each query combines 1-2 genres, a decade,
+ * a duration cap and - every other query - an artist, like "rock from the 90s under 4 minutes by X".
+ * Fills the embedded database with a synthetic catalog first.
+ * Args: songs, queries, page size
+ * e.g. 1000000 200 50
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class FilterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+
+        SongDaoImpl songDao = new SongDaoImpl(connector);
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.load();
+        SongColumns columns = columnar.getColumns();
+        SongBitmapIndex bitmaps = columnar.getBitmaps();
+        System.out.printf("%d songs: columns %.1f bytes/song, bitmaps %.1f bytes/song%n", columns.size(),
+                columns.memoryBytes() / (double) columns.size(), bitmaps.memoryBytes() / (double) columns.size());
+
+        // attribute values are taken from random rows, so they exist whatever ids the fill produced
+        Random random = new Random(7);
+        SongFilter[] filters = new SongFilter[queries];
+        for (int i = 0; i < queries; i++) {
+            int decade = 1960 + 10 * random.nextInt(6);
+            SongFilter.SongFilterBuilder filter = SongFilter.builder()
+                    .genreIds(random.nextBoolean()
+                            ? Set.of(columns.genreId(random.nextInt(columns.size())))
+                            : Set.of(columns.genreId(random.nextInt(columns.size())),
+                                     columns.genreId(random.nextInt(columns.size())) + 100_000))
+                    .minYear(decade)
+                    .maxYear(decade + 9)
+                    .maxDurationSeconds(240);
+            if (i % 2 == 1) {
+                filter.artistIds(Set.of(columns.artistId(random.nextInt(columns.size()))));
+            }
+            filters[i] = filter.build();
+        }
+
+        for (int round = 0; round < 3; round++) {
+            long[] sql = new long[queries];
+            long[] scan = new long[queries];
+            long[] bitmap = new long[queries];
+            long checksum = 0;
+            for (int i = 0; i < queries; i++) {
+                long t = System.nanoTime();
+                checksum += songDao.findByFilter(filters[i], 0, pageSize).size();
+                sql[i] = System.nanoTime() - t;
+
+                t = System.nanoTime();
+                checksum -= columns.filter(filters[i], 0, pageSize).size();
+                scan[i] = System.nanoTime() - t;
+
+                t = System.nanoTime();
+                checksum += bitmaps.filter(filters[i], 0, pageSize).size();
+                bitmap[i] = System.nanoTime() - t;
+            }
+            System.out.printf("round %d (checksum %d)%n", round + 1, checksum);
+            SongSearchBenchmark.report("SQL WHERE", sql);
+            SongSearchBenchmark.report("column scan", scan);
+            SongSearchBenchmark.report("bitmaps", bitmap);
+        }
+    }
+}
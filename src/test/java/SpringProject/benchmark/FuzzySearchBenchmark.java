@@ -0,0 +1,69 @@
+package SpringProject.benchmark;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.FuzzySongSearch;
+import SpringProject.search.SongSearchIndex;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Random;
+
+/**
+ * Fuzzy title search latency on misspelled queries: each query is one or two catalog words with a random
+ * edit (substitution, deletion or insertion) applied to each. Reuses SongSearchBenchmark's synthetic catalog.
+ * Args: songs, queries
+ * e.g. 1000000 2000
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class FuzzySearchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+
+        SongSearchIndex index = new SongSearchIndex(new SongDaoImpl(connector), new MockEnvironment());
+        FuzzySongSearch fuzzy = new FuzzySongSearch(index);
+        long start = System.currentTimeMillis();
+        index.load();
+        System.out.printf("index + trigrams built over %d songs in %dms%n", index.size(), System.currentTimeMillis() - start);
+
+        Random random = new Random(7);
+        String[] typos = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            typos[i] = random.nextBoolean()
+                    ? misspell(random)
+                    : misspell(random) + " " + misspell(random);
+        }
+
+        long[] latencies = new long[queries];
+        long hits = 0;
+        for (int i = 0; i < queries; i++) {
+            long t = System.nanoTime();
+            hits += fuzzy.search(SongSearchIndex.Field.TITLE, typos[i], 20).size();
+            latencies[i] = System.nanoTime() - t;
+        }
+        System.out.printf("%.1f results per query%n", hits / (double) queries);
+        SongSearchBenchmark.report("fuzzy top-20", latencies);
+    }
+
+    private static String misspell(Random random) {
+        String word = SongSearchBenchmark.WORDS[random.nextInt(SongSearchBenchmark.WORDS.length)];
+        if (FuzzySongSearch.maxEdits(word.length()) == 0) {
+            return word;
+        }
+        StringBuilder typo = new StringBuilder(word);
+        int at = random.nextInt(word.length());
+        char letter = (char) ('a' + random.nextInt(26));
+        switch (random.nextInt(3)) {
+            case 0 -> typo.setCharAt(at, letter);
+            case 1 -> typo.deleteCharAt(at);
+            default -> typo.insert(at, letter);
+        }
+        return typo.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package SpringProject.benchmark;
+
+import SpringProject.ingest.CatalogImporter;
+import SpringProject.ingest.ImportOptions;
+import SpringProject.ingest.ImportResult;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rows per second loading a CSV catalog of random songs, two ways:
+ * - row at a time: one auto-committed INSERT per song with its artist, album and genre looked up by name
+ *   in the same statement - how audiolibrary_dataset.sql style scripts load a catalog
+ * - CatalogImporter: parallel parsing, in-memory name maps and batched INSERTs, one transaction per chunk,
+ *   with 1 parser thread and with the default number
+ * Each run starts from a freshly loaded embedded database.
+ * Args: songs, chunk size, insert batch size
+ * e.g. 50000 5000 500
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class ImportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int insertBatchSize = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Path file = Files.createTempFile("catalog", ".csv");
+        try {
+            write(file, songs, new Random(42));
+
+            Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+            long t = System.nanoTime();
+            rowAtATime(connector, file);
+            long millis = (System.nanoTime() - t) / 1_000_000;
+            System.out.printf("row at a time: %d songs in %dms (%.0f rows/s)%n", songs, millis, songs * 1000.0 / Math.max(1, millis));
+
+            int defaultThreads = ImportOptions.builder().build().getParserThreads();
+            for (int threads : List.of(1, defaultThreads)) {
+                connector = new EmbeddedConnector("test_embedded_database.properties");
+                ImportResult result = new CatalogImporter(connector, ImportOptions.builder()
+                        .parserThreads(threads)
+                        .chunkSize(chunkSize)
+                        .insertBatchSize(insertBatchSize)
+                        .build(), JsonMapper.builder().build()).importFile(file);
+                System.out.printf("CatalogImporter, %d parser threads: %d songs in %dms (%.0f rows/s)%n",
+                        threads, result.getSongsInserted(), result.getMillis(), result.getRowsPerSecond());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * A CSV catalog of songs by 1 artist per 100 songs, 1 album per 10, in 20 genres
+     */
+    private static void write(Path file, int songs, Random random) throws Exception {
+        int artists = Math.max(10, songs / 100);
+        int albums = Math.max(10, songs / 10);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("title,artist,album,genre,durationSeconds,releaseYear\n");
+            for (int i = 0; i < songs; i++) {
+                int album = random.nextInt(albums);
+                out.write(SongSearchBenchmark.words(random, 1 + random.nextInt(3)) + ",Artist " + album % artists
+                        + ",Album " + album + ",Genre " + random.nextInt(20) + "," + (90 + random.nextInt(300))
+                        + "," + (1960 + random.nextInt(65)) + "\n");
+            }
+        }
+    }
+
+    private static void rowAtATime(Connector connector, Path file) throws Exception {
+        Connection conn = connector.getConnection();
+        try (PreparedStatement genre = conn.prepareStatement(
+                     "INSERT INTO genres (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM genres WHERE name = ?)");
+             PreparedStatement artist = conn.prepareStatement(
+                     "INSERT INTO artists (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM artists WHERE name = ?)");
+             PreparedStatement album = conn.prepareStatement("""
+                     INSERT INTO albums (title, artistId)
+                     SELECT ?, (SELECT id FROM artists WHERE name = ?)
+                     WHERE NOT EXISTS (SELECT 1 FROM albums a JOIN artists ar ON ar.id = a.artistId
+                                       WHERE a.title = ? AND ar.name = ?)""");
+             PreparedStatement song = conn.prepareStatement("""
+                     INSERT INTO songs (title, artistId, albumId, genreId, durationSeconds, releaseYear)
+                     VALUES (?, (SELECT id FROM artists WHERE name = ?),
+                             (SELECT a.id FROM albums a JOIN artists ar ON ar.id = a.artistId WHERE a.title = ? AND ar.name = ?),
+                             (SELECT id FROM genres WHERE name = ?), ?, ?)""")) {
+            List<String> lines = Files.readAllLines(file);
+            for (String line : lines.subList(1, lines.size())) {
+                String[] f = line.split(",");
+                genre.setString(1, f[3]);
+                genre.setString(2, f[3]);
+                genre.executeUpdate();
+                artist.setString(1, f[1]);
+                artist.setString(2, f[1]);
+                artist.executeUpdate();
+                album.setString(1, f[2]);
+                album.setString(2, f[1]);
+                album.setString(3, f[2]);
+                album.setString(4, f[1]);
+                album.executeUpdate();
+                song.setString(1, f[0]);
+                song.setString(2, f[1]);
+                song.setString(3, f[2]);
+                song.setString(4, f[1]);
+                song.setString(5, f[3]);
+                song.setInt(6, Integer.parseInt(f[4]));
+                song.setInt(7, Integer.parseInt(f[5]));
+                song.executeUpdate();
+            }
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+}
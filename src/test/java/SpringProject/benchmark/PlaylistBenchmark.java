@@ -0,0 +1,96 @@
+package SpringProject.benchmark;
+
+import SpringProject.ingest.DatasetGenerator;
+import SpringProject.ingest.DatasetSpec;
+import SpringProject.ingest.GeneratedDataset;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.PlaylistDao;
+import SpringProject.persistences.PlaylistDaoImpl;
+import SpringProject.persistences.PlaylistSongDao;
+import SpringProject.persistences.PlaylistSongImpl;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Playlist reads against a DatasetGenerator dataset, where a few users own many playlists and a few songs
+ * are in a great many - the skew the bundled dataset is too small to show:
+ * - playlists of the most active user, and of random users
+ * - playlists containing the most popular song, and random songs
+ * - playlist count of every song (PlaylistSongDao.countPlaylistsPerSong)
+ * Args: songs, users, playlists, lookups, seed
+ * e.g. 200000 20000 100000 500 42
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class PlaylistBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int playlists = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        int lookups = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        GeneratedDataset dataset = new DatasetGenerator(connector, DatasetSpec.builder()
+                .seed(seed)
+                .songs(songs)
+                .users(users)
+                .playlists(playlists)
+                .build()).generate();
+        System.out.printf("dataset: %d rows in %dms (%.0f rows/s)%n", dataset.getRows(), dataset.getMillis(),
+                dataset.getRowsPerSecond());
+
+        PlaylistDao playlistDao = new PlaylistDaoImpl(connector);
+        PlaylistSongDao playlistSongDao = new PlaylistSongImpl(connector);
+        int activeUser = first(connector, "SELECT userId FROM playlists GROUP BY userId ORDER BY COUNT(*) DESC LIMIT 1");
+        int popularSong = first(connector, "SELECT songId FROM playlistSongs GROUP BY songId ORDER BY COUNT(*) DESC LIMIT 1");
+        int firstUser = first(connector, "SELECT MIN(id) FROM users");
+        int lastUser = first(connector, "SELECT MAX(id) FROM users");
+        int firstSong = first(connector, "SELECT MIN(id) FROM songs");
+        int lastSong = first(connector, "SELECT MAX(id) FROM songs");
+        Random random = new Random(7);
+
+        long[] active = new long[lookups];
+        long[] randomUsers = new long[lookups];
+        long[] popular = new long[lookups];
+        long[] randomSongs = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            long t = System.nanoTime();
+            playlistDao.findByUserId(activeUser);
+            active[i] = System.nanoTime() - t;
+            t = System.nanoTime();
+            playlistDao.findByUserId(firstUser + random.nextInt(lastUser - firstUser + 1));
+            randomUsers[i] = System.nanoTime() - t;
+            t = System.nanoTime();
+            playlistSongDao.getPlaylistsContainingSong(popularSong);
+            popular[i] = System.nanoTime() - t;
+            t = System.nanoTime();
+            playlistSongDao.getPlaylistsContainingSong(firstSong + random.nextInt(lastSong - firstSong + 1));
+            randomSongs[i] = System.nanoTime() - t;
+        }
+        SongSearchBenchmark.report("playlists of the most active user", active);
+        SongSearchBenchmark.report("playlists of a random user", randomUsers);
+        SongSearchBenchmark.report("playlists containing the most popular song", popular);
+        SongSearchBenchmark.report("playlists containing a random song", randomSongs);
+
+        long t = System.nanoTime();
+        int counted = playlistSongDao.countPlaylistsPerSong().size();
+        System.out.printf("countPlaylistsPerSong: %d songs in %.1fms%n", counted, (System.nanoTime() - t) / 1_000_000.0);
+    }
+
+    private static int first(Connector connector, String sql) throws SQLException {
+        Connection conn = connector.getConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package SpringProject.benchmark;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.RankedSongSearch;
+import SpringProject.search.SongSearchIndex;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ranked top-20 search across all fields against what clients do today: fetch every title match and sort
+ * it themselves (here by title length, a stand-in for any client-side ordering). Queries are one or two
+ * catalog words. Reuses SongSearchBenchmark's synthetic catalog.
+ * Args: songs, queries
+ * e.g. 1000000 2000
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class RankedSearchBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+
+        SongSearchIndex index = new SongSearchIndex(new SongDaoImpl(connector), new MockEnvironment());
+        RankedSongSearch ranked = new RankedSongSearch(index, new MockEnvironment());
+        long start = System.currentTimeMillis();
+        index.load();
+        System.out.printf("index + field lengths built over %d songs in %dms%n", index.size(), System.currentTimeMillis() - start);
+
+        Random random = new Random(7);
+        String[] texts = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            texts[i] = SongSearchBenchmark.words(random, 1 + random.nextInt(2));
+        }
+
+        long[] fetchAll = new long[queries];
+        long fetched = 0;
+        for (int i = 0; i < queries; i++) {
+            long t = System.nanoTime();
+            List<SongDetails> all = index.search(SongSearchIndex.Field.TITLE, texts[i]);
+            all.sort(Comparator.comparingInt(song -> song.getTitle().length()));
+            fetched += all.size();
+            fetchAll[i] = System.nanoTime() - t;
+        }
+
+        long[] topK = new long[queries];
+        long returned = 0;
+        for (int i = 0; i < queries; i++) {
+            long t = System.nanoTime();
+            returned += ranked.search(texts[i], 20).size();
+            topK[i] = System.nanoTime() - t;
+        }
+
+        System.out.printf("fetch-all materializes %.1f songs per query, ranked returns %.1f%n",
+                fetched / (double) queries, returned / (double) queries);
+        SongSearchBenchmark.report("fetch all + sort", fetchAll);
+        SongSearchBenchmark.report("ranked top-20", topK);
+    }
+}
@@ -0,0 +1,95 @@
+package SpringProject.benchmark;
+
+import SpringProject.entities.Song;
+import SpringProject.persistences.AlbumDao;
+import SpringProject.persistences.AlbumDaoImpl;
+import SpringProject.persistences.ArtistDao;
+import SpringProject.persistences.ArtistDaoImpl;
+import SpringProject.persistences.ColumnarSongDao;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.GenreDao;
+import SpringProject.persistences.GenreImpl;
+import SpringProject.persistences.SongDao;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.SongSearchIndex;
+import SpringProject.services.PageCursor;
+import SpringProject.services.SongServices;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Cost of a page of songs with artist, album and genre names resolved, three ways:
+ * - per song lookups: a page of songs, then the artist, album and genre of each song fetched one by one -
+ *   what a client calling /artists/{id}, /albums/{id} and /api/genres/{id} for every song makes the server do
+ *   (over HTTP each of those is also a round trip, so the real gap is larger)
+ * - joined query: one query per page (SongDao.findDetailsPage)
+ * - in memory: the columnar catalog and the search index (SongServices.getSongDetailsPage once loaded)
+ * Pages start at random ids of SongSearchBenchmark's synthetic catalog.
+ * Args: songs, pages, page size
+ * e.g. 200000 500 50
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class SongDetailsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int pageSize = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchBenchmark.fill(connector, songs, new Random(42));
+        SongDao songDao = new SongDaoImpl(connector);
+        ArtistDao artistDao = new ArtistDaoImpl(connector);
+        AlbumDao albumDao = new AlbumDaoImpl(connector);
+        GenreDao genreDao = new GenreImpl(connector);
+
+        List<Song> firstPage = songDao.findPage(0, 1);
+        int firstId = firstPage.get(0).getId();
+        Random random = new Random(7);
+        int[] starts = new int[pages];
+        for (int i = 0; i < pages; i++) {
+            starts[i] = firstId + random.nextInt(Math.max(1, songs - pageSize));
+        }
+
+        long[] perSong = new long[pages];
+        long lookups = 0;
+        for (int i = 0; i < pages; i++) {
+            long t = System.nanoTime();
+            for (Song song : songDao.findPage(starts[i], pageSize)) {
+                artistDao.getArtistById(song.getArtistId());
+                albumDao.getAlbumById(song.getAlbumId());
+                genreDao.findById(song.getGenreId());
+                lookups += 3;
+            }
+            perSong[i] = System.nanoTime() - t;
+        }
+
+        long[] joined = new long[pages];
+        for (int i = 0; i < pages; i++) {
+            long t = System.nanoTime();
+            songDao.findDetailsPage(starts[i], pageSize);
+            joined[i] = System.nanoTime() - t;
+        }
+
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.load();
+        SongSearchIndex index = new SongSearchIndex(songDao, new MockEnvironment());
+        index.load();
+        SongServices songServices = new SongServices(columnar, index, null, null, null);
+        long[] inMemory = new long[pages];
+        for (int i = 0; i < pages; i++) {
+            long t = System.nanoTime();
+            songServices.getSongDetailsPage(PageCursor.encode(starts[i]), pageSize);
+            inMemory[i] = System.nanoTime() - t;
+        }
+
+        System.out.printf("per song lookups ran %.0f extra queries per page of %d%n", lookups / (double) pages, pageSize);
+        SongSearchBenchmark.report("per song lookups", perSong);
+        SongSearchBenchmark.report("joined query", joined);
+        SongSearchBenchmark.report("in memory", inMemory);
+    }
+}
@@ -0,0 +1,154 @@
+package SpringProject.benchmark;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.SongSearchIndex;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Title search latency: SongDaoImpl.getSongsByTitle (LIKE '%term%') against SongSearchIndex.
+ * Fills the embedded database with a synthetic catalog first.
+ * Args: songs, queries
+ * e.g. 1000000 200
+ *
+ * Not a unit test - it is deliberately not named *Test so surefire skips it.
+ */
+public class SongSearchBenchmark {
+
+    static final String[] WORDS = {
+            "love", "night", "heart", "fire", "dream", "rain", "summer", "dance", "blue", "gold", "river", "light",
+            "shadow", "midnight", "ocean", "city", "road", "home", "star", "wild", "electric", "silver", "storm",
+            "morning", "forever", "broken", "sweet", "young", "lonely", "paradise", "thunder", "velvet", "echo",
+            "neon", "secret", "window", "highway", "angel", "ghost", "garden", "winter", "mirror", "desert", "rose"};
+
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        fill(connector, songs, new Random(42));
+
+        SongDaoImpl songDao = new SongDaoImpl(connector);
+        SongSearchIndex index = new SongSearchIndex(songDao, new MockEnvironment());
+        long start = System.currentTimeMillis();
+        index.load();
+        System.out.printf("index built over %d songs in %dms%n", index.size(), System.currentTimeMillis() - start);
+
+        Random random = new Random(7);
+        String[] terms = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            terms[i] = random.nextBoolean()
+                    ? WORDS[random.nextInt(WORDS.length)]
+                    : WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)].substring(0, 3);
+        }
+
+        long[] sql = new long[queries];
+        long[] indexed = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            long t = System.nanoTime();
+            songDao.getSongsByTitle(terms[i]);
+            sql[i] = System.nanoTime() - t;
+
+            t = System.nanoTime();
+            index.search(SongSearchIndex.Field.TITLE, terms[i]);
+            indexed[i] = System.nanoTime() - t;
+        }
+        report("SQL LIKE", sql);
+        report("inverted index", indexed);
+    }
+
+    /**
+     * Inserts genres, artists, albums and songs with titles made of random words
+     */
+    static void fill(Connector connector, int songs, Random random) throws SQLException {
+        Connection conn = connector.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("DELETE FROM ratings");
+            stmt.execute("DELETE FROM playlistSongs");
+            stmt.execute("DELETE FROM songs");
+            int artists = Math.max(10, songs / 100);
+            int albums = Math.max(10, songs / 10);
+            int genres = 20;
+            try (PreparedStatement genre = conn.prepareStatement("INSERT INTO genres (name, description) VALUES (?, ?)");
+                 PreparedStatement artist = conn.prepareStatement("INSERT INTO artists (name) VALUES (?)");
+                 PreparedStatement album = conn.prepareStatement("INSERT INTO albums (title, artistId) VALUES (?, ?)");
+                 PreparedStatement song = conn.prepareStatement(
+                         "INSERT INTO songs (title, artistId, albumId, genreId, durationSeconds, releaseYear) VALUES (?, ?, ?, ?, ?, ?)")) {
+                int firstGenre = nextId(stmt, "genres");
+                for (int i = 0; i < genres; i++) {
+                    genre.setString(1, "Synthetic genre " + i);
+                    genre.setString(2, "generated");
+                    genre.addBatch();
+                }
+                genre.executeBatch();
+                int firstArtist = nextId(stmt, "artists");
+                for (int i = 0; i < artists; i++) {
+                    artist.setString(1, words(random, 2));
+                    artist.addBatch();
+                }
+                artist.executeBatch();
+                int firstAlbum = nextId(stmt, "albums");
+                for (int i = 0; i < albums; i++) {
+                    album.setString(1, words(random, 2));
+                    album.setInt(2, firstArtist + random.nextInt(artists));
+                    album.addBatch();
+                }
+                album.executeBatch();
+                for (int i = 0; i < songs; i++) {
+                    int albumIndex = random.nextInt(albums);
+                    song.setString(1, words(random, 1 + random.nextInt(3)));
+                    song.setInt(2, firstArtist + albumIndex % artists);
+                    song.setInt(3, firstAlbum + albumIndex);
+                    song.setInt(4, firstGenre + random.nextInt(genres));
+                    song.setInt(5, 90 + random.nextInt(300));
+                    song.setInt(6, 1960 + random.nextInt(65));
+                    song.addBatch();
+                    if (i % 10_000 == 9_999) {
+                        song.executeBatch();
+                    }
+                }
+                song.executeBatch();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    private static int nextId(Statement stmt, String table) throws SQLException {
+        try (var rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return text.toString();
+    }
+
+    static void report(String name, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1_000_000.0;
+        System.out.printf("%s: mean=%.3fms p50=%.3fms p99=%.3fms%n", name, mean,
+                sorted[sorted.length / 2] / 1_000_000.0, sorted[(int) (sorted.length * 0.99)] / 1_000_000.0);
+    }
+}
@@ -0,0 +1,63 @@
+package SpringProject.benchmark;
+
+import SpringProject.persistences.PlaylistSongDao;
+import SpringProject.persistences.PlaylistSongImpl;
+import SpringProject.persistences.PooledConnector;
+import SpringProject.persistences.SongDao;
+import SpringProject.persistences.SongDaoImpl;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Latency of PlaylistSongImpl.isSongInPlaylist and SongDaoImpl.getSongById through the pooled connector.
+ * Args: properties file (on the classpath), iterations
+ * e.g. test_database.properties 20000
+ *
+ * Run it twice - once with statementCache.size=0 and once with the default 64 (optionally also with
+ * statementCache.serverSide=true) - and compare the reported latencies.
+ */
+public class StatementCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String properties = args.length > 0 ? args[0] : "test_database.properties";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        try (PooledConnector connector = new PooledConnector(properties)) {
+            PlaylistSongDao playlistSongDao = new PlaylistSongImpl(connector);
+            SongDao songDao = new SongDaoImpl(connector);
+
+            measure(iterations / 10, () -> playlistSongDao.isSongInPlaylist(1, 1));
+            report("isSongInPlaylist", measure(iterations,
+                    () -> playlistSongDao.isSongInPlaylist(1, 1)));
+
+            measure(iterations / 10, () -> songDao.getSongById(1));
+            report("getSongById", measure(iterations, () -> songDao.getSongById(1)));
+
+            System.out.println("statement cache hits=" + connector.getStatementCacheHits()
+                    + ", misses=" + connector.getStatementCacheMisses());
+        }
+    }
+
+    @FunctionalInterface
+    interface DaoCall {
+        Object call() throws SQLException;
+    }
+
+    private static long[] measure(int iterations, DaoCall call) throws SQLException {
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            call.call();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static void report(String name, long[] sorted) {
+        double mean = Arrays.stream(sorted).average().orElse(0) / 1000.0;
+        System.out.printf("%s: mean=%.1fus p50=%.1fus p99=%.1fus%n", name, mean,
+                sorted[sorted.length / 2] / 1000.0, sorted[(int) (sorted.length * 0.99)] / 1000.0);
+    }
+}
@@ -0,0 +1,61 @@
+package SpringProject.config;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    /**
+     * Slots are handed out up to maxConcurrent, then callers queue, then get rejected
+     */
+    @Test
+    void testRejectsBeyondQueue() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 2, 1, 5000);
+        assertTrue(bulkhead.tryEnter());
+        assertTrue(bulkhead.tryEnter());
+        assertEquals(2, bulkhead.getInFlight());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Future<Boolean> queued = executor.submit(() -> {
+                started.countDown();
+                return bulkhead.tryEnter();
+            });
+            started.await();
+            while (bulkhead.getWaiting() == 0) {
+                Thread.sleep(1);
+            }
+
+            assertFalse(bulkhead.tryEnter(), "Queue is full - should be rejected without waiting");
+            assertEquals(1, bulkhead.getRejectedCount());
+
+            bulkhead.release();
+            assertTrue(queued.get(1, TimeUnit.SECONDS), "Queued caller should get the released slot");
+            assertEquals(3, bulkhead.getAcceptedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A queued caller gives up after maxWaitMillis
+     */
+    @Test
+    void testWaitTimesOut() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 5, 50);
+        assertTrue(bulkhead.tryEnter());
+
+        long start = System.currentTimeMillis();
+        assertFalse(bulkhead.tryEnter());
+        assertTrue(System.currentTimeMillis() - start >= 50, "Should have waited for a slot first");
+        assertEquals(0, bulkhead.getWaiting());
+    }
+}
@@ -0,0 +1,74 @@
+package SpringProject.config;
+
+import SpringProject.persistences.RoutingConnector;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Callers are keyed by a short-lived cookie issued on writes - never by an HTTP session
+ */
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(
+            new MockEnvironment().withProperty("connector.routing.readYourWritesMillis", "2000"));
+
+    /**
+     * Runs the filter and returns the user it bound for the request
+     */
+    private String bound(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<String> user = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> user.set(RoutingConnector.currentUser()));
+        assertNull(RoutingConnector.currentUser(), "The user must be cleared after the request");
+        assertNull(request.getSession(false), "No session may be created");
+        return user.get();
+    }
+
+    /**
+     * A write issues a cookie that outlives the window by a second; reads carrying it are bound to the same token
+     */
+    @Test
+    void testWriteIssuesCookie() throws Exception {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        String token = bound(new MockHttpServletRequest("POST", "/api/playlists"), writeResponse);
+        assertNotNull(token);
+        String setCookie = writeResponse.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(setCookie);
+        assertTrue(setCookie.startsWith(ReadYourWritesFilter.COOKIE + "=" + token), setCookie);
+        assertTrue(setCookie.contains("Max-Age=3"), setCookie);
+        assertTrue(setCookie.contains("HttpOnly"), setCookie);
+
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/playlists");
+        read.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, token));
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        assertEquals(token, bound(read, readResponse));
+        assertNull(readResponse.getHeader(HttpHeaders.SET_COOKIE), "Reads don't issue or refresh the cookie");
+
+        MockHttpServletRequest again = new MockHttpServletRequest("PUT", "/api/users/a/email");
+        again.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, token));
+        MockHttpServletResponse againResponse = new MockHttpServletResponse();
+        assertEquals(token, bound(again, againResponse), "A later write keeps the token");
+        assertNotNull(againResponse.getHeader(HttpHeaders.SET_COOKIE), "and refreshes its expiry");
+    }
+
+    /**
+     * Reads without a cookie, or with an oversized one, are not bound
+     */
+    @Test
+    void testAnonymousReadIsNotBound() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertNull(bound(new MockHttpServletRequest("GET", "/api/songs"), response));
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+
+        MockHttpServletRequest oversized = new MockHttpServletRequest("GET", "/api/songs");
+        oversized.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "x".repeat(65)));
+        assertNull(bound(oversized, new MockHttpServletResponse()));
+    }
+}
@@ -0,0 +1,177 @@
+package SpringProject.ingest;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports into the embedded test database: names resolve to existing rows or new ones, bad records are
+ * rejected, and a rerun - after success or failure - imports each record exactly once
+ */
+class CatalogImporterTest {
+
+    @TempDir
+    Path directory;
+
+    private Connector connector;
+
+    @BeforeEach
+    void setUp() {
+        connector = new EmbeddedConnector("test_embedded_database.properties");
+    }
+
+    private CatalogImporter importer(Connector target) {
+        return new CatalogImporter(target, ImportOptions.builder()
+                .parserThreads(3)
+                .chunkSize(4)
+                .insertBatchSize(3)
+                .queuedChunks(2)
+                .build(), JsonMapper.builder().build());
+    }
+
+    @Test
+    void testCsvResolvesNamesAndResumesAppendedLines() throws IOException, SQLException {
+        Path file = directory.resolve("catalog.csv");
+        Files.writeString(file, """
+                title,artist,album,genre,durationSeconds,releaseYear
+                Imported One,Luna Sky,,pop,200,2020
+                "Imported Two, Live",New Band,First Light,Rock,180,
+                not,enough,columns
+                Imported Three,new band,First Light,Polka,240,2021
+                Imported Four,New Band,,Polka,-5,2021
+                """);
+
+        ImportResult result = importer(connector).importFile(file);
+        assertEquals(5, result.getRecords());
+        assertEquals(3, result.getSongsInserted());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getGenresCreated());
+        assertEquals(1, result.getArtistsCreated());
+        assertEquals(1, result.getAlbumsCreated());
+
+        assertEquals(id("SELECT id FROM artists WHERE name = 'Luna Sky'"),
+                id("SELECT artistId FROM songs WHERE title = 'Imported One'"));
+        assertEquals(id("SELECT id FROM genres WHERE name = 'Pop'"),
+                id("SELECT genreId FROM songs WHERE title = 'Imported One'"));
+        assertEquals(id("SELECT artistId FROM songs WHERE title = 'Imported Two, Live'"),
+                id("SELECT artistId FROM songs WHERE title = 'Imported Three'"));
+        assertEquals(id("SELECT albumId FROM songs WHERE title = 'Imported Two, Live'"),
+                id("SELECT albumId FROM songs WHERE title = 'Imported Three'"));
+        assertEquals(0, id("SELECT COUNT(*) FROM songs WHERE title = 'Imported One' AND albumId IS NOT NULL"));
+
+        ImportResult rerun = importer(connector).importFile(file);
+        assertEquals(5, rerun.getResumedAfter());
+        assertEquals(0, rerun.getSongsInserted());
+
+        Files.writeString(file, "Imported Five,Luna Sky,,Jazz,90,\n", StandardOpenOption.APPEND);
+        ImportResult appended = importer(connector).importFile(file);
+        assertEquals(1, appended.getSongsInserted());
+        assertEquals(4, id("SELECT COUNT(*) FROM songs WHERE title LIKE 'Imported%'"));
+    }
+
+    @Test
+    void testNdjson() throws IOException, SQLException {
+        Path file = directory.resolve("catalog.ndjson");
+        Files.writeString(file, """
+                {"title":"Json One","artist":"DJ Pulse","album":"Json Album","genre":"Electronic","durationSeconds":201.6,"releaseYear":2019}
+                {"title":"Json Two","artist":"DJ Pulse","genre":"Electronic","durationSeconds":150}
+
+                {"title":"Json Three","artist":"DJ Pulse"
+                """);
+
+        ImportResult result = importer(connector).importFile(file);
+        assertEquals(2, result.getSongsInserted());
+        assertEquals(1, result.getRejected());
+        assertEquals(0, result.getArtistsCreated());
+        assertEquals(1, result.getAlbumsCreated());
+        assertEquals(202, id("SELECT durationSeconds FROM songs WHERE title = 'Json One'"));
+    }
+
+    /**
+     * The third chunk's commit fails; the rerun starts at that chunk and nothing is imported twice
+     */
+    @Test
+    void testResumesAfterFailedCommit() throws IOException, SQLException {
+        Path file = directory.resolve("large.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("title,artist,album,genre,durationSeconds,releaseYear");
+        for (int i = 1; i <= 30; i++) {
+            lines.add("Bulk " + i + ",Bulk Artist " + (i % 4) + ",Bulk Album " + (i % 3) + ",Bulk Genre,100,2000");
+        }
+        Files.write(file, lines);
+
+        SQLException failure = assertThrows(SQLException.class,
+                () -> importer(failingOnCommit(connector, 3)).importFile(file));
+        assertEquals("commit failed", failure.getMessage());
+        assertEquals(8, id("SELECT COUNT(*) FROM songs WHERE title LIKE 'Bulk %'"));
+
+        ImportResult result = importer(connector).importFile(file);
+        assertEquals(8, result.getResumedAfter());
+        assertEquals(22, result.getSongsInserted());
+        assertEquals(30, id("SELECT COUNT(DISTINCT title) FROM songs WHERE title LIKE 'Bulk %'"));
+        assertEquals(30, id("SELECT COUNT(*) FROM songs WHERE title LIKE 'Bulk %'"));
+        assertEquals(4, id("SELECT COUNT(*) FROM artists WHERE name LIKE 'Bulk Artist%'"));
+        assertEquals(1, id("SELECT COUNT(*) FROM genres WHERE name = 'Bulk Genre'"));
+    }
+
+    private int id(String sql) throws SQLException {
+        Connection conn = connector.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next(), "No row for " + sql);
+            return rs.getInt(1);
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    /**
+     * Connections whose commit throws the failingCommit-th time it is called
+     */
+    private static Connector failingOnCommit(Connector connector, int failingCommit) {
+        AtomicInteger commits = new AtomicInteger();
+        return new Connector() {
+            @Override
+            public Connection getConnection() {
+                Connection conn = connector.getConnection();
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (proxy, method, args) -> {
+                            if (method.getName().equals("commit") && commits.incrementAndGet() == failingCommit) {
+                                throw new SQLException("commit failed");
+                            }
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+
+            @Override
+            public void freeConnection() {
+            }
+
+            @Override
+            public void freeConnection(Connection conn) {
+                connector.freeConnection(conn);
+            }
+        };
+    }
+}
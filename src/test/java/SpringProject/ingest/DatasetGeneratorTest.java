@@ -0,0 +1,116 @@
+package SpringProject.ingest;
+
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Generated datasets land in the embedded test database whole, with skewed popularity, and the same spec
+ * always yields the same rows
+ */
+class DatasetGeneratorTest {
+
+    private static DatasetSpec.DatasetSpecBuilder smallSpec() {
+        return DatasetSpec.builder()
+                .songs(600)
+                .users(40)
+                .playlists(120)
+                .insertBatchSize(50);
+    }
+
+    @Test
+    void testRowCountsAndSkew() throws SQLException {
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        long songsBefore = count(connector, "SELECT COUNT(*) FROM songs");
+        long playlistSongsBefore = count(connector, "SELECT COUNT(*) FROM playlistSongs");
+        long ratingsBefore = count(connector, "SELECT COUNT(*) FROM ratings");
+
+        GeneratedDataset dataset = new DatasetGenerator(connector, smallSpec().writerThreads(3).build()).generate();
+        assertEquals(600, dataset.getSongs());
+        assertEquals(50, dataset.getAlbums());
+        assertEquals(13, dataset.getArtists());
+        assertEquals(songsBefore + 600, count(connector, "SELECT COUNT(*) FROM songs"));
+        assertEquals(playlistSongsBefore + dataset.getPlaylistSongs(), count(connector, "SELECT COUNT(*) FROM playlistSongs"));
+        assertEquals(ratingsBefore + dataset.getRatings(), count(connector, "SELECT COUNT(*) FROM ratings"));
+        assertTrue(dataset.getPlaylistSongs() > 120 * 10, "Playlists should average about 25 songs");
+        assertTrue(dataset.getRatings() > 40 * 10, "Users should average about 20 ratings");
+
+        // Zipf popularity: the favourite song is in far more playlists than the average song
+        long favourite = count(connector, "SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM playlistSongs GROUP BY songId) counts");
+        long songsInPlaylists = count(connector, "SELECT COUNT(DISTINCT songId) FROM playlistSongs");
+        assertTrue(favourite > 5 * count(connector, "SELECT COUNT(*) FROM playlistSongs") / songsInPlaylists,
+                "Most popular song is in " + favourite + " playlists");
+        assertEquals(0, count(connector, "SELECT COUNT(*) FROM ratings WHERE rating < 1 OR rating > 5"));
+    }
+
+    /**
+     * The same seed gives the same rows however many threads write them; another seed gives others
+     */
+    @Test
+    void testSeededAndReproducible() throws SQLException {
+        List<String> first = contents(new EmbeddedConnector("test_embedded_database.properties"), smallSpec().writerThreads(1).build());
+        List<String> second = contents(new EmbeddedConnector("test_embedded_database.properties"), smallSpec().writerThreads(4).build());
+        assertEquals(first, second);
+
+        List<String> reseeded = contents(new EmbeddedConnector("test_embedded_database.properties"), smallSpec().seed(7).build());
+        assertNotEquals(first, reseeded);
+    }
+
+    @Test
+    void testZipfFrequencies() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.0);
+        SplittableRandom random = new SplittableRandom(1);
+        int[] counts = new int[1_001];
+        int draws = 500_000;
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        double harmonic = 0;
+        for (int k = 1; k <= 1_000; k++) {
+            harmonic += 1.0 / k;
+        }
+        for (int rank : new int[]{1, 2, 10, 100}) {
+            double expected = draws / (rank * harmonic);
+            assertEquals(expected, counts[rank], 5 * Math.sqrt(expected), "Draws of rank " + rank);
+        }
+        assertEquals(0, counts[0]);
+    }
+
+    private static List<String> contents(Connector connector, DatasetSpec spec) throws SQLException {
+        new DatasetGenerator(connector, spec).generate();
+        List<String> rows = new ArrayList<>();
+        rows.addAll(strings(connector, "SELECT CONCAT(id, ':', title, ':', artistId, ':', genreId) FROM songs ORDER BY id"));
+        rows.addAll(strings(connector, "SELECT CONCAT(id, ':', userId, ':', name) FROM playlists ORDER BY id"));
+        rows.addAll(strings(connector,
+                "SELECT CONCAT(playlistId, ':', songId, ':', positionInPlaylist) FROM playlistSongs ORDER BY playlistId, songId"));
+        rows.addAll(strings(connector, "SELECT CONCAT(userId, ':', songId, ':', rating) FROM ratings ORDER BY userId, songId"));
+        return rows;
+    }
+
+    private static long count(Connector connector, String sql) throws SQLException {
+        return Long.parseLong(strings(connector, sql).get(0));
+    }
+
+    private static List<String> strings(Connector connector, String sql) throws SQLException {
+        Connection conn = connector.getConnection();
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        } finally {
+            connector.freeConnection(conn);
+        }
+        return values;
+    }
+}
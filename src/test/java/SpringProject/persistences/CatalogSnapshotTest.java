@@ -0,0 +1,148 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Album;
+import SpringProject.entities.Artist;
+import SpringProject.entities.Genre;
+import SpringProject.entities.Song;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A snapshot written from the embedded test database must read back exactly what the database holds
+ */
+class CatalogSnapshotTest {
+
+    @TempDir
+    static Path directory;
+
+    private static SongDao songDao;
+    private static ArtistDao artistDao;
+    private static AlbumDao albumDao;
+    private static GenreDao genreDao;
+    private static CatalogSnapshot snapshot;
+
+    @BeforeAll
+    static void writeSnapshot() throws IOException, SQLException {
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        songDao = new SongDaoImpl(connector);
+        artistDao = new ArtistDaoImpl(connector);
+        albumDao = new AlbumDaoImpl(connector);
+        genreDao = new GenreImpl(connector);
+        snapshot = CatalogSnapshotWriter.write(directory.resolve("catalog.snapshot"), songDao, artistDao, albumDao, genreDao);
+        System.out.println("CatalogSnapshot Test");
+    }
+
+    /**
+     * Every row of every table reads back unchanged, by id and by artist
+     */
+    @Test
+    void testRoundTrip() throws SQLException {
+        List<Song> songs = new ArrayList<>(songDao.findAll());
+        songs.sort(Comparator.comparingInt(Song::getId));
+        assertFalse(songs.isEmpty(), "Test dataset should contain songs");
+        assertEquals(songs.size(), snapshot.songCount());
+        List<Song> read = new ArrayList<>();
+        snapshot.forEachSong(read::add);
+        assertEquals(songs, read);
+        assertEquals(songs.get(songs.size() - 1).getId(), snapshot.maxSongId());
+        assertNull(snapshot.findSong(Integer.MAX_VALUE));
+
+        for (Artist artist : artistDao.findAll()) {
+            Artist copy = snapshot.findArtist(artist.getId());
+            assertEquals(artist, copy);
+            assertEquals(artist.getId(), copy.getId());
+            List<Album> albums = new ArrayList<>(albumDao.getAlbumsByArtistId(artist.getId()));
+            albums.sort(Comparator.comparingInt(Album::getId));
+            assertEquals(albums, snapshot.albumsByArtist(artist.getId()));
+        }
+        for (Genre genre : genreDao.findAll()) {
+            assertTrue(Genre.deepEquals(genre, snapshot.findGenre(genre.getId())), genre.toString());
+        }
+        assertEquals(genreDao.findAll().size(), snapshot.genreCount());
+    }
+
+    /**
+     * Songs and artists added after the snapshot are caught up from the database
+     */
+    @Test
+    void testCatchUpFromDatabase() {
+        CatalogSnapshot empty = emptySnapshot();
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.load(empty);
+        List<Song> songs = new ArrayList<>(songDao.findAll());
+        songs.sort(Comparator.comparingInt(Song::getId));
+        assertEquals(songs, columnar.findAll());
+
+        columnar.load(snapshot);
+        assertEquals(songs, columnar.findAll());
+
+        SnapshotAlbumDao albums = new SnapshotAlbumDao(albumDao, empty);
+        SnapshotArtistDao artists = new SnapshotArtistDao(artistDao, albums, empty);
+        Artist first = artistDao.findAll().get(0);
+        assertEquals(first, artists.getArtistById(first.getId()), "a miss falls through to the database");
+        assertTrue(artists.findAll().isEmpty());
+        artists.catchUp();
+        albums.catchUp();
+        assertEquals(artistDao.findAll().size(), artists.findAll().size());
+        assertEquals(albumDao.getAlbumsByArtistId(first.getId()).size(), artists.getAlbumsByArtist(first.getId()).size());
+    }
+
+    /**
+     * Files that aren't complete snapshots are refused
+     */
+    @Test
+    void testRejectsCorruptFiles() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot.getPath());
+        Path truncated = Files.write(directory.resolve("truncated"), Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(truncated));
+        Path garbage = Files.write(directory.resolve("garbage"), new byte[128]);
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(garbage));
+    }
+
+    /**
+     * A snapshot holding no rows, as if written before anything was in the catalog
+     */
+    private static CatalogSnapshot emptySnapshot() {
+        try {
+            SongDao noSongs = new SongDaoImpl(null) {
+                @Override
+                public long streamAll(Consumer<Song> consumer) {
+                    return 0;
+                }
+            };
+            ArtistDao noArtists = new ArtistDaoImpl(null) {
+                @Override
+                public List<Artist> findAll() {
+                    return List.of();
+                }
+            };
+            AlbumDao noAlbums = new AlbumDaoImpl(null) {
+                @Override
+                public List<Album> findAfter(int afterId) {
+                    return List.of();
+                }
+            };
+            GenreDao noGenres = new GenreImpl(null) {
+                @Override
+                public List<Genre> findAll() {
+                    return List.of();
+                }
+            };
+            return CatalogSnapshotWriter.write(directory.resolve("empty.snapshot"), noSongs, noArtists, noAlbums, noGenres);
+        } catch (IOException | SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
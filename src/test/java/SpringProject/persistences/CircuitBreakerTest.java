@@ -0,0 +1,78 @@
+package SpringProject.persistences;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * State transitions of the connection circuit breaker - no database needed
+ */
+class CircuitBreakerTest {
+
+    /**
+     * Failure rate at the threshold over the minimum number of calls opens the breaker
+     */
+    @Test
+    void testOpensAtFailureRateThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 50, 10, 4, 60000);
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Below minimum calls should stay closed");
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "2 of 4 failed should open the breaker");
+        assertFalse(breaker.tryAcquire(), "Open breaker should refuse calls");
+        assertTrue(breaker.isRefusing());
+        assertEquals(1, breaker.getRejectedCount());
+    }
+
+    /**
+     * After the probe interval one caller gets through; success closes, failure re-opens
+     */
+    @Test
+    void testHalfOpenProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 50, 4, 2, 50);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Thread.sleep(80);
+        assertTrue(breaker.tryAcquire(), "First call after the probe interval should be let through");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(), "Only one probe at a time");
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState(), "Failed probe should re-open");
+
+        Thread.sleep(80);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState(), "Successful probe should close");
+        assertEquals(2, breaker.getTimesOpened());
+        assertEquals(2, breaker.getTimesHalfOpened());
+        assertEquals(1, breaker.getTimesClosed());
+    }
+
+    /**
+     * Opening again after a long-closed spell starts a fresh probe interval, not one timed from the previous opening
+     */
+    @Test
+    void testReopeningWaitsFullProbeInterval() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("test", 50, 2, 2, 200);
+        breaker.onFailure();
+        breaker.onFailure();
+        Thread.sleep(250);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        Thread.sleep(250);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isRefusing());
+        assertFalse(breaker.tryAcquire(), "A new opening must wait out the probe interval");
+    }
+}
@@ -0,0 +1,171 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongFilter;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The columnar catalog must answer exactly like the SQL it replaces, against the embedded test database
+ */
+class ColumnarSongDaoTest {
+
+    private static SongDao sql;
+    private static ColumnarSongDao columnar;
+
+    @BeforeAll
+    static void loadCatalog() throws SQLException {
+        sql = new SongDaoImpl(new EmbeddedConnector("test_embedded_database.properties"));
+        columnar = new ColumnarSongDao(sql);
+        columnar.load();
+        System.out.println("ColumnarSongDao Test");
+    }
+
+    private static List<Song> byId(List<Song> songs) {
+        List<Song> sorted = new ArrayList<>(songs);
+        sorted.sort(Comparator.comparingInt(Song::getId));
+        return sorted;
+    }
+
+    /**
+     * Every song round-trips through the columns unchanged
+     */
+    @Test
+    void testLookupsMatchSql() {
+        assertTrue(columnar.isLoaded());
+        List<Song> all = byId(sql.findAll());
+        assertEquals(all, columnar.findAll());
+        for (Song song : all) {
+            assertEquals(song, columnar.getSongById(song.getId()));
+        }
+        assertNull(columnar.getSongById(Integer.MAX_VALUE));
+        assertNull(columnar.getSongById(0));
+        assertEquals(sql.findPage(5, 7), columnar.findPage(5, 7));
+    }
+
+    /**
+     * Filters combine as AND across attributes and OR within an id set, as songs or as ids
+     */
+    @Test
+    void testFiltersMatchSql() {
+        List<SongFilter> filters = List.of(
+                SongFilter.builder().build(),
+                SongFilter.builder().genreIds(Set.of(2)).build(),
+                SongFilter.builder().genreIds(Set.of(1, 2, 3)).minYear(1990).maxYear(1999).build(),
+                SongFilter.builder().artistIds(Set.of(1, 4)).maxDurationSeconds(240).build(),
+                SongFilter.builder().minDurationSeconds(200).maxDurationSeconds(260).minYear(2000).build(),
+                SongFilter.builder().albumIds(Set.of(Integer.MAX_VALUE)).build());
+        for (SongFilter filter : filters) {
+            assertEquals(sql.findByFilter(filter, 0, 100), columnar.findByFilter(filter, 0, 100), filter.toString());
+            assertEquals(sql.findByFilter(filter, 3, 2), columnar.findByFilter(filter, 3, 2), filter.toString());
+            assertEquals(sql.findIdsByFilter(filter, 0, 100), columnar.findIdsByFilter(filter, 0, 100), filter.toString());
+        }
+    }
+
+    /**
+     * Both the columnar sampler and the SQL id probing draw distinct, existing songs of the genre asked for
+     */
+    @Test
+    void testSamplesMatchSql() {
+        List<Song> all = byId(sql.findAll());
+        Song excluded = all.get(0);
+        int genre = all.get(all.size() - 1).getGenreId();
+        List<Song> eligible = all.stream()
+                .filter(song -> song.getGenreId() == genre && song.getId() != excluded.getId())
+                .toList();
+        for (SongDao dao : List.of(sql, columnar)) {
+            List<Song> sample = dao.sample(genre, Set.of(excluded.getId()), all.size());
+            assertEquals(sample.size(), Set.copyOf(sample).size(), "no song drawn twice");
+            assertTrue(eligible.containsAll(sample), sample.toString());
+            assertTrue(dao.sample(null, Set.of(), 0).isEmpty());
+        }
+        assertEquals(Set.copyOf(eligible), Set.copyOf(columnar.sample(genre, Set.of(excluded.getId()), all.size())));
+        assertEquals(2, Set.copyOf(columnar.sample(null, Set.of(), 2)).size());
+    }
+
+    /**
+     * The columns must take far less memory than the entities they replace
+     */
+    @Test
+    void testColumnsAreSmallerThanEntities() {
+        SongColumns columns = columnar.getColumns();
+        assertTrue(columns.memoryBytes() < columns.entityMemoryBytes(),
+                columns.memoryBytes() + " bytes as columns vs " + columns.entityMemoryBytes() + " as entities");
+        assertThrows(IllegalArgumentException.class, () -> SongColumns.builder()
+                .add(Song.builder().id(2).title("b").build())
+                .add(Song.builder().id(1).title("a").build()));
+    }
+
+    /**
+     * A song inserted after the copy was loaded is read from SQL until catchUp() appends it to the columns
+     */
+    @Test
+    void testNewSongsAreVisibleBeforeAndAfterCatchUp() throws SQLException {
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongDao songs = new SongDaoImpl(connector);
+        ColumnarSongDao loaded = new ColumnarSongDao(songs);
+        loaded.load();
+        int loadedSize = loaded.getColumns().size();
+        int newId = insertSong(connector);
+        try {
+            Song added = songs.getSongById(newId);
+            assertNotNull(added);
+            SongFilter sameGenre = SongFilter.builder().genreIds(Set.of(added.getGenreId())).build();
+
+            for (int pass = 0; pass < 2; pass++) {
+                assertEquals(added, loaded.getSongById(newId));
+                assertEquals(songs.getSongsByIds(List.of(1, newId)), loaded.getSongsByIds(List.of(newId, 1)));
+                assertEquals(songs.findPage(newId - 3, 10), loaded.findPage(newId - 3, 10));
+                assertEquals(byId(songs.findAll()), loaded.findAll());
+                assertEquals(songs.findByFilter(sameGenre, 0, 100), loaded.findByFilter(sameGenre, 0, 100));
+                assertEquals(songs.findIdsByFilter(sameGenre, 0, 100), loaded.findIdsByFilter(sameGenre, 0, 100));
+                if (pass == 0) {
+                    assertEquals(loadedSize, loaded.getColumns().size(), "Reads must not change the copy");
+                    assertEquals(1, loaded.catchUp());
+                }
+            }
+            assertEquals(loadedSize + 1, loaded.getColumns().size());
+            assertEquals(0, loaded.catchUp());
+            assertTrue(loaded.sample(added.getGenreId(), Set.of(), loadedSize + 1).contains(added),
+                    "Caught-up songs can be sampled");
+        } finally {
+            deleteSong(connector, newId);
+        }
+    }
+
+    private static int insertSong(Connector connector) throws SQLException {
+        Connection conn = connector.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO songs (title, artistId, albumId, genreId, durationSeconds, releaseYear) VALUES ('Late Arrival', 1, 1, 2, 215, 2025)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    private static void deleteSong(Connector connector, int id) throws SQLException {
+        Connection conn = connector.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM songs WHERE id = ?")) {
+            ps.setInt(1, id);
+            ps.executeUpdate();
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Genre;
+import SpringProject.entities.Song;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the in-memory database boots from the SQL scripts and the DAOs can run against it
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EmbeddedConnectorTest {
+
+    private static PooledConnector connector;
+
+    @BeforeAll
+    static void setupDatabase() {
+        connector = new PooledConnector(new EmbeddedConnector("test_embedded_database.properties"));
+        System.out.println("EmbeddedConnector Test");
+    }
+
+    @AfterAll
+    static void closeConnection() {
+        if (connector != null) {
+            connector.close();
+        }
+        System.out.println("EmbeddedConnector Test Completed");
+    }
+
+    /**
+     * The MySQL-only statements are dropped or translated when the script is split
+     */
+    @Test
+    @Order(1)
+    void testScriptSplittingSkipsDatabaseStatements() throws IOException {
+        List<String> statements = EmbeddedConnector.readStatements("sql/test_audiolibrary.sql");
+
+        assertEquals("DROP ALL OBJECTS", statements.get(0), "DROP DATABASE should become DROP ALL OBJECTS");
+        assertTrue(statements.stream().noneMatch(s -> s.toUpperCase().startsWith("USE ")), "USE should be skipped");
+        assertTrue(statements.stream().noneMatch(s -> s.toUpperCase().startsWith("CREATE DATABASE")),
+                "CREATE DATABASE should be skipped");
+        assertTrue(statements.stream().anyMatch(s -> s.startsWith("CREATE TABLE songs")), "Tables should be kept");
+    }
+
+    /**
+     * The dataset is loaded, so the genre DAO sees the seeded genres
+     */
+    @Test
+    @Order(2)
+    void testDatasetLoaded() throws SQLException {
+        GenreDao genreDao = new GenreImpl(connector);
+        List<Genre> genres = genreDao.findAll();
+
+        assertEquals(8, genres.size(), "All seeded genres should be loaded");
+    }
+
+    /**
+     * Song lookups work in-process
+     */
+    @Test
+    @Order(3)
+    void testSongDaoAgainstEmbeddedDatabase() {
+        SongDao songDao = new SongDaoImpl(connector);
+
+        Song song = songDao.getSongById(1);
+        assertNotNull(song, "Song 1 should exist in the dataset");
+        assertFalse(songDao.findAll().isEmpty(), "Songs should be loaded");
+        assertEquals(0, connector.getActiveConnections(), "All connections should be back in the pool");
+    }
+
+    /**
+     * Streaming reads get their own connection when cursor fetch is on, so the pooled ones never carry it
+     */
+    @Test
+    @Order(4)
+    void testStreamConnectionBypassesPoolWithCursorFetch() throws SQLException {
+        EmbeddedConnector factory = new EmbeddedConnector("test_embedded_database.properties");
+        factory.getProperties().setProperty("stream.useCursorFetch", "true");
+        PooledConnector pooled = new PooledConnector(factory);
+        int total = pooled.getTotalConnections();
+
+        Connection stream = pooled.getStreamConnection();
+        assertNotNull(stream);
+        assertEquals(0, pooled.getActiveConnections(), "The stream connection is not leased from the pool");
+        assertEquals(total, pooled.getTotalConnections());
+        stream.close();
+
+        long rows = new SongDaoImpl(pooled).streamAll(song -> { });
+        assertEquals(new SongDaoImpl(connector).findAll().size(), rows);
+        assertEquals(0, pooled.getActiveConnections());
+        pooled.close();
+    }
+}
@@ -17,7 +17,7 @@ class GenreDaoTest {
      */
     @BeforeAll
     static  void setupDatabase(){
-        connector = new MySqlConnector("test_database.properties");
+        connector = new EmbeddedConnector("test_embedded_database.properties");
         genreDao = new GenreImpl(connector);
         System.out.println("GenreDAO Test");
     }
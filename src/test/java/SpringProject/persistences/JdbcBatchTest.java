@@ -0,0 +1,216 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Genre;
+import SpringProject.entities.PlaylistsSongs;
+import SpringProject.entities.Rating;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch writes against the embedded test database, which sets batch.size=2 so every list spans several batches
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class JdbcBatchTest {
+
+    private static Connector connector;
+    private static GenreDao genreDao;
+    private static PlaylistSongDao playlistSongDao;
+    private static RatingDao ratingDao;
+
+    @BeforeAll
+    static void setupDao() throws SQLException {
+        connector = new EmbeddedConnector("test_embedded_database.properties");
+        genreDao = new GenreImpl(connector);
+        playlistSongDao = new PlaylistSongImpl(connector);
+        ratingDao = new RatingDaoImpl(connector);
+        createRatingTable();
+        System.out.println("JdbcBatch Test");
+    }
+
+    /**
+     * The schema scripts don't create the rating table RatingDaoImpl reads and writes, so the tests add it
+     */
+    private static void createRatingTable() throws SQLException {
+        Connection conn = connector.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement("""
+                CREATE TABLE IF NOT EXISTS rating (
+                    username   VARCHAR(50) NOT NULL,
+                    songID     INT         NOT NULL,
+                    userRating DOUBLE      NOT NULL,
+                    PRIMARY KEY (username, songID)
+                )""")) {
+            ps.executeUpdate();
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    private static PlaylistsSongs playlistSong(int playlistId, int songId) {
+        PlaylistsSongs playlistSong = new PlaylistsSongs();
+        playlistSong.setPlaylistId(playlistId);
+        playlistSong.setSongId(songId);
+        return playlistSong;
+    }
+
+    /**
+     * @return the first column of every row the query returns, as ints
+     */
+    private static List<Integer> ints(String sql, Object... params) throws SQLException {
+        Connection conn = connector.getConnection();
+        List<Integer> values = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    values.add(rs.getInt(1));
+                }
+            }
+        } finally {
+            connector.freeConnection(conn);
+        }
+        return values;
+    }
+
+    private static Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        genre.setDescription(name + " description");
+        return genre;
+    }
+
+    /**
+     * Every genre gets its own generated ID, in list order
+     */
+    @Test
+    @Order(1)
+    void testCreateAllReturnsKeysInOrder() throws SQLException {
+        List<Genre> genres = List.of(genre("Batch A"), genre("Batch B"), genre("Batch C"),
+                genre("Batch D"), genre("Batch E"));
+
+        genreDao.createAll(genres);
+
+        for (int i = 0; i < genres.size(); i++) {
+            Genre stored = genreDao.findById(genres.get(i).getId());
+            assertNotNull(stored, "Genre " + i + " should have been stored under its returned ID");
+            assertEquals(genres.get(i).getName(), stored.getName());
+            if (i > 0) {
+                assertTrue(genres.get(i).getId() > genres.get(i - 1).getId(), "IDs should follow list order");
+            }
+        }
+    }
+
+    /**
+     * A failure in a later batch rolls back the earlier ones too
+     */
+    @Test
+    @Order(2)
+    void testCreateAllIsAtomic() throws SQLException {
+        int before = genreDao.findAll().size();
+        List<Genre> genres = List.of(genre("Batch F"), genre("Batch G"), genre("Batch A"));
+
+        assertThrows(SQLException.class, () -> genreDao.createAll(genres), "Duplicate name should fail the batch");
+        assertEquals(before, genreDao.findAll().size(), "No genre from the failed batch should remain");
+    }
+
+    /**
+     * Every playlist entry gets its own generated ID, in list order
+     */
+    @Test
+    @Order(3)
+    void testAddSongsToPlaylistReturnsKeysInOrder() throws SQLException {
+        List<PlaylistsSongs> added = playlistSongDao.addSongsToPlaylist(List.of(
+                playlistSong(1, 2), playlistSong(1, 3), playlistSong(1, 4), playlistSong(1, 5), playlistSong(1, 6)));
+
+        for (int i = 0; i < added.size(); i++) {
+            PlaylistsSongs entry = added.get(i);
+            assertEquals(List.of(entry.getSongId()), ints("SELECT songId FROM playlistSongs WHERE id = ? AND playlistId = 1",
+                    entry.getId()), "Entry " + i + " should have been stored under its returned ID");
+            if (i > 0) {
+                assertTrue(entry.getId() > added.get(i - 1).getId(), "IDs should follow list order");
+            }
+        }
+    }
+
+    /**
+     * A song already in the playlist, in the last batch, rolls back the entries before it
+     */
+    @Test
+    @Order(4)
+    void testAddSongsToPlaylistIsAtomic() throws SQLException {
+        List<Integer> before = ints("SELECT songId FROM playlistSongs WHERE playlistId = 1 ORDER BY songId");
+
+        assertThrows(SQLException.class, () -> playlistSongDao.addSongsToPlaylist(List.of(
+                playlistSong(1, 7), playlistSong(1, 8), playlistSong(1, 1))), "Duplicate song should fail the batch");
+        assertEquals(before, ints("SELECT songId FROM playlistSongs WHERE playlistId = 1 ORDER BY songId"));
+    }
+
+    /**
+     * Batched ratings keep their fractional value, are read back by the DAO's own getters, and rating a song
+     * again replaces the old rating
+     */
+    @Test
+    @Order(5)
+    void testAddRatings() throws SQLException {
+        int added = ratingDao.addRatings(List.of(
+                new Rating("athena", 2, 4.5), new Rating("athena", 7, 3), new Rating("athena", 1, 2)));
+        assertTrue(added >= 3, "All three ratings should have been written");
+        assertEquals(4.5, ratingDao.findRatingByUsernameAndSongID("athena", 2).getUserRating());
+        assertEquals(3, ratingDao.findRatingByUsernameAndSongID("athena", 7).getUserRating());
+        assertEquals(2, ratingDao.findRatingByUsernameAndSongID("athena", 1).getUserRating());
+
+        ratingDao.addRatings(List.of(new Rating("athena", 2, 1.5)));
+        assertEquals(1.5, ratingDao.findRatingByUsernameAndSongID("athena", 2).getUserRating());
+        assertEquals(3, ratingDao.getUserRatingFromUsername("athena").size());
+    }
+
+    /**
+     * A rating without a username in the last batch rolls back the ratings before it
+     */
+    @Test
+    @Order(6)
+    void testAddRatingsIsAtomic() throws SQLException {
+        int before = ratingDao.getAllRatings().size();
+
+        assertThrows(SQLException.class, () -> ratingDao.addRatings(List.of(
+                new Rating("athena", 10, 4), new Rating("athena", 13, 5), new Rating(null, 10, 1))),
+                "A missing username should fail the batch");
+        assertEquals(before, ratingDao.getAllRatings().size());
+        assertNull(ratingDao.findRatingByUsernameAndSongID("athena", 10));
+    }
+
+    /**
+     * A binder that throws part way rolls back the batches already sent
+     */
+    @Test
+    @Order(7)
+    void testRuntimeFailureRollsBack() throws SQLException {
+        List<Integer> before = ints("SELECT COUNT(*) FROM genres");
+        Connection conn = connector.getConnection();
+        try {
+            assertThrows(IllegalStateException.class, () -> JdbcBatch.execute(conn,
+                    "INSERT INTO genres(name, description) VALUES (?, ?)",
+                    List.of(genre("Rollback A"), genre("Rollback B"), genre("Rollback C")), 2,
+                    (ps, genre) -> {
+                        if (genre.getName().endsWith("C")) {
+                            throw new IllegalStateException("binder failed");
+                        }
+                        ps.setString(1, genre.getName());
+                        ps.setString(2, genre.getDescription());
+                    }, null));
+            assertTrue(conn.getAutoCommit(), "Auto-commit should be restored");
+        } finally {
+            connector.freeConnection(conn);
+        }
+        assertEquals(before, ints("SELECT COUNT(*) FROM genres"));
+    }
+}
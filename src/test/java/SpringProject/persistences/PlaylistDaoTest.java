@@ -1,7 +1,6 @@
 package SpringProject.persistences;
 
 import SpringProject.persistences.Connector;
-import SpringProject.persistences.MySqlConnector;
 import SpringProject.entities.Playlists;
 import org.junit.jupiter.api.*;
 
@@ -29,7 +28,7 @@ class PlaylistDaoTest {
      */
     @BeforeAll
     static void setupDatabase() {
-        connector = new MySqlConnector("test_database.properties");
+        connector = new EmbeddedConnector("test_embedded_database.properties");
         playlistDao = new PlaylistDaoImpl(connector);
         System.out.println("=== PlaylistDao Test Suite Started ===");
     }
@@ -18,7 +18,7 @@ class PlaylistSongDaoTest {
     private static PlaylistSongDao playlistSongDao;
     private static Integer testPlaylistSongId;
     private static final int TEST_PLAYLIST_ID = 1;
-    private static final int TEST_SONG_ID = 1;
+    private static final int TEST_SONG_ID = 5;
     private static final int TEST_SONG_ID_2 = 2;
 
     /**
@@ -26,7 +26,7 @@ class PlaylistSongDaoTest {
      */
     @BeforeAll
     static void setupDatabase() {
-        connector = new MySqlConnector("test_database.properties");
+        connector = new EmbeddedConnector("test_embedded_database.properties");
         playlistSongDao = new PlaylistSongImpl(connector);
         System.out.println(" PlaylistSongDao Test ");
     }
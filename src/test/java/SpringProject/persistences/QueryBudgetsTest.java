@@ -0,0 +1,76 @@
+package SpringProject.persistences;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a deliberately slow query (a huge cross join) on the embedded database through a budgeted DAO
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class QueryBudgetsTest {
+
+    private static final String SLOW_QUERY =
+            "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b";
+
+    /**
+     * A DAO that, like SongDaoImpl, logs SQLExceptions and returns an empty result
+     */
+    interface CountDao {
+        long count(String sql);
+    }
+
+    private static QueryBudgets budgets;
+    private static CountDao countDao;
+
+    @BeforeAll
+    static void setupDao() {
+        TransactionalConnector connector = new TransactionalConnector(
+                new EmbeddedConnector("test_embedded_database.properties"));
+        CountDao swallowingDao = sql -> {
+            try (Connection conn = connector.getReadConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                return rs.next() ? rs.getLong(1) : -1;
+            } catch (SQLException e) {
+                System.out.println("count(): " + e.getMessage());
+                return -1;
+            }
+        };
+        budgets = new QueryBudgets(5000, Map.of("CountDao.count", 300L));
+        countDao = (CountDao) budgets.wrap(swallowingDao, CountDao.class);
+        System.out.println("QueryBudgets Test");
+    }
+
+    /**
+     * Quick queries are unaffected
+     */
+    @Test
+    @Order(1)
+    void testWithinBudget() {
+        assertEquals(3, countDao.count("SELECT COUNT(*) FROM SYSTEM_RANGE(1, 3)"));
+        assertTrue(budgets.getTimeoutCounts().isEmpty(), "Nothing should have timed out");
+    }
+
+    /**
+     * The slow query is cancelled at the budget and surfaces as QueryTimeoutException
+     * even though the DAO swallowed the SQLException
+     */
+    @Test
+    @Order(2)
+    void testCancelledAtBudget() {
+        long start = System.currentTimeMillis();
+        QueryTimeoutException e = assertThrows(QueryTimeoutException.class, () -> countDao.count(SLOW_QUERY));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("CountDao.count", e.getMethod());
+        assertTrue(elapsed < 3000, "Query should be cancelled close to its 300ms budget, took " + elapsed + "ms");
+        assertEquals(1L, budgets.getTimeoutCounts().get("CountDao.count"));
+    }
+}
@@ -0,0 +1,240 @@
+package SpringProject.persistences;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses two embedded databases standing in for the primary and the replica.
+ * Each holds a marker row naming itself, so a test can tell which one a connection points at.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RoutingConnectorTest {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private static Connector primary;
+    private static Connector replica;
+
+    /**
+     * Boot both databases and write the marker rows
+     */
+    @BeforeAll
+    static void setupDatabases() throws SQLException {
+        primary = new EmbeddedConnector("test_embedded_database.properties");
+        replica = new EmbeddedConnector("test_embedded_replica_database.properties");
+        writeMarker(primary, PRIMARY);
+        writeMarker(replica, REPLICA);
+        System.out.println("RoutingConnector Test");
+    }
+
+    private static void writeMarker(Connector connector, String name) throws SQLException {
+        Connection conn = connector.getConnection();
+        assertNotNull(conn, "Embedded database should start");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE routingMarker (name VARCHAR(20))");
+            stmt.executeUpdate("INSERT INTO routingMarker (name) VALUES ('" + name + "')");
+        } finally {
+            connector.freeConnection(conn);
+        }
+    }
+
+    private static String databaseOf(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM routingMarker")) {
+            rs.next();
+            return rs.getString("name");
+        }
+    }
+
+    /**
+     * Writes through the connection without changing the marker
+     */
+    private static void touchMarker(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE routingMarker SET name = name")) {
+            ps.executeUpdate();
+        }
+    }
+
+    @AfterEach
+    void clearUser() {
+        RoutingConnector.clearUser();
+        System.out.println("Test completed");
+    }
+
+    /**
+     * Reads go to the replica, writes to the primary
+     */
+    @Test
+    @Order(1)
+    void testReadsGoToReplicaAndWritesToPrimary() throws SQLException {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 2000);
+
+        Connection read = routing.getReadConnection();
+        assertEquals(REPLICA, databaseOf(read), "Read should be served by the replica");
+        routing.freeConnection(read);
+
+        Connection write = routing.getConnection();
+        assertEquals(PRIMARY, databaseOf(write), "Write should be served by the primary");
+        routing.freeConnection(write);
+    }
+
+    /**
+     * After a user writes, that user's reads stay on the primary; other users still read from the replica
+     */
+    @Test
+    @Order(2)
+    void testReadYourWritesWindow() throws SQLException, InterruptedException {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 300);
+
+        RoutingConnector.bindUser("writer");
+        Connection write = routing.getConnection();
+        touchMarker(write);
+        routing.freeConnection(write);
+
+        Connection ownRead = routing.getReadConnection();
+        assertEquals(PRIMARY, databaseOf(ownRead), "Writer should read its own writes from the primary");
+        routing.freeConnection(ownRead);
+
+        RoutingConnector.bindUser("someone-else");
+        Connection otherRead = routing.getReadConnection();
+        assertEquals(REPLICA, databaseOf(otherRead), "Other users should still read from the replica");
+        routing.freeConnection(otherRead);
+
+        Thread.sleep(400);
+        RoutingConnector.bindUser("writer");
+        Connection laterRead = routing.getReadConnection();
+        assertEquals(REPLICA, databaseOf(laterRead), "Once the window passes reads go back to the replica");
+        routing.freeConnection(laterRead);
+    }
+
+    /**
+     * Least-loaded picks the replica with fewer connections in use
+     */
+    @Test
+    @Order(3)
+    void testLeastLoadedBalancesAcrossReplicas() {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica, replica),
+                RoutingConnector.Strategy.LEAST_LOADED, 0);
+
+        Connection first = routing.getReadConnection();
+        Connection second = routing.getReadConnection();
+        assertArrayEquals(new int[]{1, 1}, routing.getReplicaLoad(), "Each replica should hold one connection");
+
+        routing.freeConnection(first);
+        routing.freeConnection(second);
+        assertArrayEquals(new int[]{0, 0}, routing.getReplicaLoad(), "Freed connections should reduce the load");
+    }
+
+    /**
+     * Round-robin alternates between replicas
+     */
+    @Test
+    @Order(4)
+    void testRoundRobinAlternates() {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica, replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 0);
+
+        Connection first = routing.getReadConnection();
+        assertArrayEquals(new int[]{1, 0}, routing.getReplicaLoad());
+        Connection second = routing.getReadConnection();
+        assertArrayEquals(new int[]{1, 1}, routing.getReplicaLoad());
+
+        routing.freeConnection(first);
+        routing.freeConnection(second);
+    }
+
+    /**
+     * Leasing the primary only to read, or rolling a write back, doesn't pin the user's reads to the primary;
+     * committing a unit of work that wrote does
+     */
+    @Test
+    @Order(5)
+    void testOnlyCommittedWritesAreRecorded() throws SQLException {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 2000);
+        TransactionalConnector transactional = new TransactionalConnector(routing);
+
+        RoutingConnector.bindUser("reader");
+        Connection lease = routing.getConnection();
+        assertEquals(PRIMARY, databaseOf(lease));
+        routing.freeConnection(lease);
+        assertEquals(0, routing.getTrackedUsers(), "A primary lease that only read is not a write");
+
+        try (UnitOfWork work = transactional.begin()) {
+            touchMarker(transactional.getConnection());
+        }
+        assertEquals(0, routing.getTrackedUsers(), "A rolled back write is not recorded");
+        Connection read = routing.getReadConnection();
+        assertEquals(REPLICA, databaseOf(read));
+        routing.freeConnection(read);
+
+        try (UnitOfWork work = transactional.begin()) {
+            touchMarker(transactional.getConnection());
+            work.commit();
+        }
+        assertEquals(1, routing.getTrackedUsers());
+        Connection ownRead = routing.getReadConnection();
+        assertEquals(PRIMARY, databaseOf(ownRead), "A committed write keeps the writer on the primary");
+        routing.freeConnection(ownRead);
+    }
+
+    /**
+     * An anonymous request still reads back its own write; the next request on the thread doesn't
+     */
+    @Test
+    @Order(6)
+    void testAnonymousRequestReadsItsOwnWrites() throws SQLException {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 2000);
+
+        RoutingConnector.bindUser(null);
+        Connection write = routing.getConnection();
+        touchMarker(write);
+        routing.freeConnection(write);
+        assertEquals(0, routing.getTrackedUsers(), "Anonymous writes are not kept after the request");
+
+        Connection read = routing.getReadConnection();
+        assertEquals(PRIMARY, databaseOf(read));
+        routing.freeConnection(read);
+
+        RoutingConnector.clearUser();
+        Connection nextRequest = routing.getReadConnection();
+        assertEquals(REPLICA, databaseOf(nextRequest));
+        routing.freeConnection(nextRequest);
+    }
+
+    /**
+     * Last writes are capped at maxTrackedUsers, and expired ones are swept out on later writes
+     */
+    @Test
+    @Order(7)
+    void testTrackedUsersAreBoundedAndExpire() throws SQLException, InterruptedException {
+        RoutingConnector routing = new RoutingConnector(primary, List.of(replica),
+                RoutingConnector.Strategy.ROUND_ROBIN, 200, 3);
+        for (int i = 0; i < 5; i++) {
+            RoutingConnector.bindUser("user" + i);
+            Connection write = routing.getConnection();
+            touchMarker(write);
+            routing.freeConnection(write);
+        }
+        assertEquals(3, routing.getTrackedUsers());
+
+        Thread.sleep(300);
+        RoutingConnector.bindUser("latecomer");
+        Connection write = routing.getConnection();
+        touchMarker(write);
+        routing.freeConnection(write);
+        assertEquals(1, routing.getTrackedUsers(), "Expired writes should have been swept");
+    }
+}
@@ -0,0 +1,197 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongFilter;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bitmap filtering must return exactly what a plain scan of the columns returns
+ */
+class SongBitmapIndexTest {
+
+    private static SongColumns columns;
+    private static SongBitmapIndex index;
+
+    @BeforeAll
+    static void buildIndex() {
+        Random random = new Random(17);
+        SongColumns.Builder builder = SongColumns.builder();
+        int id = 0;
+        for (int i = 0; i < 20_000; i++) {
+            id += 1 + random.nextInt(3);
+            builder.add(Song.builder()
+                    .id(id)
+                    .title("song " + id)
+                    .artistId(1 + random.nextInt(200))
+                    .albumId(1 + random.nextInt(2000))
+                    .genreId(1 + random.nextInt(12))
+                    .durationSeconds(60 + random.nextInt(400))
+                    .releaseYear(1960 + random.nextInt(65))
+                    .build());
+        }
+        columns = builder.build();
+        index = SongBitmapIndex.build(columns);
+        System.out.println("SongBitmapIndex Test");
+    }
+
+    private static Set<Integer> randomIds(Random random, int bound) {
+        Set<Integer> ids = new HashSet<>();
+        int count = random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            ids.add(1 + random.nextInt(bound));
+        }
+        return ids;
+    }
+
+    private static Integer maybe(Random random, int from, int span) {
+        return random.nextBoolean() ? null : from + random.nextInt(span);
+    }
+
+    /**
+     * Random combinations of id sets and ranges, including bounds that fall inside a duration bucket
+     */
+    @Test
+    void testMatchesColumnScan() {
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            SongFilter filter = SongFilter.builder()
+                    .genreIds(randomIds(random, 12))
+                    .artistIds(random.nextInt(4) == 0 ? randomIds(random, 200) : Set.of())
+                    .albumIds(random.nextInt(8) == 0 ? randomIds(random, 2000) : Set.of())
+                    .minYear(maybe(random, 1960, 65))
+                    .maxYear(maybe(random, 1960, 65))
+                    .minDurationSeconds(maybe(random, 60, 400))
+                    .maxDurationSeconds(maybe(random, 60, 400))
+                    .build();
+            int afterId = random.nextBoolean() ? 0 : random.nextInt(40_000);
+            int limit = 1 + random.nextInt(300);
+
+            List<Song> expected = columns.filter(filter, afterId, limit);
+            assertEquals(expected, index.filter(filter, afterId, limit), filter.toString());
+            int[] ids = index.filterIds(filter, afterId, limit);
+            assertArrayEquals(expected.stream().mapToInt(Song::getId).toArray(), ids, filter.toString());
+        }
+    }
+
+    /**
+     * Samples are distinct, respect the genre and the exclusions, and every eligible row turns up about
+     * equally often - including when nearly everything is excluded and the sampler falls back to listing
+     */
+    @Test
+    void testSampleIsUniform() {
+        Random random = new Random(9);
+        int genre = columns.genreId(0);
+        Set<Integer> excluded = new HashSet<>();
+        for (int row = 0; row < 200; row++) {
+            excluded.add(columns.id(row));
+        }
+        int[] counts = new int[columns.size()];
+        int eligible = 0;
+        for (int row = 0; row < columns.size(); row++) {
+            if (columns.genreId(row) == genre && !excluded.contains(columns.id(row))) {
+                eligible++;
+            }
+        }
+        int draws = 0;
+        for (int i = 0; i < 2_000; i++) {
+            int[] rows = index.sampleRows(genre, excluded, 50, random);
+            assertEquals(50, rows.length);
+            assertEquals(50, Arrays.stream(rows).distinct().count());
+            for (int row : rows) {
+                assertEquals(genre, columns.genreId(row));
+                assertFalse(excluded.contains(columns.id(row)));
+                counts[row]++;
+                draws++;
+            }
+        }
+        // chi-squared against equal counts: about eligible - 1 when uniform, far above it when not
+        double expected = draws / (double) eligible;
+        double chiSquared = 0;
+        int drawnRows = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                chiSquared += (count - expected) * (count - expected) / expected;
+                drawnRows++;
+            }
+        }
+        assertEquals(eligible, drawnRows);
+        assertTrue(chiSquared < eligible * 1.2, "chi-squared " + chiSquared + " over " + eligible + " rows");
+
+        Set<Integer> allButThree = new HashSet<>();
+        for (int row = 3; row < columns.size(); row++) {
+            allButThree.add(columns.id(row));
+        }
+        int[] rows = index.sampleRows(null, allButThree, 10, random);
+        Arrays.sort(rows);
+        assertArrayEquals(new int[]{0, 1, 2}, rows);
+        assertEquals(0, index.sampleRows(99, Set.of(), 10, random).length);
+        assertEquals(0, index.sampleRows(null, Set.of(), 0, random).length);
+    }
+
+    /**
+     * No criteria matches everything; unknown ids and empty ranges match nothing
+     */
+    @Test
+    void testEdgeCases() {
+        assertEquals(columns.size(), index.matchingRows(SongFilter.builder().build()).getCardinality());
+        assertTrue(index.filter(SongFilter.builder().genreIds(Set.of(99)).build(), 0, 10).isEmpty());
+        assertTrue(index.filter(SongFilter.builder().minYear(2000).maxYear(1990).build(), 0, 10).isEmpty());
+        assertTrue(index.filter(SongFilter.builder().build(), Integer.MAX_VALUE, 10).isEmpty());
+        assertEquals(0, index.filterIds(SongFilter.builder().build(), 0, 0).length);
+        assertTrue(index.memoryBytes() > 0);
+    }
+
+    /**
+     * Appending rows in steps gives the same columns and bitmaps as building them in one go, and leaves the
+     * copies appended to unchanged
+     */
+    @Test
+    void testAppendMatchesBuild() {
+        SongColumns.Builder builder = SongColumns.builder();
+        for (int row = 0; row < 15_000; row++) {
+            builder.add(columns.song(row));
+        }
+        SongColumns base = builder.build();
+        SongBitmapIndex baseIndex = SongBitmapIndex.build(base);
+        SongColumns appended = base;
+        SongBitmapIndex appendedIndex = baseIndex;
+        for (int from = base.size(); from < columns.size(); from += 1000) {
+            List<Song> page = new ArrayList<>();
+            for (int row = from; row < Math.min(from + 1000, columns.size()); row++) {
+                page.add(columns.song(row));
+            }
+            appended = appended.append(page);
+            appendedIndex = appendedIndex.append(appended);
+        }
+
+        assertEquals(columns.size(), appended.size());
+        assertEquals(15_000, base.size());
+        assertEquals(15_000, baseIndex.matchingRows(SongFilter.builder().build()).getCardinality());
+        int lastId = columns.id(columns.size() - 1);
+        assertEquals(-1, base.rowOf(lastId));
+        assertEquals(columns.size() - 1, appended.rowOf(lastId));
+        assertEquals(columns.song(16_000), appended.find(columns.id(16_000)));
+        assertEquals(columns.song(100), appended.find(columns.id(100)));
+
+        Random random = new Random(9);
+        for (int i = 0; i < 200; i++) {
+            SongFilter filter = SongFilter.builder()
+                    .genreIds(randomIds(random, 12))
+                    .minYear(maybe(random, 1960, 65))
+                    .maxDurationSeconds(maybe(random, 60, 400))
+                    .build();
+            assertEquals(index.filter(filter, 0, 25_000), appendedIndex.filter(filter, 0, 25_000), filter.toString());
+            List<Song> inBase = columns.filter(filter, 0, 25_000).stream().filter(song -> base.rowOf(song.getId()) >= 0).toList();
+            assertEquals(inBase, baseIndex.filter(filter, 0, 25_000), filter.toString());
+        }
+    }
+}
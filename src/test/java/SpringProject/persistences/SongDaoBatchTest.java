@@ -0,0 +1,67 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import org.junit.jupiter.api.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-get by id against the embedded test database
+ */
+class SongDaoBatchTest {
+
+    private static SongDao songDao;
+    private static List<Song> all;
+
+    @BeforeAll
+    static void setupDao() {
+        songDao = new SongDaoImpl(new EmbeddedConnector("test_embedded_database.properties"));
+        all = new ArrayList<>(songDao.findAll());
+        all.sort(Comparator.comparingInt(Song::getId));
+        System.out.println("SongDao Batch Test");
+    }
+
+    /**
+     * Enough ids (with duplicates and unknown ids) to span several chunks still returns each song once, in id order
+     */
+    @Test
+    void testChunkedLookup() {
+        assertFalse(all.isEmpty(), "Test dataset should contain songs");
+        List<Integer> ids = new ArrayList<>();
+        for (Song song : all) {
+            ids.add(song.getId());
+            ids.add(song.getId());
+        }
+        for (int i = 1; i <= 1200; i++) {
+            ids.add(1_000_000 + i);
+        }
+        Collections.shuffle(ids, new Random(1));
+
+        assertEquals(all, songDao.getSongsByIds(ids));
+        assertEquals(List.of(all.get(0)), songDao.getSongsByIds(List.of(all.get(0).getId())));
+        assertTrue(songDao.getSongsByIds(List.of()).isEmpty());
+        assertTrue(songDao.getSongsByIds(List.of(-1, 999_999_999)).isEmpty());
+    }
+
+    /**
+     * The columnar catalog answers the same way
+     */
+    @Test
+    void testColumnarMatchesSql() throws SQLException {
+        ColumnarSongDao columnar = new ColumnarSongDao(songDao);
+        columnar.load();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = all.size() - 1; i >= 0; i -= 2) {
+            ids.add(all.get(i).getId());
+        }
+        ids.add(Integer.MAX_VALUE);
+        assertEquals(songDao.getSongsByIds(ids), columnar.getSongsByIds(ids));
+    }
+}
@@ -0,0 +1,72 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Song;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset pagination against the embedded test database
+ */
+class SongDaoPageTest {
+
+    private static SongDao songDao;
+
+    @BeforeAll
+    static void setupDao() {
+        songDao = new SongDaoImpl(new EmbeddedConnector("test_embedded_database.properties"));
+        System.out.println("SongDao Page Test");
+    }
+
+    private static List<Integer> ids(List<Song> songs) {
+        List<Integer> ids = new ArrayList<>();
+        for (Song song : songs) {
+            ids.add(song.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Walking every page yields each song exactly once, in id order
+     */
+    @Test
+    void testPagesCoverAllSongs() {
+        List<Song> all = new ArrayList<>(songDao.findAll());
+        all.sort(Comparator.comparingInt(Song::getId));
+        assertFalse(all.isEmpty(), "Test dataset should contain songs");
+
+        List<Song> paged = new ArrayList<>();
+        int afterId = 0;
+        List<Song> page;
+        do {
+            page = songDao.findPage(afterId, 7);
+            assertTrue(page.size() <= 7, "A page should never exceed its limit");
+            paged.addAll(page);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == 7);
+
+        assertEquals(ids(all), ids(paged));
+    }
+
+    /**
+     * Search pages return the same songs as the unpaged search
+     */
+    @Test
+    void testSearchPages() {
+        List<Song> all = new ArrayList<>(songDao.getSongsByTitle("r"));
+        all.sort(Comparator.comparingInt(Song::getId));
+
+        List<Song> first = songDao.getSongsByTitle("r", 0, 2);
+        assertEquals(ids(all.subList(0, 2)), ids(first));
+        List<Song> rest = songDao.getSongsByTitle("r", first.get(1).getId(), all.size());
+        assertEquals(ids(all.subList(2, all.size())), ids(rest));
+
+        assertTrue(songDao.findPage(Integer.MAX_VALUE, 10).isEmpty(), "Nothing comes after the last id");
+    }
+}
@@ -0,0 +1,226 @@
+package SpringProject.persistences;
+
+import SpringProject.entities.Genre;
+import SpringProject.entities.PlaylistsSongs;
+import SpringProject.services.PlaylistServices;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Units of work against the embedded test database, through a connector that counts the connections
+ * leased from it and the commits made on them
+ */
+class UnitOfWorkTest {
+
+    /**
+     * Hands out the embedded database's connections, counting leases and commits
+     */
+    private static final class CountingConnector implements Connector {
+        private final Connector delegate;
+        private final AtomicInteger leases = new AtomicInteger();
+        private final AtomicInteger commits = new AtomicInteger();
+
+        private CountingConnector(Connector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Connection getConnection() {
+            leases.incrementAndGet();
+            Connection conn = delegate.getConnection();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("commit")) {
+                            commits.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        @Override
+        public void freeConnection() {
+            delegate.freeConnection();
+        }
+
+        @Override
+        public void freeConnection(Connection conn) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                fail("Could not close connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private CountingConnector counting;
+    private TransactionalConnector connector;
+    private GenreDao genreDao;
+
+    @BeforeEach
+    void setupConnector() {
+        counting = new CountingConnector(new EmbeddedConnector("test_embedded_database.properties"));
+        connector = new TransactionalConnector(counting);
+        genreDao = new GenreImpl(connector);
+    }
+
+    @AfterEach
+    void checkUnbound() {
+        assertFalse(UnitOfWork.isActive(), "No unit of work should be left open on the thread");
+    }
+
+    private static Genre genre(String name) {
+        Genre genre = new Genre();
+        genre.setName(name);
+        genre.setDescription(name + " description");
+        return genre;
+    }
+
+    private boolean genreExists(String name) throws SQLException {
+        return genreDao.findAll().stream().anyMatch(genre -> genre.getName().equals(name));
+    }
+
+    /**
+     * DAO calls in a unit of work share one connection and are committed once
+     */
+    @Test
+    void testCommit() throws SQLException {
+        try (UnitOfWork work = connector.begin()) {
+            genreDao.create(genre("UoW Commit A"));
+            genreDao.create(genre("UoW Commit B"));
+            assertTrue(genreExists("UoW Commit A"), "Reads in the unit of work see its own writes");
+            work.commit();
+        }
+        assertEquals(1, counting.leases.get(), "Both writes and the read used one connection");
+        assertEquals(1, counting.commits.get());
+        assertTrue(genreExists("UoW Commit A"));
+        assertTrue(genreExists("UoW Commit B"));
+    }
+
+    /**
+     * Closing without committing rolls the work back
+     */
+    @Test
+    void testRollbackOnClose() throws SQLException {
+        try (UnitOfWork work = connector.begin()) {
+            genreDao.create(genre("UoW Close"));
+        }
+        assertEquals(0, counting.commits.get());
+        assertFalse(genreExists("UoW Close"));
+    }
+
+    /**
+     * inUnitOfWork rolls back and rethrows when the work throws
+     */
+    @Test
+    void testRollbackOnException() throws SQLException {
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> connector.inUnitOfWork(() -> {
+            genreDao.create(genre("UoW Exception"));
+            throw new IllegalStateException("work failed");
+        }));
+        assertEquals("work failed", thrown.getMessage());
+        assertEquals(0, counting.commits.get());
+        assertFalse(genreExists("UoW Exception"));
+
+        assertThrows(SQLException.class, () -> connector.inUnitOfWork(() -> {
+            genreDao.create(genre("UoW Duplicate"));
+            return genreDao.create(genre("UoW Duplicate"));
+        }), "Duplicate name should fail the work");
+        assertFalse(genreExists("UoW Duplicate"));
+    }
+
+    /**
+     * A nested unit of work joins the outer one: same connection, and its commit waits for the outer's
+     */
+    @Test
+    void testNestedUnitOfWorkJoins() throws SQLException {
+        try (UnitOfWork outer = connector.begin()) {
+            Connection outerConnection = UnitOfWork.currentConnection();
+            try (UnitOfWork inner = connector.begin()) {
+                assertSame(outerConnection, UnitOfWork.currentConnection());
+                genreDao.create(genre("UoW Nested"));
+                inner.commit();
+            }
+            assertTrue(UnitOfWork.isActive(), "Closing the inner unit leaves the outer one open");
+            assertEquals(0, counting.commits.get(), "Only the outermost unit commits");
+            assertEquals(1, counting.leases.get());
+        }
+        assertFalse(genreExists("UoW Nested"), "The outer unit was not committed, so neither is the inner one");
+    }
+
+    /**
+     * A nested unit closed without committing marks the whole transaction rollback-only
+     */
+    @Test
+    void testRollbackOnly() throws SQLException {
+        try (UnitOfWork outer = connector.begin()) {
+            genreDao.create(genre("UoW Outer"));
+            try (UnitOfWork inner = connector.begin()) {
+                genreDao.create(genre("UoW Inner"));
+            }
+            assertThrows(SQLException.class, outer::commit);
+        }
+        assertEquals(0, counting.commits.get());
+        assertFalse(genreExists("UoW Outer"));
+        assertFalse(genreExists("UoW Inner"));
+    }
+
+    /**
+     * The playlist lookup, permission check, duplicate check and insert lease one connection and commit once
+     */
+    @Test
+    void testAddSongToPlaylistRunsInOneTransaction() throws SQLException {
+        PlaylistSongDao playlistSongDao = new PlaylistSongImpl(connector);
+        PlaylistServices services = new PlaylistServices(new PlaylistDaoImpl(connector), playlistSongDao, connector);
+
+        PlaylistsSongs added = services.addSongToPlaylist(1, 2, 1);
+        assertTrue(added.getId() > 0);
+        assertEquals(1, counting.leases.get());
+        assertEquals(1, counting.commits.get());
+        assertTrue(playlistSongDao.isSongInPlaylist(1, 2));
+
+        int leases = counting.leases.get();
+        assertThrows(IllegalStateException.class, () -> services.addSongToPlaylist(1, 2, 1));
+        assertEquals(leases + 1, counting.leases.get());
+        assertEquals(1, counting.commits.get(), "A rejected add commits nothing");
+    }
+
+    /**
+     * A request that loses the race - its duplicate check ran before another request's insert committed -
+     * is told the song is already there, not handed the unique-key SQLException
+     */
+    @Test
+    void testConcurrentDuplicateAddIsRejected() throws SQLException {
+        PlaylistSongDao playlistSongDao = new PlaylistSongImpl(connector);
+        PlaylistSongDao raced = (PlaylistSongDao) Proxy.newProxyInstance(PlaylistSongDao.class.getClassLoader(),
+                new Class<?>[]{PlaylistSongDao.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("isSongInPlaylist")) {
+                        return false;
+                    }
+                    try {
+                        return method.invoke(playlistSongDao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        PlaylistServices services = new PlaylistServices(new PlaylistDaoImpl(connector), raced, connector);
+
+        services.addSongToPlaylist(1, 3, 1);
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> services.addSongToPlaylist(1, 3, 1));
+        assertEquals("Song is already in this playlist", thrown.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> services.addSongToPlaylist(Integer.MAX_VALUE, 3, 1));
+    }
+}
@@ -0,0 +1,70 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzySongSearchTest {
+
+    private FuzzySongSearch fuzzy;
+
+    private static SongDetails song(int id, String title, String artist) {
+        return SongDetails.builder().id(id).title(title).artistName(artist).build();
+    }
+
+    @BeforeEach
+    void buildIndex() {
+        SongSearchIndex index = new SongSearchIndex(null, new MockEnvironment());
+        fuzzy = new FuzzySongSearch(index);
+        index.build(List.of(
+                song(10, "Love Story", "Taylor Swift"),
+                song(20, "Story of My Life", "One Direction"),
+                song(30, "Lovely Day", "Bill Withers"),
+                song(40, "Bohemian Rhapsody", "Queen"),
+                song(50, "Shake It Off", "Taylor Swift")));
+    }
+
+    private List<Integer> ids(SongSearchIndex.Field field, String query) {
+        return fuzzy.search(field, query, 10).stream().map(s -> s.getSong().getId()).collect(Collectors.toList());
+    }
+
+    /**
+     * Misspellings within the allowed edits still match, exact matches rank first
+     */
+    @Test
+    void testTyposMatch() {
+        assertTrue(fuzzy.isReady());
+        assertEquals(List.of(10, 50), ids(SongSearchIndex.Field.ARTIST, "tailor swif"));
+        assertEquals(List.of(40), ids(SongSearchIndex.Field.TITLE, "bohemain rapsody"));
+        assertEquals(List.of(10, 20), ids(SongSearchIndex.Field.TITLE, "story"));
+
+        List<ScoredSong> love = fuzzy.search(SongSearchIndex.Field.TITLE, "lovel", 10);
+        assertEquals(List.of(30, 10), love.stream().map(s -> s.getSong().getId()).collect(Collectors.toList()));
+        assertTrue(love.get(0).getScore() > love.get(1).getScore());
+        assertEquals(1.0, fuzzy.search(SongSearchIndex.Field.TITLE, "love story", 1).get(0).getScore(), 1e-6);
+    }
+
+    /**
+     * Too many edits, or an unmatched query term, means no result
+     */
+    @Test
+    void testNoMatch() {
+        assertEquals(List.of(), ids(SongSearchIndex.Field.TITLE, "lvoe"));
+        assertEquals(List.of(), ids(SongSearchIndex.Field.TITLE, "love xylophone"));
+        assertEquals(List.of(), ids(SongSearchIndex.Field.TITLE, " "));
+    }
+
+    @Test
+    void testBoundedDistance() {
+        assertEquals(0, FuzzySongSearch.boundedDistance("queen", "queen", 2));
+        assertEquals(1, FuzzySongSearch.boundedDistance("quen", "queen", 2));
+        assertEquals(2, FuzzySongSearch.boundedDistance("swfit", "swift", 2));
+        assertEquals(3, FuzzySongSearch.boundedDistance("abc", "xyzabc", 2));
+        assertEquals(3, FuzzySongSearch.boundedDistance("kitten", "sitting", 2));
+    }
+}
@@ -0,0 +1,83 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankedSongSearchTest {
+
+    private SongSearchIndex index;
+    private RankedSongSearch ranked;
+
+    private static SongDetails song(int id, String title, String artist, String album, String genre) {
+        return SongDetails.builder().id(id).title(title).artistName(artist).albumTitle(album).genreName(genre).build();
+    }
+
+    @BeforeEach
+    void buildIndex() {
+        index = new SongSearchIndex(null, new MockEnvironment());
+        ranked = new RankedSongSearch(index, new MockEnvironment());
+        index.build(List.of(
+                song(10, "Love Me Like You Do", "Ellie Goulding", "Delirium", "Pop"),
+                song(20, "Love", "Lana Del Rey", "Lust for Life", "Pop"),
+                song(30, "Crazy in Love", "Beyonce", "Dangerously in Love", "R&B"),
+                song(40, "Lovely", "Billie Eilish", "Lovely", "Pop"),
+                song(50, "Bohemian Rhapsody", "Queen", "A Night at the Opera", "Rock"),
+                song(60, "Somebody to Love", "Queen", "A Day at the Races", "Rock")));
+    }
+
+    private List<Integer> ids(String query, int limit) {
+        return ranked.search(query, limit).stream().map(s -> s.getSong().getId()).collect(Collectors.toList());
+    }
+
+    /**
+     * A term in several fields beats one in a single field, short fields beat long ones,
+     * and songs matching more query terms rank higher
+     */
+    @Test
+    void testRanking() {
+        assertTrue(ranked.isReady());
+        List<Integer> love = ids("love", 10);
+        assertEquals(30, love.get(0), "love in both title and album");
+        assertEquals(List.of(30, 40, 20, 60, 10), love);
+
+        List<ScoredSong> scored = ranked.search("love", 10);
+        for (int i = 1; i < scored.size(); i++) {
+            assertTrue(scored.get(i - 1).getScore() > scored.get(i).getScore());
+        }
+        assertEquals(List.of(60, 50), ids("queen love", 2));
+        assertEquals(List.of(50, 60), ids("rock rhapsody", 10));
+    }
+
+    /**
+     * Only the best limit results are returned, and a term added after the build is found
+     */
+    @Test
+    void testLimitAndUpdates() {
+        assertEquals(List.of(30, 40), ids("love", 2));
+        assertEquals(List.of(), ids("xylophone", 10));
+        assertEquals(List.of(), ids(" ", 10));
+
+        index.put(song(70, "Xylophone Love", "Nobody", "Untitled", "Jazz"));
+        assertEquals(List.of(70), ids("xylophone", 10));
+    }
+
+    /**
+     * A boost of 0 leaves a field out of the search
+     */
+    @Test
+    void testBoosts() {
+        RankedSongSearch titlesOnly = new RankedSongSearch(index, new MockEnvironment()
+                .withProperty("search.ranked.boost.artist", "0")
+                .withProperty("search.ranked.boost.album", "0")
+                .withProperty("search.ranked.boost.genre", "0"));
+        titlesOnly.rebuild();
+        assertEquals(List.of(), titlesOnly.search("queen", 10));
+        assertEquals(1, titlesOnly.search("rhapsody", 10).size());
+    }
+}
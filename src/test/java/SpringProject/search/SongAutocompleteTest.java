@@ -0,0 +1,130 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.PlaylistSongDao;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongAutocompleteTest {
+
+    private SongSearchIndex index;
+    private SongAutocomplete autocomplete;
+
+    private static SongDetails song(int id, String title, int artistId, String artist) {
+        return SongDetails.builder().id(id).title(title).artistId(artistId).artistName(artist).build();
+    }
+
+    /**
+     * A PlaylistSongDao answering only countPlaylistsPerSong()
+     */
+    private static PlaylistSongDao playlistCounts(Map<Integer, Integer> counts) {
+        return (PlaylistSongDao) Proxy.newProxyInstance(PlaylistSongDao.class.getClassLoader(),
+                new Class<?>[]{PlaylistSongDao.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("countPlaylistsPerSong")) {
+                        return counts;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @BeforeEach
+    void buildIndex() {
+        index = new SongSearchIndex(null, new MockEnvironment());
+        autocomplete = new SongAutocomplete(index, playlistCounts(Map.of(10, 5, 30, 9, 40, 1)));
+        index.build(List.of(
+                song(10, "Love Story", 1, "Taylor Swift"),
+                song(20, "Lover", 1, "Taylor Swift"),
+                song(30, "Lovely Day", 2, "Bill Withers"),
+                song(40, "Love Me Do", 3, "The Beatles"),
+                song(50, "Don't Stop Me Now", 4, "Queen")));
+    }
+
+    private List<String> texts(String prefix, int limit) {
+        return autocomplete.complete(prefix, limit).stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+
+    /**
+     * Completions come back most popular first and rebuild whenever the index is built
+     */
+    @Test
+    void testRankedByPopularity() {
+        assertTrue(autocomplete.isReady());
+        assertEquals(List.of("Lovely Day", "Love Story", "Love Me Do", "Lover"), texts("lov", 10));
+        assertEquals(List.of("Lovely Day", "Love Story"), texts("LOV", 2));
+
+        // Artist weight is the sum of its songs: 6 + 1
+        List<Suggestion> taylor = autocomplete.complete("tay", 5);
+        assertEquals(1, taylor.size());
+        assertEquals(Suggestion.Type.ARTIST, taylor.get(0).getType());
+        assertEquals(7, taylor.get(0).getWeight());
+    }
+
+    /**
+     * Prefixes are normalized like search terms; a trailing space means a whole word was typed
+     */
+    @Test
+    void testPrefixNormalization() {
+        assertEquals(List.of("Don't Stop Me Now"), texts("dont s", 5));
+        assertEquals(List.of("Love Story", "Love Me Do"), texts("love ", 5));
+        assertEquals(List.of(), texts("lovex", 5));
+        assertEquals(List.of(), texts("  ", 5));
+        assertEquals(List.of(), texts("lov", 0));
+    }
+
+    /**
+     * The trie agrees with a brute-force scan on random keys and prefixes
+     */
+    @Test
+    void testTrieMatchesBruteForce() {
+        Random random = new Random(12);
+        String[] keys = random.ints(2_000, 0, 200_000)
+                .distinct()
+                .mapToObj(n -> Integer.toString(n, 5))
+                .toArray(String[]::new);
+        int[] weights = random.ints(keys.length, 0, 1_000).toArray();
+        CompletionTrie trie = CompletionTrie.build(keys, weights);
+
+        int[] out = new int[8];
+        for (int q = 0; q < 500; q++) {
+            String prefix = Integer.toString(random.nextInt(2_000), 5);
+            int found = trie.complete(prefix, out);
+
+            int[] expected = java.util.stream.IntStream.range(0, keys.length)
+                    .filter(i -> keys[i].startsWith(prefix))
+                    .map(i -> weights[i])
+                    .boxed()
+                    .sorted((a, b) -> b - a)
+                    .limit(out.length)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertEquals(expected.length, found, prefix);
+            for (int i = 0; i < found; i++) {
+                assertTrue(keys[out[i]].startsWith(prefix));
+                assertEquals(expected[i], weights[out[i]], prefix);
+            }
+        }
+        assertTrue(trie.memoryBytes() > 0);
+    }
+
+    /**
+     * An empty catalog builds an empty trie that completes nothing
+     */
+    @Test
+    void testEmptyCatalog() {
+        CompletionTrie trie = CompletionTrie.build(new String[0], new int[0]);
+        assertEquals(0, trie.complete("", new int[8]));
+        assertEquals(0, trie.complete("lov", new int[8]));
+
+        index.build(List.of());
+        assertTrue(autocomplete.isReady());
+        assertEquals(List.of(), texts("lov", 10));
+    }
+}
@@ -0,0 +1,148 @@
+package SpringProject.search;
+
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.Connector;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDao;
+import SpringProject.persistences.SongDaoImpl;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SongSearchIndexTest {
+
+    private SongSearchIndex index;
+
+    private static SongDetails song(int id, String title, String artist, String album, int genreId, String genre) {
+        return SongDetails.builder()
+                .id(id)
+                .title(title)
+                .artistName(artist)
+                .albumTitle(album)
+                .genreId(genreId)
+                .genreName(genre)
+                .build();
+    }
+
+    @BeforeEach
+    void buildIndex() {
+        index = new SongSearchIndex(null, new MockEnvironment());
+        index.build(List.of(
+                song(10, "Love Story", "Taylor Swift", "Fearless", 1, "Pop"),
+                song(20, "Story of My Life", "One Direction", "Midnight Memories", 1, "Pop"),
+                song(30, "Lovely Day", "Bill Withers", "Menagerie", 2, "Soul"),
+                song(40, "Café del Mar", "Energy 52", "Café del Mar", 3, "Trance"),
+                song(50, "Don't Stop Me Now", "Queen", "Jazz", 4, "Rock")));
+    }
+
+    /**
+     * Every query term must prefix-match a term of the field, in any order
+     */
+    @Test
+    void testPrefixTermsAreIntersected() {
+        assertTrue(index.isReady());
+        assertArrayEquals(new int[]{10, 30}, index.searchIds(SongSearchIndex.Field.TITLE, "lov"));
+        assertArrayEquals(new int[]{10}, index.searchIds(SongSearchIndex.Field.TITLE, "story LOVE"));
+        assertArrayEquals(new int[]{10, 20}, index.searchIds(SongSearchIndex.Field.GENRE, "pop"));
+        assertArrayEquals(new int[0], index.searchIds(SongSearchIndex.Field.TITLE, "love night"));
+        assertArrayEquals(new int[0], index.searchIds(SongSearchIndex.Field.TITLE, "  "));
+    }
+
+    /**
+     * Accents and apostrophes don't have to be typed
+     */
+    @Test
+    void testNormalization() {
+        assertArrayEquals(new int[]{40}, index.searchIds(SongSearchIndex.Field.ALBUM, "cafe"));
+        assertArrayEquals(new int[]{50}, index.searchIds(SongSearchIndex.Field.TITLE, "dont stop"));
+        assertArrayEquals(new int[]{50}, index.searchIds(SongSearchIndex.Field.ARTIST, "queen"));
+    }
+
+    /**
+     * put/remove/renameGenre keep the postings current
+     */
+    @Test
+    void testWrites() {
+        index.put(song(5, "Love Me Do", "The Beatles", "Please Please Me", 4, "Rock"));
+        assertArrayEquals(new int[]{5, 10, 30}, index.searchIds(SongSearchIndex.Field.TITLE, "love"));
+
+        index.remove(10);
+        assertArrayEquals(new int[]{5, 30}, index.searchIds(SongSearchIndex.Field.TITLE, "love"));
+        assertNull(index.get(10));
+
+        index.renameGenre(4, "Classic Rock");
+        assertArrayEquals(new int[]{5, 50}, index.searchIds(SongSearchIndex.Field.GENRE, "classic"));
+        assertEquals("Classic Rock", index.get(50).getGenreName());
+    }
+
+    /**
+     * Songs inserted after the index was built become searchable on the next catch-up
+     */
+    @Test
+    void testCatchUpIndexesNewSongs() throws SQLException {
+        Connector connector = new EmbeddedConnector("test_embedded_database.properties");
+        SongSearchIndex loaded = new SongSearchIndex(new SongDaoImpl(connector), new MockEnvironment());
+        loaded.load();
+        int indexed = loaded.size();
+        assertEquals(0, loaded.catchUp());
+
+        Connection conn = connector.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO songs (title, artistId, albumId, genreId, durationSeconds, releaseYear) VALUES ('Zanzibar Nights', 1, 1, 2, 200, 2024)")) {
+            ps.executeUpdate();
+        } finally {
+            connector.freeConnection(conn);
+        }
+        assertEquals(0, loaded.searchIds(SongSearchIndex.Field.TITLE, "zanzibar").length);
+        assertEquals(1, loaded.catchUp());
+        assertEquals(indexed + 1, loaded.size());
+        assertEquals(1, loaded.searchIds(SongSearchIndex.Field.TITLE, "zanzibar").length);
+        assertEquals(0, loaded.catchUp());
+    }
+
+    /**
+     * An empty catalog gives a ready, empty index that picks up songs added later, and a failing derived
+     * search doesn't stop the others from being rebuilt
+     */
+    @Test
+    void testEmptyCatalogCatchesUp() {
+        List<SongDetails> catalog = new ArrayList<>();
+        SongDao songDao = (SongDao) Proxy.newProxyInstance(SongDao.class.getClassLoader(), new Class<?>[]{SongDao.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllDetails" -> new ArrayList<>(catalog);
+                    case "findDetailsPage" -> catalog.stream()
+                            .filter(song -> song.getId() > (int) args[0])
+                            .limit((int) args[1])
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        SongSearchIndex empty = new SongSearchIndex(songDao, new MockEnvironment());
+        AtomicInteger rebuilds = new AtomicInteger();
+        empty.onBuild(() -> {
+            throw new IllegalStateException("derived search failed");
+        });
+        empty.onBuild(rebuilds::incrementAndGet);
+
+        empty.load();
+        assertTrue(empty.isReady());
+        assertEquals(0, empty.size());
+        assertEquals(1, rebuilds.get());
+
+        catalog.add(song(7, "Imported Song", "New Artist", "New Album", 1, "Pop"));
+        catalog.add(song(8, "Another Import", "New Artist", "New Album", 1, "Pop"));
+        assertEquals(2, empty.catchUp());
+        assertArrayEquals(new int[]{7, 8}, empty.searchIds(SongSearchIndex.Field.ARTIST, "new artist"));
+        assertEquals(2, rebuilds.get(), "Derived searches are rebuilt after a catch-up that added songs");
+        assertEquals(0, empty.catchUp());
+        assertEquals(2, rebuilds.get());
+    }
+}
@@ -0,0 +1,38 @@
+package SpringProject.services;
+
+import SpringProject.entities.Song;
+import SpringProject.entities.SongBatch;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDao;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.SongSearchIndex;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch lookups keep the caller's order, drop duplicates and report what wasn't found
+ */
+class SongBatchTest {
+
+    @Test
+    void testOrderAndMissingIds() {
+        SongDao songDao = new SongDaoImpl(new EmbeddedConnector("test_embedded_database.properties"));
+        SongServices songServices = new SongServices(songDao, new SongSearchIndex(songDao, new MockEnvironment()), null, null, null);
+        List<Song> all = new ArrayList<>(songDao.findAll());
+        all.sort(Comparator.comparingInt(Song::getId));
+        assertTrue(all.size() >= 3, "Test dataset should contain songs");
+        Song first = all.get(0);
+        Song second = all.get(1);
+        Song last = all.get(all.size() - 1);
+
+        SongBatch batch = songServices.getSongsByIds(List.of(last.getId(), 999_999, first.getId(), last.getId(), second.getId(), 999_999));
+        assertEquals(List.of(last, first, second), batch.getSongs());
+        assertEquals(List.of(999_999), batch.getMissingIds());
+    }
+}
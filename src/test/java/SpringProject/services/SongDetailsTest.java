@@ -0,0 +1,65 @@
+package SpringProject.services;
+
+import SpringProject.entities.Page;
+import SpringProject.entities.SongDetails;
+import SpringProject.persistences.EmbeddedConnector;
+import SpringProject.persistences.SongDao;
+import SpringProject.persistences.SongDaoImpl;
+import SpringProject.search.SongSearchIndex;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Songs with resolved names read the same from the joined query and from the in-memory index
+ */
+class SongDetailsTest {
+
+    private SongDao songDao;
+    private SongSearchIndex index;
+    private SongServices songServices;
+
+    @BeforeEach
+    void setUp() {
+        songDao = new SongDaoImpl(new EmbeddedConnector("test_embedded_database.properties"));
+        index = new SongSearchIndex(songDao, new MockEnvironment());
+        songServices = new SongServices(songDao, index, null, null, null);
+    }
+
+    private List<SongDetails> readAllPages(int limit) {
+        List<SongDetails> songs = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<SongDetails> page = songServices.getSongDetailsPage(cursor, limit);
+            assertTrue(page.getItems().size() <= limit);
+            songs.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return songs;
+    }
+
+    @Test
+    void testDetailsFromDatabaseAndIndex() {
+        List<SongDetails> all = songDao.findAllDetails();
+        assertFalse(all.isEmpty(), "Test dataset should contain songs");
+        SongDetails first = all.get(0);
+        assertNotNull(first.getArtistName());
+        assertNotNull(first.getGenreName());
+
+        assertFalse(index.isReady());
+        assertEquals(first, songServices.getSongDetails(first.getId()));
+        assertNull(songServices.getSongDetails(999_999));
+        assertEquals(all, readAllPages(2));
+
+        index.load();
+        assertTrue(index.isReady());
+        assertEquals(first, songServices.getSongDetails(first.getId()));
+        assertNull(songServices.getSongDetails(999_999));
+        assertEquals(all, readAllPages(2));
+        assertEquals(all, readAllPages(SongServices.MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,67 @@
+package SpringProject.services;
+
+import SpringProject.entities.FacetValue;
+import SpringProject.entities.SongDetails;
+import SpringProject.entities.SongFacets;
+import SpringProject.search.SongSearchIndex;
+import org.junit.jupiter.api.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Facet counts over search results, computed from the search index
+ */
+class SongFacetsTest {
+
+    private SongServices songServices;
+
+    private static SongDetails song(int id, String title, int artistId, String artist, int genreId, String genre, int year) {
+        return SongDetails.builder().id(id).title(title).artistId(artistId).artistName(artist)
+                .genreId(genreId).genreName(genre).releaseYear(year).build();
+    }
+
+    @BeforeEach
+    void buildIndex() {
+        SongSearchIndex index = new SongSearchIndex(null, new MockEnvironment());
+        index.build(List.of(
+                song(1, "Love Story", 1, "Taylor Swift", 2, "Pop", 2008),
+                song(2, "Lovesong", 2, "The Cure", 1, "Rock", 1989),
+                song(3, "Love Will Tear Us Apart", 3, "Joy Division", 1, "Rock", 1980),
+                song(4, "Crazy in Love", 4, "Beyonce", 3, "R&B", 2003),
+                song(5, "Love Me Do", 5, "The Beatles", 1, "Rock", 1962),
+                song(6, "Shake It Off", 1, "Taylor Swift", 2, "Pop", 2014)));
+        songServices = new SongServices(null, index, null, null, null);
+    }
+
+    /**
+     * Values are ordered by count, ties by the lower value, and carry their names
+     */
+    @Test
+    void testCountsPerFacet() {
+        SongFacets facets = songServices.searchFacets(SongSearchIndex.Field.TITLE, "love", 10);
+        assertEquals(5, facets.getTotal());
+        assertEquals(List.of(new FacetValue(1, "Rock", 3), new FacetValue(2, "Pop", 1), new FacetValue(3, "R&B", 1)),
+                facets.getGenres());
+        assertEquals(List.of(new FacetValue(1980, "1980s", 2), new FacetValue(2000, "2000s", 2),
+                new FacetValue(1960, "1960s", 1)), facets.getDecades());
+        assertEquals(5, facets.getArtists().size());
+    }
+
+    /**
+     * The limit caps each facet; no matches means empty facets
+     */
+    @Test
+    void testLimitAndNoMatches() {
+        SongFacets facets = songServices.searchFacets(SongSearchIndex.Field.ARTIST, "taylor", 1);
+        assertEquals(2, facets.getTotal());
+        assertEquals(List.of(new FacetValue(1, "Taylor Swift", 2)), facets.getArtists());
+        assertEquals(List.of(new FacetValue(2000, "2000s", 1)), facets.getDecades());
+
+        SongFacets none = songServices.searchFacets(SongSearchIndex.Field.TITLE, "xylophone", 10);
+        assertEquals(0, none.getTotal());
+        assertTrue(none.getGenres().isEmpty() && none.getDecades().isEmpty() && none.getArtists().isEmpty());
+    }
+}